@@ -0,0 +1,24 @@
+package oopnet.chess.benchmarks;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.notation.Fen;
+
+/**
+ * The positions used by the benchmarks. The same positions are used every time so the results are comparable.
+ */
+final class BenchmarkPositions {
+
+    // Has all piece types with many moves, captures, pins, castling and en passant
+    static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private BenchmarkPositions() {
+    }
+
+    static Chessboard kiwipete() {
+        return Fen.parse(KIWIPETE);
+    }
+
+    static Chessboard startPosition() {
+        return Fen.parse(Fen.DEFAULT);
+    }
+}
@@ -0,0 +1,74 @@
+package oopnet.chess.benchmarks;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.Position;
+import oopnet.chess.core.engine.Evaluator;
+import oopnet.chess.core.engine.MaterialEvaluator;
+import oopnet.chess.core.engine.PieceSquareEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small helpers that are called in loops all over the code, and the static evaluation
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChessboardBenchmark {
+
+    private final Evaluator evaluator = new PieceSquareEvaluator();
+    private final Evaluator materialEvaluator = new MaterialEvaluator();
+    private Chessboard chessboard;
+    private Position[] positions;
+
+    @Setup
+    public void setup() {
+        chessboard = BenchmarkPositions.startPosition();
+        positions = new Position[64];
+        for (int i = 0; i < positions.length; i++) {
+            // New instances rather than the cached ones, like the ones sent over the network
+            positions[i] = new Position(i / 8 + 1, i % 8 + 1);
+        }
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return evaluator.evaluate(chessboard);
+    }
+
+    @Benchmark
+    public int evaluateMaterial() {
+        return materialEvaluator.evaluate(chessboard);
+    }
+
+    @Benchmark
+    public List<?> getPiecesList() {
+        return chessboard.getPiecesList();
+    }
+
+    /**
+     * @return the sum of the hash codes of all 64 positions
+     */
+    @Benchmark
+    public int positionHashCode() {
+        int sum = 0;
+        for (Position position : positions) {
+            sum += position.hashCode();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,53 @@
+package oopnet.chess.benchmarks;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.notation.Fen;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing FEN strings, as positions per second. Parsing to a new chessboard includes allocating the board.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FenBenchmark {
+
+    private final StringBuilder builder = new StringBuilder(90);
+    private Chessboard chessboard;
+
+    @Setup
+    public void setup() {
+        chessboard = BenchmarkPositions.kiwipete();
+    }
+
+    @Benchmark
+    public Chessboard parse() {
+        return Fen.parse(BenchmarkPositions.KIWIPETE);
+    }
+
+    @Benchmark
+    public Chessboard parseToExistingBoard() {
+        Fen.parse(BenchmarkPositions.KIWIPETE, chessboard);
+        return chessboard;
+    }
+
+    @Benchmark
+    public StringBuilder write() {
+        builder.setLength(0);
+        return Fen.append(chessboard, builder);
+    }
+}
@@ -0,0 +1,164 @@
+package oopnet.chess.benchmarks;
+
+import oopnet.chess.core.event.EventFrames;
+import oopnet.chess.core.event.TokenTransmitEvent;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a lot of connections to a running server and keeps them idle. A connection counts when the server has sent
+ * its token, so the server has a thread (or a channel) handling it. The connections are opened with one thread, the
+ * server is the only one that needs resources per connection.
+ * <pre>
+ *     java -cp benchmarks/target/benchmarks.jar oopnet.chess.benchmarks.IdleConnectionsLoadTest \
+ *         [host] [port] [connections] [hold seconds] [local addresses...]
+ * </pre>
+ * The defaults are localhost 8080 100000 60. A local address has about 28K ephemeral ports, so more than one is
+ * needed for 100K connections to the same server, e.g. 127.0.0.1 127.0.0.2 127.0.0.3 127.0.0.4 on Linux. Both the
+ * server and this need a large enough open file limit ({@code ulimit -n}).
+ * <br>
+ * For the virtual thread mode, set {@code blocking.executor=virtual} in server.properties and run the server with
+ * Java 21, e.g. with {@code -Djdk.tracePinnedThreads=short} to print the stack traces of pinned threads.
+ */
+public class IdleConnectionsLoadTest {
+
+    // Limits the connects in progress, the server's accept backlog is 50 by default and the dropped connects are only
+    // retried after a second
+    private static final int MAX_PENDING = 32;
+
+    private final Selector selector;
+    private final ByteBuffer discard = ByteBuffer.allocate(64);
+    private final InetSocketAddress server;
+    private final InetAddress[] localAddresses;
+    private int opened;
+    private int pending;
+    private int connected;
+    private int failed;
+    private int closed;
+
+    private IdleConnectionsLoadTest(InetSocketAddress server, InetAddress[] localAddresses) throws IOException {
+        this.selector = Selector.open();
+        this.server = server;
+        this.localAddresses = localAddresses;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        long holdSeconds = args.length > 3 ? Long.parseLong(args[3]) : 60;
+        InetAddress[] localAddresses = new InetAddress[Math.max(0, args.length - 4)];
+        for (int i = 0; i < localAddresses.length; i++) {
+            localAddresses[i] = InetAddress.getByName(args[4 + i]);
+        }
+        new IdleConnectionsLoadTest(new InetSocketAddress(host, port), localAddresses).run(connections, holdSeconds);
+    }
+
+    private void run(int connections, long holdSeconds) throws IOException {
+        long start = System.nanoTime();
+        long report = start;
+        while (connected + failed < connections) {
+            while (opened < connections && pending < MAX_PENDING) {
+                open();
+            }
+            poll();
+            long now = System.nanoTime();
+            if (now - report > TimeUnit.SECONDS.toNanos(1)) {
+                report = now;
+                System.out.printf("%d connected, %d failed%n", connected, failed);
+            }
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.printf("%d connections in %d ms (%.0f/s), %d failed%n", connected, millis,
+                connected * 1000.0 / Math.max(1, millis), failed);
+
+        // Keep the connections idle, only the closed ones are read
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(holdSeconds);
+        while (System.nanoTime() < end) {
+            poll();
+        }
+        System.out.printf("%d of %d connections were still open after %d s%n", connected - closed, connected,
+                holdSeconds);
+    }
+
+    private void open() throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        if (localAddresses.length > 0) {
+            channel.bind(new InetSocketAddress(localAddresses[opened % localAddresses.length], 0));
+        }
+        opened++;
+        pending++;
+        try {
+            if (channel.connect(server)) {
+                channel.register(selector, SelectionKey.OP_READ, new EventFrames.Decoder(256));
+            } else {
+                channel.register(selector, SelectionKey.OP_CONNECT, new EventFrames.Decoder(256));
+            }
+        } catch (IOException e) {
+            fail(channel, e);
+        }
+    }
+
+    private void poll() throws IOException {
+        selector.select(100);
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            SocketChannel channel = (SocketChannel) key.channel();
+            try {
+                if (key.isConnectable()) {
+                    channel.finishConnect();
+                    key.interestOps(SelectionKey.OP_READ);
+                } else if (key.isReadable()) {
+                    read(key, channel);
+                }
+            } catch (IOException e) {
+                if (key.attachment() != null) {
+                    fail(channel, e);
+                } else {
+                    closed++;
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    private void read(SelectionKey key, SocketChannel channel) throws IOException {
+        EventFrames.Decoder decoder = (EventFrames.Decoder) key.attachment();
+        if (decoder == null) {
+            // An idle connection is only readable if the server closed it
+            discard.clear();
+            if (channel.read(discard) < 0) {
+                throw new IOException("Closed by the server");
+            }
+            return;
+        }
+        if (channel.read(decoder.getBuffer()) < 0) {
+            throw new IOException("Closed by the server");
+        }
+        if (decoder.next() instanceof TokenTransmitEvent) {
+            // The server is handling the connection, keep it idle without a buffer
+            key.attach(null);
+            pending--;
+            connected++;
+        }
+    }
+
+    private void fail(SocketChannel channel, IOException e) throws IOException {
+        if (failed++ == 0) {
+            System.out.println("First failure: " + e);
+        }
+        pending--;
+        channel.close();
+    }
+}
@@ -0,0 +1,68 @@
+package oopnet.chess.benchmarks;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.pieces.ChessPiece;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation of a single white piece of each type in the Kiwipete position, with the {@link
+ * ChessPiece#getLegalMovePositions(Chessboard)} API and the allocation-free {@link MoveGenerator}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LegalMovesBenchmark {
+
+    @Param({"PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING"})
+    private ChessPiece.Type type;
+
+    private Chessboard chessboard;
+    private ChessPiece piece;
+    private final MoveList moves = new MoveList();
+
+    @Setup
+    public void setup() {
+        chessboard = BenchmarkPositions.kiwipete();
+        for (ChessPiece p : chessboard.getPiecesList()) {
+            if (p != null && p.getType() == type && p.getColor() == ChessPiece.Color.WHITE) {
+                piece = p;
+                break;
+            }
+        }
+    }
+
+    @Benchmark
+    public Set<?> getLegalMovePositions() {
+        return piece.getLegalMovePositions(chessboard);
+    }
+
+    @Benchmark
+    public int generateMoves() {
+        moves.clear();
+        return piece.generateMoves(chessboard, moves);
+    }
+
+    @Benchmark
+    public int generateAllMoves() {
+        moves.clear();
+        return MoveGenerator.generate(chessboard, moves);
+    }
+}
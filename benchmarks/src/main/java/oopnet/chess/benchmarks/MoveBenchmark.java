@@ -0,0 +1,103 @@
+package oopnet.chess.benchmarks;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.Move;
+import oopnet.chess.core.Position;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.notation.San;
+import oopnet.chess.core.pieces.ChessPiece;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating {@link Move}s and writing and parsing them in algebraic notation. Each operation handles every legal move
+ * of white in the Kiwipete position (48 moves).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveBenchmark {
+
+    private Chessboard chessboard;
+    private ChessPiece[] pieces;
+    private Position[] targets;
+    private Move[] moves;
+    private int[] encodedMoves;
+    private String[] sans;
+    private final StringBuilder builder = new StringBuilder();
+
+    @Setup
+    public void setup() {
+        chessboard = BenchmarkPositions.kiwipete();
+        List<ChessPiece> pieceList = new ArrayList<>();
+        List<Position> targetList = new ArrayList<>();
+        for (ChessPiece piece : chessboard.getPiecesList()) {
+            if (piece != null && piece.getColor() == ChessPiece.Color.WHITE) {
+                for (Position to : piece.getLegalMovePositions(chessboard)) {
+                    pieceList.add(piece);
+                    targetList.add(to);
+                }
+            }
+        }
+        pieces = pieceList.toArray(new ChessPiece[0]);
+        targets = targetList.toArray(new Position[0]);
+        moves = new Move[pieces.length];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = new Move(chessboard, pieces[i], targets[i]);
+        }
+        MoveList list = new MoveList();
+        MoveGenerator.generateLegal(chessboard, list);
+        encodedMoves = Arrays.copyOf(list.getMoves(), list.size());
+        sans = new String[encodedMoves.length];
+        for (int i = 0; i < sans.length; i++) {
+            sans[i] = San.toString(chessboard, encodedMoves[i]);
+        }
+    }
+
+    @Benchmark
+    public void constructor(Blackhole blackhole) {
+        for (int i = 0; i < pieces.length; i++) {
+            blackhole.consume(new Move(chessboard, pieces[i], targets[i]));
+        }
+    }
+
+    @Benchmark
+    public void toAlgebraicNotation(Blackhole blackhole) {
+        for (Move move : moves) {
+            blackhole.consume(move.toString(chessboard));
+        }
+    }
+
+    @Benchmark
+    public void writeSan(Blackhole blackhole) {
+        for (int move : encodedMoves) {
+            builder.setLength(0);
+            blackhole.consume(San.append(chessboard, move, builder));
+        }
+    }
+
+    @Benchmark
+    public void parseSan(Blackhole blackhole) {
+        for (String san : sans) {
+            blackhole.consume(San.parse(chessboard, san));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package oopnet.chess.benchmarks;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.engine.NnueEvaluator;
+import oopnet.chess.core.engine.NnueNetwork;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The NNUE evaluator with a random network: a move and an evaluation with incremental accumulator updates, and an
+ * evaluation that recomputes the accumulators from scratch
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NnueBenchmark {
+
+    @Param({"256"})
+    public int hiddenSize;
+
+    private Path file;
+    private NnueEvaluator evaluator;
+    private Chessboard chessboard;
+    private int[] moves;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Random random = new Random(1);
+        short[] biases = new short[hiddenSize];
+        short[] weights = new short[NnueNetwork.FEATURES * hiddenSize];
+        short[] outputWeights = new short[2 * hiddenSize];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (short) (random.nextInt(33) - 16);
+        }
+        for (int i = 0; i < outputWeights.length; i++) {
+            outputWeights[i] = (short) (random.nextInt(129) - 64);
+        }
+        file = Files.createTempFile("benchmark", ".nnue");
+        NnueNetwork.write(file, biases, weights, outputWeights, 0);
+        evaluator = new NnueEvaluator(NnueNetwork.load(file));
+        chessboard = BenchmarkPositions.kiwipete();
+        MoveList list = new MoveList();
+        MoveGenerator.generateLegal(chessboard, list);
+        moves = Arrays.copyOf(list.getMoves(), list.size());
+        evaluator.evaluate(chessboard);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int makeEvaluateUnmake() {
+        chessboard.makeMove(moves[index++ % moves.length]);
+        int score = evaluator.evaluate(chessboard);
+        chessboard.unmakeMove();
+        return score;
+    }
+
+    @Benchmark
+    public int evaluateRefresh() {
+        evaluator.piecesReset();
+        return evaluator.evaluate(chessboard);
+    }
+}
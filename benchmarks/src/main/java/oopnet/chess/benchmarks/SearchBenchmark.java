@@ -0,0 +1,82 @@
+package oopnet.chess.benchmarks;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.engine.Search;
+import oopnet.chess.core.engine.SearchLimits;
+import oopnet.chess.core.engine.SearchResult;
+import oopnet.chess.core.engine.TranspositionTable;
+import oopnet.chess.core.notation.Fen;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-depth searches of a few positions. The {@code nodes} counter is the search speed in nodes per second, the
+ * number to track between changes to move generation, evaluation or search.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    @Param({
+            Fen.DEFAULT,
+            BenchmarkPositions.KIWIPETE,
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"
+    })
+    private String fen;
+
+    @Param({"6"})
+    private int depth;
+
+    private Chessboard chessboard;
+    private TranspositionTable table;
+    private Search search;
+    private SearchLimits limits;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        // Reported per second
+        public long nodes;
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        chessboard = Fen.parse(fen);
+        table = new TranspositionTable(16);
+        search = new Search(table);
+        limits = new SearchLimits().setDepth(depth);
+    }
+
+    /**
+     * Every search starts from an empty table, otherwise the same search would be answered from the table. A search
+     * takes milliseconds so the per-invocation setup doesn't distort the results.
+     */
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        table.clear();
+    }
+
+    @Benchmark
+    public int search(Counters counters) {
+        SearchResult result = search.search(chessboard, limits);
+        counters.nodes += result.getNodes();
+        return result.getBestMove();
+    }
+}
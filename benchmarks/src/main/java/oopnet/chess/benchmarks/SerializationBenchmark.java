@@ -0,0 +1,78 @@
+package oopnet.chess.benchmarks;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.Game;
+import oopnet.chess.core.Move;
+import oopnet.chess.core.Position;
+import oopnet.chess.core.event.Event;
+import oopnet.chess.core.event.EventCodec;
+import oopnet.chess.core.event.GameCreateEvent;
+import oopnet.chess.core.event.PieceMoveEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading the events that are sent most often, see {@link EventCodec}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    private GameCreateEvent gameCreateEvent;
+    private PieceMoveEvent pieceMoveEvent;
+    private byte[] gameCreateBytes;
+    private byte[] pieceMoveBytes;
+
+    @Setup
+    public void setup() {
+        Chessboard chessboard = BenchmarkPositions.startPosition();
+        gameCreateEvent = new GameCreateEvent(new Game(chessboard));
+        Position from = new Position(2, 'e');
+        pieceMoveEvent = new PieceMoveEvent(new Move(chessboard, from.getPiece(chessboard), new Position(4, 'e')));
+        gameCreateBytes = write(gameCreateEvent);
+        pieceMoveBytes = write(pieceMoveEvent);
+    }
+
+    @Benchmark
+    public byte[] writeGameCreateEvent() {
+        return write(gameCreateEvent);
+    }
+
+    @Benchmark
+    public Object readGameCreateEvent() throws IOException {
+        return read(gameCreateBytes);
+    }
+
+    @Benchmark
+    public byte[] writePieceMoveEvent() {
+        return write(pieceMoveEvent);
+    }
+
+    @Benchmark
+    public Object readPieceMoveEvent() throws IOException {
+        return read(pieceMoveBytes);
+    }
+
+    private static byte[] write(Event event) {
+        return EventCodec.encode(event);
+    }
+
+    private static Object read(byte[] bytes) throws IOException {
+        return EventCodec.decode(bytes, 0, bytes.length);
+    }
+}
@@ -11,6 +11,7 @@ import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
@@ -136,8 +137,7 @@ class ChessGameUI extends JFrame implements MouseListener, MouseMotionListener {
             if (event instanceof PieceMoveEvent) {
                 PieceMoveEvent moveEvent = ((PieceMoveEvent) event);
                 game.handleMove(moveEvent);
-                Move move = moveEvent.getMove(game.getChessboard());
-                performMove(move);
+                refreshPieces();
             } else if (event instanceof GameEndEvent) {
                 JOptionPane.showMessageDialog(null, "Game result: " + ((GameEndEvent) event).getGameResult());
                 this.dispose();
@@ -157,40 +157,38 @@ class ChessGameUI extends JFrame implements MouseListener, MouseMotionListener {
             }
             ChessPiece piece = game.getChessboard().getPiecesList().get(i);
             if (piece != null) {
-                // Testing
-                JLabel icon = new JLabel(piece.getIcon());
-                icon.setFont(new Font(icon.getFont().getName(), Font.PLAIN, 70));
-                square.add(icon);
+                square.add(createIcon(piece));
             }
         }
     }
 
-    private void performMove(Move move) {
+    /**
+     * Update the icons of all squares from the game's chessboard. Used after moves as castling, en passant and
+     * promotions change more than the moved piece's squares.
+     */
+    private void refreshPieces() {
         // Might be called from a different thread
         SwingUtilities.invokeLater(() -> {
-            Component from = positionToComponent(move.getFrom());
-            Component to = positionToComponent(move.getTo());
-
-            JPanel fromPanel = ((JPanel) from);
-            JLabel piece = (JLabel) fromPanel.getComponent(0);
-            // Remove the old piece
-            fromPanel.remove(piece);
-            if (to instanceof JLabel) {
-                Container parent = to.getParent();
-                parent.remove(0);
-                parent.add(from);
-            } else {
-                JPanel toPanel = (JPanel) to;
-                if (toPanel.getComponents().length > 0) {
-                    toPanel.remove(0);
+            List<ChessPiece> pieces = game.getChessboard().getPiecesList();
+            for (int i = 0; i < 64; i++) {
+                JPanel square = (JPanel) chessBoard.getComponent(i);
+                square.removeAll();
+                ChessPiece piece = pieces.get(i);
+                if (piece != null) {
+                    square.add(createIcon(piece));
                 }
-                toPanel.add(piece);
             }
             this.revalidate();
             this.repaint();
         });
     }
 
+    private JLabel createIcon(ChessPiece piece) {
+        JLabel icon = new JLabel(piece.getIcon());
+        icon.setFont(new Font(icon.getFont().getName(), Font.PLAIN, 70));
+        return icon;
+    }
+
     public void mousePressed(MouseEvent e) {
         chessPiece = null;
         Component c = chessBoard.findComponentAt(e.getX(), e.getY());
@@ -289,6 +287,7 @@ class ChessGameUI extends JFrame implements MouseListener, MouseMotionListener {
 
             // The server doesn't send the move event to us so call it manually
             game.handleMove(moveEvent);
+            refreshPieces();
             client.getEventManager().sendEvent(moveEvent);
         }
     }
@@ -1,11 +1,14 @@
 package oopnet.chess.client.connection;
 
 import oopnet.chess.core.event.Event;
+import oopnet.chess.core.event.EventFrames;
 import oopnet.chess.core.event.TokenTransmitEvent;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.util.logging.Level;
@@ -19,8 +22,9 @@ public class ServerConnection implements Runnable {
     private InetAddress host;
     private int port;
     private Socket socket;
-    private ObjectOutputStream outputStream;
-    private ObjectInputStream inputStream;
+    // Guarded by itself
+    private OutputStream outputStream;
+    private DataInputStream inputStream;
     private String token;
     private ClientEventManager clientEventManager;
 
@@ -46,8 +50,8 @@ public class ServerConnection implements Runnable {
         }
         try {
             socket = new Socket(host, port);
-            outputStream = new ObjectOutputStream(socket.getOutputStream());
-            inputStream = new ObjectInputStream(socket.getInputStream());
+            outputStream = new BufferedOutputStream(socket.getOutputStream());
+            inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
             if (token != null && token.isEmpty()) {
                 sendEvent(new TokenTransmitEvent(token));
             }
@@ -73,21 +77,17 @@ public class ServerConnection implements Runnable {
         }
     }
 
-    private void doRead() throws IOException, ClassNotFoundException {
-        // Blocks until there's an object
-        Object obj = inputStream.readObject();
-        // Only accept Event objects
-        if (obj instanceof Event) {
-            Event event = ((Event) obj);
-            if (event instanceof TokenTransmitEvent) {
-                // The client sent their token
-                TokenTransmitEvent tokenEvent = (TokenTransmitEvent) event;
-                // Replace current token with the new one
-                token = tokenEvent.getToken();
-                logger.info(String.format("Token updated to %s", token));
-            }
-            clientEventManager.receiveEvent(event);
+    private void doRead() throws IOException {
+        // Blocks until there's an event
+        Event event = EventFrames.read(inputStream);
+        if (event instanceof TokenTransmitEvent) {
+            // The client sent their token
+            TokenTransmitEvent tokenEvent = (TokenTransmitEvent) event;
+            // Replace current token with the new one
+            token = tokenEvent.getToken();
+            logger.info(String.format("Token updated to %s", token));
         }
+        clientEventManager.receiveEvent(event);
     }
 
     /**
@@ -95,12 +95,15 @@ public class ServerConnection implements Runnable {
      *
      * @param event the event to send
      *
-     * @see ObjectOutputStream#writeObject(Object)
+     * @see EventFrames#write(OutputStream, Event)
      */
     public void sendEvent(Event event) {
         // Send the event
         try {
-            outputStream.writeObject(event);
+            // The events are sent asynchronously so they may be sent at the same time
+            synchronized (outputStream) {
+                EventFrames.write(outputStream, event);
+            }
         } catch (IOException e) {
             logger.log(Level.SEVERE, "Failed to send an event", e);
         }
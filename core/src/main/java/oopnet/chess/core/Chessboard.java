@@ -1,7 +1,13 @@
 package oopnet.chess.core;
 
+import oopnet.chess.core.bitboard.Bitboards;
+import oopnet.chess.core.bitboard.PieceSquareTables;
+import oopnet.chess.core.bitboard.Zobrist;
+import oopnet.chess.core.movegen.Moves;
 import oopnet.chess.core.pieces.*;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -11,16 +17,278 @@ import java.util.stream.IntStream;
 
 public class Chessboard implements Serializable {
 
+    // Castling rights, see #getCastlingRights()
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE;
+
+    // The castling rights that are kept when a piece moves from or to the square
+    private static final int[] CASTLING_MASKS = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASKS, ALL_CASTLING);
+        CASTLING_MASKS[0] = ALL_CASTLING & ~WHITE_QUEENSIDE;
+        CASTLING_MASKS[4] = ALL_CASTLING & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASKS[7] = ALL_CASTLING & ~WHITE_KINGSIDE;
+        CASTLING_MASKS[56] = ALL_CASTLING & ~BLACK_QUEENSIDE;
+        CASTLING_MASKS[60] = ALL_CASTLING & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASKS[63] = ALL_CASTLING & ~BLACK_KINGSIDE;
+    }
+
     //[0][0] is a8, [0][7] h8, [7][7] h1 etc
     private ChessPiece[][] pieces = new ChessPiece[8][8];
     private List<ChessPiece> captured = new ArrayList<>();
+    // The same pieces as bitboards, see Bitboards for the square layout
+    // One bitboard for each piece type and color, see ChessPiece#getBitboardIndex()
+    private final long[] bitboards = new long[12];
+    // [color.ordinal()]
+    private final long[] colorOccupancy = new long[2];
+    private long occupied;
+    // The player who is moving now, white starts
+    private ChessPiece.Color sideToMove = ChessPiece.Color.WHITE;
+    private int castlingRights;
+    // The square behind a pawn that just moved two squares or -1
+    private int enPassantSquare = -1;
+    // Moves since the last capture or pawn move, for the fifty-move rule
+    private int halfmoveClock;
+    // Starts at 1 and is incremented after black's move
+    private int fullmoveNumber = 1;
+    // Zobrist hash of the pieces, side to move, castling rights and en passant square, see #getHashKey()
+    private long hashKey;
+    // Sums of the piece-square scores of all pieces (white minus black) and the game phase, see PieceSquareTables
+    private int midgameScore;
+    private int endgameScore;
+    private int phase;
+
+    // The undo stack of makeMove, one entry for each move that can be taken back with unmakeMove
+    // Not serialized, the moves made before serialization can't be taken back
+    private transient int ply;
+    private transient int[] undoMoves;
+    // castling rights | (en passant square + 1) << 4 | pawn has moved << 11 | halfmove clock << 12
+    private transient int[] undoStates;
+    private transient long[] undoHashKeys;
+    private transient ChessPiece[] undoMovedPieces;
+    private transient ChessPiece[] undoCapturedPieces;
+    // Notified whenever a piece is added or removed, e.g. to update an evaluator's own accumulators
+    private transient PieceListener pieceListener;
+
+    {
+        allocateUndoStack();
+    }
 
+    /**
+     * Get the pieces as a two dimensional array. [0][0] is a8, [0][7] h8, [7][7] h1 etc. The array should not be
+     * modified directly as the bitboards would not be updated, use {@link Position#setPiece(Chessboard, ChessPiece)}
+     * or {@link #setPieces(ChessPiece[][])} instead.
+     *
+     * @return the pieces
+     */
     public ChessPiece[][] getPieces() {
         return pieces;
     }
 
     public void setPieces(ChessPiece[][] pieces) {
         this.pieces = pieces;
+        updateBitboards();
+    }
+
+    /**
+     * Get the piece on the given square
+     *
+     * @param square the square index (0-63), see {@link Position#getIndex()}
+     *
+     * @return the piece or null if the square is empty
+     */
+    public ChessPiece getPiece(int square) {
+        return pieces[7 - (square >>> 3)][square & 7];
+    }
+
+    /**
+     * Set the piece on the given square and update the bitboards. Unlike {@link Position#setPiece(Chessboard,
+     * ChessPiece)} this does not call {@link ChessPiece#setPosition(Position)}.
+     *
+     * @param square the square index (0-63), see {@link Position#getIndex()}
+     * @param piece  the piece to set or null to clear the square
+     */
+    public void setPiece(int square, ChessPiece piece) {
+        int i = 7 - (square >>> 3);
+        int j = square & 7;
+        ChessPiece old = pieces[i][j];
+        if (old != null) {
+            removeBits(old.getBitboardIndex(), old.getColor(), square);
+        }
+        pieces[i][j] = piece;
+        if (piece != null) {
+            addBits(piece.getBitboardIndex(), piece.getColor(), square);
+        }
+    }
+
+    private void addBits(int bitboardIndex, ChessPiece.Color color, int square) {
+        long bit = 1L << square;
+        bitboards[bitboardIndex] |= bit;
+        colorOccupancy[color.ordinal()] |= bit;
+        occupied |= bit;
+        hashKey ^= Zobrist.pieceKey(bitboardIndex, square);
+        midgameScore += PieceSquareTables.midgame(bitboardIndex, square);
+        endgameScore += PieceSquareTables.endgame(bitboardIndex, square);
+        phase += PieceSquareTables.phase(bitboardIndex);
+        if (pieceListener != null) {
+            pieceListener.pieceAdded(bitboardIndex, square);
+        }
+    }
+
+    private void removeBits(int bitboardIndex, ChessPiece.Color color, int square) {
+        long bit = ~(1L << square);
+        bitboards[bitboardIndex] &= bit;
+        colorOccupancy[color.ordinal()] &= bit;
+        occupied &= bit;
+        hashKey ^= Zobrist.pieceKey(bitboardIndex, square);
+        midgameScore -= PieceSquareTables.midgame(bitboardIndex, square);
+        endgameScore -= PieceSquareTables.endgame(bitboardIndex, square);
+        phase -= PieceSquareTables.phase(bitboardIndex);
+        if (pieceListener != null) {
+            pieceListener.pieceRemoved(bitboardIndex, square);
+        }
+    }
+
+    /**
+     * Recalculate all bitboards, the hash key and the piece-square scores from {@link #getPieces()}
+     */
+    private void updateBitboards() {
+        // The listener is told about the whole new position at once
+        PieceListener listener = pieceListener;
+        pieceListener = null;
+        Arrays.fill(bitboards, 0L);
+        Arrays.fill(colorOccupancy, 0L);
+        occupied = 0L;
+        midgameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = getPiece(square);
+            if (piece != null) {
+                addBits(piece.getBitboardIndex(), piece.getColor(), square);
+            }
+        }
+        hashKey = computeHashKey();
+        pieceListener = listener;
+        if (listener != null) {
+            listener.piecesReset();
+        }
+    }
+
+    /**
+     * Get the Zobrist hash key of the position. Positions with the same pieces, side to move, castling rights and en
+     * passant square have the same key (and different positions have the same key only with a tiny probability). The
+     * key is updated incrementally whenever the board changes, so this is cheap.
+     *
+     * @return the hash key
+     *
+     * @see Zobrist
+     */
+    public long getHashKey() {
+        return hashKey;
+    }
+
+    /**
+     * Calculate the hash key from scratch. Slow, {@link #getHashKey()} should be used instead. Useful for verifying
+     * the incrementally updated key.
+     *
+     * @return the hash key
+     */
+    public long computeHashKey() {
+        long key = 0L;
+        for (int i = 0; i < bitboards.length; i++) {
+            long bitboard = bitboards[i];
+            while (bitboard != 0) {
+                key ^= Zobrist.pieceKey(i, Bitboards.lowest(bitboard));
+                bitboard = Bitboards.popLowest(bitboard);
+            }
+        }
+        if (sideToMove == ChessPiece.Color.BLACK) {
+            key ^= Zobrist.sideKey();
+        }
+        return key ^ Zobrist.castlingKey(castlingRights) ^ Zobrist.enPassantKey(enPassantSquare);
+    }
+
+    /**
+     * Get the sum of the middlegame piece-square scores of all pieces, updated incrementally whenever a piece is added
+     * or removed
+     *
+     * @return the score in centipawns from white's point of view
+     *
+     * @see PieceSquareTables#midgame(int, int)
+     */
+    public int getMidgameScore() {
+        return midgameScore;
+    }
+
+    /**
+     * Get the sum of the endgame piece-square scores of all pieces, updated incrementally whenever a piece is added or
+     * removed
+     *
+     * @return the score in centipawns from white's point of view
+     *
+     * @see PieceSquareTables#endgame(int, int)
+     */
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    /**
+     * Get the game phase, updated incrementally whenever a piece is added or removed
+     *
+     * @return the phase, {@link PieceSquareTables#MAX_PHASE} in the starting position and 0 with only kings and pawns
+     *
+     * @see PieceSquareTables#phase(int)
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * Get the bitboard of the pieces of the given type and color
+     *
+     * @param type  the type of the pieces
+     * @param color the color of the pieces
+     *
+     * @return the bitboard, see {@link Bitboards}
+     */
+    public long getBitboard(ChessPiece.Type type, ChessPiece.Color color) {
+        return bitboards[type.getBitboardIndex(color)];
+    }
+
+    /**
+     * Get a bitboard by its index
+     *
+     * @param bitboardIndex the index (0-11), see {@link ChessPiece.Type#getBitboardIndex(ChessPiece.Color)}
+     *
+     * @return the bitboard, see {@link Bitboards}
+     */
+    public long getBitboard(int bitboardIndex) {
+        return bitboards[bitboardIndex];
+    }
+
+    /**
+     * Get all squares occupied by the pieces of the given color
+     *
+     * @param color the color of the pieces
+     *
+     * @return the bitboard, see {@link Bitboards}
+     */
+    public long getOccupancy(ChessPiece.Color color) {
+        return colorOccupancy[color.ordinal()];
+    }
+
+    /**
+     * Get all squares that have a piece
+     *
+     * @return the bitboard, see {@link Bitboards}
+     */
+    public long getOccupied() {
+        return occupied;
     }
 
     /**
@@ -34,6 +302,290 @@ public class Chessboard implements Serializable {
         return Arrays.stream(pieces).flatMap(Arrays::stream).collect(Collectors.toList());
     }
 
+    public ChessPiece.Color getSideToMove() {
+        return sideToMove;
+    }
+
+    public void setSideToMove(ChessPiece.Color sideToMove) {
+        if (this.sideToMove != sideToMove) {
+            hashKey ^= Zobrist.sideKey();
+        }
+        this.sideToMove = sideToMove;
+    }
+
+    /**
+     * Get the castling rights. Having the right does not mean castling is currently possible, only that neither the
+     * king nor the rook has moved.
+     *
+     * @return the rights as a combination of {@link #WHITE_KINGSIDE}, {@link #WHITE_QUEENSIDE}, {@link
+     * #BLACK_KINGSIDE} and {@link #BLACK_QUEENSIDE}
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public void setCastlingRights(int castlingRights) {
+        hashKey ^= Zobrist.castlingKey(this.castlingRights) ^ Zobrist.castlingKey(castlingRights);
+        this.castlingRights = castlingRights;
+    }
+
+    /**
+     * Get the en passant target square, i.e. the square a pawn skipped over by moving two squares in the previous
+     * move.
+     *
+     * @return the square index (0-63) or -1 if the previous move was not a two square pawn move
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    public void setEnPassantSquare(int enPassantSquare) {
+        hashKey ^= Zobrist.enPassantKey(this.enPassantSquare) ^ Zobrist.enPassantKey(enPassantSquare);
+        this.enPassantSquare = enPassantSquare;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public void setFullmoveNumber(int fullmoveNumber) {
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * Make a move on this board. Moves the pieces (including the rook when castling and the captured pawn with en
+     * passant), promotes pawns and updates the side to move, castling rights, en passant square and move counters. The
+     * move can be taken back with {@link #unmakeMove()}.
+     * <br>
+     * The move is not validated, it should come from {@link oopnet.chess.core.movegen.MoveGenerator}.
+     *
+     * @param move the encoded move, see {@link Moves}
+     *
+     * @return the captured piece or null if nothing was captured
+     */
+    public ChessPiece makeMove(int move) {
+        int from = Moves.getFrom(move);
+        int to = Moves.getTo(move);
+        int flags = Moves.getFlags(move);
+        ChessPiece piece = getPiece(from);
+        int capturedSquare = flags == Moves.EN_PASSANT ? enPassantCaptureSquare(to) : to;
+        ChessPiece captured = getPiece(capturedSquare);
+
+        // Push the undo record
+        if (ply == undoMoves.length) {
+            growUndoStack();
+        }
+        boolean pawnMoved = piece instanceof Pawn && ((Pawn) piece).hasMoved();
+        undoMoves[ply] = move;
+        undoStates[ply] = castlingRights | (enPassantSquare + 1) << 4 | (pawnMoved ? 1 : 0) << 11 | halfmoveClock << 12;
+        undoHashKeys[ply] = hashKey;
+        undoMovedPieces[ply] = piece;
+        undoCapturedPieces[ply] = captured;
+        ply++;
+
+        if (captured != null) {
+            setPiece(capturedSquare, null);
+        }
+        setPiece(from, null);
+        Position toPosition = Position.fromIndex(to);
+        if ((flags & Moves.PROMOTION) != 0) {
+            setPiece(to, Moves.getPromotion(move).create(piece.getColor(), toPosition));
+        } else {
+            setPiece(to, piece);
+            piece.setPosition(toPosition);
+        }
+        if (flags == Moves.KINGSIDE_CASTLE) {
+            moveRook(to + 1, to - 1);
+        } else if (flags == Moves.QUEENSIDE_CASTLE) {
+            moveRook(to - 2, to + 1);
+        }
+
+        setCastlingRights(castlingRights & CASTLING_MASKS[from] & CASTLING_MASKS[to]);
+        setEnPassantSquare(flags == Moves.DOUBLE_PAWN_PUSH ? (from + to) >>> 1 : -1);
+        halfmoveClock = captured != null || piece instanceof Pawn ? 0 : halfmoveClock + 1;
+        if (sideToMove == ChessPiece.Color.BLACK) {
+            fullmoveNumber++;
+        }
+        setSideToMove(sideToMove.getOpposite());
+        return captured;
+    }
+
+    /**
+     * Take back the latest move made with {@link #makeMove(int)}. Restores the pieces and the state exactly as they
+     * were before the move.
+     *
+     * @throws IllegalStateException if there are no moves to take back
+     */
+    public void unmakeMove() {
+        if (ply == 0) {
+            throw new IllegalStateException("No moves to take back");
+        }
+        ply--;
+        int move = undoMoves[ply];
+        int state = undoStates[ply];
+        ChessPiece piece = undoMovedPieces[ply];
+        ChessPiece captured = undoCapturedPieces[ply];
+        // Don't keep references to old pieces
+        undoMovedPieces[ply] = null;
+        undoCapturedPieces[ply] = null;
+
+        int from = Moves.getFrom(move);
+        int to = Moves.getTo(move);
+        int flags = Moves.getFlags(move);
+        sideToMove = sideToMove.getOpposite();
+        if (sideToMove == ChessPiece.Color.BLACK) {
+            fullmoveNumber--;
+        }
+        if (flags == Moves.KINGSIDE_CASTLE) {
+            moveRook(to - 1, to + 1);
+        } else if (flags == Moves.QUEENSIDE_CASTLE) {
+            moveRook(to + 1, to - 2);
+        }
+        setPiece(to, null);
+        setPiece(from, piece);
+        piece.setPosition(Position.fromIndex(from));
+        if (piece instanceof Pawn) {
+            ((Pawn) piece).setMoved((state >>> 11 & 1) != 0);
+        }
+        if (captured != null) {
+            setPiece(flags == Moves.EN_PASSANT ? enPassantCaptureSquare(to) : to, captured);
+        }
+        castlingRights = state & 0xF;
+        enPassantSquare = (state >>> 4 & 0x7F) - 1;
+        halfmoveClock = state >>> 12;
+        // Faster and safer than XORing everything back
+        hashKey = undoHashKeys[ply];
+    }
+
+    /**
+     * Get the number of moves that can be taken back with {@link #unmakeMove()}
+     *
+     * @return the size of the undo stack
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Forget the moves made with {@link #makeMove(int)}, e.g. when a new position is loaded. The moves can't be taken
+     * back anymore and the earlier positions don't count as repetitions.
+     */
+    public void clearUndoStack() {
+        Arrays.fill(undoMovedPieces, 0, ply, null);
+        Arrays.fill(undoCapturedPieces, 0, ply, null);
+        ply = 0;
+    }
+
+    /**
+     * Get the latest move made with {@link #makeMove(int)}
+     *
+     * @return the encoded move or {@link Moves#NONE} if there are no moves to take back
+     */
+    public int getLastMove() {
+        return ply == 0 ? Moves.NONE : undoMoves[ply - 1];
+    }
+
+    /**
+     * Check whether the current position has occurred before. Only the positions reached with {@link #makeMove(int)}
+     * since the latest capture or pawn move are compared, earlier ones can't repeat.
+     *
+     * @return true if the same position (pieces, side to move, castling rights and en passant) is in the undo stack
+     */
+    public boolean isRepetition() {
+        int first = Math.max(0, ply - halfmoveClock);
+        // The side to move must be the same so only every other position can match
+        for (int i = ply - 2; i >= first; i -= 2) {
+            if (undoHashKeys[i] == hashKey) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The square of the pawn captured en passant when the side to move captures on the given square
+    private int enPassantCaptureSquare(int to) {
+        return sideToMove == ChessPiece.Color.WHITE ? to - 8 : to + 8;
+    }
+
+    private void moveRook(int from, int to) {
+        ChessPiece rook = getPiece(from);
+        setPiece(from, null);
+        setPiece(to, rook);
+        rook.setPosition(Position.fromIndex(to));
+    }
+
+    private void allocateUndoStack() {
+        // Enough for most games, grows if needed
+        int capacity = 256;
+        undoMoves = new int[capacity];
+        undoStates = new int[capacity];
+        undoHashKeys = new long[capacity];
+        undoMovedPieces = new ChessPiece[capacity];
+        undoCapturedPieces = new ChessPiece[capacity];
+    }
+
+    private void growUndoStack() {
+        int capacity = undoMoves.length * 2;
+        undoMoves = Arrays.copyOf(undoMoves, capacity);
+        undoStates = Arrays.copyOf(undoStates, capacity);
+        undoHashKeys = Arrays.copyOf(undoHashKeys, capacity);
+        undoMovedPieces = Arrays.copyOf(undoMovedPieces, capacity);
+        undoCapturedPieces = Arrays.copyOf(undoCapturedPieces, capacity);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        allocateUndoStack();
+    }
+
+    /**
+     * Set the listener that is notified whenever a piece is added to or removed from a square, including the changes
+     * made by {@link #makeMove(int)} and {@link #unmakeMove()}. Not serialized or copied.
+     *
+     * @param pieceListener the listener or null to remove it
+     */
+    public void setPieceListener(PieceListener pieceListener) {
+        this.pieceListener = pieceListener;
+    }
+
+    public PieceListener getPieceListener() {
+        return pieceListener;
+    }
+
+    /**
+     * Create a deep copy of this board. The pieces are copied too, so the copy can be modified (e.g. by another thread)
+     * without affecting this board. The undo stack and captured pieces are not copied.
+     *
+     * @return the copy
+     */
+    public Chessboard copy() {
+        Chessboard copy = new Chessboard();
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = getPiece(square);
+            if (piece != null) {
+                ChessPiece pieceCopy = piece.getType().create(piece.getColor(), piece.getPosition());
+                if (piece instanceof Pawn) {
+                    ((Pawn) pieceCopy).setMoved(((Pawn) piece).hasMoved());
+                }
+                copy.setPiece(square, pieceCopy);
+            }
+        }
+        copy.setSideToMove(sideToMove);
+        copy.setCastlingRights(castlingRights);
+        copy.setEnPassantSquare(enPassantSquare);
+        copy.halfmoveClock = halfmoveClock;
+        copy.fullmoveNumber = fullmoveNumber;
+        return copy;
+    }
+
     /**
      * Load the default chessboard
      */
@@ -42,9 +594,14 @@ public class Chessboard implements Serializable {
         addNonPawns(ChessPiece.Color.WHITE, 1);
         // loops 0..7 and adds pawns, don't touch
         IntStream.range(0, 8).forEach(file -> {
-            pieces[6][file] = new Pawn(ChessPiece.Color.WHITE, new Position(2, file + 1));
-            pieces[1][file] = new Pawn(ChessPiece.Color.BLACK, new Position(7, file + 1));
+            setPiece(new Pawn(ChessPiece.Color.WHITE, new Position(2, file + 1)));
+            setPiece(new Pawn(ChessPiece.Color.BLACK, new Position(7, file + 1)));
         });
+        setSideToMove(ChessPiece.Color.WHITE);
+        setCastlingRights(ALL_CASTLING);
+        setEnPassantSquare(-1);
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
     }
 
     /**
@@ -54,20 +611,26 @@ public class Chessboard implements Serializable {
      * @param rank  the rank (row) where the pieces are added (usually 8 (black) or 1 (white))
      */
     private void addNonPawns(ChessPiece.Color color, int rank) {
-        // The index in the matrix
-        // Top row is 8 in the board
-        int reverseRank = 8 - rank;
-        pieces[reverseRank][0] = new Rook(color, new Position(rank, 'a'));
-        pieces[reverseRank][7] = new Rook(color, new Position(rank, 'h'));
+        setPiece(new Rook(color, new Position(rank, 'a')));
+        setPiece(new Rook(color, new Position(rank, 'h')));
 
-        pieces[reverseRank][1] = new Knight(color, new Position(rank, 'b'));
-        pieces[reverseRank][6] = new Knight(color, new Position(rank, 'g'));
+        setPiece(new Knight(color, new Position(rank, 'b')));
+        setPiece(new Knight(color, new Position(rank, 'g')));
 
-        pieces[reverseRank][2] = new Bishop(color, new Position(rank, 'c'));
-        pieces[reverseRank][5] = new Bishop(color, new Position(rank, 'f'));
+        setPiece(new Bishop(color, new Position(rank, 'c')));
+        setPiece(new Bishop(color, new Position(rank, 'f')));
 
-        pieces[reverseRank][3] = new Queen(color, new Position(rank, 'd'));
-        pieces[reverseRank][4] = new King(color, new Position(rank, 'e'));
+        setPiece(new Queen(color, new Position(rank, 'd')));
+        setPiece(new King(color, new Position(rank, 'e')));
+    }
+
+    /**
+     * Put the piece on the board at its current position
+     *
+     * @param piece the piece to add, not null
+     */
+    private void setPiece(ChessPiece piece) {
+        setPiece(piece.getPosition().getIndex(), piece);
     }
 
     /**
@@ -77,4 +640,31 @@ public class Chessboard implements Serializable {
         return captured;
     }
 
+    /**
+     * Listens to the changes of the pieces on a chessboard, see {@link #setPieceListener(PieceListener)}. A moving
+     * piece is first removed from its old square and then added to the new square.
+     */
+    public interface PieceListener {
+
+        /**
+         * Called after a piece has been added to a square
+         *
+         * @param bitboardIndex the piece's bitboard index (0-11), see {@link ChessPiece#getBitboardIndex()}
+         * @param square        the square index (0-63)
+         */
+        void pieceAdded(int bitboardIndex, int square);
+
+        /**
+         * Called after a piece has been removed from a square
+         *
+         * @param bitboardIndex the piece's bitboard index (0-11), see {@link ChessPiece#getBitboardIndex()}
+         * @param square        the square index (0-63)
+         */
+        void pieceRemoved(int bitboardIndex, int square);
+
+        /**
+         * Called after all pieces have been replaced, e.g. by {@link #setPieces(ChessPiece[][])}
+         */
+        void piecesReset();
+    }
 }
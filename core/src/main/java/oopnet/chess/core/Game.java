@@ -1,6 +1,7 @@
 package oopnet.chess.core;
 
 import oopnet.chess.core.event.PieceMoveEvent;
+import oopnet.chess.core.movegen.Moves;
 import oopnet.chess.core.pieces.ChessPiece;
 
 import java.io.Serializable;
@@ -8,9 +9,6 @@ import java.io.Serializable;
 public class Game implements Serializable {
 
     private Chessboard chessboard;
-    // The player who is moving now
-    // White starts
-    private ChessPiece.Color currentPlayer = ChessPiece.Color.WHITE;
     // The player who offered a draw
     private ChessPiece.Color drawOffer;
     private GameResult result;
@@ -19,33 +17,61 @@ public class Game implements Serializable {
         this.chessboard = chessboard;
     }
 
+    /**
+     * Apply the move of the event to the chessboard. Castling, en passant and promotions (to a queen unless
+     * {@link Move#getPromotion()} is set) are handled too.
+     * The move can be taken back with {@link #unmakeMove()}.
+     *
+     * @param moveEvent the event
+     *
+     * @return the captured piece or null if nothing was captured
+     */
     public ChessPiece handleMove(PieceMoveEvent moveEvent) {
         Move move = moveEvent.getMove(chessboard);
-        Position to = move.getTo();
-        ChessPiece captured = to.getPiece(chessboard);
+        ChessPiece captured = makeMove(move.encode(chessboard));
         if (captured != null) {
             chessboard.getCaptured().add(captured);
         }
-        // Remove the piece that was moved
-        ChessPiece oldPiece = move.getTo().getPiece(chessboard);
-        move.getFrom().setPiece(chessboard, null);
-        // Replace the captured piece (or null) with the moved piece
-        to.setPiece(chessboard, move.getPiece());
-        move.getPiece().setPosition(to);
-        setCurrentPlayer(move.getPiece().getColor().getOpposite());
-        return oldPiece;
+        return captured;
+    }
+
+    /**
+     * Make a move on the chessboard
+     *
+     * @param move the encoded move, see {@link Moves}
+     *
+     * @return the captured piece or null if nothing was captured
+     *
+     * @see Chessboard#makeMove(int)
+     */
+    public ChessPiece makeMove(int move) {
+        return chessboard.makeMove(move);
+    }
+
+    /**
+     * Take back the latest move
+     *
+     * @see Chessboard#unmakeMove()
+     */
+    public void unmakeMove() {
+        chessboard.unmakeMove();
     }
 
     public Chessboard getChessboard() {
         return chessboard;
     }
 
+    /**
+     * Get the player who is moving now. This is the same as {@link Chessboard#getSideToMove()}.
+     *
+     * @return the current player
+     */
     public ChessPiece.Color getCurrentPlayer() {
-        return currentPlayer;
+        return chessboard.getSideToMove();
     }
 
     public void setCurrentPlayer(ChessPiece.Color currentPlayer) {
-        this.currentPlayer = currentPlayer;
+        chessboard.setSideToMove(currentPlayer);
     }
 
     public ChessPiece.Color getDrawOffer() {
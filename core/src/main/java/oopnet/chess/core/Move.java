@@ -1,41 +1,76 @@
 package oopnet.chess.core;
 
 
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.movegen.Moves;
+import oopnet.chess.core.notation.San;
 import oopnet.chess.core.pieces.ChessPiece;
-import oopnet.chess.core.pieces.King;
 
 import java.io.Serializable;
-import java.util.Optional;
-import java.util.Set;
 
+/**
+ * A move of a piece from one position to another. Only the positions and the promotion are serialized, everything else
+ * is derived from the chessboard the move is bound to (see {@link #setChessboard(Chessboard)}).
+ * <br>
+ * Whether the move is a capture, check or checkmate is computed when first asked and remembered until the move is bound
+ * to another chessboard. The flags describe the move in the position the chessboard has when they are first asked, so
+ * ask them before the move is made. Computing them makes and takes back the move on the chessboard, so the chessboard
+ * must not be used by other threads at the same time.
+ */
 public class Move implements Serializable {
 
+    // Bits of the computed flags
+    private static final int COMPUTED = 1;
+    private static final int CAPTURE = 2;
+    private static final int CHECK = 4;
+    private static final int CHECKMATE = 8;
+
     // Transient so it won't be serialized and sent every time
     private transient Chessboard chessboard;
-    private final ChessPiece piece;
+    private transient ChessPiece piece;
+    private transient int flags;
 
     private final Position to;
     private final Position from;
-
-    private boolean capture;
-    private boolean check;
-    private boolean checkmate;
+    // The piece a pawn is promoted to or null for the default (a queen)
+    private final ChessPiece.Type promotion;
 
     public Move(Chessboard chessboard, ChessPiece piece, Position to) {
+        this(chessboard, piece, to, null);
+    }
+
+    public Move(Chessboard chessboard, ChessPiece piece, Position to, ChessPiece.Type promotion) {
         this.chessboard = chessboard;
         this.to = to;
         this.piece = piece;
         this.from = piece.getPosition();
-        // Store these so the getters' results won't change even if the chessboard is modified
-        this.capture = checkCapture();
-        this.check = checkCheck();
-        this.checkmate = checkCheckmate();
+        this.promotion = promotion;
+    }
+
+    /**
+     * Create a move that is not bound to a chessboard yet, e.g. a received move. It must be bound with {@link
+     * #setChessboard(Chessboard)} before it's used.
+     *
+     * @param from      the position of the piece
+     * @param to        the position the piece moves to
+     * @param promotion the piece a pawn is promoted to or null for the default (a queen)
+     */
+    public Move(Position from, Position to, ChessPiece.Type promotion) {
+        this.from = from;
+        this.to = to;
+        this.promotion = promotion;
     }
 
     public Chessboard getChessboard() {
         return chessboard;
     }
 
+    /**
+     * Get the piece that moves
+     *
+     * @return the piece that was in the {@link #getFrom()} position when the move was bound to the chessboard
+     */
     public ChessPiece getPiece() {
         return piece;
     }
@@ -49,22 +84,30 @@ public class Move implements Serializable {
     }
 
     /**
-     * Get whether this move is a capture
+     * Get the piece a pawn is promoted to
      *
-     * @return true if there is a piece on chessboard in the {@link #getTo()} position, otherwise false
+     * @return the piece type or null if not set (a queen is used)
+     */
+    public ChessPiece.Type getPromotion() {
+        return promotion;
+    }
+
+    /**
+     * Get whether this move is a capture (including en passant)
+     *
+     * @return true if it's a capture, otherwise false
      */
     public boolean isCapture() {
-        return capture;
+        return (getFlags() & CAPTURE) != 0;
     }
 
     /**
-     * Checks whether this move is a check. Basically just checks if the piece could capture the king next. Note that a
-     * checkmate is always a check too.
+     * Checks whether this move is a check. Note that a checkmate is always a check too.
      *
      * @return true if it's a check, otherwise false
      */
     public boolean isCheck() {
-        return check;
+        return (getFlags() & CHECK) != 0;
     }
 
 
@@ -74,85 +117,88 @@ public class Move implements Serializable {
      * @return true if it's a checkmate, otherwise false
      */
     public boolean isCheckmate() {
-        return checkmate;
+        return (getFlags() & CHECKMATE) != 0;
     }
 
-    /**
-     * Checks if there is a piece on chessboard in the {@link #getTo()} position
-     *
-     * @return true if it's a capture
-     */
-    private boolean checkCapture() {
-        return this.to.getPiece(chessboard) != null;
+    private int getFlags() {
+        if (flags == 0) {
+            flags = computeFlags();
+        }
+        return flags;
     }
 
     /**
-     * Checks if the piece could capture the king next. Note that a checkmate is always a check too.
+     * Make the move on the chessboard to see whether the opponent's king is in check and whether the opponent has any
+     * legal moves, then take it back
      *
-     * @return true if it's a check
+     * @return the flags
      */
-    private boolean checkCheck() {
-        return this.piece.getLegalMovePositions(chessboard, to).stream().anyMatch(pos -> pos.getPiece(chessboard) instanceof King);
+    private int computeFlags() {
+        int move = encode(chessboard);
+        int result = COMPUTED | (Moves.isCapture(move) ? CAPTURE : 0);
+        ChessPiece.Color opponent = piece.getColor().getOpposite();
+        chessboard.makeMove(move);
+        try {
+            if (MoveGenerator.isInCheck(chessboard, opponent)) {
+                result |= CHECK;
+                if (!MoveGenerator.hasLegalMoves(chessboard)) {
+                    result |= CHECKMATE;
+                }
+            }
+        } finally {
+            chessboard.unmakeMove();
+        }
+        return result;
     }
 
     /**
-     * Get whether this move is a checkmate
+     * Find the encoded move (with the correct flags) that matches this move on the chessboard
+     *
+     * @param chessboard the chessboard the move is made on
      *
-     * @return true if it's a checkmate
+     * @return the encoded move, see {@link Moves}
      */
-    private boolean checkCheckmate() {
-        // Find the king's position
-        Optional<Position> optional = this.piece.getLegalMovePositions(chessboard, to).stream()
-                                                .filter(pos -> pos.getPiece(chessboard) instanceof King)
-                                                .findAny();
-        if (optional.isPresent()) {
-            Position pos = optional.get();
-            King king = (King) pos.getPiece(chessboard);
-            // Get where the king could move
-            Set<Position> allowedMoves = king.getLegalMovePositions(chessboard, pos);
-            // Either allowed moves is 0 (no positions to go)
-            // Also need to check whether the attacker's "to" position would make it impossible to move to any of the
-            // available spots as the piece hasn't actually moved yet and KingPiece#getLegalMovePositions ignores that
-            return king.removeIllegalPositions(allowedMoves, chessboard, piece, to).isEmpty();
+    public int encode(Chessboard chessboard) {
+        int from = this.from.getIndex();
+        int to = this.to.getIndex();
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(chessboard, from, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            // Promotions are generated queen first
+            if (Moves.getTo(move) == to
+                    && (!Moves.isPromotion(move) || promotion == null || Moves.getPromotion(move) == promotion)) {
+                return move;
+            }
         }
-        return false;
+        // Not a move the generator knows about, just move the piece
+        return Moves.encode(from, to, chessboard.getPiece(to) == null ? Moves.QUIET : Moves.CAPTURE);
     }
 
-    // https://en.wikipedia.org/wiki/Algebraic_notation_(chess)
+    /**
+     * Get the move in SAN (Standard Algebraic Notation), e.g. "Nbd7", "exd6", "O-O" or "e8=Q+"
+     *
+     * @param chessboard the chessboard before the move
+     *
+     * @return the move as a string
+     *
+     * @see San#toString(Chessboard, int)
+     */
     public String toString(Chessboard chessboard) {
-        // TODO: support castling
-        // Sometimes we need an identifier to know which piece moved
-        // check of any other piece could have moved there
-        String ambiguousIdentifier = "";
-        for (ChessPiece piece : chessboard.getPiecesList()) {
-            if (piece == null || piece == this.piece) {
-                continue;
-            }
-            if (piece.getLegalMovePositions(chessboard, from).stream().filter(to::equals).findAny().isPresent()) {
-                // we have ambiguity
-                // first try if file is enough, then rank and finally both
-                if (piece.getPosition().getFile() != from.getFile()) {
-                    ambiguousIdentifier = String.valueOf(from.getFile());
-                } else if (piece.getPosition().getRank() != from.getRank()) {
-                    ambiguousIdentifier = String.valueOf(from.getRank());
-                } else {
-                    ambiguousIdentifier = from.toString();
-                }
-            }
-        }
-        char pieceLetter = piece.getANLetter();
-        // Either "#" if it's a checkmate or "+" if it's a capture or "" (an empty string) if neither
-        String checkOrCheckmate;
-        if (isCheckmate()) {
-            checkOrCheckmate = "#";
-        } else {
-            checkOrCheckmate = isCheck() ? "+" : "";
-        }
-        return pieceLetter + ambiguousIdentifier + (isCapture() ? "x" : "") + to.toString() + checkOrCheckmate;
+        return San.toString(chessboard, encode(chessboard));
     }
 
-
+    /**
+     * Bind the move to a chessboard, e.g. after the move has been received. The piece is looked up from the chessboard
+     * and the computed flags are forgotten unless it's the same chessboard.
+     *
+     * @param chessboard the chessboard
+     */
     public void setChessboard(Chessboard chessboard) {
-        this.chessboard = chessboard;
+        if (this.chessboard != chessboard) {
+            this.chessboard = chessboard;
+            this.piece = from.getPiece(chessboard);
+            this.flags = 0;
+        }
     }
 }
@@ -66,10 +66,9 @@ public class MovesBuilder {
         if (!Position.validate(rank, file)) {
             return -1;
         }
-        Position pos = new Position(rank, file);
-        ChessPiece piece = pos.getPiece(chessboard);
-        if (piece != null) {
-            return piece.getColor() == this.color ? -1 : 1;
+        long bit = 1L << ((rank - 1) * 8 + file - 1);
+        if ((chessboard.getOccupied() & bit) != 0) {
+            return (chessboard.getOccupancy(color) & bit) != 0 ? -1 : 1;
         }
         return 0;
     }
@@ -150,6 +149,23 @@ public class MovesBuilder {
         return addIfLegal((char) (position.getFile() + additionalFile), position.getRank() + additionalRank);
     }
 
+    /**
+     * Add all squares of the given bitboard except the ones occupied by this builder's color. Usually the bitboard is
+     * from the attack tables, e.g. {@link oopnet.chess.core.bitboard.Bitboards#knightAttacks(int)}.
+     *
+     * @param targets the bitboard of the squares to add, see {@link oopnet.chess.core.bitboard.Bitboards}
+     *
+     * @return this for chaining
+     */
+    public MovesBuilder addTargets(long targets) {
+        targets &= ~chessboard.getOccupancy(color);
+        while (targets != 0) {
+            add(Position.fromIndex(Long.numberOfTrailingZeros(targets)));
+            targets &= targets - 1;
+        }
+        return this;
+    }
+
     public Set<Position> getLegalPositions() {
         return legalPositions;
     }
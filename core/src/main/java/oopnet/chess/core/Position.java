@@ -7,6 +7,15 @@ import java.util.Objects;
 
 public class Position implements Serializable {
 
+    // All 64 positions indexed by their square index, see #getIndex()
+    private static final Position[] POSITIONS = new Position[64];
+
+    static {
+        for (int i = 0; i < 64; i++) {
+            POSITIONS[i] = new Position(i / 8 + 1, i % 8 + 1);
+        }
+    }
+
     private final int rank;
     private final char file;
 
@@ -79,6 +88,32 @@ public class Position implements Serializable {
         return file - 'a' + 1;
     }
 
+    /**
+     * Get the square index of this position. Squares are numbered rank by rank starting from a1, so a1 is 0, h1 is 7,
+     * a2 is 8 and h8 is 63. The same index is used as the bit index in bitboards.
+     *
+     * @return the square index, a number from 0 to 63
+     */
+    public int getIndex() {
+        return (rank - 1) * 8 + file - 'a';
+    }
+
+    /**
+     * Get the position of the given square index. This does not create a new object as all positions are cached.
+     *
+     * @param index the square index, a number from 0 to 63
+     *
+     * @return the position, never null
+     *
+     * @see #getIndex()
+     */
+    public static Position fromIndex(int index) {
+        if (index < 0 || index > 63) {
+            throw new IllegalArgumentException("Square index must be between 0 and 63");
+        }
+        return POSITIONS[index];
+    }
+
     /**
      * A helper method to get the corresponding {@link ChessPiece} on the given {@link Chessboard}
      *
@@ -89,7 +124,7 @@ public class Position implements Serializable {
      * @see #getPiece(ChessPiece[][])
      */
     public ChessPiece getPiece(Chessboard chessboard) {
-        return getPiece(chessboard.getPieces());
+        return chessboard.getPiece(getIndex());
     }
 
     /**
@@ -112,16 +147,15 @@ public class Position implements Serializable {
     }
 
     /**
-     * Set the piece at this position. This also calls {@link ChessPiece#setPosition(Position)}
+     * Set the piece at this position. This also calls {@link ChessPiece#setPosition(Position)} and keeps the
+     * chessboard's bitboards in sync.
      *
      * @param chessboard the chessboard to modify
      * @param piece      the piece to set
      */
     public void setPiece(Chessboard chessboard, ChessPiece piece) {
-        // Convert to correct index (as specified in the documentation)
-        int i = 7 - getRank() + 1;
-        int j = getFileAsInt() - 1;
-        chessboard.getPieces()[i][j] = piece;
+        // Updates the bitboards too
+        chessboard.setPiece(getIndex(), piece);
         if (piece != null) {
             piece.setPosition(this);
         }
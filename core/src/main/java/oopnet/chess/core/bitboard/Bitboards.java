@@ -0,0 +1,266 @@
+package oopnet.chess.core.bitboard;
+
+import oopnet.chess.core.Position;
+import oopnet.chess.core.pieces.ChessPiece;
+
+/**
+ * Constants, precomputed attack tables and helper methods for bitboards.
+ * <br>
+ * A bitboard is a {@code long} where each bit represents one square. Bit 0 is a1, bit 7 is h1, bit 8 is a2 and bit 63
+ * is h8 (see {@link Position#getIndex()}). For example, all white pawns that can capture on e5 are
+ * <pre>
+ *     Bitboards.pawnAttacks(ChessPiece.Color.BLACK, e5) &amp; whitePawns
+ * </pre>
+ */
+public final class Bitboards {
+
+    public static final long EMPTY = 0L;
+    public static final long ALL = ~0L;
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_B = FILE_A << 1;
+    public static final long FILE_G = FILE_A << 6;
+    public static final long FILE_H = FILE_A << 7;
+
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_2 = RANK_1 << 8;
+    public static final long RANK_3 = RANK_1 << 16;
+    public static final long RANK_4 = RANK_1 << 24;
+    public static final long RANK_5 = RANK_1 << 32;
+    public static final long RANK_6 = RANK_1 << 40;
+    public static final long RANK_7 = RANK_1 << 48;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    // [color.ordinal()][square]
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    // [from][to], the squares between two squares on the same rank, file or diagonal
+    private static final long[][] BETWEEN = new long[64][64];
+    // [from][to], the whole rank, file or diagonal through both squares
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            long bit = 1L << square;
+            KNIGHT_ATTACKS[square] = shift(bit, 2, 1) | shift(bit, 2, -1) | shift(bit, -2, 1) | shift(bit, -2, -1)
+                    | shift(bit, 1, 2) | shift(bit, -1, 2) | shift(bit, 1, -2) | shift(bit, -1, -2);
+            KING_ATTACKS[square] = shift(bit, 1, 0) | shift(bit, -1, 0) | shift(bit, 0, 1) | shift(bit, 0, -1)
+                    | shift(bit, 1, 1) | shift(bit, -1, -1) | shift(bit, 1, -1) | shift(bit, -1, 1);
+            PAWN_ATTACKS[ChessPiece.Color.WHITE.ordinal()][square] = shift(bit, 1, 1) | shift(bit, -1, 1);
+            PAWN_ATTACKS[ChessPiece.Color.BLACK.ordinal()][square] = shift(bit, 1, -1) | shift(bit, -1, -1);
+            for (int files = -1; files <= 1; files++) {
+                for (int ranks = -1; ranks <= 1; ranks++) {
+                    if (files != 0 || ranks != 0) {
+                        initLines(square, files, ranks);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void initLines(int square, int files, int ranks) {
+        long line = 1L << square;
+        for (long bit = shift(1L << square, files, ranks); bit != 0; bit = shift(bit, files, ranks)) {
+            line |= bit;
+        }
+        for (long bit = shift(1L << square, -files, -ranks); bit != 0; bit = shift(bit, -files, -ranks)) {
+            line |= bit;
+        }
+        long between = 0;
+        for (long bit = shift(1L << square, files, ranks); bit != 0; bit = shift(bit, files, ranks)) {
+            int to = lowest(bit);
+            BETWEEN[square][to] = between;
+            LINE[square][to] = line;
+            between |= bit;
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    /**
+     * Shift all squares of the bitboard by the given number of files and ranks. Squares that would go over the edge of
+     * the board are dropped instead of wrapping around.
+     *
+     * @param bitboard the bitboard to shift
+     * @param files    the number of files to move, from -2 to 2 (positive is towards the h-file)
+     * @param ranks    the number of ranks to move, any number (positive is towards the 8th rank)
+     *
+     * @return the shifted bitboard
+     */
+    public static long shift(long bitboard, int files, int ranks) {
+        if (files > 0) {
+            bitboard &= files == 1 ? ~FILE_H : ~(FILE_G | FILE_H);
+        } else if (files < 0) {
+            bitboard &= files == -1 ? ~FILE_A : ~(FILE_A | FILE_B);
+        }
+        int amount = ranks * 8 + files;
+        if (amount >= 64 || amount <= -64) {
+            return EMPTY;
+        }
+        return amount >= 0 ? bitboard << amount : bitboard >>> -amount;
+    }
+
+    /**
+     * Get the squares a knight attacks from the given square
+     *
+     * @param square the square index (0-63)
+     *
+     * @return the attacked squares as a bitboard
+     */
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * Get the squares a king attacks from the given square. Castling is not included.
+     *
+     * @param square the square index (0-63)
+     *
+     * @return the attacked squares as a bitboard
+     */
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * Get the squares a pawn of the given color attacks (could capture on) from the given square
+     *
+     * @param color  the color of the pawn
+     * @param square the square index (0-63)
+     *
+     * @return the attacked squares as a bitboard
+     */
+    public static long pawnAttacks(ChessPiece.Color color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    /**
+     * Get the squares between two squares on the same rank, file or diagonal, e.g. the squares where a check by a
+     * slider can be blocked
+     *
+     * @param from the first square index (0-63)
+     * @param to   the second square index (0-63)
+     *
+     * @return the squares between, not including the two squares, or {@link #EMPTY} if they are not on the same line
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * Get the whole rank, file or diagonal through two squares, e.g. the squares a pinned piece can move to
+     *
+     * @param from the first square index (0-63)
+     * @param to   the second square index (0-63)
+     *
+     * @return the line from edge to edge or {@link #EMPTY} if the squares are not on the same line
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    /**
+     * Get the bitboard with only the given square set
+     *
+     * @param square the square index (0-63)
+     *
+     * @return the bitboard
+     */
+    public static long squareBit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * Check whether the given square is set in the bitboard
+     *
+     * @param bitboard the bitboard
+     * @param square   the square index (0-63)
+     *
+     * @return true if the square is set, otherwise false
+     */
+    public static boolean contains(long bitboard, int square) {
+        return (bitboard & (1L << square)) != 0;
+    }
+
+    /**
+     * Get the lowest set square of the bitboard. Usually used with {@link #popLowest(long)} to iterate over all
+     * squares:
+     * <pre>
+     *     while (bitboard != 0) {
+     *         int square = Bitboards.lowest(bitboard);
+     *         bitboard = Bitboards.popLowest(bitboard);
+     *     }
+     * </pre>
+     *
+     * @param bitboard the bitboard, not empty
+     *
+     * @return the square index (0-63)
+     */
+    public static int lowest(long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    /**
+     * Remove the lowest set square from the bitboard
+     *
+     * @param bitboard the bitboard
+     *
+     * @return the bitboard without its lowest square
+     */
+    public static long popLowest(long bitboard) {
+        return bitboard & (bitboard - 1);
+    }
+
+    /**
+     * Count the squares in the bitboard
+     *
+     * @param bitboard the bitboard
+     *
+     * @return the number of set squares
+     */
+    public static int count(long bitboard) {
+        return Long.bitCount(bitboard);
+    }
+
+    /**
+     * Get the rank of the square as a number from 0 to 7 (i.e. rank - 1)
+     *
+     * @param square the square index (0-63)
+     *
+     * @return the rank index
+     */
+    public static int rankOf(int square) {
+        return square >>> 3;
+    }
+
+    /**
+     * Get the file of the square as a number from 0 to 7 (i.e. 'a' is 0)
+     *
+     * @param square the square index (0-63)
+     *
+     * @return the file index
+     */
+    public static int fileOf(int square) {
+        return square & 7;
+    }
+
+    /**
+     * Convert the bitboard to a readable string, 8th rank first. Useful for debugging.
+     *
+     * @param bitboard the bitboard
+     *
+     * @return the bitboard as eight lines of 'x' (set) and '.' (empty)
+     */
+    public static String toString(long bitboard) {
+        StringBuilder sb = new StringBuilder(72);
+        for (int rank = 7; rank >= 0; rank--) {
+            for (int file = 0; file < 8; file++) {
+                sb.append(contains(bitboard, rank * 8 + file) ? 'x' : '.');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
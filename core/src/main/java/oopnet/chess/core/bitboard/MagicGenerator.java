@@ -0,0 +1,95 @@
+package oopnet.chess.core.bitboard;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Finds the magic numbers used by {@link Magics}. This is an offline tool, the numbers it finds are hardcoded in
+ * {@link Magics} so it only needs to be run if the table layout changes.
+ * <br>
+ * Usage: {@code java -cp core.jar oopnet.chess.core.bitboard.MagicGenerator [seed]}
+ * <br>
+ * Prints the numbers as Java arrays that can be pasted into {@link Magics}.
+ */
+public final class MagicGenerator {
+
+    private MagicGenerator() {
+    }
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 728L;
+        Random random = new Random(seed);
+        long[] rookMagics = new long[64];
+        long[] bishopMagics = new long[64];
+        for (int square = 0; square < 64; square++) {
+            rookMagics[square] = findMagic(square, false, random);
+            bishopMagics[square] = findMagic(square, true, random);
+        }
+        System.out.println(toJava("ROOK_MAGICS", rookMagics));
+        System.out.println(toJava("BISHOP_MAGICS", bishopMagics));
+    }
+
+    /**
+     * Find a magic number for the square by trying random sparse numbers until one maps every relevant occupancy to
+     * an index without destructive collisions (two occupancies with different attacks sharing an index).
+     *
+     * @param square the square index (0-63)
+     * @param bishop true for bishop attacks, false for rook attacks
+     * @param random the source of candidate numbers
+     *
+     * @return the magic number
+     */
+    public static long findMagic(int square, boolean bishop, Random random) {
+        long mask = bishop ? Magics.bishopMask(square) : Magics.rookMask(square);
+        int bits = Long.bitCount(mask);
+        int size = 1 << bits;
+        long[] occupancies = new long[size];
+        long[] attacks = new long[size];
+        // Enumerate all subsets of the mask (Carry-Rippler)
+        long subset = 0;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            attacks[i] = Magics.slidingAttacks(square, subset, bishop);
+            subset = (subset - mask) & mask;
+        }
+        long[] used = new long[size];
+        // Which "attempt" wrote the entry, so the table does not need to be cleared between attempts
+        int[] epoch = new int[size];
+        for (int attempt = 1; ; attempt++) {
+            long magic = random.nextLong() & random.nextLong() & random.nextLong();
+            // Bad candidates do not spread the high bits of the mask
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+            boolean failed = false;
+            for (int i = 0; i < size && !failed; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> (64 - bits));
+                if (epoch[index] != attempt) {
+                    epoch[index] = attempt;
+                    used[index] = attacks[i];
+                } else if (used[index] != attacks[i]) {
+                    failed = true;
+                }
+            }
+            if (!failed) {
+                return magic;
+            }
+        }
+    }
+
+    private static String toJava(String name, long[] values) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("    private static final long[] ").append(name).append(" = {\n");
+        for (int i = 0; i < values.length; i += 4) {
+            sb.append("           ");
+            long[] row = Arrays.copyOfRange(values, i, Math.min(i + 4, values.length));
+            for (long value : row) {
+                sb.append(String.format(" 0x%016XL,", value));
+            }
+            sb.append('\n');
+        }
+        sb.setLength(sb.length() - 2);
+        sb.append("\n    };");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,229 @@
+package oopnet.chess.core.bitboard;
+
+/**
+ * Sliding piece (rook, bishop and queen) attacks with magic bitboards.
+ * <br>
+ * The attacks of a slider only depend on the pieces on its rays (the relevant occupancy). The relevant occupancy is
+ * multiplied by a "magic" number so the highest bits of the product form a unique index to a precomputed table of
+ * attacks, so getting the attacks is just a mask, a multiplication, a shift and a table lookup:
+ * <pre>
+ *     long attacks = Magics.rookAttacks(square, chessboard.getOccupied()) &amp; ~ownPieces;
+ * </pre>
+ * The magic numbers are found offline with {@link MagicGenerator}. The tables are built when they are used for the
+ * first time.
+ */
+public final class Magics {
+
+    // Found with MagicGenerator (seed 728)
+    private static final long[] ROOK_MAGICS = {
+            0x1480034000A08018L, 0x5040001000402000L, 0x99000A6000D10041L, 0x528008001001C480L,
+            0x0100100801000402L, 0x8100040002010008L, 0x0380008019000200L, 0x0100020020408100L,
+            0x4021800080400020L, 0x0000802000400082L, 0x8000802000100088L, 0x8000801000080080L,
+            0x1202002012000408L, 0x0010800400800200L, 0x8001000401000200L, 0x000200020040A904L,
+            0x0080004020004008L, 0x0040044020100040L, 0x00304A0010220081L, 0x0441210010030108L,
+            0x1028010005001008L, 0x0040808004000200L, 0x0444040090024801L, 0x094402002C004287L,
+            0x000385248000400AL, 0x8000820200402102L, 0x4017011100402006L, 0x2000201200420008L,
+            0x2000080080800400L, 0x0822000200081004L, 0x0000480400020190L, 0x0200008200010044L,
+            0x1024400022800081L, 0x0660003000C00040L, 0x0008820022001040L, 0x2412100009002100L,
+            0x0428040801001101L, 0x4001000803000400L, 0xCD800E080C002910L, 0x0009000081000042L,
+            0x088000402000C000L, 0x0044600550054002L, 0x0200100020008080L, 0x8010008008008010L,
+            0x00820004208A0010L, 0x0201000804010002L, 0x04020008210200C4L, 0x4010004100820004L,
+            0x2402008038410200L, 0x0082804001200680L, 0x00801A0020408200L, 0x0004201001040900L,
+            0x0540800800040080L, 0x0C02008408108200L, 0x0808D00831020400L, 0x0428800049001880L,
+            0x8001004084221202L, 0x0404400421001085L, 0x0C0408A042021082L, 0x2008050008100021L,
+            0x0101000208001005L, 0x000100080400822DL, 0x0033211098100204L, 0x8004042104004882L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x0008088108020010L, 0x08683840B4004001L, 0x4204080200440010L, 0x0418208128100000L,
+            0x0004042080020000L, 0x0081010840001010L, 0x00D4010808044000L, 0x2002020101211083L,
+            0x0006202101110102L, 0x8802901240830600L, 0xC0C1108482024120L, 0x14E0044400800008L,
+            0x0C00020210808340L, 0x0000011008050800L, 0x0002204148084080L, 0x0010030500908440L,
+            0x4041020408081120L, 0x011C0608100C4044L, 0x0808808108010100L, 0x0002801806084014L,
+            0x0004200202011080L, 0x0820406201100100L, 0x0102100108010402L, 0x0050200100A80401L,
+            0x4461200008022400L, 0x0002090002080804L, 0x0000410008020408L, 0x8820840118012020L,
+            0x0041011003004000L, 0x1084180921010100L, 0x1040840422010400L, 0x6121004109004801L,
+            0x0002104040708A01L, 0x04C4022820021070L, 0x0302004110901100L, 0x8018200800C50104L,
+            0x0000410042040040L, 0x0028100020090091L, 0x0084010400406401L, 0x0088104050030900L,
+            0x400A480240004804L, 0x0002080404004208L, 0x2006840041104800L, 0x0000004200900800L,
+            0x2104902201600200L, 0x0001101002800044L, 0x0190100080B04102L, 0x5008086100200040L,
+            0x0102209004104220L, 0x8201040104024020L, 0x42C0808420A80001L, 0x2202B00820880810L,
+            0x0020000410440010L, 0x0040082108008891L, 0x3490100908548400L, 0x2A02040812004020L,
+            0x0008402090101008L, 0x0020089218010400L, 0x000100D042180400L, 0x0000080402104402L,
+            0x00200A0004704418L, 0x068202A084100A20L, 0x1142121010110040L, 0x4082223408120040L
+    };
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            ROOK_MASKS[square] = rookMask(square);
+            BISHOP_MASKS[square] = bishopMask(square);
+            ROOK_SHIFTS[square] = 64 - Long.bitCount(ROOK_MASKS[square]);
+            BISHOP_SHIFTS[square] = 64 - Long.bitCount(BISHOP_MASKS[square]);
+        }
+    }
+
+    private Magics() {
+    }
+
+    /**
+     * Get the squares a rook attacks from the given square. The first piece on each ray is included (as it can be
+     * captured if it's an enemy) and the squares behind it are not.
+     *
+     * @param square   the square index (0-63)
+     * @param occupied all pieces on the board, see {@link oopnet.chess.core.Chessboard#getOccupied()}
+     *
+     * @return the attacked squares as a bitboard
+     */
+    public static long rookAttacks(int square, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return RookTable.ATTACKS[RookTable.OFFSETS[square] + index];
+    }
+
+    /**
+     * Get the squares a bishop attacks from the given square
+     *
+     * @param square   the square index (0-63)
+     * @param occupied all pieces on the board, see {@link oopnet.chess.core.Chessboard#getOccupied()}
+     *
+     * @return the attacked squares as a bitboard
+     *
+     * @see #rookAttacks(int, long)
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BishopTable.ATTACKS[BishopTable.OFFSETS[square] + index];
+    }
+
+    /**
+     * Get the squares a queen attacks from the given square
+     *
+     * @param square   the square index (0-63)
+     * @param occupied all pieces on the board, see {@link oopnet.chess.core.Chessboard#getOccupied()}
+     *
+     * @return the attacked squares as a bitboard
+     *
+     * @see #rookAttacks(int, long)
+     */
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * Get the relevant occupancy mask of a rook. The last square of each ray is not relevant as there is nothing
+     * behind it.
+     *
+     * @param square the square index (0-63)
+     *
+     * @return the mask as a bitboard
+     */
+    static long rookMask(int square) {
+        int rank = square >>> 3;
+        int file = square & 7;
+        long mask = 0L;
+        for (int r = rank + 1; r < 7; r++) {
+            mask |= 1L << (r * 8 + file);
+        }
+        for (int r = rank - 1; r > 0; r--) {
+            mask |= 1L << (r * 8 + file);
+        }
+        for (int f = file + 1; f < 7; f++) {
+            mask |= 1L << (rank * 8 + f);
+        }
+        for (int f = file - 1; f > 0; f--) {
+            mask |= 1L << (rank * 8 + f);
+        }
+        return mask;
+    }
+
+    /**
+     * Get the relevant occupancy mask of a bishop
+     *
+     * @param square the square index (0-63)
+     *
+     * @return the mask as a bitboard
+     *
+     * @see #rookMask(int)
+     */
+    static long bishopMask(int square) {
+        // The edges are never relevant for bishops
+        long edges = Bitboards.RANK_1 | Bitboards.RANK_8 | Bitboards.FILE_A | Bitboards.FILE_H;
+        return slidingAttacks(square, 0L, true) & ~edges;
+    }
+
+    /**
+     * Calculate the attacks by walking each ray square by square. Slow, only used to build the tables.
+     *
+     * @param square   the square index (0-63)
+     * @param occupied the pieces that block the rays
+     * @param bishop   true for diagonal rays, false for orthogonal rays
+     *
+     * @return the attacked squares as a bitboard
+     */
+    static long slidingAttacks(int square, long occupied, boolean bishop) {
+        int[][] directions = bishop ? new int[][]{{1, 1}, {1, -1}, {-1, 1}, {-1, -1}}
+                : new int[][]{{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int file = (square & 7) + direction[0];
+            int rank = (square >>> 3) + direction[1];
+            while (file >= 0 && file < 8 && rank >= 0 && rank < 8) {
+                long bit = 1L << (rank * 8 + file);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                file += direction[0];
+                rank += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Build the attack table of all squares. Each square has 2^(relevant bits) entries starting at its offset.
+     *
+     * @param bishop  true for the bishop table, false for the rook table
+     * @param offsets the array to fill with each square's offset
+     *
+     * @return the table
+     */
+    private static long[] buildTable(boolean bishop, int[] offsets) {
+        long[] masks = bishop ? BISHOP_MASKS : ROOK_MASKS;
+        long[] magics = bishop ? BISHOP_MAGICS : ROOK_MAGICS;
+        int[] shifts = bishop ? BISHOP_SHIFTS : ROOK_SHIFTS;
+        int size = 0;
+        for (int square = 0; square < 64; square++) {
+            offsets[square] = size;
+            size += 1 << (64 - shifts[square]);
+        }
+        long[] table = new long[size];
+        for (int square = 0; square < 64; square++) {
+            long mask = masks[square];
+            // Enumerate all subsets of the mask (Carry-Rippler)
+            long subset = 0L;
+            do {
+                int index = (int) ((subset * magics[square]) >>> shifts[square]);
+                table[offsets[square] + index] = slidingAttacks(square, subset, bishop);
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+        }
+        return table;
+    }
+
+    // Lazily initialized holders, the JVM builds each table on first access
+
+    private static final class RookTable {
+        static final int[] OFFSETS = new int[64];
+        static final long[] ATTACKS = buildTable(false, OFFSETS);
+    }
+
+    private static final class BishopTable {
+        static final int[] OFFSETS = new int[64];
+        static final long[] ATTACKS = buildTable(true, OFFSETS);
+    }
+}
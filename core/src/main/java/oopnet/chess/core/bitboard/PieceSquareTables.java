@@ -0,0 +1,184 @@
+package oopnet.chess.core.bitboard;
+
+import oopnet.chess.core.pieces.ChessPiece;
+
+/**
+ * Piece values and piece-square tables for the middlegame and the endgame. The middlegame and endgame scores are mixed
+ * by the game phase (tapered evaluation), so e.g. the king prefers the corner while there are queens and rooks on the
+ * board and the center when there are not.
+ * <br>
+ * The scores already include the material and are negative for black pieces, so the score of a position is the sum
+ * of the values of its pieces. {@link oopnet.chess.core.Chessboard} keeps the sums up to date whenever a piece is
+ * added or removed, like the {@link Zobrist} keys.
+ * <br>
+ * The middlegame and endgame piece values are those of PeSTO by Ronald Friederich. The square tables are from the
+ * Simplified Evaluation Function by Tomasz Michniewski, including its endgame king table, with an endgame pawn table
+ * that rewards advanced pawns.
+ */
+public final class PieceSquareTables {
+
+    // The phase of the starting position, decreases as pieces are captured
+    public static final int MAX_PHASE = 24;
+
+    // By ChessPiece.Type ordinal
+    private static final int[] MIDGAME_VALUES = {82, 337, 365, 477, 1025, 0};
+    private static final int[] ENDGAME_VALUES = {94, 281, 297, 512, 936, 0};
+    private static final int[] PHASES = {0, 1, 1, 2, 4, 0};
+
+    // From white's point of view, a8 first and h1 last like a diagram
+    private static final int[] PAWN = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+    private static final int[] PAWN_ENDGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            80, 80, 80, 80, 80, 80, 80, 80,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            30, 30, 30, 30, 30, 30, 30, 30,
+            20, 20, 20, 20, 20, 20, 20, 20,
+            10, 10, 10, 10, 10, 10, 10, 10,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] ROOK = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0
+    };
+    private static final int[] QUEEN = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20
+    };
+    private static final int[] KING = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20
+    };
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    // [bitboard index][square], see ChessPiece#getBitboardIndex()
+    private static final int[][] MIDGAME = new int[12][64];
+    private static final int[][] ENDGAME = new int[12][64];
+
+    static {
+        int[][] midgameTables = {PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING};
+        int[][] endgameTables = {PAWN_ENDGAME, KNIGHT, BISHOP, ROOK, QUEEN, KING_ENDGAME};
+        for (ChessPiece.Type type : ChessPiece.Type.values()) {
+            int t = type.ordinal();
+            int white = type.getBitboardIndex(ChessPiece.Color.WHITE);
+            int black = type.getBitboardIndex(ChessPiece.Color.BLACK);
+            for (int square = 0; square < 64; square++) {
+                // The tables start from a8, for black they are mirrored vertically
+                int whiteIndex = square ^ 56;
+                MIDGAME[white][square] = MIDGAME_VALUES[t] + midgameTables[t][whiteIndex];
+                ENDGAME[white][square] = ENDGAME_VALUES[t] + endgameTables[t][whiteIndex];
+                MIDGAME[black][square] = -(MIDGAME_VALUES[t] + midgameTables[t][square]);
+                ENDGAME[black][square] = -(ENDGAME_VALUES[t] + endgameTables[t][square]);
+            }
+        }
+    }
+
+    private PieceSquareTables() {
+    }
+
+    /**
+     * Get the middlegame score of a piece on a square
+     *
+     * @param bitboardIndex the piece's bitboard index (0-11), see {@link ChessPiece#getBitboardIndex()}
+     * @param square        the square index (0-63)
+     *
+     * @return the score including the material, negative for black pieces
+     */
+    public static int midgame(int bitboardIndex, int square) {
+        return MIDGAME[bitboardIndex][square];
+    }
+
+    /**
+     * Get the endgame score of a piece on a square
+     *
+     * @param bitboardIndex the piece's bitboard index (0-11), see {@link ChessPiece#getBitboardIndex()}
+     * @param square        the square index (0-63)
+     *
+     * @return the score including the material, negative for black pieces
+     */
+    public static int endgame(int bitboardIndex, int square) {
+        return ENDGAME[bitboardIndex][square];
+    }
+
+    /**
+     * Get how much a piece adds to the game phase
+     *
+     * @param bitboardIndex the piece's bitboard index (0-11), see {@link ChessPiece#getBitboardIndex()}
+     *
+     * @return 1 for minor pieces, 2 for rooks, 4 for queens and 0 for pawns and kings
+     */
+    public static int phase(int bitboardIndex) {
+        return PHASES[bitboardIndex % 6];
+    }
+
+    /**
+     * Mix the middlegame and endgame scores by the game phase
+     *
+     * @param midgame the middlegame score
+     * @param endgame the endgame score
+     * @param phase   the game phase, {@link #MAX_PHASE} at the start. Promotions may make it greater, then the
+     *                middlegame score is used.
+     *
+     * @return the tapered score
+     */
+    public static int taper(int midgame, int endgame, int phase) {
+        phase = Math.min(phase, MAX_PHASE);
+        return (midgame * phase + endgame * (MAX_PHASE - phase)) / MAX_PHASE;
+    }
+}
@@ -0,0 +1,91 @@
+package oopnet.chess.core.bitboard;
+
+import java.util.Random;
+
+/**
+ * Random keys for Zobrist hashing. The hash key of a position is the XOR of the keys of its pieces, castling rights,
+ * en passant file and side to move, so it can be updated incrementally when a piece moves by XORing the old and new
+ * keys (see {@link oopnet.chess.core.Chessboard#getHashKey()}).
+ * <br>
+ * The keys are generated from a fixed seed so the same position has the same key in every JVM (e.g. on the server and
+ * the client, or in stored data).
+ */
+public final class Zobrist {
+
+    // [bitboard index][square], see ChessPiece#getBitboardIndex()
+    private static final long[][] PIECE_KEYS = new long[12][64];
+    // One key for each combination of the four castling rights
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EN_PASSANT_KEYS = new long[8];
+    private static final long SIDE_KEY;
+
+    static {
+        Random random = new Random(0x5EED_C0FFEEL);
+        for (long[] keys : PIECE_KEYS) {
+            for (int square = 0; square < 64; square++) {
+                keys[square] = random.nextLong();
+            }
+        }
+        long[] rightKeys = new long[4];
+        for (int i = 0; i < 4; i++) {
+            rightKeys[i] = random.nextLong();
+        }
+        for (int rights = 0; rights < 16; rights++) {
+            for (int i = 0; i < 4; i++) {
+                if ((rights & (1 << i)) != 0) {
+                    CASTLING_KEYS[rights] ^= rightKeys[i];
+                }
+            }
+        }
+        for (int file = 0; file < 8; file++) {
+            EN_PASSANT_KEYS[file] = random.nextLong();
+        }
+        SIDE_KEY = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Get the key of a piece on a square
+     *
+     * @param bitboardIndex the piece's bitboard index (0-11), see {@link oopnet.chess.core.pieces.ChessPiece#getBitboardIndex()}
+     * @param square        the square index (0-63)
+     *
+     * @return the key
+     */
+    public static long pieceKey(int bitboardIndex, int square) {
+        return PIECE_KEYS[bitboardIndex][square];
+    }
+
+    /**
+     * Get the key of the castling rights
+     *
+     * @param castlingRights the rights, see {@link oopnet.chess.core.Chessboard#getCastlingRights()}
+     *
+     * @return the key
+     */
+    public static long castlingKey(int castlingRights) {
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    /**
+     * Get the key of the en passant square. Only the file matters as the rank follows from the side to move.
+     *
+     * @param enPassantSquare the square index (0-63) or -1 if none
+     *
+     * @return the key or 0 if there is no en passant square
+     */
+    public static long enPassantKey(int enPassantSquare) {
+        return enPassantSquare < 0 ? 0L : EN_PASSANT_KEYS[enPassantSquare & 7];
+    }
+
+    /**
+     * Get the key that is XORed in when black is to move
+     *
+     * @return the key
+     */
+    public static long sideKey() {
+        return SIDE_KEY;
+    }
+}
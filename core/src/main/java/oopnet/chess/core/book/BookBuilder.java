@@ -0,0 +1,480 @@
+package oopnet.chess.core.book;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.Game;
+import oopnet.chess.core.Move;
+import oopnet.chess.core.Position;
+import oopnet.chess.core.event.PieceMoveEvent;
+import oopnet.chess.core.movegen.Moves;
+import oopnet.chess.core.notation.Fen;
+import oopnet.chess.core.notation.PgnGame;
+import oopnet.chess.core.notation.PgnReader;
+import oopnet.chess.core.notation.San;
+import oopnet.chess.core.pieces.ChessPiece;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Builds an {@link OpeningBook} from games in PGN.
+ * <br>
+ * The games are streamed and replayed through {@link Game#handleMove(PieceMoveEvent)}, and each position and move of
+ * the first {@link #setMaxPlies(int) plies} is recorded. The records don't have to fit in memory: they are collected
+ * to fixed-size chunks that are sorted and written to temporary run files by a thread pool while the games are read.
+ * At the end the runs are merged into the book (an external merge sort).
+ * <br>
+ * The weight of a move is 2 for each game the side that played it won and 1 for each draw or unknown result, scaled to
+ * fit 16 bits. Moves that only lost are left out.
+ * <br>
+ * Example usage:
+ * <pre>
+ *     long entries = new BookBuilder().setMaxPlies(24).build(Collections.singletonList(pgn), book);
+ * </pre>
+ */
+public class BookBuilder {
+
+    // Bytes of a record in a run file: key, move and weight
+    private static final int RUN_RECORD_BYTES = 14;
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private int maxPlies = 30;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int chunkSize = 1 << 20;
+    private Path tempDirectory;
+    private long games;
+    private long skippedGames;
+
+    // The state of the current build
+    private ExecutorService pool;
+    // Limits the chunks waiting to be sorted so reading can't run ahead and fill the memory
+    private Semaphore permits;
+    private List<Future<Path>> runs;
+    // The chunk records are added to, replaced when it's full
+    private Chunk chunk;
+
+    /**
+     * Set how many plies from the start of each game are added to the book
+     *
+     * @param maxPlies the number of plies, 30 by default
+     *
+     * @return this
+     */
+    public BookBuilder setMaxPlies(int maxPlies) {
+        this.maxPlies = maxPlies;
+        return this;
+    }
+
+    /**
+     * Set how many threads sort the chunks
+     *
+     * @param threads the number of threads, the number of processors by default
+     *
+     * @return this
+     */
+    public BookBuilder setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * Set how many records are sorted in memory at a time. At most threads + 1 chunks (16 bytes per record) are in
+     * memory at the same time.
+     *
+     * @param chunkSize the number of records, 2^20 by default
+     *
+     * @return this
+     */
+    public BookBuilder setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+        return this;
+    }
+
+    /**
+     * Set the directory of the temporary run files
+     *
+     * @param tempDirectory the directory, the default temporary directory if null
+     *
+     * @return this
+     */
+    public BookBuilder setTempDirectory(Path tempDirectory) {
+        this.tempDirectory = tempDirectory;
+        return this;
+    }
+
+    /**
+     * @return the number of games added by the latest build
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * @return the number of games of the latest build that were not added because of an illegal move or an invalid
+     * start position. The moves before the error are still added.
+     */
+    public long getSkippedGames() {
+        return skippedGames;
+    }
+
+    /**
+     * Build a book from PGN files
+     *
+     * @param pgnFiles the PGN files (UTF-8)
+     * @param output   the book file to write
+     *
+     * @return the number of entries in the book
+     *
+     * @throws IOException if reading or writing fails
+     */
+    public long build(List<Path> pgnFiles, Path output) throws IOException {
+        List<PgnReader> readers = new ArrayList<>();
+        try {
+            for (Path file : pgnFiles) {
+                readers.add(new PgnReader(Files.newBufferedReader(file, StandardCharsets.UTF_8)));
+            }
+            return build(readers, output);
+        } finally {
+            for (PgnReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Build a book from the games of the readers
+     *
+     * @param readers the readers, read one after another but not closed
+     * @param output  the book file to write
+     *
+     * @return the number of entries in the book
+     *
+     * @throws IOException if reading or writing fails
+     */
+    public long build(Iterable<PgnReader> readers, Path output) throws IOException {
+        games = 0;
+        skippedGames = 0;
+        pool = Executors.newFixedThreadPool(threads);
+        permits = new Semaphore(threads + 1);
+        runs = new ArrayList<>();
+        chunk = new Chunk(chunkSize);
+        try {
+            for (PgnReader reader : readers) {
+                PgnGame pgnGame;
+                while ((pgnGame = reader.next()) != null) {
+                    games++;
+                    if (!addGame(pgnGame)) {
+                        skippedGames++;
+                    }
+                }
+            }
+            if (chunk.size > 0) {
+                submitChunk();
+            }
+            List<Path> files = new ArrayList<>();
+            try {
+                for (Future<Path> run : runs) {
+                    files.add(run.get());
+                }
+                return merge(files, output);
+            } finally {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+            pool = null;
+            runs = null;
+            chunk = null;
+        }
+    }
+
+    /**
+     * Replay a game and record its positions
+     *
+     * @return false if the game has an error
+     */
+    private boolean addGame(PgnGame pgnGame) throws InterruptedException {
+        String result = pgnGame.getResult();
+        int whiteWeight = result.equals("1-0") ? 2 : result.equals("0-1") ? 0 : 1;
+        Game game;
+        try {
+            game = new Game(Fen.parse(pgnGame.getStartFen()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        Chessboard chessboard = game.getChessboard();
+        List<String> moves = pgnGame.getMoves();
+        for (int ply = 0; ply < moves.size() && ply < maxPlies; ply++) {
+            int move;
+            try {
+                move = San.parse(chessboard, moves.get(ply));
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            int weight = chessboard.getSideToMove() == ChessPiece.Color.WHITE ? whiteWeight : 2 - whiteWeight;
+            if (chunk.size == chunk.keys.length) {
+                submitChunk();
+                chunk = new Chunk(chunkSize);
+            }
+            chunk.add(chessboard.getHashKey(), OpeningBook.encodeMove(move), weight);
+            ChessPiece piece = chessboard.getPiece(Moves.getFrom(move));
+            game.handleMove(new PieceMoveEvent(new Move(chessboard, piece, Position.fromIndex(Moves.getTo(move)),
+                    Moves.getPromotion(move))));
+        }
+        return true;
+    }
+
+    /**
+     * Sort and write the current chunk in the pool. Waits if too many chunks are waiting already.
+     */
+    private void submitChunk() throws InterruptedException {
+        Chunk full = chunk;
+        permits.acquire();
+        runs.add(pool.submit(() -> {
+            try {
+                return full.sortAndWrite(tempDirectory);
+            } finally {
+                permits.release();
+            }
+        }));
+    }
+
+    /**
+     * Merge the sorted runs into the book
+     *
+     * @return the number of entries
+     */
+    private long merge(List<Path> files, Path output) throws IOException {
+        PriorityQueue<Run> queue = new PriorityQueue<>((a, b) -> compare(a.key, a.move, b.key, b.move));
+        List<Run> opened = new ArrayList<>();
+        long entries = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output),
+                1 << 16))) {
+            for (Path file : files) {
+                Run run = new Run(file);
+                opened.add(run);
+                if (run.next()) {
+                    queue.add(run);
+                }
+            }
+            // The moves of the current position
+            List<long[]> position = new ArrayList<>();
+            long key = 0;
+            while (!queue.isEmpty()) {
+                Run run = queue.poll();
+                if (!position.isEmpty() && run.key != key) {
+                    entries += writePosition(out, key, position);
+                    position.clear();
+                }
+                key = run.key;
+                long[] last = position.isEmpty() ? null : position.get(position.size() - 1);
+                if (last != null && last[0] == run.move) {
+                    last[1] += run.weight;
+                } else {
+                    position.add(new long[]{run.move, run.weight});
+                }
+                if (run.next()) {
+                    queue.add(run);
+                }
+            }
+            if (!position.isEmpty()) {
+                entries += writePosition(out, key, position);
+            }
+        } finally {
+            for (Run run : opened) {
+                run.close();
+            }
+        }
+        return entries;
+    }
+
+    private static int writePosition(DataOutputStream out, long key, List<long[]> moves) throws IOException {
+        long max = 0;
+        for (long[] move : moves) {
+            max = Math.max(max, move[1]);
+        }
+        // The most played moves first
+        moves.sort((a, b) -> Long.compare(b[1], a[1]));
+        int written = 0;
+        for (long[] move : moves) {
+            if (move[1] == 0) {
+                continue;
+            }
+            long weight = max > MAX_WEIGHT ? Math.max(1, move[1] * MAX_WEIGHT / max) : move[1];
+            out.writeLong(key);
+            out.writeShort((int) move[0]);
+            out.writeShort((int) weight);
+            out.writeInt(0);
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Compare records by key (unsigned, like in the book file) and then by move
+     */
+    static int compare(long key1, int move1, long key2, int move2) {
+        int result = Long.compareUnsigned(key1, key2);
+        return result != 0 ? result : Integer.compare(move1, move2);
+    }
+
+    /**
+     * Records in two parallel arrays: the keys and the moves and weights packed to a long (move << 32 | weight)
+     */
+    static final class Chunk {
+
+        final long[] keys;
+        final long[] values;
+        int size;
+
+        Chunk(int capacity) {
+            keys = new long[capacity];
+            values = new long[capacity];
+        }
+
+        void add(long key, int move, int weight) {
+            keys[size] = key;
+            values[size] = (long) move << 32 | weight;
+            size++;
+        }
+
+        /**
+         * Sort the records, combine the same moves of the same position and write them to a temporary file
+         *
+         * @return the file
+         */
+        Path sortAndWrite(Path directory) throws IOException {
+            sort(0, size - 1);
+            Path file = directory != null ? Files.createTempFile(directory, "book", ".run")
+                    : Files.createTempFile("book", ".run");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file),
+                    1 << 16))) {
+                int i = 0;
+                while (i < size) {
+                    long key = keys[i];
+                    int move = (int) (values[i] >>> 32);
+                    long weight = 0;
+                    for (; i < size && keys[i] == key && (int) (values[i] >>> 32) == move; i++) {
+                        weight += (int) values[i];
+                    }
+                    out.writeLong(key);
+                    out.writeShort(move);
+                    out.writeInt((int) Math.min(weight, Integer.MAX_VALUE));
+                }
+            }
+            return file;
+        }
+
+        private int compare(int i, int j) {
+            return BookBuilder.compare(keys[i], (int) (values[i] >>> 32), keys[j], (int) (values[j] >>> 32));
+        }
+
+        /**
+         * Quicksort of both arrays by key and move, insertion sort for small ranges
+         */
+        void sort(int low, int high) {
+            while (high - low > 16) {
+                int middle = (low + high) >>> 1;
+                // Median of three as the pivot, moved to high
+                if (compare(middle, low) < 0) {
+                    swap(middle, low);
+                }
+                if (compare(high, low) < 0) {
+                    swap(high, low);
+                }
+                if (compare(middle, high) < 0) {
+                    swap(middle, high);
+                }
+                int store = low;
+                for (int i = low; i < high; i++) {
+                    if (compare(i, high) < 0) {
+                        swap(i, store++);
+                    }
+                }
+                swap(store, high);
+                // Recurse into the smaller half so the stack stays small
+                if (store - low < high - store) {
+                    sort(low, store - 1);
+                    low = store + 1;
+                } else {
+                    sort(store + 1, high);
+                    high = store - 1;
+                }
+            }
+            for (int i = low + 1; i <= high; i++) {
+                for (int j = i; j > low && compare(j, j - 1) < 0; j--) {
+                    swap(j, j - 1);
+                }
+            }
+        }
+
+        private void swap(int i, int j) {
+            long key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+            long value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    /**
+     * Reads the records of a run file one at a time
+     */
+    private static final class Run implements Closeable {
+
+        private final DataInputStream in;
+        private final long records;
+        private long read;
+        long key;
+        int move;
+        int weight;
+
+        Run(Path file) throws IOException {
+            records = Files.size(file) / RUN_RECORD_BYTES;
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        }
+
+        boolean next() throws IOException {
+            if (read == records) {
+                return false;
+            }
+            try {
+                key = in.readLong();
+                move = in.readUnsignedShort();
+                weight = in.readInt();
+            } catch (EOFException e) {
+                throw new IOException("Truncated run file", e);
+            }
+            read++;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
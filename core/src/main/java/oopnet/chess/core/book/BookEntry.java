@@ -0,0 +1,48 @@
+package oopnet.chess.core.book;
+
+import oopnet.chess.core.movegen.Moves;
+
+/**
+ * A move of a position in an opening book
+ */
+public class BookEntry {
+
+    private final int move;
+    private final int weight;
+    private final int learn;
+
+    BookEntry(int move, int weight, int learn) {
+        this.move = move;
+        this.weight = weight;
+        this.learn = learn;
+    }
+
+    /**
+     * @return the encoded move, see {@link Moves}
+     */
+    public int getMove() {
+        return move;
+    }
+
+    /**
+     * Get the weight of the move. A move should be played with probability weight / sum of the weights of the
+     * position's moves.
+     *
+     * @return the weight (0-65535)
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return the learning data, unused by this implementation
+     */
+    public int getLearn() {
+        return learn;
+    }
+
+    @Override
+    public String toString() {
+        return Moves.toString(move) + " " + weight;
+    }
+}
@@ -0,0 +1,223 @@
+package oopnet.chess.core.book;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.movegen.Moves;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * An opening book file built by {@link BookBuilder}. The file is a sorted array of 16-byte big-endian entries:
+ * <pre>
+ *     long  key     the hash key of the position
+ *     short move    bits 0-2 to file, 3-5 to rank, 6-8 from file, 9-11 from rank, 12-14 promotion (0 none, 1 knight,
+ *                   2 bishop, 3 rook, 4 queen). Castling is encoded as the king capturing its own rook (e.g. e1h1).
+ *     short weight  how often the move should be played relative to the other moves of the position
+ *     int   learn   unused
+ * </pre>
+ * The entry layout and the move encoding are borrowed from Polyglot books, but the keys are {@link
+ * Chessboard#getHashKey()} and not the keys of the Polyglot specification. The format is not compatible with Polyglot:
+ * Polyglot books can be opened but none of their positions are found, and other tools can't read these books.
+ * <br>
+ * The file is memory-mapped and searched with a binary search, so opening a book is instant and even a book of many
+ * gigabytes is not copied to the heap. The mapped pages are shared by all threads and processes reading the same file.
+ * An instance is thread-safe.
+ */
+public class OpeningBook {
+
+    public static final int ENTRY_BYTES = 16;
+    // One buffer can map at most 2 GB, larger books are mapped in several segments
+    private static final int SEGMENT_SHIFT = 26;
+    private static final long SEGMENT_ENTRIES = 1L << SEGMENT_SHIFT;
+
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    private OpeningBook(MappedByteBuffer[] segments, long size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Open a book file
+     *
+     * @param path the file
+     *
+     * @return the book
+     *
+     * @throws IOException if the file can't be read or its size is not a multiple of {@link #ENTRY_BYTES}
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            if (bytes % ENTRY_BYTES != 0) {
+                throw new IOException("Not a book file, the size is not a multiple of " + ENTRY_BYTES + ": " + path);
+            }
+            long size = bytes / ENTRY_BYTES;
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_ENTRIES - 1) / SEGMENT_ENTRIES)];
+            for (int i = 0; i < segments.length; i++) {
+                long position = i * SEGMENT_ENTRIES * ENTRY_BYTES;
+                // The mapping stays valid after the channel is closed
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(SEGMENT_ENTRIES * ENTRY_BYTES, bytes - position));
+                segments[i].order(ByteOrder.BIG_ENDIAN);
+            }
+            return new OpeningBook(segments, size);
+        }
+    }
+
+    /**
+     * @return the number of entries in the book
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Get the moves of a position. Moves that are not legal in the position (e.g. because of a hash collision) are
+     * left out.
+     *
+     * @param chessboard the position
+     *
+     * @return the moves in the order they are in the book, empty if the position is not in the book
+     */
+    public List<BookEntry> getEntries(Chessboard chessboard) {
+        List<BookEntry> entries = new ArrayList<>();
+        long key = chessboard.getHashKey();
+        MoveList legal = null;
+        for (long index = find(key); index < size && getKey(index) == key; index++) {
+            if (legal == null) {
+                legal = new MoveList();
+                MoveGenerator.generateLegal(chessboard, legal);
+            }
+            int offset = offset(index);
+            MappedByteBuffer segment = segment(index);
+            int move = decodeMove(legal, segment.getShort(offset + 8) & 0xFFFF);
+            if (move != Moves.NONE) {
+                entries.add(new BookEntry(move, segment.getShort(offset + 10) & 0xFFFF, segment.getInt(offset + 12)));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Pick a move randomly, each move with probability weight / total weight of the position's moves
+     *
+     * @param chessboard the position
+     * @param random     the random number generator
+     *
+     * @return the encoded move or {@link Moves#NONE} if the position is not in the book
+     */
+    public int pickMove(Chessboard chessboard, Random random) {
+        List<BookEntry> entries = getEntries(chessboard);
+        int total = 0;
+        for (BookEntry entry : entries) {
+            total += entry.getWeight();
+        }
+        if (total == 0) {
+            return entries.isEmpty() ? Moves.NONE : entries.get(random.nextInt(entries.size())).getMove();
+        }
+        int value = random.nextInt(total);
+        for (BookEntry entry : entries) {
+            value -= entry.getWeight();
+            if (value < 0) {
+                return entry.getMove();
+            }
+        }
+        throw new AssertionError();
+    }
+
+    /**
+     * Get the move with the greatest weight
+     *
+     * @param chessboard the position
+     *
+     * @return the encoded move or {@link Moves#NONE} if the position is not in the book
+     */
+    public int getBestMove(Chessboard chessboard) {
+        BookEntry best = null;
+        for (BookEntry entry : getEntries(chessboard)) {
+            if (best == null || entry.getWeight() > best.getWeight()) {
+                best = entry;
+            }
+        }
+        return best == null ? Moves.NONE : best.getMove();
+    }
+
+    /**
+     * Find the first entry of the key with a binary search. The keys are compared as unsigned numbers.
+     *
+     * @return the index of the first entry whose key is not less than the key
+     */
+    private long find(long key) {
+        long low = 0;
+        long high = size;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(getKey(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long getKey(long index) {
+        return segment(index).getLong(offset(index));
+    }
+
+    private MappedByteBuffer segment(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index & (SEGMENT_ENTRIES - 1)) * ENTRY_BYTES;
+    }
+
+    /**
+     * Convert a move to the move format of the entries
+     *
+     * @param move the encoded move, see {@link Moves}
+     *
+     * @return the book move
+     */
+    public static int encodeMove(int move) {
+        int from = Moves.getFrom(move);
+        int to = Moves.getTo(move);
+        if (Moves.getFlags(move) == Moves.KINGSIDE_CASTLE) {
+            to = from + 3;
+        } else if (Moves.getFlags(move) == Moves.QUEENSIDE_CASTLE) {
+            to = from - 4;
+        }
+        int promotion = Moves.isPromotion(move) ? Moves.getPromotion(move).ordinal() : 0;
+        // The squares are numbered the same way (a1 = 0, h8 = 63) and the types are in the same order
+        return promotion << 12 | from << 6 | to;
+    }
+
+    /**
+     * Find the legal move that matches a book move
+     *
+     * @param legal    the legal moves of the position
+     * @param bookMove the book move
+     *
+     * @return the encoded move or {@link Moves#NONE} if none of the moves matches
+     */
+    static int decodeMove(MoveList legal, int bookMove) {
+        for (int i = 0; i < legal.size(); i++) {
+            if (encodeMove(legal.get(i)) == (bookMove & 0x7FFF)) {
+                return legal.get(i);
+            }
+        }
+        return Moves.NONE;
+    }
+}
@@ -0,0 +1,139 @@
+package oopnet.chess.core.endgame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The results of all positions of one endgame (win, draw or loss for the side to move), 2 bits per position. Created
+ * by {@link BitbaseGenerator} and usually probed through {@link Bitbases}.
+ * <br>
+ * File format:
+ * <pre>
+ *     int    magic ("BBAS")
+ *     int    version (1)
+ *     byte[] the endgame name in ASCII, padded with zeros to 8 bytes
+ *     byte[] the results, 4 positions per byte starting from the lowest bits, see {@link Endgame} for the index
+ * </pre>
+ * Opened files are memory-mapped, so probing reads the pages directly and nothing is copied to the heap. An instance
+ * is thread-safe.
+ */
+public class Bitbase {
+
+    // The 2-bit codes of the results, the same as Result#ordinal()
+    static final int DRAW = 0;
+    static final int WIN = 1;
+    static final int LOSS = 2;
+    // Not a legal position, e.g. two pieces on the same square or the side not to move in check
+    static final int INVALID = 3;
+
+    static final int HEADER_BYTES = 16;
+    private static final int MAGIC = 0x42424153;
+    private static final int VERSION = 1;
+
+    /**
+     * The result of a position from the point of view of the side to move, with perfect play
+     */
+    public enum Result {
+        DRAW,
+        WIN,
+        LOSS
+    }
+
+    private final Endgame endgame;
+    private final ByteBuffer data;
+
+    Bitbase(Endgame endgame, ByteBuffer data) {
+        this.endgame = endgame;
+        this.data = data;
+    }
+
+    /**
+     * Open a bitbase file
+     *
+     * @param path the file
+     *
+     * @return the bitbase
+     *
+     * @throws IOException if the file can't be read or it is not a valid bitbase
+     */
+    public static Bitbase open(Path path) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        data.order(ByteOrder.LITTLE_ENDIAN);
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException("Not a bitbase file: " + path);
+        }
+        byte[] nameBytes = new byte[8];
+        for (int i = 0; i < nameBytes.length; i++) {
+            nameBytes[i] = data.get(8 + i);
+        }
+        Endgame endgame;
+        try {
+            endgame = Endgame.of(new String(nameBytes, StandardCharsets.US_ASCII).trim());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid endgame in bitbase file: " + path, e);
+        }
+        if (data.capacity() != HEADER_BYTES + endgame.size() / 4) {
+            throw new IOException("Invalid size of bitbase file: " + path);
+        }
+        return new Bitbase(endgame, data);
+    }
+
+    /**
+     * Create the bytes of a bitbase file
+     *
+     * @param endgame the endgame
+     * @param codes   the result code of each index
+     *
+     * @return the file contents
+     */
+    static ByteBuffer pack(Endgame endgame, byte[] codes) {
+        ByteBuffer data = ByteBuffer.allocate(HEADER_BYTES + endgame.size() / 4).order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(MAGIC).putInt(VERSION);
+        byte[] name = endgame.getName().getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < 8; i++) {
+            data.put(i < name.length ? name[i] : 0);
+        }
+        for (int i = 0; i < codes.length; i += 4) {
+            data.put((byte) (codes[i] | codes[i + 1] << 2 | codes[i + 2] << 4 | codes[i + 3] << 6));
+        }
+        data.rewind();
+        return data;
+    }
+
+    /**
+     * @return the name of the endgame, e.g. "KRK"
+     */
+    public String getName() {
+        return endgame.getName();
+    }
+
+    Endgame getEndgame() {
+        return endgame;
+    }
+
+    /**
+     * @return the file contents, a read-only view
+     */
+    ByteBuffer getData() {
+        return data.asReadOnlyBuffer();
+    }
+
+    /**
+     * Get the result code of an index
+     *
+     * @param index the index
+     *
+     * @return {@link #WIN}, {@link #DRAW}, {@link #LOSS} or {@link #INVALID}
+     */
+    int get(int index) {
+        return data.get(HEADER_BYTES + (index >>> 2)) >>> ((index & 3) << 1) & 3;
+    }
+}
@@ -0,0 +1,582 @@
+package oopnet.chess.core.endgame;
+
+import oopnet.chess.core.bitboard.Bitboards;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.pieces.ChessPiece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Generates {@link Bitbase}s by retrograde analysis. All positions of the endgame are indexed, and a forward pass
+ * solves the positions decided by moves that leave the endgame: checkmates and stalemates, and captures and promotions
+ * that are looked up in the endgames they lead to. It also counts the other moves of each position. From then on the
+ * moves are walked backwards: the predecessors of a loss are wins, and a position is a loss when the counter of its
+ * moves that are not wins of the opponent reaches zero. Each round only un-moves the positions solved in the previous
+ * one, and the positions still unknown when nothing changes are draws.
+ * <br>
+ * Captures and promotions lead to other endgames, which are generated first (e.g. KRKP needs KRK, KQKR, KRKR, KRKB and
+ * KRKN). The forward pass is split to blocks of positions that are solved in parallel, the un-moves are walked on one
+ * thread. The moves are generated from the attack tables directly, so no {@link oopnet.chess.core.Chessboard} is
+ * needed. Castling is not possible in the supported endgames. The indexed positions have no en passant square: after a
+ * double pawn push the opponent's en passant captures are probed as extra moves, and positions where an en passant
+ * capture is legal are not probed (see {@link Bitbases#probe(oopnet.chess.core.Chessboard)}).
+ * <br>
+ * Example usage:
+ * <pre>
+ *     new BitbaseGenerator(ForkJoinPool.commonPool()).generate(Paths.get("bitbases"), "KPK", "KRK", "KQK");
+ * </pre>
+ * Can be run from the command line, see {@link #main(String[])}.
+ */
+public class BitbaseGenerator {
+
+    // Not solved yet, only used during generation
+    private static final byte UNKNOWN = 4;
+    // The counter of a position that has a move to a draw
+    private static final byte NEVER_LOST = -1;
+    private static final int BLOCK_SIZE = 1 << 16;
+    private static final ChessPiece.Type[] PROMOTIONS = {ChessPiece.Type.QUEEN, ChessPiece.Type.ROOK,
+            ChessPiece.Type.BISHOP, ChessPiece.Type.KNIGHT};
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a new generator
+     *
+     * @param pool the pool that solves the blocks of positions
+     */
+    public BitbaseGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Generate endgames and the endgames they depend on to a directory. Existing files are used and not generated
+     * again.
+     *
+     * @param directory the directory
+     * @param names     the endgames, e.g. "KPK" or "KRKP"
+     *
+     * @return the bitbases of the directory
+     *
+     * @throws IOException if reading or writing fails
+     */
+    public Bitbases generate(Path directory, String... names) throws IOException {
+        Files.createDirectories(directory);
+        Bitbases bitbases = Bitbases.open(directory);
+        for (String name : names) {
+            generate(name, bitbases, directory);
+        }
+        return bitbases;
+    }
+
+    /**
+     * Generate an endgame in memory and the endgames it depends on
+     *
+     * @param name     the endgame, e.g. "KPK"
+     * @param bitbases the bitbases that are already available, the new ones are added to it
+     *
+     * @return the bitbase
+     */
+    public Bitbase generate(String name, Bitbases bitbases) {
+        try {
+            return generate(name, bitbases, null);
+        } catch (IOException e) {
+            // Nothing is written
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Bitbase generate(String name, Bitbases bitbases, Path directory) throws IOException {
+        Bitbase existing = bitbases.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        Endgame endgame = Endgame.of(name);
+        for (String dependency : dependencies(endgame)) {
+            generate(dependency, bitbases, directory);
+        }
+        Bitbase bitbase = new Bitbase(endgame, Bitbase.pack(endgame, solve(endgame, bitbases)));
+        if (directory != null) {
+            Path file = directory.resolve(name + Bitbases.EXTENSION);
+            Path temp = directory.resolve(name + Bitbases.EXTENSION + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer data = bitbase.getData();
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            bitbase = Bitbase.open(file);
+        }
+        bitbases.add(bitbase);
+        return bitbase;
+    }
+
+    /**
+     * Get the endgames reached by captures and promotions
+     */
+    private static String[] dependencies(Endgame endgame) {
+        int count = endgame.getPieceCount();
+        Set<String> names = new LinkedHashSet<>();
+        ChessPiece.Type[] types = new ChessPiece.Type[count];
+        boolean[] white = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            ChessPiece.Type type = endgame.getType(i);
+            if (type == ChessPiece.Type.KING) {
+                continue;
+            }
+            // Captured
+            int n = 0;
+            for (int j = 0; j < count; j++) {
+                if (j != i) {
+                    types[n] = endgame.getType(j);
+                    white[n++] = endgame.isWhite(j);
+                }
+            }
+            names.add(Endgame.canonicalName(types, white, n));
+            if (type == ChessPiece.Type.PAWN) {
+                for (ChessPiece.Type promotion : PROMOTIONS) {
+                    for (int j = 0; j < count; j++) {
+                        types[j] = j == i ? promotion : endgame.getType(j);
+                        white[j] = endgame.isWhite(j);
+                    }
+                    names.add(Endgame.canonicalName(types, white, count));
+                }
+            }
+        }
+        names.remove("KK");
+        return names.toArray(new String[0]);
+    }
+
+    /**
+     * Solve all positions of an endgame
+     *
+     * @return the result code of each index
+     */
+    private byte[] solve(Endgame endgame, Bitbases bitbases) {
+        byte[] codes = new byte[endgame.size()];
+        byte[] counters = new byte[endgame.size()];
+        int blocks = (codes.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        run(blocks, block -> new Solver(endgame, bitbases, codes, counters).seed(block));
+        // The wins and losses solved in the previous round, only their predecessors can change
+        long[] solved = new long[(codes.length + 63) >>> 6];
+        for (int index = 0; index < codes.length; index++) {
+            if (codes[index] == Bitbase.WIN || codes[index] == Bitbase.LOSS) {
+                solved[index >>> 6] |= 1L << index;
+            }
+        }
+        Solver solver = new Solver(endgame, bitbases, codes, counters);
+        long[] next = new long[solved.length];
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int word = 0; word < solved.length; word++) {
+                for (long bits = solved[word]; bits != 0; bits = Bitboards.popLowest(bits)) {
+                    changed |= solver.retract(word << 6 | Bitboards.lowest(bits), next);
+                }
+            }
+            long[] swap = solved;
+            solved = next;
+            next = swap;
+            Arrays.fill(next, 0);
+        }
+        for (int i = 0; i < codes.length; i++) {
+            if (codes[i] == UNKNOWN) {
+                codes[i] = Bitbase.DRAW;
+            }
+        }
+        return codes;
+    }
+
+    private void run(int blocks, IntConsumer task) {
+        try {
+            pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(task)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Solves the positions of an endgame. {@link #seed(int)} only writes the positions of its block, so the blocks can
+     * be seeded in parallel. {@link #retract(int, long[])} updates the predecessors of a position and is called from
+     * one thread.
+     */
+    private static final class Solver {
+
+        private final Endgame endgame;
+        private final Bitbases bitbases;
+        private final byte[] codes;
+        // The moves of each unknown position to positions of this endgame that are not known to be wins of the
+        // opponent, the position is lost when there are none left. NEVER_LOST if the position has a move to a draw.
+        private final byte[] counters;
+        private final int count;
+        private final int[] squares;
+        // Scratch arrays for probing other endgames
+        private final ChessPiece.Type[] childTypes;
+        private final boolean[] childWhite;
+        private final int[] childSquares;
+        private final int[] scratch;
+
+        Solver(Endgame endgame, Bitbases bitbases, byte[] codes, byte[] counters) {
+            this.endgame = endgame;
+            this.bitbases = bitbases;
+            this.codes = codes;
+            this.counters = counters;
+            this.count = endgame.getPieceCount();
+            this.squares = new int[count];
+            this.childTypes = new ChessPiece.Type[count];
+            this.childWhite = new boolean[count];
+            this.childSquares = new int[count];
+            this.scratch = new int[count];
+        }
+
+        void seed(int block) {
+            int end = Math.min(codes.length, (block + 1) * BLOCK_SIZE);
+            for (int index = block * BLOCK_SIZE; index < end; index++) {
+                boolean whiteToMove = endgame.decode(index, squares);
+                codes[index] = (byte) (isValid(whiteToMove) ? seed(index, whiteToMove) : Bitbase.INVALID);
+            }
+        }
+
+        private boolean isValid(boolean whiteToMove) {
+            long occupied = 0;
+            for (int i = 0; i < count; i++) {
+                long bit = 1L << squares[i];
+                if ((occupied & bit) != 0) {
+                    return false;
+                }
+                occupied |= bit;
+                if (endgame.getType(i) == ChessPiece.Type.PAWN && (squares[i] < 8 || squares[i] >= 56)) {
+                    return false;
+                }
+            }
+            // The side that just moved can't be in check
+            return !isAttacked(king(!whiteToMove), whiteToMove, occupied, -1);
+        }
+
+        private int king(boolean white) {
+            for (int i = 0; i < count; i++) {
+                if (endgame.getType(i) == ChessPiece.Type.KING && endgame.isWhite(i) == white) {
+                    return squares[i];
+                }
+            }
+            throw new IllegalStateException("No king in " + endgame);
+        }
+
+        /**
+         * Check whether a square is attacked by the pieces of a side
+         *
+         * @param square   the square
+         * @param white    the attacking side
+         * @param occupied the occupied squares
+         * @param captured the index of a piece that was just captured and doesn't attack, or -1
+         */
+        private boolean isAttacked(int square, boolean white, long occupied, int captured) {
+            ChessPiece.Color color = white ? ChessPiece.Color.WHITE : ChessPiece.Color.BLACK;
+            for (int i = 0; i < count; i++) {
+                if (i != captured && endgame.isWhite(i) == white
+                        && (MoveGenerator.attacks(endgame.getType(i), color, squares[i], occupied) & 1L << square) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static long occupied(int[] squares, int count) {
+            long occupied = 0;
+            for (int i = 0; i < count; i++) {
+                occupied |= 1L << squares[i];
+            }
+            return occupied;
+        }
+
+        /**
+         * Solve a position from the moves that leave the endgame (captures, promotions and en passant captures) and
+         * count the other moves
+         *
+         * @return the code or {@link #UNKNOWN}
+         */
+        private int seed(int index, boolean whiteToMove) {
+            ChessPiece.Color color = whiteToMove ? ChessPiece.Color.WHITE : ChessPiece.Color.BLACK;
+            long occupied = occupied(squares, count);
+            long own = 0;
+            for (int i = 0; i < count; i++) {
+                if (endgame.isWhite(i) == whiteToMove) {
+                    own |= 1L << squares[i];
+                }
+            }
+            int ownKing = king(whiteToMove);
+            int kingIndex = kingIndex(whiteToMove);
+            boolean hasMove = false;
+            boolean drawn = false;
+            int moves = 0;
+            for (int i = 0; i < count; i++) {
+                if (endgame.isWhite(i) != whiteToMove) {
+                    continue;
+                }
+                ChessPiece.Type type = endgame.getType(i);
+                int from = squares[i];
+                long targets;
+                if (type == ChessPiece.Type.PAWN) {
+                    targets = MoveGenerator.attacks(type, color, from, occupied) & occupied & ~own;
+                    int push = whiteToMove ? from + 8 : from - 8;
+                    if ((occupied & 1L << push) == 0) {
+                        targets |= 1L << push;
+                        int doublePush = whiteToMove ? from + 16 : from - 16;
+                        boolean startRank = whiteToMove ? from < 16 : from >= 48;
+                        if (startRank && (occupied & 1L << doublePush) == 0) {
+                            targets |= 1L << doublePush;
+                        }
+                    }
+                } else {
+                    targets = MoveGenerator.attacks(type, color, from, occupied) & ~own;
+                }
+                while (targets != 0) {
+                    int to = Bitboards.lowest(targets);
+                    targets = Bitboards.popLowest(targets);
+                    int captured = -1;
+                    for (int j = 0; j < count; j++) {
+                        if (squares[j] == to && j != i) {
+                            captured = j;
+                        }
+                    }
+                    long after = occupied & ~(1L << from) | 1L << to;
+                    squares[i] = to;
+                    boolean legal = !isAttacked(i == kingIndex ? to : ownKing, !whiteToMove, after, captured);
+                    // The result for the opponent, UNKNOWN if the position is in this endgame
+                    int result = UNKNOWN;
+                    if (legal) {
+                        if (type == ChessPiece.Type.PAWN && (to < 8 || to >= 56)) {
+                            // The best promotion for the side to move
+                            result = Bitbase.WIN;
+                            for (ChessPiece.Type promoted : PROMOTIONS) {
+                                result = better(result, probe(whiteToMove, captured, i, promoted));
+                            }
+                        } else if (captured >= 0) {
+                            result = probe(whiteToMove, captured, i, type);
+                        } else if (type == ChessPiece.Type.PAWN && Math.abs(to - from) == 16
+                                && enPassant(whiteToMove, i, (from + to) >>> 1, after) == Bitbase.WIN) {
+                            // Whatever the result of the position, the opponent wins by capturing en passant
+                            result = Bitbase.WIN;
+                        }
+                    }
+                    squares[i] = from;
+                    if (!legal) {
+                        continue;
+                    }
+                    hasMove = true;
+                    if (result == Bitbase.LOSS) {
+                        return Bitbase.WIN;
+                    } else if (result == Bitbase.DRAW) {
+                        drawn = true;
+                    } else if (result == UNKNOWN) {
+                        moves++;
+                    }
+                }
+            }
+            if (!hasMove) {
+                return isAttacked(ownKing, !whiteToMove, occupied, -1) ? Bitbase.LOSS : Bitbase.DRAW;
+            }
+            if (moves == 0) {
+                return drawn ? Bitbase.DRAW : Bitbase.LOSS;
+            }
+            counters[index] = drawn ? NEVER_LOST : (byte) moves;
+            return UNKNOWN;
+        }
+
+        /**
+         * Update the unknown positions with a move to a position that has just been solved: a move to a loss is a
+         * win, and a position is lost when its last move to a position that is not a win of the opponent is one
+         *
+         * @param index the solved position
+         * @param next  the positions solved here are set in it
+         *
+         * @return true if any position was solved
+         */
+        boolean retract(int index, long[] next) {
+            int code = codes[index];
+            boolean moved = !endgame.decode(index, squares);
+            long occupied = occupied(squares, count);
+            boolean changed = false;
+            for (int i = 0; i < count; i++) {
+                if (endgame.isWhite(i) != moved) {
+                    continue;
+                }
+                int to = squares[i];
+                long origins = origins(i, moved, to, occupied);
+                while (origins != 0) {
+                    int from = Bitboards.lowest(origins);
+                    origins = Bitboards.popLowest(origins);
+                    // The opponent's best en passant capture after a double push, see seed(int, boolean)
+                    int enPassant = endgame.getType(i) == ChessPiece.Type.PAWN && Math.abs(to - from) == 16
+                            ? enPassant(moved, i, (from + to) >>> 1, occupied) : -1;
+                    squares[i] = from;
+                    int predecessor = endgame.index(moved, squares);
+                    squares[i] = to;
+                    if (codes[predecessor] != UNKNOWN || enPassant == Bitbase.WIN) {
+                        continue;
+                    }
+                    if (code == Bitbase.LOSS) {
+                        if (enPassant != Bitbase.DRAW) {
+                            codes[predecessor] = Bitbase.WIN;
+                        }
+                    } else if (counters[predecessor] > 0 && --counters[predecessor] == 0) {
+                        codes[predecessor] = Bitbase.LOSS;
+                    }
+                    if (codes[predecessor] != UNKNOWN) {
+                        next[predecessor >>> 6] |= 1L << predecessor;
+                        changed = true;
+                    }
+                }
+            }
+            return changed;
+        }
+
+        /**
+         * Get the squares a piece can have moved to its square from, without capturing or promoting
+         *
+         * @param piece    the index of the piece
+         * @param white    the color of the piece
+         * @param to       the square of the piece
+         * @param occupied the occupied squares
+         */
+        private long origins(int piece, boolean white, int to, long occupied) {
+            ChessPiece.Type type = endgame.getType(piece);
+            if (type != ChessPiece.Type.PAWN) {
+                // The moves are symmetric
+                return MoveGenerator.attacks(type, white ? ChessPiece.Color.WHITE : ChessPiece.Color.BLACK, to,
+                        occupied) & ~occupied;
+            }
+            // A pawn on the 3rd rank has come from the 2nd, which is the lowest
+            if (white ? to < 16 : to >= 48) {
+                return 0;
+            }
+            int from = white ? to - 8 : to + 8;
+            if ((occupied & 1L << from) != 0) {
+                return 0;
+            }
+            long origins = 1L << from;
+            int start = white ? to - 16 : to + 16;
+            if (to >>> 3 == (white ? 3 : 4) && (occupied & 1L << start) == 0) {
+                origins |= 1L << start;
+            }
+            return origins;
+        }
+
+        private int kingIndex(boolean white) {
+            for (int i = 0; i < count; i++) {
+                if (endgame.getType(i) == ChessPiece.Type.KING && endgame.isWhite(i) == white) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Of two results for the opponent, get the one that is better for the side to move
+         */
+        private static int better(int a, int b) {
+            if (a == Bitbase.LOSS || b == Bitbase.LOSS) {
+                return Bitbase.LOSS;
+            }
+            return a == Bitbase.WIN ? b : a;
+        }
+
+        /**
+         * The opponent may answer a double pawn push by capturing the pawn en passant. Positions with an en passant
+         * square are not indexed, so the captures are probed here. The pushed pawn is already on its new square.
+         *
+         * @param whiteToMove whether white pushed the pawn
+         * @param pushed      the index of the pushed pawn
+         * @param square      the square the pawn skipped
+         * @param occupied    the occupied squares after the push
+         *
+         * @return the best result of the en passant captures for the opponent, or -1 if there are none
+         */
+        private int enPassant(boolean whiteToMove, int pushed, int square, long occupied) {
+            int to = squares[pushed];
+            int opponentKing = king(!whiteToMove);
+            int result = -1;
+            for (int j = 0; j < count; j++) {
+                int from = squares[j];
+                if (endgame.getType(j) != ChessPiece.Type.PAWN || endgame.isWhite(j) == whiteToMove
+                        || from >>> 3 != to >>> 3 || Math.abs((from & 7) - (to & 7)) != 1) {
+                    continue;
+                }
+                long after = occupied & ~(1L << from | 1L << to) | 1L << square;
+                squares[j] = square;
+                if (!isAttacked(opponentKing, whiteToMove, after, pushed)) {
+                    // The code is for the side that pushed the pawn
+                    int code = probe(!whiteToMove, pushed, j, ChessPiece.Type.PAWN);
+                    code = code == Bitbase.WIN ? Bitbase.LOSS : code == Bitbase.LOSS ? Bitbase.WIN : code;
+                    if (result < 0 || code == Bitbase.WIN || code == Bitbase.DRAW && result == Bitbase.LOSS) {
+                        result = code;
+                    }
+                }
+                squares[j] = from;
+            }
+            return result;
+        }
+
+        /**
+         * Probe the position after a capture or promotion in another endgame. The moved piece is already on its new
+         * square.
+         *
+         * @return the result code for the opponent
+         */
+        private int probe(boolean whiteToMove, int captured, int moved, ChessPiece.Type movedType) {
+            int n = 0;
+            for (int j = 0; j < count; j++) {
+                if (j != captured) {
+                    childTypes[n] = j == moved ? movedType : endgame.getType(j);
+                    childWhite[n] = endgame.isWhite(j);
+                    childSquares[n++] = squares[j];
+                }
+            }
+            int code = bitbases.probe(childTypes, childWhite, childSquares, n, !whiteToMove, scratch);
+            if (code < 0) {
+                throw new IllegalStateException("Missing bitbase for a position of " + endgame);
+            }
+            return code;
+        }
+    }
+
+    /**
+     * Usage: {@code java -cp core.jar oopnet.chess.core.endgame.BitbaseGenerator <directory> <endgame>...}, e.g.
+     * {@code bitbases KPK KRK KQK KRKP}
+     *
+     * @param args the arguments
+     *
+     * @throws IOException if writing fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: BitbaseGenerator <directory> <endgame>...");
+            return;
+        }
+        BitbaseGenerator generator = new BitbaseGenerator(ForkJoinPool.commonPool());
+        Path directory = Paths.get(args[0]);
+        for (int i = 1; i < args.length; i++) {
+            long start = System.nanoTime();
+            generator.generate(directory, args[i]);
+            System.out.println(args[i] + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+    }
+}
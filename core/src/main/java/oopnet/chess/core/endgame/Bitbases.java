@@ -0,0 +1,155 @@
+package oopnet.chess.core.endgame;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.bitboard.Bitboards;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.movegen.Moves;
+import oopnet.chess.core.pieces.ChessPiece;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The bitbases of several endgames. Finds the right bitbase for a position and swaps the colors if the stronger side
+ * is black.
+ * <br>
+ * Example usage:
+ * <pre>
+ *     Bitbases bitbases = Bitbases.open(Paths.get("bitbases"));
+ *     Bitbase.Result result = bitbases.probe(chessboard);
+ *     if (result != null) {
+ *         // The game can be adjudicated
+ *     }
+ * </pre>
+ * Positions with castling rights or a legal en passant capture are not probed. An instance is thread-safe.
+ */
+public class Bitbases {
+
+    // The file extension of bitbase files
+    public static final String EXTENSION = ".bb";
+
+    private final Map<String, Bitbase> bitbases = new ConcurrentHashMap<>();
+
+    /**
+     * Open all bitbase files of a directory
+     *
+     * @param directory the directory
+     *
+     * @return the bitbases
+     *
+     * @throws IOException if a file can't be read
+     */
+    public static Bitbases open(Path directory) throws IOException {
+        Bitbases bitbases = new Bitbases();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                bitbases.add(Bitbase.open(file));
+            }
+        }
+        return bitbases;
+    }
+
+    public void add(Bitbase bitbase) {
+        bitbases.put(bitbase.getName(), bitbase);
+    }
+
+    public Bitbase get(String name) {
+        return bitbases.get(name);
+    }
+
+    /**
+     * Probe the result of a position
+     *
+     * @param chessboard the position
+     *
+     * @return the result for the side to move or null if the endgame is not available, the position has castling
+     * rights or a legal en passant capture, or it is not legal
+     */
+    public Bitbase.Result probe(Chessboard chessboard) {
+        if (Long.bitCount(chessboard.getOccupied()) > Endgame.MAX_PIECES || chessboard.getCastlingRights() != 0
+                || hasEnPassant(chessboard)) {
+            return null;
+        }
+        ChessPiece.Type[] types = new ChessPiece.Type[Endgame.MAX_PIECES];
+        boolean[] white = new boolean[Endgame.MAX_PIECES];
+        int[] squares = new int[Endgame.MAX_PIECES];
+        int count = 0;
+        for (int index = 0; index < 12; index++) {
+            long bitboard = chessboard.getBitboard(index);
+            while (bitboard != 0) {
+                squares[count] = Bitboards.lowest(bitboard);
+                bitboard = Bitboards.popLowest(bitboard);
+                types[count] = ChessPiece.Type.values()[index % 6];
+                white[count] = index / 6 == ChessPiece.Color.WHITE.ordinal();
+                count++;
+            }
+        }
+        int code = probe(types, white, squares, count, chessboard.getSideToMove() == ChessPiece.Color.WHITE,
+                new int[Endgame.MAX_PIECES]);
+        return code < 0 || code == Bitbase.INVALID ? null : Bitbase.Result.values()[code];
+    }
+
+    /**
+     * The bitbases only have positions without an en passant capture
+     */
+    private static boolean hasEnPassant(Chessboard chessboard) {
+        if (chessboard.getEnPassantSquare() < 0) {
+            return false;
+        }
+        MoveList legal = new MoveList();
+        MoveGenerator.generateLegal(chessboard, legal);
+        for (int i = 0; i < legal.size(); i++) {
+            if (Moves.isEnPassant(legal.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Probe the result code of a position given as a list of pieces
+     *
+     * @param types       the types of the pieces
+     * @param white       the colors of the pieces
+     * @param squares     the squares of the pieces
+     * @param count       the number of pieces
+     * @param whiteToMove whether white is to move
+     * @param scratch     an array of at least count elements used for the ordered squares
+     *
+     * @return the result code (see {@link Bitbase#get(int)}) or -1 if the endgame is not available
+     */
+    int probe(ChessPiece.Type[] types, boolean[] white, int[] squares, int count, boolean whiteToMove,
+              int[] scratch) {
+        String whiteSide = Endgame.side(types, white, count, true);
+        String blackSide = Endgame.side(types, white, count, false);
+        if (whiteSide.length() == 1 && blackSide.length() == 1) {
+            // Only the kings are left
+            return Bitbase.DRAW;
+        }
+        boolean flipped = Endgame.isFlipped(whiteSide, blackSide);
+        Bitbase bitbase = bitbases.get(flipped ? blackSide + whiteSide : whiteSide + blackSide);
+        if (bitbase == null) {
+            return -1;
+        }
+        Endgame endgame = bitbase.getEndgame();
+        // Put the pieces in the order of the name, each piece of the endgame takes the first unused matching piece
+        long used = 0;
+        for (int piece = 0; piece < endgame.getPieceCount(); piece++) {
+            for (int i = 0; i < count; i++) {
+                if ((used & 1L << i) == 0 && types[i] == endgame.getType(piece)
+                        && (white[i] != flipped) == endgame.isWhite(piece)) {
+                    used |= 1L << i;
+                    // Mirror the board vertically when the colors are swapped
+                    scratch[piece] = flipped ? squares[i] ^ 56 : squares[i];
+                    break;
+                }
+            }
+        }
+        return bitbase.get(endgame.index(whiteToMove != flipped, scratch));
+    }
+}
@@ -0,0 +1,180 @@
+package oopnet.chess.core.endgame;
+
+import oopnet.chess.core.pieces.ChessPiece;
+
+/**
+ * The material of an endgame, e.g. "KRKP" is a white king and rook against a black king and pawn. The stronger side is
+ * always white in the name (see {@link #canonicalName(ChessPiece.Type[], boolean[], int)}), and the pieces of a side
+ * are ordered by value after the king.
+ * <br>
+ * A position is indexed by the side to move and the squares of the pieces in the order of the name:
+ * <pre>
+ *     index = side to move (0 white, 1 black) * 64^n + square of piece 0 * 64^(n-1) + ... + square of piece n-1
+ * </pre>
+ */
+final class Endgame {
+
+    static final int MAX_PIECES = 4;
+    private static final String LETTERS = "PNBRQK";
+    private static final int[] VALUES = {1, 3, 3, 5, 9, 0};
+
+    private final String name;
+    private final ChessPiece.Type[] types;
+    private final boolean[] white;
+    private final int size;
+
+    private Endgame(String name, ChessPiece.Type[] types, boolean[] white) {
+        this.name = name;
+        this.types = types;
+        this.white = white;
+        this.size = 2 << (6 * types.length);
+    }
+
+    /**
+     * Parse an endgame name
+     *
+     * @param name the name, e.g. "KRKP"
+     *
+     * @return the endgame
+     *
+     * @throws IllegalArgumentException if the name is invalid or not canonical
+     */
+    static Endgame of(String name) {
+        int second = name.indexOf('K', 1);
+        if (name.isEmpty() || name.charAt(0) != 'K' || second < 0 || name.length() > MAX_PIECES
+                || name.indexOf('K', second + 1) >= 0) {
+            throw new IllegalArgumentException("Invalid endgame, expected e.g. KRKP (at most " + MAX_PIECES
+                    + " pieces): " + name);
+        }
+        ChessPiece.Type[] types = new ChessPiece.Type[name.length()];
+        boolean[] white = new boolean[name.length()];
+        for (int i = 0; i < name.length(); i++) {
+            int letter = LETTERS.indexOf(name.charAt(i));
+            if (letter < 0) {
+                throw new IllegalArgumentException("Invalid piece " + name.charAt(i) + " in endgame " + name);
+            }
+            types[i] = ChessPiece.Type.values()[letter];
+            white[i] = i < second;
+        }
+        if (!canonicalName(types, white, types.length).equals(name)) {
+            throw new IllegalArgumentException("Not a canonical endgame name, expected "
+                    + canonicalName(types, white, types.length) + ": " + name);
+        }
+        return new Endgame(name, types, white);
+    }
+
+    /**
+     * Get the canonical name of the material: the stronger side first (as white), the pieces of each side ordered by
+     * value
+     *
+     * @param types the types of the pieces
+     * @param white the colors of the pieces
+     * @param count the number of pieces
+     *
+     * @return the name, e.g. "KRKP"
+     */
+    static String canonicalName(ChessPiece.Type[] types, boolean[] white, int count) {
+        String whiteSide = side(types, white, count, true);
+        String blackSide = side(types, white, count, false);
+        return isFlipped(whiteSide, blackSide) ? blackSide + whiteSide : whiteSide + blackSide;
+    }
+
+    /**
+     * Check whether the colors must be swapped so the stronger side is white
+     *
+     * @param whiteSide the white pieces, e.g. "KP"
+     * @param blackSide the black pieces, e.g. "KR"
+     *
+     * @return true if black is stronger
+     */
+    static boolean isFlipped(String whiteSide, String blackSide) {
+        int difference = value(whiteSide) - value(blackSide);
+        if (difference == 0) {
+            difference = whiteSide.length() - blackSide.length();
+        }
+        return difference == 0 ? whiteSide.compareTo(blackSide) < 0 : difference < 0;
+    }
+
+    /**
+     * Get the pieces of one side as a string, the king first and then the others ordered by value
+     */
+    static String side(ChessPiece.Type[] types, boolean[] white, int count, boolean color) {
+        StringBuilder builder = new StringBuilder("K");
+        for (int type = ChessPiece.Type.QUEEN.ordinal(); type >= 0; type--) {
+            for (int i = 0; i < count; i++) {
+                if (white[i] == color && types[i].ordinal() == type) {
+                    builder.append(LETTERS.charAt(type));
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static int value(String side) {
+        int value = 0;
+        for (int i = 0; i < side.length(); i++) {
+            value += VALUES[LETTERS.indexOf(side.charAt(i))];
+        }
+        return value;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getPieceCount() {
+        return types.length;
+    }
+
+    ChessPiece.Type getType(int piece) {
+        return types[piece];
+    }
+
+    boolean isWhite(int piece) {
+        return white[piece];
+    }
+
+    /**
+     * @return the number of indexes
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the index of a position
+     *
+     * @param whiteToMove whether white is to move
+     * @param squares     the squares of the pieces in the order of the name
+     *
+     * @return the index
+     */
+    int index(boolean whiteToMove, int[] squares) {
+        int index = whiteToMove ? 0 : 1;
+        for (int i = 0; i < types.length; i++) {
+            index = index << 6 | squares[i];
+        }
+        return index;
+    }
+
+    /**
+     * Get the position of an index
+     *
+     * @param index   the index
+     * @param squares filled with the squares of the pieces in the order of the name
+     *
+     * @return true if white is to move
+     */
+    boolean decode(int index, int[] squares) {
+        for (int i = types.length - 1; i >= 0; i--) {
+            squares[i] = index & 63;
+            index >>>= 6;
+        }
+        return index == 0;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
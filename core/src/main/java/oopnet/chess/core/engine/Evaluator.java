@@ -0,0 +1,19 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.Chessboard;
+
+/**
+ * Estimates how good a position is, used by {@link Search} at the leaves of the search tree
+ */
+public interface Evaluator {
+
+    /**
+     * Evaluate the position
+     *
+     * @param chessboard the position
+     *
+     * @return the score in centipawns from the point of view of the side to move, positive if it's better for the side
+     * to move
+     */
+    int evaluate(Chessboard chessboard);
+}
@@ -0,0 +1,98 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.movegen.Moves;
+
+/**
+ * The result of {@link MateSolver}
+ */
+public class MateResult {
+
+    public enum Status {
+        // A forced mate was found
+        MATE,
+        // There is no forced mate within the given number of moves
+        NO_MATE,
+        // The time or node limit was reached before the search finished
+        UNKNOWN
+    }
+
+    private final Status status;
+    private final int[] line;
+    private final int maxMoves;
+    private final long nodes;
+    private final long nanos;
+
+    MateResult(Status status, int[] line, int maxMoves, long nodes, long nanos) {
+        this.status = status;
+        this.line = line;
+        this.maxMoves = maxMoves;
+        this.nodes = nodes;
+        this.nanos = nanos;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isMate() {
+        return status == Status.MATE;
+    }
+
+    /**
+     * Get the mating line
+     *
+     * @return the encoded moves (see {@link Moves}) of both players ending in checkmate, empty if no mate was found
+     */
+    public int[] getLine() {
+        return line.clone();
+    }
+
+    /**
+     * Get the number of moves of the attacker in the mate
+     *
+     * @return the number of moves or 0 if no mate was found
+     */
+    public int getMateMoves() {
+        return (line.length + 1) / 2;
+    }
+
+    /**
+     * @return the number of moves the search was limited to
+     */
+    public int getMaxMoves() {
+        return maxMoves;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return nanos / 1_000_000;
+    }
+
+    /**
+     * Get the result as a string, e.g.
+     * <pre>
+     *     mate in 2: d1h5 g7g6 h5e5
+     *     no mate within 3
+     *     unknown within 3 (timeout)
+     * </pre>
+     *
+     * @return the string
+     */
+    @Override
+    public String toString() {
+        if (status == Status.NO_MATE) {
+            return "no mate within " + maxMoves;
+        }
+        if (status == Status.UNKNOWN) {
+            return "unknown within " + maxMoves + " (timeout)";
+        }
+        StringBuilder builder = new StringBuilder("mate in ").append(getMateMoves()).append(':');
+        for (int move : line) {
+            builder.append(' ').append(Moves.toString(move));
+        }
+        return builder.toString();
+    }
+}
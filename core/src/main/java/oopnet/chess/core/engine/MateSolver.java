@@ -0,0 +1,291 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.notation.Fen;
+
+/**
+ * Finds forced mates with depth-first proof-number search (df-pn). A mate is proven when the attacker has a move after
+ * which every defence leads to a proven mate. Proof and disproof numbers estimate how many positions still have to be
+ * solved to prove or disprove a position, and the search always expands the most promising position. Unlike alpha-beta
+ * it needs no evaluation and finds narrow forced lines quickly.
+ * <br>
+ * The numbers are kept in a fixed-size {@link TranspositionTable}, so the memory used is bounded (entries are replaced
+ * when it is full). The depth is limited to the given number of attacker moves and the limit is increased one move at
+ * a time, so the shortest mate is found.
+ * <br>
+ * Example usage:
+ * <pre>
+ *     MateResult result = new MateSolver(16).solve("r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4", 3, 1000);
+ *     System.out.println(result); // mate in 1: h5f7
+ * </pre>
+ * An instance is not thread-safe. Can be run from the command line, see {@link #main(String[])}.
+ */
+public class MateSolver {
+
+    // Larger than any real proof or disproof number, fits in the 24 bits stored in the table
+    static final int INFINITY = (1 << 24) - 1;
+    // How often the time is checked, must be a power of two minus one
+    private static final int CHECK_INTERVAL = 1023;
+    // Mixed into the hash key so the same position with a different depth left has its own entry
+    private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L;
+
+    private final TranspositionTable table;
+    // One list for each ply so nothing is allocated during the search
+    private final MoveList[] moveLists = new MoveList[Search.MAX_PLY];
+    // The table keys of the positions after each move, so the moves don't have to be made again to probe
+    private final long[][] childKeys = new long[Search.MAX_PLY][MoveList.DEFAULT_CAPACITY];
+    private Chessboard chessboard;
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    private boolean aborted;
+
+    /**
+     * Create a new solver
+     *
+     * @param megabytes the size of the node table in megabytes
+     */
+    public MateSolver(int megabytes) {
+        this.table = new TranspositionTable(megabytes);
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Find a forced mate for the side to move
+     *
+     * @param fen      the position
+     * @param maxMoves the maximum number of moves of the side to move
+     * @param millis   the maximum time in milliseconds, 0 for no limit
+     *
+     * @return the result
+     *
+     * @throws IllegalArgumentException if the FEN is invalid
+     */
+    public MateResult solve(String fen, int maxMoves, long millis) {
+        return solve(Fen.parse(fen), maxMoves, millis, 0);
+    }
+
+    /**
+     * Find a forced mate for the side to move. The shortest mate is returned.
+     *
+     * @param chessboard the position, restored afterwards
+     * @param maxMoves   the maximum number of moves of the side to move (1-31)
+     * @param millis     the maximum time in milliseconds, 0 for no limit
+     * @param maxNodes   the maximum number of nodes, 0 for no limit
+     *
+     * @return the result, {@link MateResult.Status#UNKNOWN} if a limit was reached
+     */
+    public MateResult solve(Chessboard chessboard, int maxMoves, long millis, long maxNodes) {
+        if (maxMoves < 1 || 2 * maxMoves > Search.MAX_PLY) {
+            throw new IllegalArgumentException("Moves must be 1-" + Search.MAX_PLY / 2 + ": " + maxMoves);
+        }
+        long start = System.nanoTime();
+        this.chessboard = chessboard;
+        this.nodes = 0;
+        this.maxNodes = maxNodes > 0 ? maxNodes : Long.MAX_VALUE;
+        this.deadline = millis > 0 ? start + millis * 1_000_000 : Long.MAX_VALUE;
+        this.aborted = false;
+        table.clear();
+        for (int moves = 1; moves <= maxMoves; moves++) {
+            int plies = 2 * moves - 1;
+            long entry = search(INFINITY, INFINITY, plies, 0, true);
+            if (aborted) {
+                break;
+            }
+            if (getProof(entry) == 0) {
+                return new MateResult(MateResult.Status.MATE, mateLine(plies), maxMoves, nodes,
+                        System.nanoTime() - start);
+            }
+        }
+        MateResult.Status status = aborted ? MateResult.Status.UNKNOWN : MateResult.Status.NO_MATE;
+        return new MateResult(status, new int[0], maxMoves, nodes, System.nanoTime() - start);
+    }
+
+    /*
+     * The numbers are stored from the point of view of the side to move (negamax form): "proof" is the proof number
+     * of the side to move reaching its goal (the attacker mates, the defender escapes) and "disproof" is the
+     * disproof number of that. So a child's proof is the parent's disproof and the other way round.
+     */
+
+    /**
+     * Search the position until the proof number reaches the proof threshold or the disproof number reaches the
+     * disproof threshold
+     *
+     * @return the table entry of the position
+     */
+    private long search(int proofThreshold, int disproofThreshold, int plies, int ply, boolean attacker) {
+        if ((++nodes & CHECK_INTERVAL) == 0 && (System.nanoTime() >= deadline || nodes >= maxNodes)) {
+            aborted = true;
+        }
+        long key = key(plies);
+        if (ply > 0 && (chessboard.getHalfmoveClock() >= 100 || chessboard.isRepetition())) {
+            // A draw is a success for the defender
+            return store(key, plies, attacker ? INFINITY : 0, attacker ? 0 : INFINITY);
+        }
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        int count = MoveGenerator.generateLegal(chessboard, moves);
+        if (attacker && plies == 1) {
+            count = removeNonChecks(moves, count);
+        }
+        if (count == 0 || !attacker && plies == 0) {
+            boolean mated = !attacker && count == 0
+                    && MoveGenerator.isInCheck(chessboard, chessboard.getSideToMove());
+            // The attacker failed if it ran out of moves, the defender if it was mated
+            boolean success = !attacker && !mated;
+            return store(key, plies, success ? 0 : INFINITY, success ? INFINITY : 0);
+        }
+        long[] keys = childKeys[ply];
+        for (int i = 0; i < count; i++) {
+            chessboard.makeMove(moves.get(i));
+            keys[i] = key(plies - 1);
+            chessboard.unmakeMove();
+        }
+
+        while (true) {
+            // The proof number is the smallest disproof of a child (one move that works is enough), the disproof
+            // number is the sum of the proofs of the children (all moves have to fail)
+            int proof = INFINITY;
+            int disproof = 0;
+            int secondProof = INFINITY;
+            int best = -1;
+            int bestChildProof = 0;
+            for (int i = 0; i < count; i++) {
+                long entry = table.probe(keys[i]);
+                // Unknown positions start at 1 and 1
+                int childProof = entry == TranspositionTable.MISS ? 1 : getProof(entry);
+                int childDisproof = entry == TranspositionTable.MISS ? 1 : getDisproof(entry);
+                if (childDisproof < proof) {
+                    secondProof = proof;
+                    proof = childDisproof;
+                    best = i;
+                    bestChildProof = childProof;
+                } else if (childDisproof < secondProof) {
+                    secondProof = childDisproof;
+                }
+                disproof = Math.min(INFINITY, disproof + childProof);
+            }
+            if (proof >= proofThreshold || disproof >= disproofThreshold || aborted) {
+                return store(key, plies, proof, disproof);
+            }
+            int childProofThreshold = (int) Math.min(INFINITY,
+                    (long) disproofThreshold + bestChildProof - disproof);
+            int childDisproofThreshold = Math.min(proofThreshold, secondProof + 1);
+            chessboard.makeMove(moves.get(best));
+            search(childProofThreshold, childDisproofThreshold, plies - 1, ply + 1, !attacker);
+            chessboard.unmakeMove();
+        }
+    }
+
+    private int removeNonChecks(MoveList moves, int count) {
+        int checks = 0;
+        for (int i = 0; i < count; i++) {
+            int move = moves.get(i);
+            chessboard.makeMove(move);
+            boolean check = MoveGenerator.isInCheck(chessboard, chessboard.getSideToMove());
+            chessboard.unmakeMove();
+            if (check) {
+                moves.set(checks++, move);
+            }
+        }
+        moves.truncate(checks);
+        return checks;
+    }
+
+    /**
+     * Follow the proven moves from the root. Entries that were replaced in the table are searched again.
+     */
+    private int[] mateLine(int plies) {
+        int[] line = new int[plies];
+        int length = 0;
+        boolean attacker = true;
+        for (; plies >= 0; plies--) {
+            MoveList moves = moveLists[length];
+            moves.clear();
+            int count = MoveGenerator.generateLegal(chessboard, moves);
+            if (count == 0) {
+                break;
+            }
+            int next = -1;
+            for (int attempt = 0; attempt < 2 && next < 0; attempt++) {
+                for (int i = 0; i < count && next < 0; i++) {
+                    chessboard.makeMove(moves.get(i));
+                    long entry = table.probe(key(plies - 1));
+                    if (attempt == 1 && entry == TranspositionTable.MISS) {
+                        entry = search(INFINITY, INFINITY, plies - 1, length + 1, !attacker);
+                    }
+                    chessboard.unmakeMove();
+                    // The attacker plays a move that mates, the defender any move (they all get mated)
+                    if (entry != TranspositionTable.MISS && (attacker ? getDisproof(entry) : getProof(entry)) == 0) {
+                        next = moves.get(i);
+                    }
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            chessboard.makeMove(next);
+            line[length++] = next;
+            attacker = !attacker;
+        }
+        for (int i = 0; i < length; i++) {
+            chessboard.unmakeMove();
+        }
+        int[] result = new int[length];
+        System.arraycopy(line, 0, result, 0, length);
+        return result;
+    }
+
+    private long key(int plies) {
+        return chessboard.getHashKey() ^ plies * DEPTH_KEY;
+    }
+
+    private long store(long key, int plies, int proof, int disproof) {
+        long payload = (long) proof << 24 | disproof;
+        table.store(key, payload, plies);
+        return payload;
+    }
+
+    private static int getProof(long entry) {
+        return (int) (entry >>> 24) & INFINITY;
+    }
+
+    private static int getDisproof(long entry) {
+        return (int) entry & INFINITY;
+    }
+
+    /**
+     * Usage: {@code java -cp core.jar oopnet.chess.core.engine.MateSolver <moves> <fen> [--time=MS] [--hash=MB]}
+     * <br>
+     * Prints e.g. "mate in 2: d1h5 g7g6 h5e5" or "no mate within 3".
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+        long millis = 0;
+        int hash = 64;
+        StringBuilder fen = new StringBuilder();
+        int moves = 0;
+        for (String arg : args) {
+            if (arg.startsWith("--time=")) {
+                millis = Long.parseLong(arg.substring("--time=".length()));
+            } else if (arg.startsWith("--hash=")) {
+                hash = Integer.parseInt(arg.substring("--hash=".length()));
+            } else if (moves == 0) {
+                moves = Integer.parseInt(arg);
+            } else {
+                fen.append(fen.length() > 0 ? " " : "").append(arg);
+            }
+        }
+        if (moves == 0 || fen.length() == 0) {
+            System.out.println("Usage: MateSolver <moves> <fen> [--time=MS] [--hash=MB]");
+            return;
+        }
+        MateResult result = new MateSolver(hash).solve(fen.toString(), moves, millis);
+        System.out.println(result + " (" + result.getNodes() + " nodes, " + result.getTimeMillis() + " ms)");
+    }
+}
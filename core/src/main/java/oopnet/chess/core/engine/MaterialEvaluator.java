@@ -0,0 +1,36 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.bitboard.Bitboards;
+import oopnet.chess.core.pieces.ChessPiece;
+
+/**
+ * Counts the material of both players from the bitboards
+ */
+public class MaterialEvaluator implements Evaluator {
+
+    // By ChessPiece.Type ordinal, the king is never captured
+    private static final int[] VALUES = {100, 320, 330, 500, 900, 0};
+
+    @Override
+    public int evaluate(Chessboard chessboard) {
+        int score = 0;
+        for (ChessPiece.Type type : ChessPiece.Type.values()) {
+            int count = Bitboards.count(chessboard.getBitboard(type, ChessPiece.Color.WHITE))
+                    - Bitboards.count(chessboard.getBitboard(type, ChessPiece.Color.BLACK));
+            score += count * VALUES[type.ordinal()];
+        }
+        return chessboard.getSideToMove() == ChessPiece.Color.WHITE ? score : -score;
+    }
+
+    /**
+     * Get the value of a piece
+     *
+     * @param type the type of the piece
+     *
+     * @return the value in centipawns, 0 for the king
+     */
+    public static int getValue(ChessPiece.Type type) {
+        return VALUES[type.ordinal()];
+    }
+}
@@ -0,0 +1,343 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.Game;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.movegen.Moves;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Finds a move with Monte Carlo tree search (UCT). Each iteration walks down the tree choosing the child with the best
+ * upper confidence bound, adds the children of the leaf and plays a random game (playout) from there. The results of
+ * the playouts are added to the nodes on the way back up, and the most visited move is played.
+ * <br>
+ * Several threads search the same tree. The tree is lock-free: the visit and value counters are atomic and the
+ * children of a node are added with compare-and-set. A thread counts its visit when it passes a node (a virtual
+ * loss, as the result is added only later), so the other threads see the node as worse for a moment and explore
+ * other moves.
+ * <br>
+ * The playouts are lightly guided: captures and promotions are preferred, and a playout that has not ended after
+ * {@link #MAX_PLAYOUT_PLIES} plies is scored with the evaluator.
+ * <br>
+ * Example usage:
+ * <pre>
+ *     ExecutorService pool = Executors.newFixedThreadPool(4);
+ *     MonteCarloSearch search = new MonteCarloSearch(pool, 4);
+ *     SearchResult result = search.think(game, 500);
+ *     game.makeMove(result.getBestMove());
+ * </pre>
+ * The pool can be shared by many instances (e.g. all bots of a server). An instance runs one search at a time, but
+ * {@link #stop()} can be called from any thread.
+ */
+public class MonteCarloSearch {
+
+    // Playouts that have not ended by then are scored with the evaluator
+    public static final int MAX_PLAYOUT_PLIES = 120;
+    // Values are stored as fixed point, a win is worth this much and a draw half of it
+    static final int WIN = 1000;
+    // The exploration constant of UCT, sqrt(2) in theory but less works better with short searches
+    private static final double EXPLORATION = 1.2;
+    // How likely a playout plays a capture or promotion if there is one
+    private static final double CAPTURE_PROBABILITY = 0.75;
+    // Scales centipawns to a win probability, 400 cp is about 90%
+    private static final double CENTIPAWNS_PER_LOGIT = 400 / Math.log(9);
+
+    private final ExecutorService pool;
+    private final int threads;
+    private final Evaluator evaluator;
+    private volatile boolean stopRequested;
+
+    /**
+     * Create a new search that scores unfinished playouts with the piece-square evaluation
+     *
+     * @param pool    the pool that runs the search threads
+     * @param threads how many tasks to run in the pool at the same time
+     */
+    public MonteCarloSearch(ExecutorService pool, int threads) {
+        this(pool, threads, new PieceSquareEvaluator());
+    }
+
+    /**
+     * Create a new search
+     *
+     * @param pool      the pool that runs the search threads
+     * @param threads   how many tasks to run in the pool at the same time
+     * @param evaluator scores playouts that have not ended, must be thread-safe
+     */
+    public MonteCarloSearch(ExecutorService pool, int threads, Evaluator evaluator) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed: " + threads);
+        }
+        this.pool = pool;
+        this.threads = threads;
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Think about the move of the player whose turn it is
+     *
+     * @param game   the game, not modified
+     * @param millis how long to think in milliseconds
+     *
+     * @return the result
+     *
+     * @see #think(Chessboard, long)
+     */
+    public SearchResult think(Game game, long millis) {
+        return think(game.getChessboard(), millis);
+    }
+
+    /**
+     * Think about the move of the player whose turn it is for the given time
+     *
+     * @param chessboard the position, not modified (each thread searches a copy)
+     * @param millis     how long to think in milliseconds
+     *
+     * @return the most visited move and the line of most visited moves after it, the score estimated from the win
+     * rate and the number of playouts as nodes. The best move is {@link Moves#NONE} if there are no legal moves.
+     */
+    public SearchResult think(Chessboard chessboard, long millis) {
+        long start = System.nanoTime();
+        long deadline = start + millis * 1_000_000;
+        stopRequested = false;
+        Node root = new Node(null, Moves.NONE);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Chessboard copy = chessboard.copy();
+            futures.add(pool.submit(() -> run(root, copy, deadline)));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search thread failed", e.getCause());
+        }
+        return createResult(root, System.nanoTime() - start);
+    }
+
+    /**
+     * Stop the current search as soon as possible. Can be called from any thread.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    private void run(Node root, Chessboard chessboard, long deadline) {
+        MoveList moves = new MoveList();
+        int iterations = 0;
+        // At least one playout so there is a move to play
+        do {
+            iterate(root, chessboard, moves);
+            iterations++;
+        } while (!stopRequested && ((iterations & 15) != 0 || System.nanoTime() < deadline));
+    }
+
+    /**
+     * Select a leaf, expand it, run a playout from it and add the result to the path
+     */
+    private void iterate(Node root, Chessboard chessboard, MoveList moves) {
+        int ply = chessboard.getPly();
+        Node node = root;
+        node.addVisit();
+        while (true) {
+            Node[] children = node.children;
+            if (children == null) {
+                if (node.visits < 2 && node != root) {
+                    // Expand only nodes that have been visited before
+                    break;
+                }
+                children = node.expand(chessboard, moves);
+            }
+            if (children.length == 0) {
+                break;
+            }
+            node = select(node, children);
+            node.addVisit();
+            chessboard.makeMove(node.move);
+        }
+        // The value for the player who made the last move, i.e. who chose the node
+        int value = WIN - playout(chessboard, moves);
+        while (chessboard.getPly() > ply) {
+            chessboard.unmakeMove();
+        }
+        for (; node != null; node = node.parent) {
+            node.addValue(value);
+            value = WIN - value;
+        }
+    }
+
+    private Node select(Node parent, Node[] children) {
+        double logVisits = Math.log(Math.max(1, parent.visits));
+        Node best = null;
+        double bestBound = Double.NEGATIVE_INFINITY;
+        for (Node child : children) {
+            int visits = child.visits;
+            if (visits == 0) {
+                // The children are in random order, so this picks a random unvisited one
+                return child;
+            }
+            double bound = (double) child.value / ((long) visits * WIN) + EXPLORATION * Math.sqrt(logVisits / visits);
+            if (bound > bestBound) {
+                bestBound = bound;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Play random moves until the game ends
+     *
+     * @return the result for the side to move at the start of the playout, 0 to {@link #WIN}
+     */
+    private int playout(Chessboard chessboard, MoveList moves) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int start = chessboard.getPly();
+        int value = -1;
+        for (int ply = 0; ply < MAX_PLAYOUT_PLIES; ply++) {
+            if (chessboard.getHalfmoveClock() >= 100 || chessboard.getPly() > start && chessboard.isRepetition()) {
+                value = WIN / 2;
+                break;
+            }
+            moves.clear();
+            int count = MoveGenerator.generateLegal(chessboard, moves);
+            if (count == 0) {
+                value = MoveGenerator.isInCheck(chessboard, chessboard.getSideToMove()) ? 0 : WIN / 2;
+                break;
+            }
+            chessboard.makeMove(pickMove(moves, count, random));
+        }
+        if (value < 0) {
+            value = winProbability(evaluator.evaluate(chessboard));
+        }
+        int plies = chessboard.getPly() - start;
+        while (chessboard.getPly() > start) {
+            chessboard.unmakeMove();
+        }
+        // The value is for the side to move at the end
+        return (plies & 1) == 0 ? value : WIN - value;
+    }
+
+    private int pickMove(MoveList moves, int count, ThreadLocalRandom random) {
+        if (random.nextDouble() < CAPTURE_PROBABILITY) {
+            // Start from a random move so all captures are equally likely
+            int offset = random.nextInt(count);
+            for (int i = 0; i < count; i++) {
+                int move = moves.get((offset + i) % count);
+                if (Moves.isCapture(move) || Moves.isPromotion(move)) {
+                    return move;
+                }
+            }
+        }
+        return moves.get(random.nextInt(count));
+    }
+
+    static int winProbability(int centipawns) {
+        return (int) Math.round(WIN / (1 + Math.exp(-centipawns / CENTIPAWNS_PER_LOGIT)));
+    }
+
+    static int centipawns(double winProbability) {
+        double p = Math.min(Math.max(winProbability, 0.001), 0.999);
+        return (int) Math.round(CENTIPAWNS_PER_LOGIT * Math.log(p / (1 - p)));
+    }
+
+    private SearchResult createResult(Node root, long nanos) {
+        List<Integer> line = new ArrayList<>();
+        Node node = root;
+        int score = 0;
+        while (node.children != null && node.children.length > 0 && line.size() < Search.MAX_PLY) {
+            Node best = null;
+            for (Node child : node.children) {
+                if (best == null || child.visits > best.visits) {
+                    best = child;
+                }
+            }
+            if (best.visits == 0) {
+                break;
+            }
+            if (node == root) {
+                score = centipawns((double) best.value / ((long) best.visits * WIN));
+            }
+            line.add(best.move);
+            node = best;
+        }
+        int[] pv = new int[line.size()];
+        for (int i = 0; i < pv.length; i++) {
+            pv[i] = line.get(i);
+        }
+        return new SearchResult(pv, score, pv.length, root.visits, nanos);
+    }
+
+    /**
+     * A node of the search tree. The visits and value are updated with atomic field updaters rather than atomic
+     * objects to keep the nodes small.
+     */
+    static final class Node {
+
+        private static final AtomicIntegerFieldUpdater<Node> VISITS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+        private static final AtomicLongFieldUpdater<Node> VALUE =
+                AtomicLongFieldUpdater.newUpdater(Node.class, "value");
+        private static final AtomicReferenceFieldUpdater<Node, Node[]> CHILDREN =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node[].class, "children");
+
+        final Node parent;
+        // The move that leads to this node
+        final int move;
+        // The number of playouts through this node, including the ones still running (virtual losses)
+        volatile int visits;
+        // The sum of the results for the player who made the move, see WIN
+        volatile long value;
+        // Null until expanded
+        volatile Node[] children;
+
+        Node(Node parent, int move) {
+            this.parent = parent;
+            this.move = move;
+        }
+
+        void addVisit() {
+            VISITS.incrementAndGet(this);
+        }
+
+        void addValue(int value) {
+            VALUE.addAndGet(this, value);
+        }
+
+        /**
+         * Add the children unless another thread already did
+         *
+         * @return the children
+         */
+        Node[] expand(Chessboard chessboard, MoveList moves) {
+            moves.clear();
+            int count = MoveGenerator.generateLegal(chessboard, moves);
+            Node[] created = new Node[count];
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < count; i++) {
+                // Shuffle so the unvisited children are tried in random order
+                int j = random.nextInt(i + 1);
+                created[i] = created[j];
+                created[j] = new Node(this, moves.get(i));
+            }
+            if (CHILDREN.compareAndSet(this, null, created)) {
+                return created;
+            }
+            return children;
+        }
+    }
+}
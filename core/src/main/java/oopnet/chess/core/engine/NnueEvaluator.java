@@ -0,0 +1,146 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.bitboard.Bitboards;
+import oopnet.chess.core.pieces.ChessPiece;
+
+import java.util.Arrays;
+
+/**
+ * Evaluates positions with an {@link NnueNetwork}.
+ * <br>
+ * The evaluator listens to the pieces of the board it evaluates (see {@link Chessboard#setPieceListener(
+ * Chessboard.PieceListener)}) and adds or subtracts the weights of the changed features when a piece moves. Only the
+ * accumulator of a side whose king moved has to be recomputed, and that is done lazily on the next evaluation.
+ * <br>
+ * An instance follows one board at a time (the last evaluated one), so each search thread needs its own evaluator.
+ * The network can be shared. In the verifying mode every evaluation also recomputes the accumulators from scratch and
+ * throws an exception if they differ.
+ */
+public class NnueEvaluator implements Evaluator, Chessboard.PieceListener {
+
+    private static final ChessPiece.Color[] COLORS = ChessPiece.Color.values();
+
+    private final NnueNetwork network;
+    private final boolean verify;
+    // One accumulator and king square for each perspective, indexed by the color's ordinal
+    private final short[][] accumulators;
+    private final int[] kingSquares = new int[2];
+    // The accumulator needs a full refresh, e.g. after its king moved
+    private final boolean[] dirty = new boolean[2];
+    private Chessboard chessboard;
+
+    public NnueEvaluator(NnueNetwork network) {
+        this(network, false);
+    }
+
+    /**
+     * Create a new evaluator
+     *
+     * @param network the network
+     * @param verify  whether to check the incremental accumulators against a full recomputation on every call
+     */
+    public NnueEvaluator(NnueNetwork network, boolean verify) {
+        this.network = network;
+        this.verify = verify;
+        this.accumulators = new short[2][network.getHiddenSize()];
+    }
+
+    @Override
+    public int evaluate(Chessboard chessboard) {
+        if (this.chessboard != chessboard) {
+            attach(chessboard);
+        }
+        for (int color = 0; color < 2; color++) {
+            if (dirty[color]) {
+                kingSquares[color] = Bitboards.lowest(chessboard.getBitboard(ChessPiece.Type.KING, COLORS[color]));
+                refresh(chessboard, COLORS[color], accumulators[color]);
+                dirty[color] = false;
+            }
+        }
+        if (verify) {
+            short[] computed = new short[network.getHiddenSize()];
+            for (int color = 0; color < 2; color++) {
+                refresh(chessboard, COLORS[color], computed);
+                if (!Arrays.equals(computed, accumulators[color])) {
+                    throw new IllegalStateException("Incremental accumulator of " + COLORS[color]
+                            + " differs from the recomputed accumulator");
+                }
+            }
+        }
+        int us = chessboard.getSideToMove().ordinal();
+        return network.output(accumulators[us], accumulators[us ^ 1]);
+    }
+
+    /**
+     * Start following the board. The evaluator stops listening to the previous board.
+     *
+     * @param chessboard the board
+     */
+    private void attach(Chessboard chessboard) {
+        if (this.chessboard != null && this.chessboard.getPieceListener() == this) {
+            this.chessboard.setPieceListener(null);
+        }
+        this.chessboard = chessboard;
+        chessboard.setPieceListener(this);
+        piecesReset();
+    }
+
+    /**
+     * Recompute an accumulator from the bitboards
+     */
+    private void refresh(Chessboard chessboard, ChessPiece.Color perspective, short[] accumulator) {
+        int kingSquare = Bitboards.lowest(chessboard.getBitboard(ChessPiece.Type.KING, perspective));
+        network.reset(accumulator);
+        for (int index = 0; index < 12; index++) {
+            if (index % 6 == ChessPiece.Type.KING.ordinal()) {
+                continue;
+            }
+            long bitboard = chessboard.getBitboard(index);
+            while (bitboard != 0) {
+                int square = Bitboards.lowest(bitboard);
+                bitboard = Bitboards.popLowest(bitboard);
+                network.addFeature(accumulator, NnueNetwork.featureIndex(perspective, kingSquare, index, square));
+            }
+        }
+    }
+
+    @Override
+    public void pieceAdded(int bitboardIndex, int square) {
+        if (bitboardIndex % 6 == ChessPiece.Type.KING.ordinal()) {
+            // The king square is part of every feature of its side, so the accumulator is recomputed when needed
+            dirty[bitboardIndex / 6] = true;
+            return;
+        }
+        for (int color = 0; color < 2; color++) {
+            if (!dirty[color]) {
+                network.addFeature(accumulators[color],
+                        NnueNetwork.featureIndex(COLORS[color], kingSquares[color], bitboardIndex, square));
+            }
+        }
+    }
+
+    @Override
+    public void pieceRemoved(int bitboardIndex, int square) {
+        if (bitboardIndex % 6 == ChessPiece.Type.KING.ordinal()) {
+            dirty[bitboardIndex / 6] = true;
+            return;
+        }
+        for (int color = 0; color < 2; color++) {
+            if (!dirty[color]) {
+                network.removeFeature(accumulators[color],
+                        NnueNetwork.featureIndex(COLORS[color], kingSquares[color], bitboardIndex, square));
+            }
+        }
+    }
+
+    @Override
+    public void piecesReset() {
+        dirty[0] = true;
+        dirty[1] = true;
+    }
+
+    public NnueNetwork getNetwork() {
+        return network;
+    }
+}
@@ -0,0 +1,223 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.pieces.ChessPiece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The weights of an efficiently updatable neural network (NNUE) used by {@link NnueEvaluator}.
+ * <br>
+ * The inputs are HalfKP features: for each side (perspective), the square of its own king combined with the type,
+ * color and square of every other piece except the kings. The board is flipped for black so both sides see the
+ * position the same way. The first layer (the feature transformer) is the sum of the weight columns of the active
+ * features, kept in int16 accumulators that are updated as pieces move. The accumulators of the side to move and the
+ * other side are clipped to 0-{@link #ACTIVATION_MAX} and go to a single output neuron.
+ * <br>
+ * The file is memory-mapped and copied to heap arrays with bulk reads. The file is little-endian:
+ * <pre>
+ *     int     magic ("NNUE")
+ *     int     version (1)
+ *     int     hidden size H
+ *     short[] feature transformer biases [H]
+ *     short[] feature transformer weights [{@link #FEATURES}][H]
+ *     short[] output weights [2 * H], the side to move's half first
+ *     int     output bias
+ * </pre>
+ * The loops over the accumulators read {@code short[]} arrays instead of the mapped buffer, so there are no byte order
+ * conversions, the JIT can move the bounds checks out of the loops and auto-vectorize them. A network with H hidden neurons takes
+ * 2 * {@link #FEATURES} * H bytes of heap, 20 MiB when H is 256.
+ */
+public class NnueNetwork {
+
+    // 64 king squares * 10 piece types and colors * 64 squares
+    public static final int FEATURES = 64 * 10 * 64;
+    // The accumulator values are clipped to 0-ACTIVATION_MAX before the output layer
+    public static final int ACTIVATION_MAX = 255;
+    // The output weights are scaled by this
+    public static final int OUTPUT_SCALE = 64;
+    // Converts the output to centipawns
+    public static final int CENTIPAWN_SCALE = 400;
+
+    private static final int MAGIC = 0x4E4E5545;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+
+    private final int hiddenSize;
+    private final short[] biases;
+    // The H weights of each feature together
+    private final short[] weights;
+    private final short[] ownOutputWeights;
+    private final short[] otherOutputWeights;
+    private final int outputBias;
+
+    private NnueNetwork(int hiddenSize, short[] biases, short[] weights, short[] ownOutputWeights,
+                        short[] otherOutputWeights, int outputBias) {
+        this.hiddenSize = hiddenSize;
+        this.biases = biases;
+        this.weights = weights;
+        this.ownOutputWeights = ownOutputWeights;
+        this.otherOutputWeights = otherOutputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Load a network from a file
+     *
+     * @param path the network file
+     *
+     * @return the network
+     *
+     * @throws IOException if reading fails or the file is not a valid network
+     */
+    public static NnueNetwork load(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a network file: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported network version " + buffer.getInt(4) + ": " + path);
+        }
+        int hiddenSize = buffer.getInt(8);
+        long expected = HEADER_BYTES + 2L * hiddenSize * (1 + FEATURES + 2) + 4;
+        if (hiddenSize <= 0 || buffer.capacity() != expected) {
+            throw new IOException("Invalid network size, expected " + expected + " bytes: " + path);
+        }
+        buffer.position(HEADER_BYTES);
+        ShortBuffer shorts = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        short[] biases = new short[hiddenSize];
+        shorts.get(biases);
+        short[] weights = new short[FEATURES * hiddenSize];
+        shorts.get(weights);
+        short[] own = new short[hiddenSize];
+        short[] other = new short[hiddenSize];
+        shorts.get(own);
+        shorts.get(other);
+        int outputBias = buffer.getInt(buffer.capacity() - 4);
+        return new NnueNetwork(hiddenSize, biases, weights, own, other, outputBias);
+    }
+
+    /**
+     * Write a network file, e.g. when converting a trained network
+     *
+     * @param path          the file to write
+     * @param biases        the feature transformer biases [H]
+     * @param weights       the feature transformer weights [{@link #FEATURES} * H], the H weights of each feature
+     *                      together
+     * @param outputWeights the output weights [2 * H], the side to move's half first
+     * @param outputBias    the output bias
+     *
+     * @throws IOException if writing fails
+     */
+    public static void write(Path path, short[] biases, short[] weights, short[] outputWeights, int outputBias)
+            throws IOException {
+        int hiddenSize = biases.length;
+        if (weights.length != FEATURES * hiddenSize || outputWeights.length != 2 * hiddenSize) {
+            throw new IllegalArgumentException("The weights do not match the hidden size " + hiddenSize);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 2 * (biases.length + weights.length
+                + outputWeights.length) + 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(hiddenSize);
+        buffer.asShortBuffer().put(biases).put(weights).put(outputWeights);
+        buffer.putInt(buffer.capacity() - 4, outputBias);
+        buffer.rewind();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public int getHiddenSize() {
+        return hiddenSize;
+    }
+
+    /**
+     * Get the index of a feature
+     *
+     * @param perspective   the side whose accumulator the feature belongs to
+     * @param kingSquare    the square of the perspective's king
+     * @param bitboardIndex the piece's bitboard index (0-11), not a king
+     * @param square        the square of the piece
+     *
+     * @return the feature index (0 to {@link #FEATURES} - 1)
+     */
+    public static int featureIndex(ChessPiece.Color perspective, int kingSquare, int bitboardIndex, int square) {
+        int type = bitboardIndex % 6;
+        boolean own = bitboardIndex / 6 == perspective.ordinal();
+        if (perspective == ChessPiece.Color.BLACK) {
+            // Flip the board vertically so black sees the board like white
+            kingSquare ^= 56;
+            square ^= 56;
+        }
+        return (kingSquare * 10 + type * 2 + (own ? 0 : 1)) * 64 + square;
+    }
+
+    /**
+     * Reset an accumulator to the biases
+     *
+     * @param accumulator the accumulator
+     */
+    void reset(short[] accumulator) {
+        System.arraycopy(biases, 0, accumulator, 0, hiddenSize);
+    }
+
+    /**
+     * Add the weights of a feature to an accumulator
+     *
+     * @param accumulator the accumulator
+     * @param feature     the feature index
+     */
+    void addFeature(short[] accumulator, int feature) {
+        short[] weights = this.weights;
+        int offset = feature * hiddenSize;
+        for (int i = 0; i < hiddenSize; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    /**
+     * Subtract the weights of a feature from an accumulator
+     *
+     * @param accumulator the accumulator
+     * @param feature     the feature index
+     */
+    void removeFeature(short[] accumulator, int feature) {
+        short[] weights = this.weights;
+        int offset = feature * hiddenSize;
+        for (int i = 0; i < hiddenSize; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    /**
+     * Calculate the output of the network
+     *
+     * @param own   the accumulator of the side to move
+     * @param other the accumulator of the other side
+     *
+     * @return the score in centipawns from the point of view of the side to move
+     */
+    int output(short[] own, short[] other) {
+        int sum = outputBias;
+        for (int i = 0; i < hiddenSize; i++) {
+            sum += Math.min(Math.max(own[i], 0), ACTIVATION_MAX) * ownOutputWeights[i];
+        }
+        for (int i = 0; i < hiddenSize; i++) {
+            sum += Math.min(Math.max(other[i], 0), ACTIVATION_MAX) * otherOutputWeights[i];
+        }
+        return (int) ((long) sum * CENTIPAWN_SCALE / (ACTIVATION_MAX * OUTPUT_SCALE));
+    }
+}
@@ -0,0 +1,262 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.movegen.Moves;
+import oopnet.chess.core.notation.Fen;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth (perft). The counts of many positions are well known,
+ * so perft verifies move generation, and nodes per second measures its speed.
+ * <br>
+ * Example usage:
+ * <pre>
+ *     Chessboard chessboard = Fen.parse(Fen.DEFAULT);
+ *     long nodes = new Perft().perft(chessboard, 5); // 4865609
+ * </pre>
+ * An instance is not thread-safe, but {@link #perftParallel(Chessboard, int, ForkJoinPool)} splits the work at the
+ * root to several threads. The optional cache can be shared by all threads.
+ * <br>
+ * Can be run from the command line, see {@link #main(String[])}.
+ */
+public class Perft {
+
+    /**
+     * Well known positions and their perft counts from depth 1 onwards
+     */
+    public static final Object[][] REFERENCE_POSITIONS = {
+            {Fen.DEFAULT, new long[]{20, 400, 8902, 197281, 4865609, 119060324}},
+            {"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    new long[]{48, 2039, 97862, 4085603, 193690690}},
+            {"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", new long[]{14, 191, 2812, 43238, 674624, 11030083}},
+            {"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    new long[]{6, 264, 9467, 422333, 15833292}},
+            {"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", new long[]{44, 1486, 62379, 2103487, 89941194}},
+    };
+
+    private static final int MAX_DEPTH = 64;
+    // Mixed into the hash key so counts of different depths don't share entries
+    private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L;
+
+    // One list for each ply so nothing is allocated during the search
+    private final MoveList[] moveLists = new MoveList[MAX_DEPTH];
+    private final TranspositionTable cache;
+
+    public Perft() {
+        this(null);
+    }
+
+    /**
+     * Create a new perft counter
+     *
+     * @param cache the table used to remember the counts of subtrees or null to not cache
+     */
+    public Perft(TranspositionTable cache) {
+        this.cache = cache;
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Count the leaf nodes at the given depth. The board is modified during the count but restored afterwards.
+     *
+     * @param chessboard the position
+     * @param depth      the depth, 0 returns 1
+     *
+     * @return the number of leaf nodes
+     */
+    public long perft(Chessboard chessboard, int depth) {
+        if (depth >= MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be less than " + MAX_DEPTH);
+        }
+        return count(chessboard, depth, 0);
+    }
+
+    private long count(Chessboard chessboard, int depth, int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+        long key = 0;
+        if (cache != null && depth > 1) {
+            key = chessboard.getHashKey() ^ depth * DEPTH_KEY;
+            long entry = cache.probe(key);
+            if (entry != TranspositionTable.MISS && TranspositionTable.getDepth(entry) == depth) {
+                return TranspositionTable.getPayload(entry);
+            }
+        }
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        int count = MoveGenerator.generateLegal(chessboard, moves);
+        if (depth == 1) {
+            // The moves don't need to be made to count them
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            chessboard.makeMove(moves.get(i));
+            nodes += count(chessboard, depth - 1, ply + 1);
+            chessboard.unmakeMove();
+        }
+        if (cache != null && depth > 1) {
+            cache.store(key, nodes, depth);
+        }
+        return nodes;
+    }
+
+    /**
+     * Count the leaf nodes of each legal move separately
+     *
+     * @param chessboard the position
+     * @param depth      the depth, at least 1
+     *
+     * @return the counts by move (e.g. "e2e4") in the generation order
+     */
+    public Map<String, Long> divide(Chessboard chessboard, int depth) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int move : legalMoves(chessboard)) {
+            chessboard.makeMove(move);
+            result.put(Moves.toString(move), perft(chessboard, depth - 1));
+            chessboard.unmakeMove();
+        }
+        return result;
+    }
+
+    /**
+     * Count the leaf nodes by searching each root move in its own fork-join task on its own copy of the board
+     *
+     * @param chessboard the position, not modified
+     * @param depth      the depth, at least 1
+     * @param pool       the pool that runs the tasks
+     *
+     * @return the number of leaf nodes
+     */
+    public long perftParallel(Chessboard chessboard, int depth, ForkJoinPool pool) {
+        return pool.invoke(new RecursiveTask<Long>() {
+            @Override
+            protected Long compute() {
+                List<RecursiveTask<Long>> tasks = new ArrayList<>();
+                for (int move : legalMoves(chessboard)) {
+                    Chessboard copy = chessboard.copy();
+                    copy.makeMove(move);
+                    RecursiveTask<Long> task = new RecursiveTask<Long>() {
+                        @Override
+                        protected Long compute() {
+                            return new Perft(cache).perft(copy, depth - 1);
+                        }
+                    };
+                    task.fork();
+                    tasks.add(task);
+                }
+                long nodes = 0;
+                for (RecursiveTask<Long> task : tasks) {
+                    nodes += task.join();
+                }
+                return nodes;
+            }
+        });
+    }
+
+    private List<Integer> legalMoves(Chessboard chessboard) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(chessboard, moves);
+        List<Integer> legal = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) {
+            legal.add(moves.get(i));
+        }
+        return legal;
+    }
+
+    /**
+     * Usage: {@code java -cp core.jar oopnet.chess.core.engine.Perft [options] <depth> [fen]}
+     * <br>
+     * Options:
+     * <pre>
+     *     --divide         print the count of each root move
+     *     --parallel[=N]   split the root moves to N threads (default: all cores)
+     *     --hash=MB        cache subtree counts in a table of the given size
+     *     --verify         run the reference positions up to the depth and check the counts
+     * </pre>
+     *
+     * @param args the arguments
+     */
+    public static void main(String[] args) {
+        boolean divide = false;
+        boolean verify = false;
+        int threads = 0;
+        int hash = 0;
+        List<String> rest = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--divide")) {
+                divide = true;
+            } else if (arg.equals("--verify")) {
+                verify = true;
+            } else if (arg.startsWith("--parallel")) {
+                threads = arg.contains("=") ? Integer.parseInt(arg.substring(arg.indexOf('=') + 1))
+                        : Runtime.getRuntime().availableProcessors();
+            } else if (arg.startsWith("--hash=")) {
+                hash = Integer.parseInt(arg.substring("--hash=".length()));
+            } else {
+                rest.add(arg);
+            }
+        }
+        if (rest.isEmpty()) {
+            System.out.println("Usage: Perft [--divide] [--parallel[=N]] [--hash=MB] [--verify] <depth> [fen]");
+            return;
+        }
+        int depth = Integer.parseInt(rest.get(0));
+        TranspositionTable cache = hash > 0 ? new TranspositionTable(hash) : null;
+        ForkJoinPool pool = threads > 0 ? new ForkJoinPool(threads) : null;
+        if (verify) {
+            boolean failed = false;
+            for (Object[] reference : REFERENCE_POSITIONS) {
+                long[] expected = (long[]) reference[1];
+                int d = Math.min(depth, expected.length);
+                long nodes = run(Fen.parse((String) reference[0]), d, cache, pool, false);
+                boolean ok = nodes == expected[d - 1];
+                failed |= !ok;
+                System.out.println((ok ? "OK   " : "FAIL ") + reference[0] + " depth " + d + ": " + nodes
+                        + (ok ? "" : " (expected " + expected[d - 1] + ")"));
+            }
+            if (failed) {
+                System.exit(1);
+            }
+        } else {
+            String fen = rest.size() > 1 ? String.join(" ", rest.subList(1, rest.size())) : Fen.DEFAULT;
+            run(Fen.parse(fen), depth, cache, pool, divide);
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private static long run(Chessboard chessboard, int depth, TranspositionTable cache, ForkJoinPool pool,
+                            boolean divide) {
+        Perft perft = new Perft(cache);
+        long start = System.nanoTime();
+        long nodes;
+        if (divide) {
+            nodes = 0;
+            for (Map.Entry<String, Long> entry : perft.divide(chessboard, depth).entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+        } else if (pool != null) {
+            nodes = perft.perftParallel(chessboard, depth, pool);
+        } else {
+            nodes = perft.perft(chessboard, depth);
+        }
+        long nanos = Math.max(1, System.nanoTime() - start);
+        System.out.println(String.format("perft(%d) = %d in %d ms, %d nodes/s", depth, nodes, nanos / 1_000_000,
+                nodes * 1_000_000_000L / nanos));
+        return nodes;
+    }
+}
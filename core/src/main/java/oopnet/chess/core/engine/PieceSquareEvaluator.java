@@ -0,0 +1,72 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.bitboard.Bitboards;
+import oopnet.chess.core.bitboard.PieceSquareTables;
+import oopnet.chess.core.pieces.ChessPiece;
+
+/**
+ * Tapered piece-square evaluation (see {@link PieceSquareTables}). The scores are kept up to date by the chessboard
+ * whenever a piece moves, so evaluating a position is O(1).
+ * <br>
+ * In the verifying mode every evaluation is also recomputed from the bitboards and an exception is thrown if the
+ * values differ. It's slow, use it in tests and while debugging changes to the chessboard.
+ */
+public class PieceSquareEvaluator implements Evaluator {
+
+    private final boolean verify;
+
+    public PieceSquareEvaluator() {
+        this(false);
+    }
+
+    /**
+     * Create a new evaluator
+     *
+     * @param verify whether to check the incremental scores against a full recomputation on every call
+     */
+    public PieceSquareEvaluator(boolean verify) {
+        this.verify = verify;
+    }
+
+    @Override
+    public int evaluate(Chessboard chessboard) {
+        int midgame = chessboard.getMidgameScore();
+        int endgame = chessboard.getEndgameScore();
+        int phase = chessboard.getPhase();
+        if (verify) {
+            int[] computed = compute(chessboard);
+            if (computed[0] != midgame || computed[1] != endgame || computed[2] != phase) {
+                throw new IllegalStateException(String.format(
+                        "Incremental evaluation (mg %d, eg %d, phase %d) differs from the recomputed (mg %d, eg %d, phase %d)",
+                        midgame, endgame, phase, computed[0], computed[1], computed[2]));
+            }
+        }
+        int score = PieceSquareTables.taper(midgame, endgame, phase);
+        return chessboard.getSideToMove() == ChessPiece.Color.WHITE ? score : -score;
+    }
+
+    /**
+     * Compute the middlegame score, endgame score and phase from scratch
+     *
+     * @param chessboard the position
+     *
+     * @return an array of the middlegame score, the endgame score and the phase
+     */
+    public static int[] compute(Chessboard chessboard) {
+        int midgame = 0;
+        int endgame = 0;
+        int phase = 0;
+        for (int index = 0; index < 12; index++) {
+            long bitboard = chessboard.getBitboard(index);
+            while (bitboard != 0) {
+                int square = Bitboards.lowest(bitboard);
+                bitboard = Bitboards.popLowest(bitboard);
+                midgame += PieceSquareTables.midgame(index, square);
+                endgame += PieceSquareTables.endgame(index, square);
+                phase += PieceSquareTables.phase(index);
+            }
+        }
+        return new int[]{midgame, endgame, phase};
+    }
+}
@@ -0,0 +1,408 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.Game;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.movegen.Moves;
+import oopnet.chess.core.pieces.ChessPiece;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Finds the best move with an iterative-deepening principal variation search (alpha-beta where all but the first move
+ * are searched with a null window first). Captures are searched to the end with a quiescence search at the leaves.
+ * <br>
+ * Moves are ordered by the transposition table move, captures (most valuable victim, least valuable attacker),
+ * killer moves and the history heuristic. Checks are extended by one ply. Repetitions and the fifty-move rule are
+ * scored as draws.
+ * <br>
+ * Example usage:
+ * <pre>
+ *     Search search = new Search(new TranspositionTable(16));
+ *     SearchResult result = search.search(game.getChessboard(), new SearchLimits().setTime(1000));
+ *     game.makeMove(result.getBestMove());
+ * </pre>
+ * An instance can be reused for many searches (e.g. all games of a bot) but it is not thread-safe. The chessboard is
+ * modified during the search and restored afterwards, so it must not be used by other threads at the same time (search
+ * a {@link Chessboard#copy()} if needed). Only {@link #stop()} can be called from another thread. The transposition
+ * table can be shared by several instances.
+ */
+public class Search {
+
+    // The maximum depth of the search including extensions and quiescence search
+    public static final int MAX_PLY = 64;
+    // Mate in n plies is MATE - n
+    public static final int MATE = 30000;
+    public static final int INFINITY = 32000;
+
+    // How often the time is checked, must be a power of two minus one
+    private static final int CHECK_INTERVAL = 2047;
+    // Move ordering scores
+    private static final int TT_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int PROMOTION_SCORE = 1 << 27;
+    private static final int KILLER_SCORE = 1 << 26;
+    // History scores are halved when they reach this, so they stay below the killers
+    private static final int MAX_HISTORY = 1 << 24;
+
+    private final TranspositionTable table;
+    private final Evaluator evaluator;
+
+    // Everything is preallocated for each ply so nothing is allocated during the search
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+    private final int[][] moveScores = new int[MAX_PLY][MoveList.DEFAULT_CAPACITY];
+    private final int[][] killers = new int[MAX_PLY][2];
+    // [from][to]
+    private final int[][] history = new int[64][64];
+    // The best line from each ply, a triangular array
+    private final int[][] pv = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+
+    private Consumer<SearchResult> listener;
+    private Chessboard chessboard;
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    // Limits are not checked before the first iteration has finished
+    private boolean limitsEnabled;
+    private boolean stopped;
+    private volatile boolean stopRequested;
+
+    /**
+     * Create a new search that uses the piece-square evaluation
+     *
+     * @param table the transposition table
+     */
+    public Search(TranspositionTable table) {
+        this(table, new PieceSquareEvaluator());
+    }
+
+    public Search(TranspositionTable table, Evaluator evaluator) {
+        this.table = table;
+        this.evaluator = evaluator;
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Search the best move of the player whose turn it is in the game
+     *
+     * @param game   the game
+     * @param limits when to stop
+     *
+     * @return the result of the deepest finished iteration
+     *
+     * @see #search(Chessboard, SearchLimits)
+     */
+    public SearchResult search(Game game, SearchLimits limits) {
+        return search(game.getChessboard(), limits);
+    }
+
+    /**
+     * Search the best move of the player whose turn it is. Deeper and deeper searches are done until a limit is
+     * reached. The first iteration always finishes.
+     *
+     * @param chessboard the position, restored after the search
+     * @param limits     when to stop
+     *
+     * @return the result of the deepest finished iteration, the best move is {@link Moves#NONE} if there are no legal
+     * moves
+     */
+    public SearchResult search(Chessboard chessboard, SearchLimits limits) {
+        long start = System.nanoTime();
+        this.chessboard = chessboard;
+        this.nodes = 0;
+        this.maxNodes = limits.getNodes() > 0 ? limits.getNodes() : Long.MAX_VALUE;
+        this.deadline = limits.getTime() > 0 ? start + limits.getTime() * 1_000_000 : Long.MAX_VALUE;
+        this.limitsEnabled = false;
+        this.stopped = false;
+        this.stopRequested = false;
+        int maxDepth = limits.getDepth() > 0 ? Math.min(limits.getDepth(), MAX_PLY - 1) : MAX_PLY - 1;
+        table.newGeneration();
+        for (int[] killer : killers) {
+            Arrays.fill(killer, Moves.NONE);
+        }
+        for (int[] scores : history) {
+            Arrays.fill(scores, 0);
+        }
+
+        SearchResult result = null;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int score = search(-INFINITY, INFINITY, depth, 0, true);
+            if (stopped) {
+                break;
+            }
+            result = new SearchResult(Arrays.copyOf(pv[0], pvLength[0]), score, depth, nodes, System.nanoTime() - start);
+            if (listener != null) {
+                listener.accept(result);
+            }
+            limitsEnabled = true;
+            // No need to search deeper when a forced mate has been found (or there are no legal moves)
+            if (Math.abs(score) >= MATE - depth || pvLength[0] == 0) {
+                break;
+            }
+            if (stopRequested || System.nanoTime() >= deadline || nodes >= maxNodes) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stop the current search as soon as possible. Can be called from any thread.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Set the listener called after each finished iteration, e.g. to print the progress
+     *
+     * @param listener the listener or null
+     */
+    public void setListener(Consumer<SearchResult> listener) {
+        this.listener = listener;
+    }
+
+    private int search(int alpha, int beta, int depth, int ply, boolean pvNode) {
+        pvLength[ply] = ply;
+        if (ply > 0 && (chessboard.getHalfmoveClock() >= 100 || chessboard.isRepetition())) {
+            return 0;
+        }
+        ChessPiece.Color us = chessboard.getSideToMove();
+        boolean inCheck = MoveGenerator.isInCheck(chessboard, us);
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiescence(alpha, beta, ply);
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(chessboard);
+        }
+        if (countNode()) {
+            return 0;
+        }
+
+        long key = chessboard.getHashKey();
+        long entry = table.probe(key);
+        int ttMove = Moves.NONE;
+        if (entry != TranspositionTable.MISS) {
+            ttMove = TranspositionTable.getMove(entry);
+            if (!pvNode && TranspositionTable.getDepth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.getScore(entry), ply);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || bound == TranspositionTable.LOWER_BOUND && score >= beta
+                        || bound == TranspositionTable.UPPER_BOUND && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        int count = MoveGenerator.generateLegal(chessboard, moves);
+        if (count == 0) {
+            // Checkmate or stalemate, prefer shorter mates
+            return inCheck ? -MATE + ply : 0;
+        }
+        int[] scores = moveScores[ply];
+        scoreMoves(moves, scores, ply, ttMove);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Moves.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = pickNext(moves, scores, i);
+            chessboard.makeMove(move);
+            int score;
+            if (i == 0) {
+                score = -search(-beta, -alpha, depth - 1, ply + 1, pvNode);
+            } else {
+                score = -search(-alpha - 1, -alpha, depth - 1, ply + 1, false);
+                if (score > alpha && score < beta) {
+                    score = -search(-beta, -alpha, depth - 1, ply + 1, true);
+                }
+            }
+            chessboard.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (score >= beta) {
+                        if (!Moves.isCapture(move) && !Moves.isPromotion(move)) {
+                            updateQuietCutoff(move, depth, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND
+                : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        table.store(key, TranspositionTable.packSearch(bestMove, toTable(bestScore, ply), bound), depth);
+        return bestScore;
+    }
+
+    /**
+     * Search captures and promotions (or all moves when in check) until the position is quiet, so the evaluation
+     * isn't done in the middle of an exchange
+     */
+    private int quiescence(int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(chessboard);
+        }
+        if (countNode()) {
+            return 0;
+        }
+        boolean inCheck = MoveGenerator.isInCheck(chessboard, chessboard.getSideToMove());
+        int bestScore = -INFINITY;
+        if (!inCheck) {
+            // The side to move doesn't have to capture, so the evaluation is a lower bound
+            bestScore = evaluator.evaluate(chessboard);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        int count = MoveGenerator.generateLegal(chessboard, moves);
+        if (count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        int[] scores = moveScores[ply];
+        scoreMoves(moves, scores, ply, Moves.NONE);
+        for (int i = 0; i < count; i++) {
+            int move = pickNext(moves, scores, i);
+            if (!inCheck && !Moves.isCapture(move) && !Moves.isPromotion(move)) {
+                // The rest are quiet moves too as they are ordered last
+                break;
+            }
+            chessboard.makeMove(move);
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            chessboard.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Count a node and check the limits every now and then
+     *
+     * @return true if the search should stop
+     */
+    private boolean countNode() {
+        nodes++;
+        if (limitsEnabled && (nodes & CHECK_INTERVAL) == 0
+                && (stopRequested || nodes >= maxNodes || System.nanoTime() >= deadline)) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    private void scoreMoves(MoveList moves, int[] scores, int ply, int ttMove) {
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score;
+            if (move == ttMove) {
+                score = TT_MOVE_SCORE;
+            } else if (Moves.isCapture(move)) {
+                // Most valuable victim, least valuable attacker
+                ChessPiece victim = chessboard.getPiece(Moves.getTo(move));
+                int victimValue = victim == null ? 100 : MaterialEvaluator.getValue(victim.getType());
+                ChessPiece attacker = chessboard.getPiece(Moves.getFrom(move));
+                score = CAPTURE_SCORE + victimValue * 16 - attacker.getType().ordinal();
+            } else if (Moves.isPromotion(move)) {
+                score = PROMOTION_SCORE + MaterialEvaluator.getValue(Moves.getPromotion(move));
+            } else if (move == killers[ply][0]) {
+                score = KILLER_SCORE + 1;
+            } else if (move == killers[ply][1]) {
+                score = KILLER_SCORE;
+            } else {
+                score = history[Moves.getFrom(move)][Moves.getTo(move)];
+            }
+            scores[i] = score;
+        }
+    }
+
+    /**
+     * Move the best remaining move to the given index. Usually only a few moves are searched before a cutoff so this
+     * is faster than sorting all moves.
+     */
+    private static int pickNext(MoveList moves, int[] scores, int index) {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves.get(best);
+        if (best != index) {
+            int score = scores[best];
+            moves.set(best, moves.get(index));
+            scores[best] = scores[index];
+            moves.set(index, move);
+            scores[index] = score;
+        }
+        return move;
+    }
+
+    private void updateQuietCutoff(int move, int depth, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] scores = history[Moves.getFrom(move)];
+        int to = Moves.getTo(move);
+        scores[to] += depth * depth;
+        if (scores[to] >= MAX_HISTORY) {
+            for (int[] row : history) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] /= 2;
+                }
+            }
+        }
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][ply] = move;
+        int length = pvLength[ply + 1];
+        System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, length - ply - 1);
+        pvLength[ply] = Math.max(length, ply + 1);
+    }
+
+    // Mate scores are stored relative to the node so they are correct when found at another ply
+
+    private static int toTable(int score, int ply) {
+        return score >= MATE - MAX_PLY ? score + ply : score <= -MATE + MAX_PLY ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        return score >= MATE - MAX_PLY ? score - ply : score <= -MATE + MAX_PLY ? score + ply : score;
+    }
+}
@@ -0,0 +1,65 @@
+package oopnet.chess.core.engine;
+
+/**
+ * When {@link Search} should stop. The search stops when any of the set limits is reached. Unset limits (0) are
+ * ignored, if nothing is set the search runs to {@link Search#MAX_PLY} or until {@link Search#stop()} is called.
+ * <br>
+ * Example usage:
+ * <pre>
+ *     SearchLimits limits = new SearchLimits().setTime(500).setNodes(1_000_000);
+ * </pre>
+ */
+public class SearchLimits {
+
+    private int depth;
+    private long time;
+    private long nodes;
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Set the maximum depth
+     *
+     * @param depth the depth in plies, 0 for no limit
+     *
+     * @return this
+     */
+    public SearchLimits setDepth(int depth) {
+        this.depth = depth;
+        return this;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Set the maximum time. The first iteration (depth 1) is always finished so there is a move to play.
+     *
+     * @param time the time in milliseconds, 0 for no limit
+     *
+     * @return this
+     */
+    public SearchLimits setTime(long time) {
+        this.time = time;
+        return this;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Set the maximum number of nodes. The first iteration (depth 1) is always finished so there is a move to play.
+     *
+     * @param nodes the number of nodes, 0 for no limit
+     *
+     * @return this
+     */
+    public SearchLimits setNodes(long nodes) {
+        this.nodes = nodes;
+        return this;
+    }
+}
@@ -0,0 +1,119 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.movegen.Moves;
+
+/**
+ * The result of a completed iteration of {@link Search}
+ */
+public class SearchResult {
+
+    private final int[] principalVariation;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long nanos;
+
+    SearchResult(int[] principalVariation, int score, int depth, long nodes, long nanos) {
+        this.principalVariation = principalVariation;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Get the best move found
+     *
+     * @return the encoded move (see {@link Moves}) or {@link Moves#NONE} if there are no legal moves
+     */
+    public int getBestMove() {
+        return principalVariation.length == 0 ? Moves.NONE : principalVariation[0];
+    }
+
+    /**
+     * Get the expected moves of both players, starting with the best move
+     *
+     * @return the encoded moves
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    /**
+     * Get the score of the best move
+     *
+     * @return the score in centipawns from the point of view of the side to move, or a mate score (see {@link
+     * #isMate()})
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Get whether the score is a forced mate (for either side)
+     *
+     * @return true if it's a mate score
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * Get the number of moves (plies) to the mate
+     *
+     * @return the number of plies, positive if the side to move mates and negative if it gets mated
+     *
+     * @throws IllegalStateException if the score is not a mate score
+     */
+    public int getMatePlies() {
+        if (!isMate()) {
+            throw new IllegalStateException("Not a mate score: " + score);
+        }
+        return score > 0 ? Search.MATE - score : -(Search.MATE + score);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return nanos / 1_000_000;
+    }
+
+    public long getNodesPerSecond() {
+        return nodes * 1_000_000_000L / Math.max(1, nanos);
+    }
+
+    /**
+     * Get the result as a string similar to the UCI info line, e.g.
+     * <pre>
+     *     depth 6 score cp 35 nodes 48211 nps 1204351 time 40 pv e2e4 e7e5
+     * </pre>
+     *
+     * @return the string
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("depth ").append(depth);
+        if (isMate()) {
+            // In moves rather than plies
+            int plies = getMatePlies();
+            builder.append(" score mate ").append(plies > 0 ? (plies + 1) / 2 : plies / 2);
+        } else {
+            builder.append(" score cp ").append(score);
+        }
+        builder.append(" nodes ").append(nodes)
+               .append(" nps ").append(getNodesPerSecond())
+               .append(" time ").append(getTimeMillis())
+               .append(" pv");
+        for (int move : principalVariation) {
+            builder.append(' ').append(Moves.toString(move));
+        }
+        return builder.toString();
+    }
+}
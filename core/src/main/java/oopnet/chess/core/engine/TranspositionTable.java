@@ -0,0 +1,185 @@
+package oopnet.chess.core.engine;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of 64-bit entries keyed by position hash keys (see {@link
+ * oopnet.chess.core.Chessboard#getHashKey()}). Used to remember search results, perft counts etc.
+ * <br>
+ * The table is shared between threads without any locking. Each entry is two longs: the data and the key XORed with
+ * the data. If two threads write the same entry at the same time the key check fails and the entry is treated as a
+ * miss, so a probe never returns data that was stored for another key (apart from real hash collisions).
+ * <br>
+ * Entries are stored in buckets of two: the first slot keeps the entry with the greatest depth and the second slot is
+ * always replaced.
+ * <br>
+ * Data layout:
+ * <pre>
+ *     bits 0-47  payload, e.g. {@link #packSearch(int, int, int)}
+ *     bits 48-55 the generation (see {@link #newGeneration()}), set by the table
+ *     bits 56-63 the depth (0-255), used when deciding what to replace
+ * </pre>
+ */
+public class TranspositionTable {
+
+    // Returned by #probe(long) when the key is not found
+    public static final long MISS = 0L;
+
+    // Search result bounds, see #packSearch(int, int, int)
+    public static final int UPPER_BOUND = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int EXACT = 3;
+
+    private static final long PAYLOAD_MASK = (1L << 48) - 1;
+    private static final int BYTES_PER_ENTRY = 16;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+    // 1-255 so stored entries are never MISS
+    private volatile int generation = 1;
+
+    /**
+     * Create a new table
+     *
+     * @param megabytes the maximum size of the table in megabytes, at least 1. The actual size is the greatest power of
+     *                  two that fits.
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Size must be at least 1 MB");
+        }
+        long entries = Long.highestOneBit((long) megabytes * 1024 * 1024 / BYTES_PER_ENTRY);
+        // Java arrays are indexed by ints
+        entries = Math.min(entries, 1L << 30);
+        keys = new long[(int) entries];
+        data = new long[(int) entries];
+        bucketMask = (int) (entries / 2 - 1);
+    }
+
+    /**
+     * Find the data stored for the key
+     *
+     * @param key the hash key
+     *
+     * @return the data or {@link #MISS} if not found
+     */
+    public long probe(long key) {
+        int index = ((int) key & bucketMask) << 1;
+        long entry = data[index];
+        if ((keys[index] ^ entry) == key && entry != MISS) {
+            return entry;
+        }
+        entry = data[index + 1];
+        if ((keys[index + 1] ^ entry) == key && entry != MISS) {
+            return entry;
+        }
+        return MISS;
+    }
+
+    /**
+     * Store data for the key. The first slot of the bucket is replaced if the new depth is not smaller or the entry is
+     * from an older generation, otherwise the second slot is replaced.
+     *
+     * @param key     the hash key
+     * @param payload the data to store, only the lowest 48 bits are used
+     * @param depth   the depth (0-255) of the result
+     */
+    public void store(long key, long payload, int depth) {
+        int generation = this.generation;
+        long entry = (payload & PAYLOAD_MASK) | (long) generation << 48 | (long) depth << 56;
+        int index = ((int) key & bucketMask) << 1;
+        long old = data[index];
+        if ((keys[index] ^ old) == key || getDepth(old) <= depth || getGeneration(old) != generation) {
+            data[index] = entry;
+            keys[index] = key ^ entry;
+        } else {
+            data[index + 1] = entry;
+            keys[index + 1] = key ^ entry;
+        }
+    }
+
+    /**
+     * Start a new generation, e.g. before a new search. Entries of older generations are replaced first.
+     */
+    public void newGeneration() {
+        generation = generation % 255 + 1;
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+    }
+
+    /**
+     * Get the number of entries the table can hold
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return data.length;
+    }
+
+    /**
+     * Estimate how full the table is by sampling the first 1000 entries
+     *
+     * @return the permille of used entries of the current generation (0-1000)
+     */
+    public int getHashfull() {
+        int samples = Math.min(1000, data.length);
+        int used = 0;
+        for (int i = 0; i < samples; i++) {
+            if (data[i] != MISS && getGeneration(data[i]) == generation) {
+                used++;
+            }
+        }
+        return used * 1000 / samples;
+    }
+
+    /**
+     * Get the payload of an entry
+     *
+     * @param entry the data returned by {@link #probe(long)}
+     *
+     * @return the payload (48 bits)
+     */
+    public static long getPayload(long entry) {
+        return entry & PAYLOAD_MASK;
+    }
+
+    public static int getDepth(long entry) {
+        return (int) (entry >>> 56);
+    }
+
+    private static int getGeneration(long entry) {
+        return (int) (entry >>> 48) & 0xFF;
+    }
+
+    /**
+     * Pack a search result into a payload
+     *
+     * @param move  the best move (encoded, see {@link oopnet.chess.core.movegen.Moves}) or 0
+     * @param score the score, must fit in a short
+     * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     *
+     * @return the payload
+     */
+    public static long packSearch(int move, int score, int bound) {
+        return (move & 0xFFFFL) | (score & 0xFFFFL) << 16 | (long) bound << 32;
+    }
+
+    public static int getMove(long entry) {
+        return (int) (entry & 0xFFFF);
+    }
+
+    public static int getScore(long entry) {
+        return (short) (entry >>> 16);
+    }
+
+    public static int getBound(long entry) {
+        return (int) (entry >>> 32) & 3;
+    }
+}
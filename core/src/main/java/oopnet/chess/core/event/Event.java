@@ -1,7 +1,8 @@
 package oopnet.chess.core.event;
 
-import java.io.Serializable;
-
-public abstract class Event implements Serializable {
+/**
+ * An event sent between the client and the server, see {@link EventCodec} for the encoding
+ */
+public abstract class Event {
 
 }
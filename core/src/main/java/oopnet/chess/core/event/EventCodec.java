@@ -0,0 +1,312 @@
+package oopnet.chess.core.event;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.Game;
+import oopnet.chess.core.Move;
+import oopnet.chess.core.Position;
+import oopnet.chess.core.notation.Fen;
+import oopnet.chess.core.pieces.ChessPiece;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The binary encoding of the events, the payload of the frames (see {@link EventFrames}). A payload is:
+ * <pre>
+ *     byte  the version of the protocol, {@link #VERSION}
+ *     byte  the type of the event
+ *     ...   the fields of the event
+ * </pre>
+ * The fields are:
+ * <ul>
+ *     <li>{@link TokenTransmitEvent}: the token</li>
+ *     <li>{@link GameCreateEvent}: the position in FEN, the captured pieces (a varint count and a byte for each,
+ *     see {@link ChessPiece#getBitboardIndex()}) and the player who offered a draw (a color byte)</li>
+ *     <li>{@link GameJoinEvent}: the nickname and the game identifier</li>
+ *     <li>{@link PieceMoveEvent}: two bytes (big-endian), the from square in bits 0-5, the to square in bits 6-11 and
+ *     the promotion in bits 12-14 (the ordinal of the {@link ChessPiece.Type}, 0 if not set)</li>
+ *     <li>{@link ChatEvent}: the nickname and the message</li>
+ *     <li>{@link DrawOfferEvent} and {@link SurrenderEvent}: nothing</li>
+ *     <li>{@link GameEndEvent}: the ordinal of the {@link Game.GameResult}</li>
+ * </ul>
+ * A string is a varint of the length of its UTF-8 bytes plus one (0 if null) and the bytes. A color byte is the
+ * ordinal of the color plus one (0 if null). A varint is unsigned, 7 bits per byte starting from the lowest bits and
+ * the highest bit is set if more bytes follow.
+ * <br>
+ * Only these classes can be decoded, unlike with Java serialization the peer can't make the decoder create objects
+ * of other classes.
+ */
+public final class EventCodec {
+
+    /**
+     * The version of the protocol. Changed whenever the encoding of an existing event changes, new events can be added
+     * without changing it.
+     */
+    public static final int VERSION = 1;
+
+    private static final int TOKEN_TRANSMIT = 1;
+    private static final int GAME_CREATE = 2;
+    private static final int GAME_JOIN = 3;
+    private static final int PIECE_MOVE = 4;
+    private static final int CHAT = 5;
+    private static final int DRAW_OFFER = 6;
+    private static final int SURRENDER = 7;
+    private static final int GAME_END = 8;
+
+    private static final ChessPiece.Type[] TYPES = ChessPiece.Type.values();
+    private static final ChessPiece.Color[] COLORS = ChessPiece.Color.values();
+    private static final Game.GameResult[] RESULTS = Game.GameResult.values();
+
+    private EventCodec() {
+    }
+
+    /**
+     * Encode an event
+     *
+     * @param event the event
+     *
+     * @return the payload
+     *
+     * @throws IllegalArgumentException if the event is not one of the events of this package
+     */
+    public static byte[] encode(Event event) {
+        Writer out = new Writer(event instanceof GameCreateEvent ? 128 : 16);
+        out.writeByte(VERSION);
+        if (event instanceof TokenTransmitEvent) {
+            out.writeByte(TOKEN_TRANSMIT);
+            out.writeString(((TokenTransmitEvent) event).getToken());
+        } else if (event instanceof GameCreateEvent) {
+            out.writeByte(GAME_CREATE);
+            Game game = ((GameCreateEvent) event).getGame();
+            Chessboard chessboard = game.getChessboard();
+            out.writeString(Fen.toString(chessboard));
+            List<ChessPiece> captured = chessboard.getCaptured();
+            out.writeVarint(captured.size());
+            for (ChessPiece piece : captured) {
+                out.writeByte(piece.getBitboardIndex());
+            }
+            out.writeColor(game.getDrawOffer());
+        } else if (event instanceof GameJoinEvent) {
+            out.writeByte(GAME_JOIN);
+            out.writeString(((GameJoinEvent) event).getNickname());
+            out.writeString(((GameJoinEvent) event).getGameIdentifier());
+        } else if (event instanceof PieceMoveEvent) {
+            out.writeByte(PIECE_MOVE);
+            Move move = ((PieceMoveEvent) event).getMove();
+            ChessPiece.Type promotion = move.getPromotion();
+            int bits = move.getFrom().getIndex() | move.getTo().getIndex() << 6
+                    | (promotion == null ? 0 : promotion.ordinal()) << 12;
+            out.writeByte(bits >>> 8);
+            out.writeByte(bits);
+        } else if (event instanceof ChatEvent) {
+            out.writeByte(CHAT);
+            out.writeString(((ChatEvent) event).getNickname());
+            out.writeString(((ChatEvent) event).getMessage());
+        } else if (event instanceof DrawOfferEvent) {
+            out.writeByte(DRAW_OFFER);
+        } else if (event instanceof SurrenderEvent) {
+            out.writeByte(SURRENDER);
+        } else if (event instanceof GameEndEvent) {
+            out.writeByte(GAME_END);
+            out.writeByte(((GameEndEvent) event).getGameResult().ordinal());
+        } else {
+            throw new IllegalArgumentException("Unknown event: " + event.getClass().getName());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode an event
+     *
+     * @param payload the payload
+     * @param offset  the index of the first byte
+     * @param length  the length of the payload
+     *
+     * @return the event
+     *
+     * @throws IOException if the payload is not a valid event of this version
+     */
+    public static Event decode(byte[] payload, int offset, int length) throws IOException {
+        Reader in = new Reader(payload, offset, offset + length);
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported protocol version: " + version);
+        }
+        Event event;
+        int type = in.readByte();
+        switch (type) {
+            case TOKEN_TRANSMIT:
+                event = new TokenTransmitEvent(in.readString());
+                break;
+            case GAME_CREATE:
+                event = new GameCreateEvent(readGame(in));
+                break;
+            case GAME_JOIN:
+                event = new GameJoinEvent(in.readString(), in.readString());
+                break;
+            case PIECE_MOVE:
+                int bits = in.readByte() << 8 | in.readByte();
+                int promotion = bits >>> 12;
+                if (promotion >= ChessPiece.Type.KING.ordinal()) {
+                    throw new IOException("Invalid promotion: " + promotion);
+                }
+                event = new PieceMoveEvent(new Move(Position.fromIndex(bits & 63), Position.fromIndex(bits >>> 6 & 63),
+                        promotion == 0 ? null : TYPES[promotion]));
+                break;
+            case CHAT:
+                event = new ChatEvent(in.readString(), in.readString());
+                break;
+            case DRAW_OFFER:
+                event = new DrawOfferEvent();
+                break;
+            case SURRENDER:
+                event = new SurrenderEvent();
+                break;
+            case GAME_END:
+                int result = in.readByte();
+                if (result >= RESULTS.length) {
+                    throw new IOException("Invalid game result: " + result);
+                }
+                event = new GameEndEvent(RESULTS[result]);
+                break;
+            default:
+                throw new IOException("Unknown event type: " + type);
+        }
+        if (in.remaining() != 0) {
+            throw new IOException("Unexpected bytes after the event: " + in.remaining());
+        }
+        return event;
+    }
+
+    private static Game readGame(Reader in) throws IOException {
+        Game game;
+        try {
+            game = Fen.parseGame(in.readString());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IOException("Invalid position", e);
+        }
+        List<ChessPiece> captured = game.getChessboard().getCaptured();
+        int count = in.readVarint();
+        if (count > in.remaining()) {
+            throw new IOException("Too many captured pieces: " + count);
+        }
+        for (int i = 0; i < count; i++) {
+            int index = in.readByte();
+            if (index >= TYPES.length * COLORS.length) {
+                throw new IOException("Invalid piece: " + index);
+            }
+            captured.add(TYPES[index % TYPES.length].create(COLORS[index / TYPES.length], null));
+        }
+        game.setDrawOffer(in.readColor());
+        return game;
+    }
+
+    private static final class Writer {
+
+        private byte[] bytes;
+        private int size;
+
+        Writer(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void writeByte(int b) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = (byte) b;
+        }
+
+        void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                writeByte(value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            writeByte(value);
+        }
+
+        void writeString(String string) {
+            if (string == null) {
+                writeVarint(0);
+                return;
+            }
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            writeVarint(utf8.length + 1);
+            if (bytes.length - size < utf8.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(size + utf8.length, bytes.length * 2));
+            }
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        void writeColor(ChessPiece.Color color) {
+            writeByte(color == null ? 0 : color.ordinal() + 1);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+        private final int end;
+
+        Reader(byte[] bytes, int position, int end) {
+            this.bytes = bytes;
+            this.position = position;
+            this.end = end;
+        }
+
+        int remaining() {
+            return end - position;
+        }
+
+        int readByte() throws IOException {
+            if (position == end) {
+                throw new IOException("Truncated event");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    if (value < 0) {
+                        break;
+                    }
+                    return value;
+                }
+            }
+            throw new IOException("Invalid varint");
+        }
+
+        String readString() throws IOException {
+            int length = readVarint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length > remaining()) {
+                throw new IOException("Truncated event");
+            }
+            String string = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return string;
+        }
+
+        ChessPiece.Color readColor() throws IOException {
+            int color = readByte();
+            if (color > COLORS.length) {
+                throw new IOException("Invalid color: " + color);
+            }
+            return color == 0 ? null : COLORS[color - 1];
+        }
+    }
+}
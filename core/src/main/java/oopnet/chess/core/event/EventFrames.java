@@ -0,0 +1,188 @@
+package oopnet.chess.core.event;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * The framing of the events sent between the client and the server. Each event is sent as one frame:
+ * <pre>
+ *     varint the length of the payload in bytes, see {@link EventCodec} for the varints
+ *     byte[] the payload, the encoded event
+ * </pre>
+ * The length makes it possible to read the events without blocking (see {@link Decoder}), and a broken or malicious
+ * peer can't make the reader allocate more than {@link #MAX_PAYLOAD_BYTES}. The largest events are chat messages, the
+ * others take less than 100 bytes.
+ */
+public final class EventFrames {
+
+    public static final int MAX_PAYLOAD_BYTES = 64 * 1024;
+    // The length of the varint of MAX_PAYLOAD_BYTES
+    public static final int MAX_HEADER_BYTES = 3;
+
+    private EventFrames() {
+    }
+
+    /**
+     * Create the frame of an event
+     *
+     * @param event the event
+     *
+     * @return the frame, the header and the payload
+     *
+     * @throws IOException if the event is too large
+     */
+    public static byte[] encode(Event event) throws IOException {
+        byte[] payload = EventCodec.encode(event);
+        int length = payload.length;
+        if (length > MAX_PAYLOAD_BYTES) {
+            throw new IOException("Too large event: " + length + " bytes");
+        }
+        int header = length < 1 << 7 ? 1 : length < 1 << 14 ? 2 : 3;
+        byte[] frame = new byte[header + length];
+        for (int i = 0; i < header - 1; i++) {
+            frame[i] = (byte) (length >>> 7 * i & 0x7F | 0x80);
+        }
+        frame[header - 1] = (byte) (length >>> 7 * (header - 1));
+        System.arraycopy(payload, 0, frame, header, length);
+        return frame;
+    }
+
+    /**
+     * Write the frame of an event. The frame is written with one call, so if the stream is not shared the frames of
+     * different threads can't be mixed as long as the calls are synchronized.
+     *
+     * @param out   the stream
+     * @param event the event
+     *
+     * @throws IOException if writing fails
+     */
+    public static void write(OutputStream out, Event event) throws IOException {
+        out.write(encode(event));
+        out.flush();
+    }
+
+    /**
+     * Read the next frame from a blocking stream
+     *
+     * @param in the stream
+     *
+     * @return the event
+     *
+     * @throws java.io.EOFException if the stream ends
+     * @throws IOException          if reading fails or the frame is invalid
+     */
+    public static Event read(DataInputStream in) throws IOException {
+        int length = 0;
+        for (int i = 0; ; i++) {
+            int b = in.readUnsignedByte();
+            length |= (b & 0x7F) << 7 * i;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+            if (i == MAX_HEADER_BYTES - 1) {
+                throw new IOException("Invalid frame length");
+            }
+        }
+        checkLength(length);
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return EventCodec.decode(payload, 0, length);
+    }
+
+    private static void checkLength(int length) throws IOException {
+        if (length > MAX_PAYLOAD_BYTES) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+    }
+
+    /**
+     * Decodes the frames of bytes read without blocking, e.g. from a {@link java.nio.channels.SocketChannel}. The
+     * bytes may end in the middle of a frame, the rest is kept until more bytes are read. The buffer grows for a frame
+     * larger than the initial capacity and is replaced by a buffer of the initial capacity when the frame has been
+     * decoded, so an idle connection does not keep a large buffer. Not thread-safe.
+     * <br>
+     * Example usage:
+     * <pre>
+     *     channel.read(decoder.getBuffer());
+     *     Event event;
+     *     while ((event = decoder.next()) != null) {
+     *         ...
+     *     }
+     * </pre>
+     */
+    public static final class Decoder {
+
+        private final int capacity;
+        private ByteBuffer buffer;
+
+        /**
+         * Create a new decoder
+         *
+         * @param capacity the initial size of the buffer, grows if a frame does not fit
+         */
+        public Decoder(int capacity) {
+            this.capacity = Math.max(MAX_HEADER_BYTES, capacity);
+            buffer = ByteBuffer.allocate(this.capacity);
+        }
+
+        /**
+         * Get the buffer the bytes should be read to. Its position must only be changed by reading.
+         *
+         * @return the buffer in write mode
+         */
+        public ByteBuffer getBuffer() {
+            return buffer;
+        }
+
+        /**
+         * Decode the next complete frame of the buffer
+         *
+         * @return the event or null if the buffer does not have a complete frame
+         *
+         * @throws IOException if the frame is invalid
+         */
+        public Event next() throws IOException {
+            int length = 0;
+            int header = 0;
+            while (true) {
+                if (header == buffer.position()) {
+                    return null;
+                }
+                int b = buffer.get(header++);
+                length |= (b & 0x7F) << 7 * (header - 1);
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+                if (header == MAX_HEADER_BYTES) {
+                    throw new IOException("Invalid frame length");
+                }
+            }
+            checkLength(length);
+            int frameLength = header + length;
+            if (buffer.position() < frameLength) {
+                if (buffer.capacity() < frameLength) {
+                    resize(Math.min(Math.max(frameLength, buffer.capacity() * 2),
+                            MAX_HEADER_BYTES + MAX_PAYLOAD_BYTES));
+                }
+                return null;
+            }
+            Event event = EventCodec.decode(buffer.array(), buffer.arrayOffset() + header, length);
+            // Remove the frame
+            buffer.flip();
+            buffer.position(frameLength);
+            buffer.compact();
+            if (buffer.capacity() > capacity && buffer.position() <= capacity) {
+                resize(capacity);
+            }
+            return event;
+        }
+
+        private void resize(int size) {
+            ByteBuffer resized = ByteBuffer.allocate(size);
+            buffer.flip();
+            buffer = resized.put(buffer);
+        }
+    }
+}
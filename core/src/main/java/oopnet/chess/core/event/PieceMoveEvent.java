@@ -11,6 +11,15 @@ public class PieceMoveEvent extends Event {
         this.move = move;
     }
 
+    /**
+     * Get the move without binding it to a chessboard
+     *
+     * @return the move
+     */
+    Move getMove() {
+        return move;
+    }
+
     public Move getMove(Chessboard chessboard) {
         move.setChessboard(chessboard);
         return move;
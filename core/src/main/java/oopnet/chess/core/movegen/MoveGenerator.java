@@ -0,0 +1,411 @@
+package oopnet.chess.core.movegen;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.bitboard.Bitboards;
+import oopnet.chess.core.bitboard.Magics;
+import oopnet.chess.core.pieces.ChessPiece;
+
+import static oopnet.chess.core.pieces.ChessPiece.Color.WHITE;
+
+/**
+ * Generates moves from the bitboards of a {@link Chessboard} into a caller-supplied {@link MoveList}. Nothing is
+ * allocated so this can be called in hot loops, unlike {@link ChessPiece#getLegalMovePositions(Chessboard)}.
+ * <br>
+ * The {@code generate} methods return pseudo-legal moves: the rules of each piece, castling, en passant and promotions
+ * are followed but a move may leave the player's own king in check. The {@code generateLegal} methods only return
+ * legal moves. They find the checking pieces, the pinned pieces and the squares that resolve a check once per call and
+ * then check each pseudo-legal move in constant time without making it.
+ */
+public final class MoveGenerator {
+
+    private static final int E1 = 4;
+    private static final int E8 = 60;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Generate all moves of the player whose turn it is ({@link Chessboard#getSideToMove()})
+     *
+     * @param chessboard the chessboard
+     * @param moves      the list the moves are added to
+     *
+     * @return the number of moves added
+     */
+    public static int generate(Chessboard chessboard, MoveList moves) {
+        int start = moves.size();
+        ChessPiece.Color us = chessboard.getSideToMove();
+        generatePawnMoves(chessboard, us, chessboard.getBitboard(ChessPiece.Type.PAWN, us), moves);
+        generatePieceMoves(chessboard, us, ChessPiece.Type.KNIGHT, chessboard.getBitboard(ChessPiece.Type.KNIGHT, us), moves);
+        generatePieceMoves(chessboard, us, ChessPiece.Type.BISHOP, chessboard.getBitboard(ChessPiece.Type.BISHOP, us), moves);
+        generatePieceMoves(chessboard, us, ChessPiece.Type.ROOK, chessboard.getBitboard(ChessPiece.Type.ROOK, us), moves);
+        generatePieceMoves(chessboard, us, ChessPiece.Type.QUEEN, chessboard.getBitboard(ChessPiece.Type.QUEEN, us), moves);
+        generatePieceMoves(chessboard, us, ChessPiece.Type.KING, chessboard.getBitboard(ChessPiece.Type.KING, us), moves);
+        return moves.size() - start;
+    }
+
+    /**
+     * Generate the moves of the piece on the given square. The piece does not need to be the side to move's piece.
+     *
+     * @param chessboard the chessboard
+     * @param square     the square index (0-63) of the piece
+     * @param moves      the list the moves are added to
+     *
+     * @return the number of moves added, 0 if the square is empty
+     */
+    public static int generate(Chessboard chessboard, int square, MoveList moves) {
+        ChessPiece piece = chessboard.getPiece(square);
+        if (piece == null) {
+            return 0;
+        }
+        int start = moves.size();
+        long bit = 1L << square;
+        if (piece.getType() == ChessPiece.Type.PAWN) {
+            generatePawnMoves(chessboard, piece.getColor(), bit, moves);
+        } else {
+            generatePieceMoves(chessboard, piece.getColor(), piece.getType(), bit, moves);
+        }
+        return moves.size() - start;
+    }
+
+    /**
+     * Generate all legal moves of the player whose turn it is ({@link Chessboard#getSideToMove()})
+     *
+     * @param chessboard the chessboard
+     * @param moves      the list the moves are added to
+     *
+     * @return the number of moves added, 0 if it's a checkmate or a stalemate
+     */
+    public static int generateLegal(Chessboard chessboard, MoveList moves) {
+        int start = moves.size();
+        generate(chessboard, moves);
+        return removeIllegal(chessboard, chessboard.getSideToMove(), start, moves);
+    }
+
+    /**
+     * Generate the legal moves of the piece on the given square. The piece does not need to be the side to move's
+     * piece, the moves are legal if it was its turn.
+     *
+     * @param chessboard the chessboard
+     * @param square     the square index (0-63) of the piece
+     * @param moves      the list the moves are added to
+     *
+     * @return the number of moves added, 0 if the square is empty
+     */
+    public static int generateLegal(Chessboard chessboard, int square, MoveList moves) {
+        ChessPiece piece = chessboard.getPiece(square);
+        if (piece == null) {
+            return 0;
+        }
+        int start = moves.size();
+        generate(chessboard, square, moves);
+        return removeIllegal(chessboard, piece.getColor(), start, moves);
+    }
+
+    /**
+     * Remove the moves that would leave the king in check
+     *
+     * @param chessboard the chessboard
+     * @param us         the color of the moving player
+     * @param start      the index of the first move to check
+     * @param moves      the pseudo-legal moves of the player
+     *
+     * @return the number of moves left after the start index
+     */
+    private static int removeIllegal(Chessboard chessboard, ChessPiece.Color us, int start, MoveList moves) {
+        long kingBit = chessboard.getBitboard(ChessPiece.Type.KING, us);
+        if (kingBit == 0) {
+            // Nothing can be illegal without a king
+            return moves.size() - start;
+        }
+        int king = Bitboards.lowest(kingBit);
+        ChessPiece.Color them = us.getOpposite();
+        long occupied = chessboard.getOccupied();
+        long checkers = attackersOf(chessboard, king, them, occupied);
+        long pinned = pinned(chessboard, us);
+        // The squares that capture or block the checking piece, only the king can move in a double check
+        long evasions = checkers == 0 ? Bitboards.ALL
+                : Bitboards.count(checkers) > 1 ? Bitboards.EMPTY
+                : checkers | Bitboards.between(king, Bitboards.lowest(checkers));
+        int size = start;
+        for (int i = start; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = Moves.getFrom(move);
+            int to = Moves.getTo(move);
+            boolean legal;
+            if (from == king) {
+                // Castling through attacked squares is already excluded. Remove the king from the occupancy so it
+                // doesn't block a slider that attacks the square behind it.
+                legal = Moves.isCastling(move) ? checkers == 0
+                        : attackersOf(chessboard, to, them, occupied ^ kingBit) == 0;
+            } else if (Moves.isEnPassant(move)) {
+                // Both pawns leave the rank, which may open a line to the king, so check it as a whole
+                int captured = to + (us == WHITE ? -8 : 8);
+                long after = occupied ^ (1L << from) ^ (1L << captured) | (1L << to);
+                legal = (attackersOf(chessboard, king, them, after) & ~(1L << captured)) == 0;
+            } else {
+                legal = Bitboards.contains(evasions, to)
+                        && (!Bitboards.contains(pinned, from) || Bitboards.contains(Bitboards.line(king, from), to));
+            }
+            if (legal) {
+                moves.set(size++, move);
+            }
+        }
+        moves.truncate(size);
+        return size - start;
+    }
+
+    /**
+     * Get the pieces of the given color that can't leave the line between their king and an enemy slider
+     *
+     * @param chessboard the chessboard
+     * @param color      the color of the king and the pinned pieces
+     *
+     * @return the pinned pieces as a bitboard, {@link Bitboards#EMPTY} if there is no king
+     */
+    public static long pinned(Chessboard chessboard, ChessPiece.Color color) {
+        long kingBit = chessboard.getBitboard(ChessPiece.Type.KING, color);
+        if (kingBit == 0) {
+            return Bitboards.EMPTY;
+        }
+        int king = Bitboards.lowest(kingBit);
+        ChessPiece.Color them = color.getOpposite();
+        long queens = chessboard.getBitboard(ChessPiece.Type.QUEEN, them);
+        // The sliders that would attack the king on an empty board
+        long snipers = (Magics.rookAttacks(king, 0) & (chessboard.getBitboard(ChessPiece.Type.ROOK, them) | queens))
+                | (Magics.bishopAttacks(king, 0) & (chessboard.getBitboard(ChessPiece.Type.BISHOP, them) | queens));
+        long occupied = chessboard.getOccupied();
+        long own = chessboard.getOccupancy(color);
+        long pinned = 0;
+        while (snipers != 0) {
+            int sniper = Bitboards.lowest(snipers);
+            snipers = Bitboards.popLowest(snipers);
+            long blockers = Bitboards.between(king, sniper) & occupied;
+            // Pinned if our piece is the only piece in between
+            if (blockers != 0 && Bitboards.popLowest(blockers) == 0 && (blockers & own) != 0) {
+                pinned |= blockers;
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * Get the pieces that give check to the king of the given color
+     *
+     * @param chessboard the chessboard
+     * @param color      the color of the king
+     *
+     * @return the checking pieces as a bitboard, {@link Bitboards#EMPTY} if there is no king
+     */
+    public static long checkers(Chessboard chessboard, ChessPiece.Color color) {
+        long king = chessboard.getBitboard(ChessPiece.Type.KING, color);
+        return king == 0 ? Bitboards.EMPTY
+                : attackersOf(chessboard, Bitboards.lowest(king), color.getOpposite(), chessboard.getOccupied());
+    }
+
+    /**
+     * Check whether the player whose turn it is has any legal moves
+     *
+     * @param chessboard the chessboard
+     *
+     * @return true if there is at least one legal move
+     */
+    public static boolean hasLegalMoves(Chessboard chessboard) {
+        return generateLegal(chessboard, new MoveList()) > 0;
+    }
+
+    /**
+     * Check whether the player whose turn it is has been checkmated
+     *
+     * @param chessboard the chessboard
+     *
+     * @return true if the king is in check and there are no legal moves
+     */
+    public static boolean isCheckmate(Chessboard chessboard) {
+        return isInCheck(chessboard, chessboard.getSideToMove()) && !hasLegalMoves(chessboard);
+    }
+
+    /**
+     * Check whether the player whose turn it is is stalemated
+     *
+     * @param chessboard the chessboard
+     *
+     * @return true if the king is not in check but there are no legal moves
+     */
+    public static boolean isStalemate(Chessboard chessboard) {
+        return !isInCheck(chessboard, chessboard.getSideToMove()) && !hasLegalMoves(chessboard);
+    }
+
+    private static void generatePawnMoves(Chessboard chessboard, ChessPiece.Color us, long pawns, MoveList moves) {
+        long enemies = chessboard.getOccupancy(us.getOpposite());
+        long empty = ~chessboard.getOccupied();
+        int forward = us == WHITE ? 8 : -8;
+        long lastRank = us == WHITE ? Bitboards.RANK_8 : Bitboards.RANK_1;
+
+        // Pushes, all pawns at once
+        long single = (us == WHITE ? pawns << 8 : pawns >>> 8) & empty;
+        long doubles = (us == WHITE ? single << 8 : single >>> 8) & empty
+                & (us == WHITE ? Bitboards.RANK_4 : Bitboards.RANK_5);
+        while (single != 0) {
+            int to = Bitboards.lowest(single);
+            single = Bitboards.popLowest(single);
+            if (((1L << to) & lastRank) != 0) {
+                addPromotions(to - forward, to, false, moves);
+            } else {
+                moves.add(Moves.encode(to - forward, to, Moves.QUIET));
+            }
+        }
+        while (doubles != 0) {
+            int to = Bitboards.lowest(doubles);
+            doubles = Bitboards.popLowest(doubles);
+            moves.add(Moves.encode(to - 2 * forward, to, Moves.DOUBLE_PAWN_PUSH));
+        }
+
+        // Captures
+        int enPassant = us == chessboard.getSideToMove() ? chessboard.getEnPassantSquare() : -1;
+        while (pawns != 0) {
+            int from = Bitboards.lowest(pawns);
+            pawns = Bitboards.popLowest(pawns);
+            long attacks = Bitboards.pawnAttacks(us, from);
+            long captures = attacks & enemies;
+            while (captures != 0) {
+                int to = Bitboards.lowest(captures);
+                captures = Bitboards.popLowest(captures);
+                if (((1L << to) & lastRank) != 0) {
+                    addPromotions(from, to, true, moves);
+                } else {
+                    moves.add(Moves.encode(from, to, Moves.CAPTURE));
+                }
+            }
+            if (enPassant >= 0 && Bitboards.contains(attacks, enPassant)) {
+                moves.add(Moves.encode(from, enPassant, Moves.EN_PASSANT));
+            }
+        }
+    }
+
+    private static void addPromotions(int from, int to, boolean capture, MoveList moves) {
+        // Queen first, it's almost always the best
+        moves.add(Moves.encodePromotion(from, to, ChessPiece.Type.QUEEN, capture));
+        moves.add(Moves.encodePromotion(from, to, ChessPiece.Type.ROOK, capture));
+        moves.add(Moves.encodePromotion(from, to, ChessPiece.Type.BISHOP, capture));
+        moves.add(Moves.encodePromotion(from, to, ChessPiece.Type.KNIGHT, capture));
+    }
+
+    private static void generatePieceMoves(Chessboard chessboard, ChessPiece.Color us, ChessPiece.Type type,
+                                           long pieces, MoveList moves) {
+        long own = chessboard.getOccupancy(us);
+        long enemies = chessboard.getOccupancy(us.getOpposite());
+        long occupied = chessboard.getOccupied();
+        while (pieces != 0) {
+            int from = Bitboards.lowest(pieces);
+            pieces = Bitboards.popLowest(pieces);
+            long targets = attacks(type, us, from, occupied) & ~own;
+            while (targets != 0) {
+                int to = Bitboards.lowest(targets);
+                targets = Bitboards.popLowest(targets);
+                moves.add(Moves.encode(from, to, Bitboards.contains(enemies, to) ? Moves.CAPTURE : Moves.QUIET));
+            }
+            if (type == ChessPiece.Type.KING) {
+                generateCastling(chessboard, us, from, moves);
+            }
+        }
+    }
+
+    private static void generateCastling(Chessboard chessboard, ChessPiece.Color us, int from, MoveList moves) {
+        int rights = chessboard.getCastlingRights();
+        int kingside = us == WHITE ? Chessboard.WHITE_KINGSIDE : Chessboard.BLACK_KINGSIDE;
+        int queenside = us == WHITE ? Chessboard.WHITE_QUEENSIDE : Chessboard.BLACK_QUEENSIDE;
+        if ((rights & (kingside | queenside)) == 0 || from != (us == WHITE ? E1 : E8)) {
+            return;
+        }
+        ChessPiece.Color them = us.getOpposite();
+        if (isAttacked(chessboard, from, them)) {
+            return;
+        }
+        long occupied = chessboard.getOccupied();
+        long rooks = chessboard.getBitboard(ChessPiece.Type.ROOK, us);
+        // The squares between the king and the rook must be empty and the king can't pass an attacked square
+        if ((rights & kingside) != 0 && (occupied & (3L << (from + 1))) == 0
+                && Bitboards.contains(rooks, from + 3)
+                && !isAttacked(chessboard, from + 1, them) && !isAttacked(chessboard, from + 2, them)) {
+            moves.add(Moves.encode(from, from + 2, Moves.KINGSIDE_CASTLE));
+        }
+        if ((rights & queenside) != 0 && (occupied & (7L << (from - 3))) == 0
+                && Bitboards.contains(rooks, from - 4)
+                && !isAttacked(chessboard, from - 1, them) && !isAttacked(chessboard, from - 2, them)) {
+            moves.add(Moves.encode(from, from - 2, Moves.QUEENSIDE_CASTLE));
+        }
+    }
+
+    /**
+     * Get the squares a piece attacks. Pawn pushes and castling are not attacks.
+     *
+     * @param type     the type of the piece
+     * @param color    the color of the piece, only matters for pawns
+     * @param square   the square index (0-63) of the piece
+     * @param occupied all pieces on the board, blocks sliders
+     *
+     * @return the attacked squares as a bitboard
+     */
+    public static long attacks(ChessPiece.Type type, ChessPiece.Color color, int square, long occupied) {
+        switch (type) {
+            case PAWN:
+                return Bitboards.pawnAttacks(color, square);
+            case KNIGHT:
+                return Bitboards.knightAttacks(square);
+            case BISHOP:
+                return Magics.bishopAttacks(square, occupied);
+            case ROOK:
+                return Magics.rookAttacks(square, occupied);
+            case QUEEN:
+                return Magics.queenAttacks(square, occupied);
+            default:
+                return Bitboards.kingAttacks(square);
+        }
+    }
+
+    /**
+     * Get all pieces of the given color that attack the square
+     *
+     * @param chessboard the chessboard
+     * @param square     the square index (0-63)
+     * @param by         the color of the attackers
+     * @param occupied   the pieces that block sliders, usually {@link Chessboard#getOccupied()}
+     *
+     * @return the attackers as a bitboard
+     */
+    public static long attackersOf(Chessboard chessboard, int square, ChessPiece.Color by, long occupied) {
+        long queens = chessboard.getBitboard(ChessPiece.Type.QUEEN, by);
+        return (Bitboards.pawnAttacks(by.getOpposite(), square) & chessboard.getBitboard(ChessPiece.Type.PAWN, by))
+                | (Bitboards.knightAttacks(square) & chessboard.getBitboard(ChessPiece.Type.KNIGHT, by))
+                | (Bitboards.kingAttacks(square) & chessboard.getBitboard(ChessPiece.Type.KING, by))
+                | (Magics.bishopAttacks(square, occupied) & (chessboard.getBitboard(ChessPiece.Type.BISHOP, by) | queens))
+                | (Magics.rookAttacks(square, occupied) & (chessboard.getBitboard(ChessPiece.Type.ROOK, by) | queens));
+    }
+
+    /**
+     * Check whether any piece of the given color attacks the square
+     *
+     * @param chessboard the chessboard
+     * @param square     the square index (0-63)
+     * @param by         the color of the attackers
+     *
+     * @return true if the square is attacked
+     */
+    public static boolean isAttacked(Chessboard chessboard, int square, ChessPiece.Color by) {
+        return attackersOf(chessboard, square, by, chessboard.getOccupied()) != 0;
+    }
+
+    /**
+     * Check whether the king of the given color is attacked
+     *
+     * @param chessboard the chessboard
+     * @param color      the color of the king
+     *
+     * @return true if the king is in check, false if it is not or there is no king
+     */
+    public static boolean isInCheck(Chessboard chessboard, ChessPiece.Color color) {
+        long king = chessboard.getBitboard(ChessPiece.Type.KING, color);
+        return king != 0 && isAttacked(chessboard, Bitboards.lowest(king), color.getOpposite());
+    }
+}
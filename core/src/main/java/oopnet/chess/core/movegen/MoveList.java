@@ -0,0 +1,121 @@
+package oopnet.chess.core.movegen;
+
+/**
+ * A reusable list of encoded moves (see {@link Moves}). Backed by an int array so adding moves never allocates.
+ * <br>
+ * Example usage:
+ * <pre>
+ *     MoveList moves = new MoveList();
+ *     MoveGenerator.generate(chessboard, moves);
+ *     for (int i = 0; i &lt; moves.size(); i++) {
+ *         int move = moves.get(i);
+ *     }
+ *     moves.clear();
+ * </pre>
+ */
+public class MoveList {
+
+    // No position has more than 218 legal moves
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        this.moves = new int[capacity];
+    }
+
+    /**
+     * Add an encoded move to the end of the list
+     *
+     * @param move the encoded move
+     */
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all moves. Does not clear the array.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Remove moves from the end so only the given number of moves are left
+     *
+     * @param size the new size, not greater than the current size
+     */
+    public void truncate(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Get the backing array. Only indexes below {@link #size()} are valid.
+     *
+     * @return the array
+     */
+    public int[] getMoves() {
+        return moves;
+    }
+
+    /**
+     * Find the first move from and to the given squares. If there are several promotions, the one that was added first
+     * is returned (queen with {@link MoveGenerator}).
+     *
+     * @param from the from square (0-63)
+     * @param to   the to square (0-63)
+     *
+     * @return the encoded move or {@link Moves#NONE} if there is no such move
+     */
+    public int find(int from, int to) {
+        int squares = from | (to << 6);
+        for (int i = 0; i < size; i++) {
+            if ((moves[i] & 0xFFF) == squares) {
+                return moves[i];
+            }
+        }
+        return Moves.NONE;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(Moves.toString(moves[i]));
+        }
+        return sb.append(']').toString();
+    }
+}
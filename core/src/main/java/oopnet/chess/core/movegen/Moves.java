@@ -0,0 +1,132 @@
+package oopnet.chess.core.movegen;
+
+import oopnet.chess.core.Position;
+import oopnet.chess.core.pieces.ChessPiece;
+
+/**
+ * Helper methods for moves encoded as ints. Encoded moves are used where creating {@link oopnet.chess.core.Move}
+ * objects would be too expensive, e.g. in {@link MoveGenerator}.
+ * <br>
+ * Only the lowest 16 bits are used:
+ * <pre>
+ *     bits 0-5   the from square (0-63), see {@link Position#getIndex()}
+ *     bits 6-11  the to square (0-63)
+ *     bits 12-15 the flags, e.g. {@link #CAPTURE} or {@link #PROMOTION}
+ * </pre>
+ * For promotions the lowest two bits of the flags are the promotion piece (knight, bishop, rook or queen).
+ */
+public final class Moves {
+
+    // Never a valid move as from and to are the same
+    public static final int NONE = 0;
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PAWN_PUSH = 1;
+    public static final int KINGSIDE_CASTLE = 2;
+    public static final int QUEENSIDE_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    // Combined with the promotion piece (0-3) and possibly CAPTURE
+    public static final int PROMOTION = 8;
+
+    private static final ChessPiece.Type[] PROMOTION_TYPES = {
+            ChessPiece.Type.KNIGHT, ChessPiece.Type.BISHOP, ChessPiece.Type.ROOK, ChessPiece.Type.QUEEN
+    };
+
+    private Moves() {
+    }
+
+    /**
+     * Encode a move
+     *
+     * @param from  the from square (0-63)
+     * @param to    the to square (0-63)
+     * @param flags the flags (0-15), e.g. {@link #QUIET} or {@link #CAPTURE}
+     *
+     * @return the encoded move
+     */
+    public static int encode(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    /**
+     * Encode a promotion
+     *
+     * @param from      the from square (0-63)
+     * @param to        the to square (0-63)
+     * @param promotion the type the pawn is promoted to, a knight, bishop, rook or queen
+     * @param capture   whether the move is a capture too
+     *
+     * @return the encoded move
+     */
+    public static int encodePromotion(int from, int to, ChessPiece.Type promotion, boolean capture) {
+        int flags = PROMOTION | (promotion.ordinal() - ChessPiece.Type.KNIGHT.ordinal());
+        return encode(from, to, capture ? flags | CAPTURE : flags);
+    }
+
+    public static int getFrom(int move) {
+        return move & 0x3F;
+    }
+
+    public static int getTo(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int getFlags(int move) {
+        return (move >>> 12) & 0xF;
+    }
+
+    /**
+     * Get whether the move captures a piece. En passant and capturing promotions are captures too.
+     *
+     * @param move the encoded move
+     *
+     * @return true if it's a capture
+     */
+    public static boolean isCapture(int move) {
+        return (getFlags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (getFlags(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isCastling(int move) {
+        int flags = getFlags(move);
+        return flags == KINGSIDE_CASTLE || flags == QUEENSIDE_CASTLE;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return getFlags(move) == EN_PASSANT;
+    }
+
+    /**
+     * Get the type the pawn is promoted to
+     *
+     * @param move the encoded move
+     *
+     * @return the type or null if the move is not a promotion
+     */
+    public static ChessPiece.Type getPromotion(int move) {
+        return isPromotion(move) ? PROMOTION_TYPES[getFlags(move) & 3] : null;
+    }
+
+    /**
+     * Get the move in the long algebraic notation used by e.g. UCI, for example "e2e4" or "e7e8q".
+     *
+     * @param move the encoded move
+     *
+     * @return the move as a string
+     */
+    public static String toString(int move) {
+        if (move == NONE) {
+            return "0000";
+        }
+        String str = Position.fromIndex(getFrom(move)).toString() + Position.fromIndex(getTo(move));
+        ChessPiece.Type promotion = getPromotion(move);
+        if (promotion != null) {
+            str += promotion == ChessPiece.Type.KNIGHT ? 'n' : Character.toLowerCase(promotion.name().charAt(0));
+        }
+        return str;
+    }
+}
@@ -0,0 +1,346 @@
+package oopnet.chess.core.notation;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.Game;
+import oopnet.chess.core.Position;
+import oopnet.chess.core.pieces.ChessPiece;
+import oopnet.chess.core.pieces.Pawn;
+
+/**
+ * Reads and writes positions in FEN (Forsyth–Edwards Notation), e.g. the default position is
+ * <pre>
+ *     rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1
+ * </pre>
+ * Both directions are a single pass over the characters without splitting or regular expressions, so loading many
+ * positions (e.g. test suites) is cheap. The writer appends to a given {@link StringBuilder} that can be reused.
+ */
+public final class Fen {
+
+    public static final String DEFAULT = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // The FEN letters by bitboard index, see ChessPiece#getBitboardIndex()
+    private static final String LETTERS = "pnbrqkPNBRQK";
+    // values() copies the arrays every time
+    private static final ChessPiece.Type[] TYPES = ChessPiece.Type.values();
+    private static final ChessPiece.Color[] COLORS = ChessPiece.Color.values();
+
+    private Fen() {
+    }
+
+    /**
+     * Create a chessboard from the FEN string. Only the piece placement is required, the other fields default to white
+     * to move, no castling, no en passant and move 1. Each side must have one king, and an en passant square must be
+     * behind a pawn of the side not to move that can have just moved two squares.
+     *
+     * @param fen the FEN string
+     *
+     * @return the chessboard
+     *
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static Chessboard parse(String fen) {
+        Chessboard chessboard = new Chessboard();
+        parse(fen, chessboard);
+        return chessboard;
+    }
+
+    /**
+     * Create a game from the FEN string
+     *
+     * @param fen the FEN string
+     *
+     * @return the game
+     *
+     * @throws IllegalArgumentException if the string is not valid FEN
+     * @see #parse(String)
+     */
+    public static Game parseGame(String fen) {
+        return new Game(parse(fen));
+    }
+
+    /**
+     * Load the position of the FEN string to an existing chessboard. All pieces and the state are replaced and the
+     * undo stack and captured pieces are cleared. If the string is not valid, the chessboard is not modified.
+     *
+     * @param fen        the FEN string
+     * @param chessboard the chessboard
+     *
+     * @throws IllegalArgumentException if the string is not valid FEN
+     * @see #parse(String)
+     */
+    public static void parse(CharSequence fen, Chessboard chessboard) {
+        int length = fen.length();
+        int i = skipSpaces(fen, 0);
+        ChessPiece[][] pieces = new ChessPiece[8][8];
+        int rank = 7;
+        int file = 0;
+        int whiteKings = 0;
+        int blackKings = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (file != 8 || rank == 0) {
+                    throw new IllegalArgumentException("Invalid FEN, rank " + (rank + 1) + " has " + file + " files: "
+                            + fen);
+                }
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+                if (file > 8) {
+                    throw new IllegalArgumentException("Invalid FEN, rank " + (rank + 1) + " has too many files: "
+                            + fen);
+                }
+            } else {
+                if (file > 7) {
+                    throw new IllegalArgumentException("Invalid FEN, too many pieces: " + fen);
+                }
+                // [0][0] is a8
+                pieces[7 - rank][file] = createPiece(c, Position.fromIndex(rank * 8 + file));
+                file++;
+                if (c == 'K') {
+                    whiteKings++;
+                } else if (c == 'k') {
+                    blackKings++;
+                }
+            }
+        }
+        if (rank != 0 || file != 8) {
+            throw new IllegalArgumentException("Invalid FEN, the board must have 8 ranks: " + fen);
+        }
+        if (whiteKings != 1 || blackKings != 1) {
+            throw new IllegalArgumentException("Invalid FEN, each side must have one king: " + fen);
+        }
+
+        ChessPiece.Color sideToMove = ChessPiece.Color.WHITE;
+        i = skipSpaces(fen, i);
+        if (i < length) {
+            char c = fen.charAt(i++);
+            if (c == 'b') {
+                sideToMove = ChessPiece.Color.BLACK;
+            } else if (c != 'w') {
+                throw new IllegalArgumentException("Invalid FEN side to move " + c + ": " + fen);
+            }
+            checkFieldEnd(fen, i);
+        }
+
+        int castlingRights = 0;
+        i = skipSpaces(fen, i);
+        if (i < length && fen.charAt(i) == '-') {
+            checkFieldEnd(fen, ++i);
+        } else {
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                castlingRights |= castlingRight(fen.charAt(i), fen);
+            }
+        }
+
+        int enPassantSquare = -1;
+        i = skipSpaces(fen, i);
+        if (i < length && fen.charAt(i) == '-') {
+            checkFieldEnd(fen, ++i);
+        } else if (i < length) {
+            if (i + 1 >= length || fen.charAt(i) < 'a' || fen.charAt(i) > 'h'
+                    || (fen.charAt(i + 1) != '3' && fen.charAt(i + 1) != '6')) {
+                throw new IllegalArgumentException("Invalid FEN en passant square: " + fen);
+            }
+            enPassantSquare = (fen.charAt(i + 1) - '1') * 8 + fen.charAt(i) - 'a';
+            if (!isDoublePush(pieces, enPassantSquare, sideToMove)) {
+                throw new IllegalArgumentException("Invalid FEN, no pawn has moved two squares past the en passant "
+                        + "square: " + fen);
+            }
+            i += 2;
+            checkFieldEnd(fen, i);
+        }
+
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        i = skipSpaces(fen, i);
+        if (i < length) {
+            int end = fieldEnd(fen, i);
+            halfmoveClock = parseNumber(fen, i, end);
+            i = skipSpaces(fen, end);
+            if (i < length) {
+                end = fieldEnd(fen, i);
+                fullmoveNumber = parseNumber(fen, i, end);
+                i = skipSpaces(fen, end);
+            }
+        }
+        if (i < length) {
+            throw new IllegalArgumentException("Invalid FEN, too many fields: " + fen);
+        }
+
+        chessboard.clearUndoStack();
+        chessboard.getCaptured().clear();
+        chessboard.setPieces(pieces);
+        chessboard.setSideToMove(sideToMove);
+        chessboard.setCastlingRights(castlingRights);
+        chessboard.setEnPassantSquare(enPassantSquare);
+        chessboard.setHalfmoveClock(halfmoveClock);
+        chessboard.setFullmoveNumber(fullmoveNumber);
+    }
+
+    /**
+     * @return whether the opponent of the side to move can have just moved a pawn two squares past the square: the
+     * square is on the 6th rank if white is to move (3rd if black), the pawn is in front of it and the square behind it
+     * is empty
+     */
+    private static boolean isDoublePush(ChessPiece[][] pieces, int square, ChessPiece.Color sideToMove) {
+        int rank = square >>> 3;
+        int file = square & 7;
+        // The rank the pawn has moved to, and the one it came from, [0] is the 8th rank
+        int to;
+        int from;
+        if (sideToMove == ChessPiece.Color.WHITE) {
+            if (rank != 5) {
+                return false;
+            }
+            to = 7 - 4;
+            from = 7 - 6;
+        } else {
+            if (rank != 2) {
+                return false;
+            }
+            to = 7 - 3;
+            from = 7 - 1;
+        }
+        ChessPiece pawn = pieces[to][file];
+        return pawn != null && pawn.getType() == ChessPiece.Type.PAWN && pawn.getColor() != sideToMove
+                && pieces[7 - rank][file] == null && pieces[from][file] == null;
+    }
+
+    private static int skipSpaces(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int fieldEnd(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) != ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static void checkFieldEnd(CharSequence fen, int i) {
+        if (i < fen.length() && fen.charAt(i) != ' ') {
+            throw new IllegalArgumentException("Invalid FEN, unexpected " + fen.charAt(i) + " at " + i + ": " + fen);
+        }
+    }
+
+    private static int castlingRight(char c, CharSequence fen) {
+        switch (c) {
+            case 'K':
+                return Chessboard.WHITE_KINGSIDE;
+            case 'Q':
+                return Chessboard.WHITE_QUEENSIDE;
+            case 'k':
+                return Chessboard.BLACK_KINGSIDE;
+            case 'q':
+                return Chessboard.BLACK_QUEENSIDE;
+            default:
+                throw new IllegalArgumentException("Invalid FEN castling right " + c + ": " + fen);
+        }
+    }
+
+    private static int parseNumber(CharSequence fen, int start, int end) {
+        // At most 9 digits so it can't overflow
+        if (start == end || end - start > 9) {
+            throw new IllegalArgumentException("Invalid FEN move counter: " + fen);
+        }
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Invalid FEN move counter: " + fen);
+            }
+            number = number * 10 + c - '0';
+        }
+        return number;
+    }
+
+    private static ChessPiece createPiece(char c, Position position) {
+        int index = LETTERS.indexOf(c);
+        if (index < 0) {
+            throw new IllegalArgumentException("Invalid FEN piece: " + c);
+        }
+        ChessPiece.Color color = COLORS[index / 6];
+        ChessPiece piece = TYPES[index % 6].create(color, position);
+        if (piece instanceof Pawn) {
+            // Pawns that are not on their starting rank can't move two squares
+            int startRank = color == ChessPiece.Color.WHITE ? 2 : 7;
+            ((Pawn) piece).setMoved(position.getRank() != startRank);
+        }
+        return piece;
+    }
+
+    /**
+     * Get the FEN string of a chessboard
+     *
+     * @param chessboard the chessboard
+     *
+     * @return the FEN string with all six fields
+     */
+    public static String toString(Chessboard chessboard) {
+        return append(chessboard, new StringBuilder(90)).toString();
+    }
+
+    /**
+     * Append the FEN string of a chessboard to a builder
+     *
+     * @param chessboard the chessboard
+     * @param builder    the builder, e.g. reused after {@code builder.setLength(0)}
+     *
+     * @return the builder
+     */
+    public static StringBuilder append(Chessboard chessboard, StringBuilder builder) {
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int square = rank * 8; square < rank * 8 + 8; square++) {
+                ChessPiece piece = chessboard.getPiece(square);
+                if (piece == null) {
+                    empty++;
+                } else {
+                    if (empty > 0) {
+                        builder.append((char) ('0' + empty));
+                        empty = 0;
+                    }
+                    builder.append(LETTERS.charAt(piece.getBitboardIndex()));
+                }
+            }
+            if (empty > 0) {
+                builder.append((char) ('0' + empty));
+            }
+            if (rank > 0) {
+                builder.append('/');
+            }
+        }
+        builder.append(chessboard.getSideToMove() == ChessPiece.Color.WHITE ? " w " : " b ");
+        int rights = chessboard.getCastlingRights();
+        if (rights == 0) {
+            builder.append('-');
+        } else {
+            if ((rights & Chessboard.WHITE_KINGSIDE) != 0) {
+                builder.append('K');
+            }
+            if ((rights & Chessboard.WHITE_QUEENSIDE) != 0) {
+                builder.append('Q');
+            }
+            if ((rights & Chessboard.BLACK_KINGSIDE) != 0) {
+                builder.append('k');
+            }
+            if ((rights & Chessboard.BLACK_QUEENSIDE) != 0) {
+                builder.append('q');
+            }
+        }
+        builder.append(' ');
+        int enPassantSquare = chessboard.getEnPassantSquare();
+        if (enPassantSquare < 0) {
+            builder.append('-');
+        } else {
+            builder.append((char) ('a' + (enPassantSquare & 7))).append((char) ('1' + (enPassantSquare >>> 3)));
+        }
+        return builder.append(' ').append(chessboard.getHalfmoveClock())
+                .append(' ').append(chessboard.getFullmoveNumber());
+    }
+}
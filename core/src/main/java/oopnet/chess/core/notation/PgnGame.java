@@ -0,0 +1,58 @@
+package oopnet.chess.core.notation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A game read by {@link PgnReader}: the tag pairs and the moves of the main line in SAN. Comments and variations are
+ * not kept.
+ */
+public class PgnGame {
+
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private final List<String> moves = new ArrayList<>();
+    private String result = "*";
+
+    /**
+     * @return the tag pairs in the order they were read, e.g. "White" and "Result"
+     */
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    /**
+     * @return the moves in SAN, see {@link San#parse(oopnet.chess.core.Chessboard, String)}
+     */
+    public List<String> getMoves() {
+        return moves;
+    }
+
+    /**
+     * Get the result from the end of the move text (or the Result tag if the move text has none)
+     *
+     * @return "1-0", "0-1", "1/2-1/2" or "*" if unknown
+     */
+    public String getResult() {
+        return result;
+    }
+
+    void setResult(String result) {
+        this.result = result;
+    }
+
+    /**
+     * Get the FEN of the starting position from the FEN tag
+     *
+     * @return the FEN or {@link Fen#DEFAULT} if the game starts from the default position
+     */
+    public String getStartFen() {
+        String fen = tags.get("FEN");
+        return fen != null ? fen : Fen.DEFAULT;
+    }
+}
@@ -0,0 +1,316 @@
+package oopnet.chess.core.notation;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.Game;
+import oopnet.chess.core.Move;
+import oopnet.chess.core.Position;
+import oopnet.chess.core.event.PieceMoveEvent;
+import oopnet.chess.core.movegen.Moves;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Imports large PGN files in parallel. The file is read through a channel and split to chunks of whole games, and the
+ * chunks are parsed and replayed through {@link Game#handleMove(PieceMoveEvent)} in a {@link ForkJoinPool} while the
+ * next chunks are read. The games are given to a {@link PgnSink}.
+ * <br>
+ * By default each import creates its own pool and shuts it down at the end. The sink may block, so the common pool is
+ * not used: blocked workers would starve the parallel streams and other tasks of the whole JVM.
+ * <br>
+ * Only {@link #setMaxPendingChunks(int) a few chunks} are read ahead of the pool, so the memory used does not depend on
+ * the size of the file, and a sink that can't keep up slows down reading.
+ * <br>
+ * A new game starts at a line beginning with '[' after the move text of the previous game. The files are read as UTF-8
+ * (ASCII is a subset).
+ * <br>
+ * Example usage:
+ * <pre>
+ *     PgnImporter importer = new PgnImporter();
+ *     importer.importFile(path, (pgnGame, game) -&gt; statistics.add(pgnGame.getResult()));
+ *     System.out.println(importer.getGames() + " games, " + importer.getSkippedGames() + " skipped");
+ * </pre>
+ */
+public class PgnImporter {
+
+    // Null to create a pool for each import
+    private ForkJoinPool pool;
+    private int chunkSize = 1 << 20;
+    private int maxPendingChunks = -1;
+    private final AtomicLong games = new AtomicLong();
+    private final AtomicLong skippedGames = new AtomicLong();
+
+    /**
+     * Set the pool that replays the games
+     *
+     * @param pool the pool, not shut down by the importer. By default a new pool with a thread per processor is created
+     *             for each import.
+     *
+     * @return this
+     */
+    public PgnImporter setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Set the size of the chunks. A chunk is larger if a single game does not fit.
+     *
+     * @param chunkSize the size in bytes, 1 MiB by default
+     *
+     * @return this
+     */
+    public PgnImporter setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+        return this;
+    }
+
+    /**
+     * Set how many chunks can be read but not yet handled by the pool
+     *
+     * @param maxPendingChunks the number of chunks, twice the parallelism of the pool by default
+     *
+     * @return this
+     */
+    public PgnImporter setMaxPendingChunks(int maxPendingChunks) {
+        this.maxPendingChunks = Math.max(1, maxPendingChunks);
+        return this;
+    }
+
+    /**
+     * @return the number of games read by the latest import, including the skipped games
+     */
+    public long getGames() {
+        return games.get();
+    }
+
+    /**
+     * @return the number of games of the latest import that have an illegal move or an invalid start position
+     */
+    public long getSkippedGames() {
+        return skippedGames.get();
+    }
+
+    /**
+     * Import a PGN file
+     *
+     * @param file the file
+     * @param sink receives the games
+     *
+     * @return the number of games given to {@link PgnSink#accept(PgnGame, Game)}
+     *
+     * @throws IOException if reading fails or the sink throws an exception
+     */
+    public long importFile(Path file, PgnSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return importChannel(channel, sink);
+        }
+    }
+
+    /**
+     * Import PGN from a channel. The channel is read to the end but not closed.
+     *
+     * @param channel the channel
+     * @param sink    receives the games
+     *
+     * @return the number of games given to {@link PgnSink#accept(PgnGame, Game)}
+     *
+     * @throws IOException if reading fails or the sink throws an exception
+     */
+    public long importChannel(ReadableByteChannel channel, PgnSink sink) throws IOException {
+        games.set(0);
+        skippedGames.set(0);
+        ForkJoinPool pool = this.pool != null ? this.pool
+                : new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        int pending = maxPendingChunks > 0 ? maxPendingChunks : 2 * pool.getParallelism();
+        Semaphore permits = new Semaphore(pending);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Splitter splitter = new Splitter(chunkSize);
+        try {
+            byte[] chunk;
+            while (failure.get() == null && (chunk = splitter.next(channel)) != null) {
+                permits.acquire();
+                byte[] bytes = chunk;
+                try {
+                    pool.execute(() -> {
+                        try {
+                            if (failure.get() == null) {
+                                importChunk(bytes, sink);
+                            }
+                        } catch (Throwable e) {
+                            failure.compareAndSet(null, e);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    // Rejected, e.g. the pool was shut down
+                    permits.release();
+                    throw e;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The pending chunks are skipped
+            failure.compareAndSet(null, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, new IOException("Interrupted", e));
+        } finally {
+            // Wait until all chunks are done so the sink is not called after returning
+            permits.acquireUninterruptibly(pending);
+            if (pool != this.pool) {
+                pool.shutdown();
+            }
+        }
+        Throwable e = failure.get();
+        if (e != null) {
+            throw e instanceof IOException ? (IOException) e : new IOException("Importing failed", e);
+        }
+        return games.get() - skippedGames.get();
+    }
+
+    private void importChunk(byte[] chunk, PgnSink sink) throws Exception {
+        PgnReader reader = new PgnReader(new StringReader(new String(chunk, StandardCharsets.UTF_8)));
+        PgnGame pgnGame;
+        while ((pgnGame = reader.next()) != null) {
+            games.incrementAndGet();
+            Game game;
+            try {
+                game = replay(pgnGame);
+            } catch (IllegalArgumentException e) {
+                skippedGames.incrementAndGet();
+                sink.reject(pgnGame, e);
+                continue;
+            }
+            sink.accept(pgnGame, game);
+        }
+    }
+
+    /**
+     * Replay the moves of a game from its start position
+     *
+     * @param pgnGame the game
+     *
+     * @return the game after all moves
+     *
+     * @throws IllegalArgumentException if the start position is invalid or a move is illegal
+     */
+    public static Game replay(PgnGame pgnGame) {
+        Game game = new Game(Fen.parse(pgnGame.getStartFen()));
+        Chessboard chessboard = game.getChessboard();
+        for (String san : pgnGame.getMoves()) {
+            int move = San.parse(chessboard, san);
+            game.handleMove(new PieceMoveEvent(new Move(chessboard, chessboard.getPiece(Moves.getFrom(move)),
+                    Position.fromIndex(Moves.getTo(move)), Moves.getPromotion(move))));
+        }
+        return game;
+    }
+
+    /**
+     * Reads a channel to chunks that end at a game boundary
+     */
+    static final class Splitter {
+
+        private final int chunkSize;
+        private byte[] buffer;
+        // The bytes read to the buffer
+        private int size;
+        // The bytes scanned for game boundaries
+        private int scanned;
+        // The start of the latest game found in the buffer, 0 if none
+        private int boundary;
+        private boolean lineStart = true;
+        private boolean moveText;
+        // In a {comment}
+        private boolean comment;
+        // In a tag pair or a ;comment, ignored until the end of the line
+        private boolean restOfLine;
+        private boolean end;
+
+        Splitter(int chunkSize) {
+            this.chunkSize = chunkSize;
+            this.buffer = new byte[chunkSize];
+        }
+
+        /**
+         * Read the next chunk
+         *
+         * @return the chunk or null at the end of the channel
+         */
+        byte[] next(ReadableByteChannel channel) throws IOException {
+            while (!end && (size < chunkSize || boundary == 0)) {
+                if (size == buffer.length) {
+                    // A game that is larger than a chunk
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int read = channel.read(ByteBuffer.wrap(buffer, size, buffer.length - size));
+                if (read < 0) {
+                    end = true;
+                } else {
+                    size += read;
+                    scan();
+                }
+            }
+            if (end) {
+                if (size == 0) {
+                    return null;
+                }
+                byte[] chunk = Arrays.copyOf(buffer, size);
+                size = 0;
+                return chunk;
+            }
+            byte[] chunk = Arrays.copyOf(buffer, boundary);
+            // Keep the beginning of the next games
+            System.arraycopy(buffer, boundary, buffer, 0, size - boundary);
+            size -= boundary;
+            scanned -= boundary;
+            boundary = 0;
+            if (buffer.length > chunkSize && size <= chunkSize) {
+                buffer = Arrays.copyOf(buffer, chunkSize);
+            }
+            return chunk;
+        }
+
+        private void scan() {
+            for (; scanned < size; scanned++) {
+                byte b = buffer[scanned];
+                if (comment) {
+                    // A '[' at the start of a line in a comment does not start a game
+                    comment = b != '}';
+                } else if (b == '\n') {
+                    lineStart = true;
+                    restOfLine = false;
+                } else {
+                    if (lineStart && b != ' ' && b != '\t' && b != '\r') {
+                        lineStart = false;
+                        if (b != '[') {
+                            moveText = true;
+                        } else {
+                            // Braces in tag values are not comments
+                            restOfLine = true;
+                            if (moveText) {
+                                moveText = false;
+                                boundary = scanned;
+                            }
+                        }
+                    }
+                    if (!restOfLine) {
+                        comment = b == '{';
+                        restOfLine = b == ';';
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package oopnet.chess.core.notation;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads games in PGN (Portable Game Notation) one at a time, so files of any size can be streamed. Comments, variations
+ * and numeric annotations are skipped.
+ * <br>
+ * Example usage:
+ * <pre>
+ *     try (PgnReader reader = new PgnReader(Files.newBufferedReader(path))) {
+ *         PgnGame game;
+ *         while ((game = reader.next()) != null) {
+ *             ...
+ *         }
+ *     }
+ * </pre>
+ */
+public class PgnReader implements Closeable {
+
+    private final Reader reader;
+    // The next character or -2 if it has not been read yet
+    private int next = -2;
+    private final StringBuilder token = new StringBuilder();
+
+    public PgnReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+    }
+
+    /**
+     * Read the next game
+     *
+     * @return the game or null if there are no more games
+     *
+     * @throws IOException if reading fails
+     */
+    public PgnGame next() throws IOException {
+        PgnGame game = null;
+        boolean moveText = false;
+        while (true) {
+            int c = peek();
+            if (c < 0) {
+                return game;
+            }
+            if (Character.isWhitespace(c)) {
+                read();
+            } else if (c == '[') {
+                if (moveText) {
+                    // The next game starts without a result
+                    return game;
+                }
+                read();
+                if (game == null) {
+                    game = new PgnGame();
+                }
+                readTag(game);
+            } else if (c == '{') {
+                skipUntil('}');
+            } else if (c == ';' || c == '%') {
+                skipUntil('\n');
+            } else if (c == '(') {
+                skipVariation();
+            } else {
+                if (game == null) {
+                    game = new PgnGame();
+                }
+                moveText = true;
+                String str = readToken();
+                if (str.equals("1-0") || str.equals("0-1") || str.equals("1/2-1/2") || str.equals("*")) {
+                    game.setResult(str);
+                    return game;
+                }
+                addMove(game, str);
+            }
+        }
+    }
+
+    private void addMove(PgnGame game, String str) {
+        if (str.startsWith("$") || "{}()[];".indexOf(str.charAt(0)) >= 0) {
+            return;
+        }
+        // Move numbers, e.g. "12." or "12..." or "12.e4"
+        int digits = 0;
+        while (digits < str.length() && Character.isDigit(str.charAt(digits))) {
+            digits++;
+        }
+        int start = digits;
+        while (start < str.length() && str.charAt(start) == '.') {
+            start++;
+        }
+        if (start == digits && start < str.length()) {
+            // Not followed by a dot so not a move number, e.g. "0-0"
+            start = 0;
+        }
+        if (start < str.length()) {
+            game.getMoves().add(start == 0 ? str : str.substring(start));
+        }
+    }
+
+    private void readTag(PgnGame game) throws IOException {
+        StringBuilder name = new StringBuilder();
+        int c;
+        while ((c = read()) >= 0 && c != ']' && !Character.isWhitespace(c)) {
+            name.append((char) c);
+        }
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        while (c >= 0 && (quoted || c != ']')) {
+            c = read();
+            if (c == '"') {
+                if (quoted) {
+                    quoted = false;
+                    skipUntil(']');
+                    break;
+                }
+                quoted = true;
+            } else if (quoted && c == '\\') {
+                c = read();
+                value.append((char) c);
+            } else if (quoted && c >= 0) {
+                value.append((char) c);
+            }
+        }
+        game.getTags().put(name.toString(), value.toString());
+        if (name.toString().equals("Result")) {
+            game.setResult(value.toString());
+        }
+    }
+
+    private String readToken() throws IOException {
+        token.setLength(0);
+        int c;
+        while ((c = peek()) >= 0 && !Character.isWhitespace(c) && "{}()[];".indexOf(c) < 0) {
+            token.append((char) read());
+        }
+        if (token.length() == 0) {
+            // A stray closing bracket
+            token.append((char) read());
+        }
+        return token.toString();
+    }
+
+    private void skipUntil(char end) throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c >= 0 && c != end);
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 0;
+        int c;
+        while ((c = read()) >= 0) {
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return;
+            } else if (c == '{') {
+                skipUntil('}');
+            }
+        }
+    }
+
+    private int peek() throws IOException {
+        if (next == -2) {
+            next = reader.read();
+        }
+        return next;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        next = -2;
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,36 @@
+package oopnet.chess.core.notation;
+
+import oopnet.chess.core.Game;
+
+/**
+ * Receives the games imported by {@link PgnImporter}. The methods are called from the threads of the importer's pool,
+ * possibly at the same time, so implementations must be thread-safe. The games of a file are not received in order.
+ * <br>
+ * A sink may block, e.g. when it puts the games to a bounded queue that is consumed elsewhere. The importer only reads
+ * ahead a limited number of chunks, so a slow sink slows down reading instead of filling the memory. A blocking sink
+ * holds a worker of the pool while it waits, so don't give the importer a pool that is shared with other work (e.g.
+ * the common pool).
+ */
+public interface PgnSink {
+
+    /**
+     * Receive a game that was replayed successfully
+     *
+     * @param pgnGame the game as read from the file
+     * @param game    the game after all moves, the moves can be taken back with {@link Game#unmakeMove()}
+     *
+     * @throws Exception if the game can't be handled, stops the import
+     */
+    void accept(PgnGame pgnGame, Game game) throws Exception;
+
+    /**
+     * Receive a game that has an illegal move or an invalid start position. Ignored by default.
+     *
+     * @param pgnGame the game as read from the file
+     * @param error   the error
+     *
+     * @throws Exception if the game can't be handled, stops the import
+     */
+    default void reject(PgnGame pgnGame, IllegalArgumentException error) throws Exception {
+    }
+}
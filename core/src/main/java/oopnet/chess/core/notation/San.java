@@ -0,0 +1,278 @@
+package oopnet.chess.core.notation;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.bitboard.Bitboards;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.movegen.Moves;
+import oopnet.chess.core.pieces.ChessPiece;
+
+/**
+ * Reads and writes moves in SAN (Standard Algebraic Notation), the notation used by PGN, e.g. "e4", "Nxf7+", "exd6",
+ * "O-O" or "e8=Q#"
+ * <br>
+ * Neither direction generates the moves of the whole position. The pieces that could be meant by a move (or that make
+ * it ambiguous) are found with the attack tables from the destination square, and only their moves are generated to
+ * check that they are legal. Usually there is just one such piece.
+ */
+public final class San {
+
+    // Indexed by ChessPiece.Type#ordinal()
+    private static final String LETTERS = "PNBRQK";
+    // Enough for the moves of one piece, a queen has at most 27
+    private static final int PIECE_MOVES = 32;
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long RANK_1 = 0xFFL;
+
+    private San() {
+    }
+
+    /**
+     * Find the legal move the SAN string means in the position. Check and annotation suffixes ("+", "#", "!", "?")
+     * are ignored, and "0-0" is accepted for castling.
+     *
+     * @param chessboard the position
+     * @param san        the move
+     *
+     * @return the encoded move, see {@link Moves}
+     *
+     * @throws IllegalArgumentException if the string is not a legal move in the position or it's ambiguous
+     */
+    public static int parse(Chessboard chessboard, String san) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        ChessPiece.Color us = chessboard.getSideToMove();
+        MoveList moves = new MoveList(PIECE_MOVES);
+        if (isCastling(san, end)) {
+            int flags = end == 3 ? Moves.KINGSIDE_CASTLE : Moves.QUEENSIDE_CASTLE;
+            long king = chessboard.getBitboard(ChessPiece.Type.KING, us);
+            if (king != 0) {
+                MoveGenerator.generateLegal(chessboard, Bitboards.lowest(king), moves);
+                for (int i = 0; i < moves.size(); i++) {
+                    if (Moves.getFlags(moves.get(i)) == flags) {
+                        return moves.get(i);
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Illegal move: " + san);
+        }
+
+        ChessPiece.Type type = ChessPiece.Type.PAWN;
+        int start = 0;
+        if (end > 0 && "NBRQK".indexOf(san.charAt(0)) >= 0) {
+            type = pieceType(san.charAt(0));
+            start = 1;
+        }
+        ChessPiece.Type promotion = null;
+        if (type == ChessPiece.Type.PAWN && end > 2 && "NBRQ".indexOf(san.charAt(end - 1)) >= 0) {
+            // "e8=Q" or "e8Q"
+            promotion = pieceType(san.charAt(end - 1));
+            end -= san.charAt(end - 2) == '=' ? 2 : 1;
+        }
+        if (end - start < 2) {
+            throw new IllegalArgumentException("Invalid move: " + san);
+        }
+        int to = square(san.charAt(end - 2), san.charAt(end - 1), san);
+        // What is left between the piece and the destination: disambiguation and 'x'
+        // A pawn move without a file is a push on the same file
+        long candidates = type == ChessPiece.Type.PAWN ? FILE_A << (to & 7) : ~0L;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                candidates = (type == ChessPiece.Type.PAWN ? ~0L : candidates) & FILE_A << (c - 'a');
+            } else if (c >= '1' && c <= '8') {
+                candidates &= RANK_1 << 8 * (c - '1');
+            } else if (c != 'x' && c != ':' && c != '-') {
+                throw new IllegalArgumentException("Invalid move: " + san);
+            }
+        }
+        candidates &= origins(chessboard, type, us, to);
+
+        int found = Moves.NONE;
+        while (candidates != 0) {
+            int from = Bitboards.lowest(candidates);
+            candidates = Bitboards.popLowest(candidates);
+            moves.clear();
+            MoveGenerator.generateLegal(chessboard, from, moves);
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                if (Moves.getTo(move) != to || Moves.isCastling(move) || Moves.getPromotion(move) != promotion) {
+                    continue;
+                }
+                if (found != Moves.NONE) {
+                    throw new IllegalArgumentException("Ambiguous move: " + san);
+                }
+                found = move;
+            }
+        }
+        if (found == Moves.NONE) {
+            throw new IllegalArgumentException("Illegal move: " + san);
+        }
+        return found;
+    }
+
+    private static boolean isCastling(String san, int end) {
+        if (end != 3 && end != 5) {
+            return false;
+        }
+        char o = san.charAt(0);
+        if (o != 'O' && o != '0') {
+            return false;
+        }
+        for (int i = 1; i < end; i++) {
+            if (san.charAt(i) != (i % 2 == 1 ? '-' : o)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the pieces that might be able to move to the square. The moves of the pieces still need to be checked, e.g.
+     * a pinned piece can't move or a pawn can't push to an occupied square.
+     */
+    private static long origins(Chessboard chessboard, ChessPiece.Type type, ChessPiece.Color us, int to) {
+        long pieces = chessboard.getBitboard(type, us);
+        if (type != ChessPiece.Type.PAWN) {
+            // The attacks are symmetric: a piece on the target square would attack the pieces that can move there
+            return pieces & MoveGenerator.attacks(type, us, to, chessboard.getOccupied());
+        }
+        long origins = Bitboards.pawnAttacks(us.getOpposite(), to);
+        int direction = us == ChessPiece.Color.WHITE ? -8 : 8;
+        for (int from = to + direction, i = 0; i < 2 && from >= 0 && from < 64; from += direction, i++) {
+            origins |= 1L << from;
+        }
+        return pieces & origins;
+    }
+
+    /**
+     * Get the SAN string of a legal move
+     *
+     * @param chessboard the position before the move
+     * @param move       the encoded move, see {@link Moves}
+     *
+     * @return the move in SAN, e.g. "Nbd7", "exd6", "O-O" or "e8=Q+"
+     */
+    public static String toString(Chessboard chessboard, int move) {
+        return append(chessboard, move, new StringBuilder(8)).toString();
+    }
+
+    /**
+     * Append the SAN string of a legal move to a builder. Adding the check suffix makes and takes back the move on the
+     * chessboard.
+     *
+     * @param chessboard the position before the move
+     * @param move       the encoded move, see {@link Moves}
+     * @param builder    the builder
+     *
+     * @return the builder
+     *
+     * @see #toString(Chessboard, int)
+     */
+    public static StringBuilder append(Chessboard chessboard, int move, StringBuilder builder) {
+        if (move == Moves.NONE) {
+            // The null move of PGN
+            return builder.append("--");
+        }
+        int from = Moves.getFrom(move);
+        int to = Moves.getTo(move);
+        int flags = Moves.getFlags(move);
+        if (flags == Moves.KINGSIDE_CASTLE) {
+            builder.append("O-O");
+        } else if (flags == Moves.QUEENSIDE_CASTLE) {
+            builder.append("O-O-O");
+        } else {
+            ChessPiece piece = chessboard.getPiece(from);
+            ChessPiece.Type type = piece.getType();
+            if (type == ChessPiece.Type.PAWN) {
+                if (Moves.isCapture(move)) {
+                    builder.append((char) ('a' + (from & 7))).append('x');
+                }
+            } else {
+                builder.append(LETTERS.charAt(type.ordinal()));
+                appendDisambiguation(chessboard, type, piece.getColor(), from, to, builder);
+                if (Moves.isCapture(move)) {
+                    builder.append('x');
+                }
+            }
+            builder.append((char) ('a' + (to & 7))).append((char) ('1' + (to >>> 3)));
+            ChessPiece.Type promotion = Moves.getPromotion(move);
+            if (promotion != null) {
+                builder.append('=').append(LETTERS.charAt(promotion.ordinal()));
+            }
+        }
+        chessboard.makeMove(move);
+        try {
+            if (MoveGenerator.isInCheck(chessboard, chessboard.getSideToMove())) {
+                builder.append(MoveGenerator.hasLegalMoves(chessboard) ? '+' : '#');
+            }
+        } finally {
+            chessboard.unmakeMove();
+        }
+        return builder;
+    }
+
+    /**
+     * Add the file, rank or both of the moving piece if another piece of the same type can move to the same square.
+     * The file is preferred, then the rank.
+     */
+    private static void appendDisambiguation(Chessboard chessboard, ChessPiece.Type type, ChessPiece.Color color,
+                                             int from, int to, StringBuilder builder) {
+        long others = chessboard.getBitboard(type, color) & ~(1L << from)
+                & MoveGenerator.attacks(type, color, to, chessboard.getOccupied());
+        if (others == 0) {
+            return;
+        }
+        // A pinned piece that can't move there does not make the move ambiguous
+        MoveList moves = new MoveList(PIECE_MOVES);
+        long ambiguous = 0;
+        while (others != 0) {
+            int square = Bitboards.lowest(others);
+            others = Bitboards.popLowest(others);
+            moves.clear();
+            MoveGenerator.generateLegal(chessboard, square, moves);
+            for (int i = 0; i < moves.size(); i++) {
+                if (Moves.getTo(moves.get(i)) == to) {
+                    ambiguous |= 1L << square;
+                    break;
+                }
+            }
+        }
+        if (ambiguous == 0) {
+            return;
+        }
+        if ((ambiguous & FILE_A << (from & 7)) == 0) {
+            builder.append((char) ('a' + (from & 7)));
+        } else if ((ambiguous & RANK_1 << (from & 56)) == 0) {
+            builder.append((char) ('1' + (from >>> 3)));
+        } else {
+            builder.append((char) ('a' + (from & 7))).append((char) ('1' + (from >>> 3)));
+        }
+    }
+
+    private static int square(char file, char rank, String san) {
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            throw new IllegalArgumentException("Invalid square in move: " + san);
+        }
+        return (rank - '1') * 8 + (file - 'a');
+    }
+
+    private static ChessPiece.Type pieceType(char c) {
+        switch (c) {
+            case 'N':
+                return ChessPiece.Type.KNIGHT;
+            case 'B':
+                return ChessPiece.Type.BISHOP;
+            case 'R':
+                return ChessPiece.Type.ROOK;
+            case 'Q':
+                return ChessPiece.Type.QUEEN;
+            case 'K':
+                return ChessPiece.Type.KING;
+            default:
+                throw new IllegalArgumentException("Invalid piece: " + c);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package oopnet.chess.core.pieces;
 import oopnet.chess.core.Chessboard;
 import oopnet.chess.core.MovesBuilder;
 import oopnet.chess.core.Position;
+import oopnet.chess.core.bitboard.Magics;
 
 import java.util.Set;
 
@@ -20,13 +21,15 @@ public class Bishop extends ChessPiece {
     @Override
     public Set<Position> getLegalMovePositions(Chessboard chessboard, Position position) {
         return new MovesBuilder(chessboard, position, getColor())
-                .function(i -> i + 1, i -> i + 1)
-                .function(i -> i - 1, i -> i - 1)
-                .function(i -> i + 1, i -> i - 1)
-                .function(i -> i - 1, i -> i + 1)
+                .addTargets(Magics.bishopAttacks(position.getIndex(), chessboard.getOccupied()))
                 .getLegalPositions();
     }
 
+    @Override
+    public Type getType() {
+        return Type.BISHOP;
+    }
+
     @Override
     public char getNotationLetter() {
         return 'B';
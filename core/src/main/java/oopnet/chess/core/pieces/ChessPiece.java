@@ -2,8 +2,12 @@ package oopnet.chess.core.pieces;
 
 import oopnet.chess.core.Chessboard;
 import oopnet.chess.core.Position;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.movegen.Moves;
 
 import java.io.Serializable;
+import java.util.HashSet;
 import java.util.Set;
 
 public abstract class ChessPiece implements Serializable {
@@ -41,16 +45,55 @@ public abstract class ChessPiece implements Serializable {
     public abstract Set<Position> getLegalMovePositions(Chessboard chessboard, Position position);
 
     /**
-     * Get all legal move positions from the current location
+     * Get all legal move positions from the current location. Unlike {@link #getLegalMovePositions(Chessboard,
+     * Position)} castling is included and moves that would leave the own king in check are not.
      *
      * @param chessboard the current chessboard
      *
-     * @return a set of all legal positions from the currente position
+     * @return a set of all legal positions from the current position
      *
-     * @see #getLegalMovePositions(Chessboard, Position)
+     * @see #generateLegalMoves(Chessboard, MoveList)
      */
     public Set<Position> getLegalMovePositions(Chessboard chessboard) {
-        return getLegalMovePositions(chessboard, position);
+        MoveList moves = new MoveList();
+        generateLegalMoves(chessboard, moves);
+        Set<Position> positions = new HashSet<>();
+        for (int i = 0; i < moves.size(); i++) {
+            positions.add(Position.fromIndex(Moves.getTo(moves.get(i))));
+        }
+        return positions;
+    }
+
+    /**
+     * Add the moves of this piece from its current position to the given list as encoded moves (see {@link
+     * oopnet.chess.core.movegen.Moves}). Unlike {@link #getLegalMovePositions(Chessboard)} this does not allocate
+     * anything, so the same list can be reused. Castling, en passant and promotions are included but the moves may
+     * leave the own king in check.
+     *
+     * @param chessboard the current {@link Chessboard}
+     * @param moves      the list the moves are added to
+     *
+     * @return the number of moves added
+     *
+     * @see MoveGenerator#generate(Chessboard, int, MoveList)
+     */
+    public int generateMoves(Chessboard chessboard, MoveList moves) {
+        return MoveGenerator.generate(chessboard, position.getIndex(), moves);
+    }
+
+    /**
+     * Add the legal moves of this piece from its current position to the given list as encoded moves. Same as {@link
+     * #generateMoves(Chessboard, MoveList)} but moves that would leave the own king in check are not added.
+     *
+     * @param chessboard the current {@link Chessboard}
+     * @param moves      the list the moves are added to
+     *
+     * @return the number of moves added
+     *
+     * @see MoveGenerator#generateLegal(Chessboard, int, MoveList)
+     */
+    public int generateLegalMoves(Chessboard chessboard, MoveList moves) {
+        return MoveGenerator.generateLegal(chessboard, position.getIndex(), moves);
     }
 
     /**
@@ -60,6 +103,25 @@ public abstract class ChessPiece implements Serializable {
      */
     public abstract char getNotationLetter();
 
+    /**
+     * Get the type of this piece.
+     *
+     * @return the {@link Type} of this piece, never null
+     */
+    public abstract Type getType();
+
+    /**
+     * Get the index of this piece's bitboard in {@link Chessboard#getBitboard(int)}. Each type and color combination
+     * has its own index.
+     *
+     * @return the bitboard index, a number from 0 to 11
+     *
+     * @see Type#getBitboardIndex(Color)
+     */
+    public int getBitboardIndex() {
+        return getType().getBitboardIndex(color);
+    }
+
     /**
      * Get the letter in FEN (Forsyth–Edwards Notation). For black pieces this returns {@link #getNotationLetter()} in
      * lowercase and for white pieces this returns in uppercase.
@@ -84,6 +146,52 @@ public abstract class ChessPiece implements Serializable {
         return Character.toUpperCase(getNotationLetter());
     }
 
+    public enum Type {
+        PAWN,
+        KNIGHT,
+        BISHOP,
+        ROOK,
+        QUEEN,
+        KING;
+
+        /**
+         * Get the index of the bitboard that stores pieces of this type and the given color. Black pieces are stored
+         * at indexes 0-5 and white pieces at 6-11.
+         *
+         * @param color the color of the piece, not null
+         *
+         * @return the bitboard index, a number from 0 to 11
+         */
+        public int getBitboardIndex(Color color) {
+            return color.ordinal() * 6 + ordinal();
+        }
+
+        /**
+         * Create a new piece of this type
+         *
+         * @param color    the color of the piece
+         * @param position the position of the piece
+         *
+         * @return the new piece
+         */
+        public ChessPiece create(Color color, Position position) {
+            switch (this) {
+                case PAWN:
+                    return new Pawn(color, position);
+                case KNIGHT:
+                    return new Knight(color, position);
+                case BISHOP:
+                    return new Bishop(color, position);
+                case ROOK:
+                    return new Rook(color, position);
+                case QUEEN:
+                    return new Queen(color, position);
+                default:
+                    return new King(color, position);
+            }
+        }
+    }
+
     public enum Color {
         BLACK,
         WHITE;
@@ -3,6 +3,7 @@ package oopnet.chess.core.pieces;
 import oopnet.chess.core.Chessboard;
 import oopnet.chess.core.MovesBuilder;
 import oopnet.chess.core.Position;
+import oopnet.chess.core.bitboard.Bitboards;
 
 import java.util.Set;
 
@@ -20,20 +21,17 @@ public class Knight extends ChessPiece {
     @Override
     public Set<Position> getLegalMovePositions(Chessboard chessboard, Position position) {
         return new MovesBuilder(chessboard, position, getColor())
-                .addIfLegal(position, 2, 1)
-                .addIfLegal(position, 2, -1)
-                .addIfLegal(position, -2, 1)
-                .addIfLegal(position, -2, -1)
-
-                .addIfLegal(position, 1, 2)
-                .addIfLegal(position, -1, 2)
-                .addIfLegal(position, 1, -2)
-                .addIfLegal(position, -1, -2)
+                .addTargets(Bitboards.knightAttacks(position.getIndex()))
                 .getLegalPositions();
     }
 
+    @Override
+    public Type getType() {
+        return Type.KNIGHT;
+    }
+
     @Override
     public char getNotationLetter() {
-        return 'K';
+        return 'N';
     }
 }
@@ -3,6 +3,7 @@ package oopnet.chess.core.pieces;
 import oopnet.chess.core.Chessboard;
 import oopnet.chess.core.MovesBuilder;
 import oopnet.chess.core.Position;
+import oopnet.chess.core.bitboard.Bitboards;
 
 import java.util.Set;
 
@@ -17,39 +18,26 @@ public class Pawn extends ChessPiece {
     @Override
     public Set<Position> getLegalMovePositions(Chessboard chessboard, Position position) {
         MovesBuilder builder = new MovesBuilder(chessboard, position, getColor());
-        // If the piece has not been moved it can move two spaces
-        char file = position.getFile();
         // Forward move
         int rankModifier = getColor() == Color.WHITE ? 1 : -1;
         int rank = position.getRank() + rankModifier;
         // Pawn can't capture in the same direction
-        addIfValid(file, rank, chessboard, false, builder);
-        // has not moved and there's nothing in front of it
-        if (!hasMoved && builder.checkBoundaries(position.getFileAsInt(), rank) == 0) {
-            // Pawn can't capture in the same direction
-            // add rankModifier again (+2)
-            addIfValid(file, rank + rankModifier, chessboard, false, builder);
+        if (builder.checkBoundaries(position.getFileAsInt(), rank) == 0) {
+            builder.add(position.getFile(), rank);
+            // If the piece has not been moved it can move two spaces
+            if (!hasMoved && builder.checkBoundaries(position.getFileAsInt(), rank + rankModifier) == 0) {
+                builder.add(position.getFile(), rank + rankModifier);
+            }
         }
         // But can capture forward and left or right
-        file = (char) (position.getFile() + 1);
-        addIfValid(file, rank, chessboard, true, builder);
-
-        file = (char) (position.getFile() - 1);
-        addIfValid(file, rank, chessboard, true, builder);
-
+        long enemies = chessboard.getOccupancy(getColor().getOpposite());
+        builder.addTargets(Bitboards.pawnAttacks(getColor(), position.getIndex()) & enemies);
         return builder.getLegalPositions();
     }
 
-    private void addIfValid(char file, int rank, Chessboard chessboard, boolean capture, MovesBuilder builder) {
-        if (Position.validate(rank, file)) {
-            boolean isCapture = new Position(rank, file).getPiece(chessboard) != null;
-            if (isCapture == capture) {
-                int ret = builder.checkBoundaries(file - 'a' + 1, rank);
-                if (ret >= 0) {
-                    builder.add(new Position(rank, file));
-                }
-            }
-        }
+    @Override
+    public Type getType() {
+        return Type.PAWN;
     }
 
     @Override
@@ -73,6 +61,24 @@ public class Pawn extends ChessPiece {
         hasMoved = true;
     }
 
+    /**
+     * Get whether this pawn has moved. A pawn that has not moved can move two squares forward.
+     *
+     * @return true if {@link #setPosition(Position)} has been called
+     */
+    public boolean hasMoved() {
+        return hasMoved;
+    }
+
+    /**
+     * Set whether this pawn has moved, used when a move is taken back
+     *
+     * @param hasMoved the new value
+     */
+    public void setMoved(boolean hasMoved) {
+        this.hasMoved = hasMoved;
+    }
+
     @Override
     public String getIcon() {
         return getColor() == Color.BLACK ? "♟" : "♙";
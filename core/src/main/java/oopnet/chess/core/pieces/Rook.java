@@ -3,11 +3,10 @@ package oopnet.chess.core.pieces;
 import oopnet.chess.core.Chessboard;
 import oopnet.chess.core.MovesBuilder;
 import oopnet.chess.core.Position;
+import oopnet.chess.core.bitboard.Magics;
 
 import java.util.Set;
 
-import static java.util.function.IntUnaryOperator.identity;
-
 public class Rook extends ChessPiece {
 
 
@@ -17,13 +16,14 @@ public class Rook extends ChessPiece {
 
     @Override
     public Set<Position> getLegalMovePositions(Chessboard chessboard, Position position) {
-        Set<Position> list = new MovesBuilder(chessboard, position, getColor())
-                .function(f -> f + 1, identity())
-                .function(f -> f - 1, identity())
-                .function(identity(), f -> f + 1)
-                .function(identity(), f -> f - 1)
+        return new MovesBuilder(chessboard, position, getColor())
+                .addTargets(Magics.rookAttacks(position.getIndex(), chessboard.getOccupied()))
                 .getLegalPositions();
-        return list;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.ROOK;
     }
 
     @Override
@@ -0,0 +1,140 @@
+package oopnet.chess.core;
+
+import oopnet.chess.core.bitboard.Bitboards;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.pieces.ChessPiece;
+import oopnet.chess.core.pieces.Knight;
+import oopnet.chess.core.pieces.Pawn;
+import oopnet.chess.core.pieces.Rook;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChessboardTest {
+
+    @Test
+    public void testDefaultBitboards() {
+        Chessboard chessboard = new Chessboard();
+        chessboard.loadDefault();
+        assertEquals(Bitboards.RANK_1 | Bitboards.RANK_2, chessboard.getOccupancy(ChessPiece.Color.WHITE));
+        assertEquals(Bitboards.RANK_7 | Bitboards.RANK_8, chessboard.getOccupancy(ChessPiece.Color.BLACK));
+        assertEquals(Bitboards.RANK_2, chessboard.getBitboard(ChessPiece.Type.PAWN, ChessPiece.Color.WHITE));
+        assertEquals(Bitboards.squareBit(new Position(8, 'e').getIndex()),
+                chessboard.getBitboard(ChessPiece.Type.KING, ChessPiece.Color.BLACK));
+    }
+
+    @Test
+    public void testSetPieceUpdatesBitboards() {
+        Chessboard chessboard = new Chessboard();
+        chessboard.loadDefault();
+        Position from = new Position(1, 'g');
+        Position to = new Position(3, 'f');
+        ChessPiece knight = from.getPiece(chessboard);
+        from.setPiece(chessboard, null);
+        to.setPiece(chessboard, knight);
+
+        long knights = chessboard.getBitboard(ChessPiece.Type.KNIGHT, ChessPiece.Color.WHITE);
+        assertTrue(Bitboards.contains(knights, to.getIndex()));
+        assertFalse(Bitboards.contains(knights, from.getIndex()));
+        assertFalse(Bitboards.contains(chessboard.getOccupied(), from.getIndex()));
+        assertSame(knight, chessboard.getPiece(to.getIndex()));
+    }
+
+    @Test
+    public void testKnightAttacks() {
+        Chessboard chessboard = new Chessboard();
+        chessboard.setPieces(new ChessPiece[8][8]);
+        Position position = new Position(1, 'a');
+        Knight knight = new Knight(ChessPiece.Color.WHITE, position);
+        position.setPiece(chessboard, knight);
+        assertEquals(2, Bitboards.count(Bitboards.knightAttacks(position.getIndex())));
+        assertEquals(2, knight.getLegalMovePositions(chessboard).size());
+    }
+
+    @Test
+    public void testMakeAndUnmakeRestoreBoard() {
+        Chessboard chessboard = new Chessboard();
+        chessboard.loadDefault();
+        long[] bitboards = new long[12];
+        for (int i = 0; i < 12; i++) {
+            bitboards[i] = chessboard.getBitboard(i);
+        }
+        long hashKey = chessboard.getHashKey();
+        Pawn pawn = (Pawn) new Position(2, 'e').getPiece(chessboard);
+        Random random = new Random(7);
+        MoveList moves = new MoveList();
+        // Play random (pseudo-legal) moves and take them all back
+        int made = 0;
+        for (int i = 0; i < 200; i++) {
+            moves.clear();
+            MoveGenerator.generate(chessboard, moves);
+            if (moves.isEmpty() || chessboard.getBitboard(ChessPiece.Type.KING, chessboard.getSideToMove()) == 0) {
+                break;
+            }
+            chessboard.makeMove(moves.get(random.nextInt(moves.size())));
+            assertEquals(chessboard.computeHashKey(), chessboard.getHashKey());
+            made++;
+        }
+        assertEquals(made, chessboard.getPly());
+        for (int i = 0; i < made; i++) {
+            chessboard.unmakeMove();
+        }
+        for (int i = 0; i < 12; i++) {
+            assertEquals(bitboards[i], chessboard.getBitboard(i));
+        }
+        assertEquals(hashKey, chessboard.getHashKey());
+        assertEquals(ChessPiece.Color.WHITE, chessboard.getSideToMove());
+        assertEquals(Chessboard.ALL_CASTLING, chessboard.getCastlingRights());
+        assertEquals(-1, chessboard.getEnPassantSquare());
+        assertEquals(1, chessboard.getFullmoveNumber());
+        assertSame(pawn, new Position(2, 'e').getPiece(chessboard));
+        assertFalse(pawn.hasMoved());
+        assertEquals(new Position(2, 'e'), pawn.getPosition());
+    }
+
+    @Test
+    public void testCastlingMovesRook() {
+        Chessboard chessboard = new Chessboard();
+        chessboard.loadDefault();
+        new Position(1, 'f').setPiece(chessboard, null);
+        new Position(1, 'g').setPiece(chessboard, null);
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(chessboard, moves);
+        chessboard.makeMove(moves.find(new Position(1, 'e').getIndex(), new Position(1, 'g').getIndex()));
+        assertTrue(new Position(1, 'f').getPiece(chessboard) instanceof Rook);
+        assertEquals(Chessboard.BLACK_KINGSIDE | Chessboard.BLACK_QUEENSIDE, chessboard.getCastlingRights());
+        chessboard.unmakeMove();
+        assertTrue(new Position(1, 'h').getPiece(chessboard) instanceof Rook);
+        assertNull(new Position(1, 'f').getPiece(chessboard));
+        assertEquals(Chessboard.ALL_CASTLING, chessboard.getCastlingRights());
+    }
+
+    @Test
+    public void testHashKeyTranspositions() {
+        Chessboard chessboard = new Chessboard();
+        chessboard.loadDefault();
+        long start = chessboard.getHashKey();
+        assertEquals(chessboard.computeHashKey(), start);
+        // Knights out and back
+        play(chessboard, "g1f3", "g8f6", "f3g1", "f6g8");
+        assertEquals(start, chessboard.getHashKey());
+        // Same pieces but black to move
+        chessboard.setSideToMove(ChessPiece.Color.BLACK);
+        assertNotEquals(start, chessboard.getHashKey());
+        assertEquals(chessboard.computeHashKey(), chessboard.getHashKey());
+    }
+
+    private void play(Chessboard chessboard, String... moves) {
+        MoveList list = new MoveList();
+        for (String move : moves) {
+            list.clear();
+            MoveGenerator.generate(chessboard, list);
+            int from = new Position(move.charAt(1) - '0', move.charAt(0)).getIndex();
+            int to = new Position(move.charAt(3) - '0', move.charAt(2)).getIndex();
+            chessboard.makeMove(list.find(from, to));
+        }
+    }
+}
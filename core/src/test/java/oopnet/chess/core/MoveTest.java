@@ -0,0 +1,71 @@
+package oopnet.chess.core;
+
+import oopnet.chess.core.event.EventCodec;
+import oopnet.chess.core.event.PieceMoveEvent;
+import oopnet.chess.core.notation.Fen;
+import oopnet.chess.core.pieces.ChessPiece;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveTest {
+
+    // Scholar's mate, white plays Qxf7#
+    private static final String MATE_IN_ONE = "r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4";
+
+    @Test
+    public void testFlags() {
+        Chessboard chessboard = Fen.parse(MATE_IN_ONE);
+        long key = chessboard.getHashKey();
+        Move mate = move(chessboard, "h5", "f7");
+        assertTrue(mate.isCapture());
+        assertTrue(mate.isCheck());
+        assertTrue(mate.isCheckmate());
+        // Computing the flags does not change the board
+        assertEquals(key, chessboard.getHashKey());
+
+        Move check = move(chessboard, "c4", "f7");
+        assertTrue(check.isCapture());
+        assertTrue(check.isCheck());
+        assertFalse(check.isCheckmate());
+
+        Move quiet = move(chessboard, "h5", "h4");
+        assertFalse(quiet.isCapture());
+        assertFalse(quiet.isCheck());
+    }
+
+    @Test
+    public void testFlagsAreMemoized() {
+        Chessboard chessboard = Fen.parse(MATE_IN_ONE);
+        Move mate = move(chessboard, "h5", "f7");
+        assertTrue(mate.isCheckmate());
+        new Game(chessboard).handleMove(new PieceMoveEvent(mate));
+        // Still describes the move, not the position after it
+        assertTrue(mate.isCheckmate());
+    }
+
+    @Test
+    public void testReceivedMoveUsesReceiversBoard() throws IOException {
+        Chessboard chessboard = Fen.parse(MATE_IN_ONE);
+        PieceMoveEvent event = new PieceMoveEvent(move(chessboard, "h5", "f7"));
+        byte[] bytes = EventCodec.encode(event);
+        PieceMoveEvent received = (PieceMoveEvent) EventCodec.decode(bytes, 0, bytes.length);
+        // The queen on e7 can take back so it's not a mate on this board
+        Chessboard other = Fen.parse("r1b1kb1r/ppppqppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4");
+        Move move = received.getMove(other);
+        assertEquals(ChessPiece.Type.QUEEN, move.getPiece().getType());
+        assertTrue(move.isCheck());
+        assertFalse(move.isCheckmate());
+    }
+
+    private static Move move(Chessboard chessboard, String from, String to) {
+        ChessPiece piece = Position.fromIndex(index(from)).getPiece(chessboard);
+        return new Move(chessboard, piece, Position.fromIndex(index(to)));
+    }
+
+    private static int index(String square) {
+        return (square.charAt(1) - '1') * 8 + square.charAt(0) - 'a';
+    }
+}
@@ -0,0 +1,31 @@
+package oopnet.chess.core.bitboard;
+
+import oopnet.chess.core.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MagicsTest {
+
+    @Test
+    public void testLookupsMatchRayWalk() {
+        Random random = new Random(1);
+        for (int square = 0; square < 64; square++) {
+            for (int i = 0; i < 200; i++) {
+                long occupied = random.nextLong() & random.nextLong();
+                assertEquals(Magics.slidingAttacks(square, occupied, false), Magics.rookAttacks(square, occupied));
+                assertEquals(Magics.slidingAttacks(square, occupied, true), Magics.bishopAttacks(square, occupied));
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyBoard() {
+        int d4 = new Position(4, 'd').getIndex();
+        assertEquals(14, Bitboards.count(Magics.rookAttacks(d4, Bitboards.EMPTY)));
+        assertEquals(13, Bitboards.count(Magics.bishopAttacks(d4, Bitboards.EMPTY)));
+        assertEquals(27, Bitboards.count(Magics.queenAttacks(d4, Bitboards.EMPTY)));
+    }
+}
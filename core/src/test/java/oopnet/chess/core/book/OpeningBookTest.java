@@ -0,0 +1,104 @@
+package oopnet.chess.core.book;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.Moves;
+import oopnet.chess.core.notation.Fen;
+import oopnet.chess.core.notation.PgnGame;
+import oopnet.chess.core.notation.PgnImporter;
+import oopnet.chess.core.notation.PgnReader;
+import oopnet.chess.core.notation.San;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTest {
+
+    private static final String PGN = "[Event \"Test\"]\n[White \"A\"]\n[Black \"B\"]\n[Result \"1-0\"]\n\n"
+            + "1. e4 e5 2. Nf3 {A comment} Nc6 (2... d6 3. d4) 3. Bb5 a6 $1 1-0\n\n"
+            + "[Event \"Test\"]\n[Result \"1/2-1/2\"]\n\n1. e4 c5 2. Nf3 d6 1/2-1/2\n\n"
+            + "[Event \"Test\"]\n[Result \"0-1\"]\n\n1.d4 d5 2.c4 e6 0-1\n\n"
+            + "[Event \"Test\"]\n[Result \"1-0\"]\n\n1. e4 e5 2. Qh5 Nc6 3. Bc4 Nf6?? 4. Qxf7# 1-0\n\n"
+            + "[Event \"Illegal\"]\n[Result \"*\"]\n\n1. e4 e4 *\n";
+
+    @Test
+    public void testBuildAndRead(@TempDir Path directory) throws IOException {
+        Path pgn = directory.resolve("games.pgn");
+        Files.write(pgn, PGN.getBytes(StandardCharsets.UTF_8));
+        Path file = directory.resolve("book.bin");
+        // Tiny chunks so the records are split to many runs
+        BookBuilder builder = new BookBuilder().setChunkSize(3).setThreads(2).setTempDirectory(directory);
+        long entries = builder.build(Collections.singletonList(pgn), file);
+        assertEquals(5, builder.getGames());
+        assertEquals(1, builder.getSkippedGames());
+        assertEquals(entries * OpeningBook.ENTRY_BYTES, Files.size(file));
+        // Only the book is left
+        assertEquals(2, Files.list(directory).count());
+
+        OpeningBook book = OpeningBook.open(file);
+        assertEquals(entries, book.size());
+        Chessboard chessboard = Fen.parse(Fen.DEFAULT);
+        List<BookEntry> moves = book.getEntries(chessboard);
+        // e4 won twice, drew once and 1. e4 in the illegal game is unknown. d4 lost.
+        assertEquals(1, moves.size());
+        assertEquals("e2e4", Moves.toString(moves.get(0).getMove()));
+        assertEquals(2 + 2 + 1 + 1, moves.get(0).getWeight());
+        assertEquals("e2e4", Moves.toString(book.getBestMove(chessboard)));
+        assertEquals("e2e4", Moves.toString(book.pickMove(chessboard, new Random(1))));
+
+        chessboard.makeMove(San.parse(chessboard, "e4"));
+        moves = book.getEntries(chessboard);
+        // Black lost both games with e5
+        assertEquals(1, moves.size());
+        assertEquals("c7c5", Moves.toString(moves.get(0).getMove()));
+        assertEquals(1, moves.get(0).getWeight());
+        assertEquals(Moves.NONE, book.getBestMove(Fen.parse("4k3/8/8/8/8/8/8/4K3 w - - 0 1")));
+    }
+
+    @Test
+    public void testCastlingMove() {
+        Chessboard chessboard = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        MoveList legal = new MoveList();
+        MoveGenerator.generateLegal(chessboard, legal);
+        int castle = San.parse(chessboard, "O-O");
+        // The king captures its own rook, e1h1
+        assertEquals(4 << 6 | 7, OpeningBook.encodeMove(castle));
+        assertEquals(castle, OpeningBook.decodeMove(legal, 4 << 6 | 7));
+        int promotion = San.parse(Fen.parse("8/P3k3/8/8/8/8/8/4K3 w - - 0 1"), "a8=N");
+        assertEquals(1 << 12 | 48 << 6 | 56, OpeningBook.encodeMove(promotion));
+    }
+
+    @Test
+    public void testPgnReader() throws IOException {
+        PgnReader reader = new PgnReader(new StringReader(PGN));
+        PgnGame game = reader.next();
+        assertEquals("A", game.getTag("White"));
+        assertEquals("1-0", game.getResult());
+        assertEquals(6, game.getMoves().size());
+        assertEquals("a6", game.getMoves().get(5));
+        int games = 1;
+        while (reader.next() != null) {
+            games++;
+        }
+        assertEquals(5, games);
+
+        // Castling with zeros is not a move number
+        game = new PgnReader(new StringReader("1. e4 e5 2. Nf3 Nc6 3. Bc4 Bc5 4. 0-0 Nf6 5.d3 0-0 1-0")).next();
+        assertEquals(Arrays.asList("e4", "e5", "Nf3", "Nc6", "Bc4", "Bc5", "0-0", "Nf6", "d3", "0-0"),
+                game.getMoves());
+        assertEquals("r1bq1rk1/pppp1ppp/2n2n2/2b1p3/2B1P3/3P1N2/PPP2PPP/RNBQ1RK1 w - - 1 6",
+                Fen.toString(PgnImporter.replay(game).getChessboard()));
+    }
+}
@@ -0,0 +1,188 @@
+package oopnet.chess.core.endgame;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.notation.Fen;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitbaseTest {
+
+    private static Bitbases bitbases;
+
+    @BeforeAll
+    public static void generate() {
+        bitbases = new Bitbases();
+        BitbaseGenerator generator = new BitbaseGenerator(ForkJoinPool.commonPool());
+        generator.generate("KPK", bitbases);
+    }
+
+    private static Bitbase.Result probe(String fen) {
+        return bitbases.probe(Fen.parse(fen));
+    }
+
+    @Test
+    public void testDependencies() {
+        // The promotions of KPK
+        assertNotNull(bitbases.get("KQK"));
+        assertNotNull(bitbases.get("KRK"));
+        assertNotNull(bitbases.get("KBK"));
+        assertNotNull(bitbases.get("KNK"));
+    }
+
+    @Test
+    public void testPieceEndings() {
+        assertEquals(Bitbase.Result.WIN, probe("8/8/8/4k3/8/8/8/R3K3 w - - 0 1"));
+        assertEquals(Bitbase.Result.LOSS, probe("8/8/8/4k3/8/8/8/R3K3 b - - 0 1"));
+        // Checkmate
+        assertEquals(Bitbase.Result.LOSS, probe("R3k3/8/4K3/8/8/8/8/8 b - - 0 1"));
+        // The rook is captured
+        assertEquals(Bitbase.Result.DRAW, probe("8/8/8/8/8/8/1k6/R3K3 b - - 0 1"));
+        // Black is the stronger side
+        assertEquals(Bitbase.Result.WIN, probe("r3k3/8/8/8/8/8/8/4K3 b - - 0 1"));
+        assertEquals(Bitbase.Result.LOSS, probe("4k3/8/8/8/8/8/8/r3K3 w - - 0 1"));
+        assertEquals(Bitbase.Result.LOSS, probe("8/8/8/3k4/8/8/8/3QK3 b - - 0 1"));
+        // A minor piece can't mate
+        assertEquals(Bitbase.Result.DRAW, probe("8/8/8/3k4/8/8/8/3NK3 w - - 0 1"));
+        assertEquals(Bitbase.Result.DRAW, probe("8/8/8/3k4/8/8/8/3BK3 w - - 0 1"));
+        assertEquals(Bitbase.Result.DRAW, probe("8/8/8/3k4/8/8/8/4K3 w - - 0 1"));
+    }
+
+    @Test
+    public void testPawnEndings() {
+        // The king in front of the pawn on the 6th rank wins
+        assertEquals(Bitbase.Result.WIN, probe("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1"));
+        assertEquals(Bitbase.Result.LOSS, probe("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1"));
+        // Stalemate
+        assertEquals(Bitbase.Result.DRAW, probe("4k3/4P3/4K3/8/8/8/8/8 b - - 0 1"));
+        // The defending king reaches the corner of a rook pawn
+        assertEquals(Bitbase.Result.DRAW, probe("k7/8/8/8/8/8/P7/K7 w - - 0 1"));
+        // The pawn runs away from the king
+        assertEquals(Bitbase.Result.WIN, probe("7k/8/8/8/P7/8/8/4K3 w - - 0 1"));
+        assertEquals(Bitbase.Result.DRAW, probe("8/8/8/8/Pk6/8/8/4K3 b - - 0 1"));
+        // Mirrored for black
+        assertEquals(Bitbase.Result.WIN, probe("8/8/8/8/4p3/4k3/8/4K3 b - - 0 1"));
+    }
+
+    @Test
+    public void testNotProbed() {
+        assertNull(probe("r3k2r/8/8/8/8/8/8/4K3 b kq - 0 1"));
+        assertNull(probe(Fen.DEFAULT));
+        // Missing endgame
+        assertNull(probe("4k3/4p3/8/8/8/8/4P3/4K3 w - - 0 1"));
+    }
+
+    @Test
+    public void testEnPassant() {
+        // Generating KPKP takes too long for a test, every position of this one is a win
+        Endgame endgame = Endgame.of("KPKP");
+        byte[] codes = new byte[endgame.size()];
+        Arrays.fill(codes, (byte) Bitbase.WIN);
+        Bitbases kpkp = new Bitbases();
+        kpkp.add(new Bitbase(endgame, Bitbase.pack(endgame, codes)));
+        assertEquals(Bitbase.Result.WIN, kpkp.probe(Fen.parse("8/8/8/8/3pP3/8/8/k1K5 b - - 0 1")));
+        // The en passant square but no pawn can capture
+        assertEquals(Bitbase.Result.WIN, kpkp.probe(Fen.parse("8/8/8/8/2p1P3/8/8/k1K5 b - e3 0 1")));
+        // The bitbases don't have positions with an en passant capture
+        assertNull(kpkp.probe(Fen.parse("8/8/8/8/3pP3/8/8/k1K5 b - e3 0 1")));
+    }
+
+    @Test
+    public void testFourPieces() {
+        new BitbaseGenerator(ForkJoinPool.commonPool()).generate("KNKN", bitbases);
+        // Mate in the corner, the knight blocks its own king
+        assertEquals(Bitbase.Result.LOSS, probe("k7/n1K5/1N6/8/8/8/8/8 b - - 0 1"));
+        assertEquals(Bitbase.Result.WIN, probe("k7/n1K5/8/3N4/8/8/8/8 w - - 0 1"));
+        assertEquals(Bitbase.Result.DRAW, probe("4k3/8/8/3n4/8/8/8/3NK3 w - - 0 1"));
+
+        // Each result agrees with the results after the moves
+        Bitbase bitbase = bitbases.get("KNKN");
+        Endgame endgame = bitbase.getEndgame();
+        int[] squares = new int[endgame.getPieceCount()];
+        MoveList moves = new MoveList();
+        int checked = 0;
+        for (int index = 0; index < endgame.size(); index += 997) {
+            if (bitbase.get(index) == Bitbase.INVALID) {
+                continue;
+            }
+            Chessboard chessboard = Fen.parse(fen(endgame, index, squares));
+            Bitbase.Result result = bitbases.probe(chessboard);
+            moves.clear();
+            MoveGenerator.generateLegal(chessboard, moves);
+            Bitbase.Result best = MoveGenerator.isCheckmate(chessboard) ? Bitbase.Result.LOSS : Bitbase.Result.DRAW;
+            if (moves.size() > 0) {
+                best = Bitbase.Result.LOSS;
+                for (int i = 0; i < moves.size(); i++) {
+                    chessboard.makeMove(moves.get(i));
+                    Bitbase.Result after = bitbases.probe(chessboard);
+                    chessboard.unmakeMove();
+                    if (after == Bitbase.Result.LOSS) {
+                        best = Bitbase.Result.WIN;
+                    } else if (after == Bitbase.Result.DRAW && best == Bitbase.Result.LOSS) {
+                        best = Bitbase.Result.DRAW;
+                    }
+                }
+            }
+            assertEquals(best, result, Fen.toString(chessboard));
+            checked++;
+        }
+        assertTrue(checked > 10000);
+    }
+
+    private static String fen(Endgame endgame, int index, int[] squares) {
+        boolean whiteToMove = endgame.decode(index, squares);
+        char[] board = new char[64];
+        for (int i = 0; i < squares.length; i++) {
+            char letter = "PNBRQK".charAt(endgame.getType(i).ordinal());
+            board[squares[i]] = endgame.isWhite(i) ? letter : Character.toLowerCase(letter);
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int square = rank * 8; square < rank * 8 + 8; square++) {
+                if (board[square] == 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    builder.append(empty);
+                    empty = 0;
+                }
+                builder.append(board[square]);
+            }
+            if (empty > 0) {
+                builder.append(empty);
+            }
+            builder.append(rank > 0 ? "/" : whiteToMove ? " w" : " b");
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void testWriteAndOpen(@TempDir Path directory) throws IOException {
+        new BitbaseGenerator(ForkJoinPool.commonPool()).generate(directory, "KRK");
+        Path file = directory.resolve("KRK" + Bitbases.EXTENSION);
+        assertTrue(Files.exists(file));
+        assertEquals(Bitbase.HEADER_BYTES + (2 << 18) / 4, Files.size(file));
+        // Read again, the existing file is not generated again
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        Bitbases opened = Bitbases.open(directory);
+        Bitbase bitbase = opened.get("KRK");
+        Bitbase generated = bitbases.get("KRK");
+        for (int index = 0; index < 2 << 18; index += 97) {
+            assertEquals(generated.get(index), bitbase.get(index));
+        }
+        new BitbaseGenerator(ForkJoinPool.commonPool()).generate(directory, "KRK");
+        assertEquals(modified, Files.getLastModifiedTime(file).toMillis());
+    }
+}
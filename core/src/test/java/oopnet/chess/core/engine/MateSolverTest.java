@@ -0,0 +1,70 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.Moves;
+import oopnet.chess.core.notation.Fen;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MateSolverTest {
+
+    private static void assertMates(Chessboard chessboard, int[] line) {
+        for (int move : line) {
+            chessboard.makeMove(move);
+        }
+        assertTrue(MoveGenerator.isCheckmate(chessboard));
+    }
+
+    @Test
+    public void testMateInOne() {
+        MateResult result = new MateSolver(1)
+                .solve("r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4", 3, 0);
+        assertTrue(result.isMate());
+        assertEquals("mate in 1: h5f7", result.toString());
+    }
+
+    @Test
+    public void testMateInTwo() {
+        Chessboard chessboard = Fen.parse("r2qkb1r/pp2nppp/3p4/2pNN1B1/2BnP3/3P4/PPP2PPP/R2bK2R w KQkq - 1 1");
+        long key = chessboard.getHashKey();
+        MateResult result = new MateSolver(4).solve(chessboard, 3, 0, 0);
+        assertEquals(MateResult.Status.MATE, result.getStatus());
+        assertEquals(2, result.getMateMoves());
+        assertEquals("d5f6", Moves.toString(result.getLine()[0]));
+        // The board is restored
+        assertEquals(key, chessboard.getHashKey());
+        assertMates(chessboard, result.getLine());
+    }
+
+    @Test
+    public void testShortestMate() {
+        // Rook and king against king, Rh8 is not mate yet
+        Chessboard chessboard = Fen.parse("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        MateResult result = new MateSolver(4).solve(chessboard, 4, 0, 0);
+        assertTrue(result.isMate());
+        assertEquals(2, result.getMateMoves());
+        assertMates(chessboard, result.getLine());
+    }
+
+    @Test
+    public void testNoMate() {
+        MateResult result = new MateSolver(4).solve(Fen.DEFAULT, 2, 0);
+        assertEquals(MateResult.Status.NO_MATE, result.getStatus());
+        assertEquals(0, result.getLine().length);
+        assertEquals("no mate within 2", result.toString());
+        // Stalemate is not a mate
+        assertEquals(MateResult.Status.NO_MATE, new MateSolver(1).solve("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1", 1, 0)
+                .getStatus());
+    }
+
+    @Test
+    public void testLimits() {
+        Chessboard chessboard = Fen.parse((String) Perft.REFERENCE_POSITIONS[1][0]);
+        MateResult result = new MateSolver(4).solve(chessboard, 5, 0, 5000);
+        assertEquals(MateResult.Status.UNKNOWN, result.getStatus());
+        assertEquals(0, chessboard.getPly());
+        assertThrows(IllegalArgumentException.class, () -> new MateSolver(1).solve(chessboard, 0, 0, 0));
+    }
+}
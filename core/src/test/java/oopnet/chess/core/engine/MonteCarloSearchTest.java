@@ -0,0 +1,63 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.movegen.Moves;
+import oopnet.chess.core.notation.Fen;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloSearchTest {
+
+    private static ExecutorService pool;
+
+    @BeforeAll
+    public static void createPool() {
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterAll
+    public static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testLegalMove() {
+        Chessboard chessboard = Fen.parse(Fen.DEFAULT);
+        long key = chessboard.getHashKey();
+        SearchResult result = new MonteCarloSearch(pool, 4).think(chessboard, 200);
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(chessboard, moves);
+        assertTrue(moves.contains(result.getBestMove()));
+        assertTrue(result.getNodes() > 0);
+        // The board is not modified
+        assertEquals(key, chessboard.getHashKey());
+    }
+
+    @Test
+    public void testMateInOne() {
+        SearchResult result = new MonteCarloSearch(pool, 4).think(Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), 300);
+        assertEquals("a1a8", Moves.toString(result.getBestMove()));
+        assertTrue(result.getScore() > 500);
+    }
+
+    @Test
+    public void testNoLegalMoves() {
+        SearchResult result = new MonteCarloSearch(pool, 2).think(Fen.parse("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1"), 10);
+        assertEquals(Moves.NONE, result.getBestMove());
+    }
+
+    @Test
+    public void testWinProbability() {
+        assertEquals(MonteCarloSearch.WIN / 2, MonteCarloSearch.winProbability(0));
+        assertEquals(900, MonteCarloSearch.winProbability(400), 1);
+        assertEquals(400, MonteCarloSearch.centipawns(0.9), 1);
+    }
+}
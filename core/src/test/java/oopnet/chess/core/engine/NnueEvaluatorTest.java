@@ -0,0 +1,93 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.notation.Fen;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NnueEvaluatorTest {
+
+    private static final int HIDDEN_SIZE = 16;
+
+    private static NnueNetwork network;
+
+    @BeforeAll
+    public static void createNetwork(@TempDir Path directory) throws IOException {
+        // A random network, good enough to check that the incremental updates are correct
+        Random random = new Random(7);
+        short[] biases = randomShorts(random, HIDDEN_SIZE, 64);
+        short[] weights = randomShorts(random, NnueNetwork.FEATURES * HIDDEN_SIZE, 16);
+        short[] outputWeights = randomShorts(random, 2 * HIDDEN_SIZE, 64);
+        Path file = directory.resolve("test.nnue");
+        NnueNetwork.write(file, biases, weights, outputWeights, 100);
+        network = NnueNetwork.load(file);
+    }
+
+    private static short[] randomShorts(Random random, int length, int bound) {
+        short[] values = new short[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = (short) (random.nextInt(2 * bound + 1) - bound);
+        }
+        return values;
+    }
+
+    @Test
+    public void testLoad(@TempDir Path directory) throws IOException {
+        assertEquals(HIDDEN_SIZE, network.getHiddenSize());
+        Path invalid = directory.resolve("invalid.nnue");
+        Files.write(invalid, new byte[100]);
+        assertThrows(IOException.class, () -> NnueNetwork.load(invalid));
+    }
+
+    @Test
+    public void testMirroredPositionsHaveEqualScores() {
+        NnueEvaluator evaluator = new NnueEvaluator(network, true);
+        int white = evaluator.evaluate(Fen.parse("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3"));
+        int black = evaluator.evaluate(Fen.parse("rnbqkb1r/pppp1ppp/5n2/4p3/4P3/2N5/PPPP1PPP/R1BQKBNR b KQkq - 2 3"));
+        assertEquals(white, black);
+    }
+
+    @Test
+    public void testIncrementalAccumulatorsMatchRecomputedAccumulators() {
+        // The verifying evaluator throws if the accumulators differ
+        NnueEvaluator evaluator = new NnueEvaluator(network, true);
+        Random random = new Random(12);
+        MoveList moves = new MoveList();
+        for (int game = 0; game < 10; game++) {
+            String fen = (String) Perft.REFERENCE_POSITIONS[game % Perft.REFERENCE_POSITIONS.length][0];
+            Chessboard chessboard = Fen.parse(fen);
+            int start = evaluator.evaluate(chessboard);
+            assertSame(evaluator, chessboard.getPieceListener());
+            for (int ply = 0; ply < 80; ply++) {
+                moves.clear();
+                if (MoveGenerator.generateLegal(chessboard, moves) == 0) {
+                    break;
+                }
+                chessboard.makeMove(moves.get(random.nextInt(moves.size())));
+                evaluator.evaluate(chessboard);
+            }
+            while (chessboard.getPly() > 0) {
+                chessboard.unmakeMove();
+                evaluator.evaluate(chessboard);
+            }
+            assertEquals(start, evaluator.evaluate(chessboard));
+        }
+    }
+
+    @Test
+    public void testSearch() {
+        SearchResult result = new Search(new TranspositionTable(1), new NnueEvaluator(network, true))
+                .search(Fen.parse(Fen.DEFAULT), new SearchLimits().setDepth(3));
+        assertNotEquals(0, result.getBestMove());
+    }
+}
@@ -0,0 +1,56 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.notation.Fen;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerftTest {
+
+    // Keep the test fast, the deeper counts can be verified with Perft --verify
+    private static final long MAX_NODES = 200_000;
+
+    @Test
+    public void testReferencePositions() {
+        Perft perft = new Perft();
+        for (Object[] reference : Perft.REFERENCE_POSITIONS) {
+            String fen = (String) reference[0];
+            long[] expected = (long[]) reference[1];
+            Chessboard chessboard = Fen.parse(fen);
+            long key = chessboard.getHashKey();
+            for (int depth = 1; depth <= expected.length && expected[depth - 1] <= MAX_NODES; depth++) {
+                assertEquals(expected[depth - 1], perft.perft(chessboard, depth), fen + " depth " + depth);
+            }
+            // The board is restored
+            assertEquals(key, chessboard.getHashKey());
+            assertEquals(0, chessboard.getPly());
+        }
+    }
+
+    @Test
+    public void testDivide() {
+        Map<String, Long> divide = new Perft().divide(Fen.parse(Fen.DEFAULT), 3);
+        assertEquals(20, divide.size());
+        assertEquals(600, divide.get("e2e4"));
+        assertEquals(8902, divide.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void testParallelWithCache() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Perft perft = new Perft(new TranspositionTable(16));
+            String kiwipete = (String) Perft.REFERENCE_POSITIONS[1][0];
+            assertEquals(97862, perft.perftParallel(Fen.parse(kiwipete), 3, pool));
+            assertEquals(197281, perft.perftParallel(Fen.parse(Fen.DEFAULT), 4, pool));
+            // Cached counts of other depths are not used
+            assertEquals(8902, perft.perftParallel(Fen.parse(Fen.DEFAULT), 3, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
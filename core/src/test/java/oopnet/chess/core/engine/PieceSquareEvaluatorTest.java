@@ -0,0 +1,58 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.bitboard.PieceSquareTables;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.notation.Fen;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PieceSquareEvaluatorTest {
+
+    @Test
+    public void testStartPosition() {
+        Chessboard chessboard = Fen.parse(Fen.DEFAULT);
+        assertEquals(PieceSquareTables.MAX_PHASE, chessboard.getPhase());
+        assertEquals(0, chessboard.getMidgameScore());
+        assertEquals(0, new PieceSquareEvaluator(true).evaluate(chessboard));
+    }
+
+    @Test
+    public void testMirroredPositionsHaveOppositeScores() {
+        PieceSquareEvaluator evaluator = new PieceSquareEvaluator(true);
+        Chessboard white = Fen.parse("4k3/8/8/3N4/8/8/8/4K3 w - - 0 1");
+        Chessboard black = Fen.parse("4k3/8/8/8/3n4/8/8/4K3 b - - 0 1");
+        assertTrue(evaluator.evaluate(white) > 300);
+        assertEquals(evaluator.evaluate(white), evaluator.evaluate(black));
+        // A knight is better in the center than on the edge
+        assertTrue(evaluator.evaluate(white) > evaluator.evaluate(Fen.parse("4k3/8/8/7N/8/8/8/4K3 w - - 0 1")));
+    }
+
+    @Test
+    public void testIncrementalScoresMatchRecomputedScores() {
+        // The verifying evaluator throws if the scores differ
+        PieceSquareEvaluator evaluator = new PieceSquareEvaluator(true);
+        Random random = new Random(12);
+        MoveList moves = new MoveList();
+        for (int game = 0; game < 20; game++) {
+            String fen = (String) Perft.REFERENCE_POSITIONS[game % Perft.REFERENCE_POSITIONS.length][0];
+            Chessboard chessboard = Fen.parse(fen);
+            for (int ply = 0; ply < 100; ply++) {
+                moves.clear();
+                if (MoveGenerator.generateLegal(chessboard, moves) == 0) {
+                    break;
+                }
+                chessboard.makeMove(moves.get(random.nextInt(moves.size())));
+                evaluator.evaluate(chessboard);
+            }
+            while (chessboard.getPly() > 0) {
+                chessboard.unmakeMove();
+                evaluator.evaluate(chessboard);
+            }
+        }
+    }
+}
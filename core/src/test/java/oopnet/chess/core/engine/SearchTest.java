@@ -0,0 +1,60 @@
+package oopnet.chess.core.engine;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.movegen.Moves;
+import oopnet.chess.core.notation.Fen;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTest {
+
+    @Test
+    public void testFindsMateInOne() {
+        // Scholar's mate
+        Chessboard chessboard = Fen.parse("r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4");
+        SearchResult result = new Search(new TranspositionTable(1)).search(chessboard, new SearchLimits().setDepth(4));
+        assertEquals("h5f7", Moves.toString(result.getBestMove()));
+        assertTrue(result.isMate());
+        assertEquals(1, result.getMatePlies());
+    }
+
+    @Test
+    public void testFindsMateInTwo() {
+        // 1. Nf6+ gxf6 2. Bxf7#
+        Chessboard chessboard = Fen.parse("r2qkb1r/pp2nppp/3p4/2pNN1B1/2BnP3/3P4/PPP2PPP/R2bK2R w KQkq - 1 1");
+        SearchResult result = new Search(new TranspositionTable(1)).search(chessboard, new SearchLimits().setDepth(6));
+        assertTrue(result.isMate());
+        assertEquals(3, result.getMatePlies());
+    }
+
+    @Test
+    public void testWinsMaterial() {
+        // The queen on d5 is hanging
+        Chessboard chessboard = Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        long key = chessboard.getHashKey();
+        SearchResult result = new Search(new TranspositionTable(1)).search(chessboard, new SearchLimits().setDepth(5));
+        assertEquals("d2d5", Moves.toString(result.getBestMove()));
+        assertTrue(result.getScore() > 400);
+        // The board is restored
+        assertEquals(key, chessboard.getHashKey());
+        assertEquals(0, chessboard.getPly());
+    }
+
+    @Test
+    public void testNoLegalMoves() {
+        Chessboard stalemate = Fen.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        SearchResult result = new Search(new TranspositionTable(1)).search(stalemate, new SearchLimits().setDepth(5));
+        assertEquals(Moves.NONE, result.getBestMove());
+        assertEquals(0, result.getScore());
+    }
+
+    @Test
+    public void testNodeLimit() {
+        Chessboard chessboard = Fen.parse(Fen.DEFAULT);
+        SearchResult result = new Search(new TranspositionTable(1)).search(chessboard, new SearchLimits().setNodes(20_000));
+        assertNotEquals(Moves.NONE, result.getBestMove());
+        assertTrue(result.getDepth() < Search.MAX_PLY - 1);
+        assertEquals(0, chessboard.getPly());
+    }
+}
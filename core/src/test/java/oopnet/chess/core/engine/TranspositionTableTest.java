@@ -0,0 +1,76 @@
+package oopnet.chess.core.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+
+    @Test
+    public void testStoreAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(1 << 16, table.getCapacity());
+        long key = 0x123456789ABCDEFL;
+        assertEquals(TranspositionTable.MISS, table.probe(key));
+
+        table.store(key, TranspositionTable.packSearch(1234, -250, TranspositionTable.LOWER_BOUND), 7);
+        long entry = table.probe(key);
+        assertEquals(1234, TranspositionTable.getMove(entry));
+        assertEquals(-250, TranspositionTable.getScore(entry));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.getBound(entry));
+        assertEquals(7, TranspositionTable.getDepth(entry));
+        // Same bucket, different key
+        assertEquals(TranspositionTable.MISS, table.probe(key ^ (1L << 40)));
+    }
+
+    @Test
+    public void testDepthPreferredReplacement() {
+        TranspositionTable table = new TranspositionTable(1);
+        long deep = 42L;
+        long shallow1 = 42L | 1L << 40;
+        long shallow2 = 42L | 2L << 40;
+        table.store(deep, 1, 10);
+        table.store(shallow1, 2, 1);
+        table.store(shallow2, 3, 1);
+        // The deep entry survives, the always-replace slot has the latest entry
+        assertEquals(1, TranspositionTable.getPayload(table.probe(deep)));
+        assertEquals(TranspositionTable.MISS, table.probe(shallow1));
+        assertEquals(3, TranspositionTable.getPayload(table.probe(shallow2)));
+
+        // Old generations are replaced first
+        table.newGeneration();
+        table.store(shallow1, 2, 1);
+        assertEquals(TranspositionTable.MISS, table.probe(deep));
+    }
+
+    @Test
+    public void testConcurrentAccessNeverReturnsWrongData() throws InterruptedException {
+        // A tiny table so threads write the same entries all the time
+        TranspositionTable table = new TranspositionTable(1);
+        AtomicBoolean failed = new AtomicBoolean();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    // The payload is derived from the key so it can be verified
+                    long key = random.nextInt(1 << 18) * 0x9E3779B97F4A7C15L;
+                    long entry = table.probe(key);
+                    if (entry != TranspositionTable.MISS && TranspositionTable.getPayload(entry) != (key >>> 16)) {
+                        failed.set(true);
+                    }
+                    table.store(key, key >>> 16, random.nextInt(10));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(failed.get());
+    }
+}
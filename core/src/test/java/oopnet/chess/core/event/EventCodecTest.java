@@ -0,0 +1,101 @@
+package oopnet.chess.core.event;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.Game;
+import oopnet.chess.core.Move;
+import oopnet.chess.core.Position;
+import oopnet.chess.core.notation.Fen;
+import oopnet.chess.core.pieces.ChessPiece;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCodecTest {
+
+    private static <T extends Event> T roundTrip(T event) throws IOException {
+        byte[] payload = EventCodec.encode(event);
+        @SuppressWarnings("unchecked")
+        T decoded = (T) EventCodec.decode(payload, 0, payload.length);
+        assertSame(event.getClass(), decoded.getClass());
+        return decoded;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        assertEquals("0123456789abcdef", roundTrip(new TokenTransmitEvent("0123456789abcdef")).getToken());
+        ChatEvent chat = roundTrip(new ChatEvent("Ä", "Hello ♔"));
+        assertEquals("Ä", chat.getNickname());
+        assertEquals("Hello ♔", chat.getMessage());
+        assertNull(roundTrip(new ChatEvent(null, "")).getNickname());
+        GameJoinEvent join = roundTrip(new GameJoinEvent("player", "12345"));
+        assertEquals("player", join.getNickname());
+        assertEquals("12345", join.getGameIdentifier());
+        roundTrip(new DrawOfferEvent());
+        roundTrip(new SurrenderEvent());
+        for (Game.GameResult result : Game.GameResult.values()) {
+            assertEquals(result, roundTrip(new GameEndEvent(result)).getGameResult());
+        }
+    }
+
+    @Test
+    public void testPieceMoveEvent() throws IOException {
+        Chessboard chessboard = Fen.parse("4k3/1P6/8/8/8/8/8/4K3 w - - 0 1");
+        PieceMoveEvent event = new PieceMoveEvent(new Move(chessboard, chessboard.getPiece(49),
+                Position.fromIndex(57), ChessPiece.Type.KNIGHT));
+        // Version, type and the move
+        assertEquals(4, EventCodec.encode(event).length);
+        Move move = roundTrip(event).getMove(chessboard);
+        assertEquals(Position.fromIndex(49), move.getFrom());
+        assertEquals(Position.fromIndex(57), move.getTo());
+        assertEquals(ChessPiece.Type.KNIGHT, move.getPromotion());
+        assertSame(chessboard.getPiece(49), move.getPiece());
+
+        move = roundTrip(new PieceMoveEvent(new Move(chessboard, chessboard.getPiece(4), Position.fromIndex(3))))
+                .getMove(chessboard);
+        assertEquals("e1d1", move.getFrom() + "" + move.getTo());
+        assertNull(move.getPromotion());
+    }
+
+    @Test
+    public void testGameCreateEvent() throws IOException {
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b KQkq - 3 12";
+        Game game = Fen.parseGame(fen);
+        game.getChessboard().getCaptured().addAll(Arrays.asList(
+                ChessPiece.Type.KNIGHT.create(ChessPiece.Color.WHITE, null),
+                ChessPiece.Type.PAWN.create(ChessPiece.Color.BLACK, null)));
+        game.setDrawOffer(ChessPiece.Color.WHITE);
+        Game decoded = roundTrip(new GameCreateEvent(game)).getGame();
+        assertEquals(fen, Fen.toString(decoded.getChessboard()));
+        assertEquals(game.getChessboard().getHashKey(), decoded.getChessboard().getHashKey());
+        assertEquals(ChessPiece.Color.WHITE, decoded.getDrawOffer());
+        assertEquals(2, decoded.getChessboard().getCaptured().size());
+        assertEquals(ChessPiece.Type.KNIGHT, decoded.getChessboard().getCaptured().get(0).getType());
+        assertEquals(ChessPiece.Color.BLACK, decoded.getChessboard().getCaptured().get(1).getColor());
+    }
+
+    @Test
+    public void testInvalid() {
+        byte[][] invalid = {
+                {},
+                // Unknown version
+                {2, 5, 0, 0},
+                // Unknown type
+                {EventCodec.VERSION, 100},
+                // Truncated string
+                {EventCodec.VERSION, 1, 10, 'a'},
+                // Extra bytes
+                {EventCodec.VERSION, 6, 0},
+                // Promotion to a king
+                {EventCodec.VERSION, 4, 0x50, 0},
+                // Invalid position
+                {EventCodec.VERSION, 2, 4, 'a', 'b', 'c', 0, 0}
+        };
+        for (byte[] payload : invalid) {
+            assertThrows(IOException.class, () -> EventCodec.decode(payload, 0, payload.length),
+                    Arrays.toString(payload));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package oopnet.chess.core.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventFramesTest {
+
+    @Test
+    public void testStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EventFrames.write(out, new ChatEvent("Server", "Hello"));
+        EventFrames.write(out, new TokenTransmitEvent("0123456789abcdef"));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        ChatEvent chat = (ChatEvent) EventFrames.read(in);
+        assertEquals("Server", chat.getNickname());
+        assertEquals("Hello", chat.getMessage());
+        assertEquals("0123456789abcdef", ((TokenTransmitEvent) EventFrames.read(in)).getToken());
+        assertThrows(EOFException.class, () -> EventFrames.read(in));
+    }
+
+    @Test
+    public void testDecoder() throws IOException {
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            message.append(i);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < 10; i++) {
+            EventFrames.write(out, new ChatEvent("Player " + i, message.toString()));
+        }
+        byte[] bytes = out.toByteArray();
+
+        // Read a few bytes at a time, the frames are larger than the initial buffer
+        EventFrames.Decoder decoder = new EventFrames.Decoder(16);
+        int events = 0;
+        for (int offset = 0; offset < bytes.length; ) {
+            ByteBuffer buffer = decoder.getBuffer();
+            int length = Math.min(Math.min(7, buffer.remaining()), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+            Event event;
+            while ((event = decoder.next()) != null) {
+                ChatEvent chat = (ChatEvent) event;
+                assertEquals("Player " + events, chat.getNickname());
+                assertEquals(message.toString(), chat.getMessage());
+                events++;
+            }
+        }
+        assertEquals(10, events);
+        assertEquals(0, decoder.getBuffer().position());
+        // Not kept large
+        assertEquals(16, decoder.getBuffer().capacity());
+    }
+
+    @Test
+    public void testDecoderShrinks() throws IOException {
+        StringBuilder message = new StringBuilder();
+        while (message.length() < 10_000) {
+            message.append("message ");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EventFrames.write(out, new ChatEvent("Player", message.toString()));
+        EventFrames.write(out, new ChatEvent("Player", "Hello"));
+        byte[] bytes = out.toByteArray();
+
+        EventFrames.Decoder decoder = new EventFrames.Decoder(64);
+        int offset = 0;
+        while (decoder.next() == null) {
+            ByteBuffer buffer = decoder.getBuffer();
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+        // The start of the second frame may be in the buffer
+        assertEquals(64, decoder.getBuffer().capacity());
+        decoder.getBuffer().put(bytes, offset, bytes.length - offset);
+        assertEquals("Hello", ((ChatEvent) decoder.next()).getMessage());
+        assertNull(decoder.next());
+    }
+
+    @Test
+    public void testInvalidLength() {
+        EventFrames.Decoder decoder = new EventFrames.Decoder(16);
+        // The varint of MAX_PAYLOAD_BYTES + 1
+        decoder.getBuffer().put(new byte[]{(byte) 0x81, (byte) 0x80, 0x04});
+        assertThrows(IOException.class, decoder::next);
+        // Can't be sent either
+        StringBuilder message = new StringBuilder();
+        while (message.length() <= EventFrames.MAX_PAYLOAD_BYTES) {
+            message.append("message ");
+        }
+        assertThrows(IOException.class, () -> EventFrames.encode(new ChatEvent("Player", message.toString())));
+        byte[] tooLong = {-1, -1, -1, -1};
+        assertThrows(IOException.class, () -> EventFrames.read(new DataInputStream(new ByteArrayInputStream(tooLong))));
+    }
+}
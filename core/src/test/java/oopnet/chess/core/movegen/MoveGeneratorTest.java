@@ -0,0 +1,139 @@
+package oopnet.chess.core.movegen;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.Position;
+import oopnet.chess.core.bitboard.Bitboards;
+import oopnet.chess.core.notation.Fen;
+import oopnet.chess.core.pieces.ChessPiece;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveGeneratorTest {
+
+    @Test
+    public void testDefaultPosition() {
+        Chessboard chessboard = new Chessboard();
+        chessboard.loadDefault();
+        MoveList moves = new MoveList();
+        assertEquals(20, MoveGenerator.generate(chessboard, moves));
+        int e2 = new Position(2, 'e').getIndex();
+        int e4 = new Position(4, 'e').getIndex();
+        assertEquals(Moves.encode(e2, e4, Moves.DOUBLE_PAWN_PUSH), moves.find(e2, e4));
+        assertEquals("e2e4", Moves.toString(moves.find(e2, e4)));
+    }
+
+    @Test
+    public void testPieceMovesMatchLegalMovePositions() {
+        Chessboard chessboard = new Chessboard();
+        chessboard.loadDefault();
+        MoveList moves = new MoveList();
+        ChessPiece knight = new Position(1, 'g').getPiece(chessboard);
+        assertEquals(knight.getLegalMovePositions(chessboard).size(), knight.generateMoves(chessboard, moves));
+    }
+
+    @Test
+    public void testCastling() {
+        Chessboard chessboard = new Chessboard();
+        chessboard.loadDefault();
+        // Clear f1 and g1
+        new Position(1, 'f').setPiece(chessboard, null);
+        new Position(1, 'g').setPiece(chessboard, null);
+        MoveList moves = new MoveList();
+        ChessPiece king = new Position(1, 'e').getPiece(chessboard);
+        king.generateMoves(chessboard, moves);
+        int castle = moves.find(new Position(1, 'e').getIndex(), new Position(1, 'g').getIndex());
+        assertTrue(Moves.isCastling(castle));
+
+        moves.clear();
+        chessboard.setCastlingRights(Chessboard.BLACK_KINGSIDE | Chessboard.BLACK_QUEENSIDE);
+        king.generateMoves(chessboard, moves);
+        assertEquals(1, moves.size());
+    }
+
+    @Test
+    public void testPinnedPieceMovesAlongPin() {
+        // The bishop on d2 is pinned by the bishop on b4, the knight on e2 by the rook on e8
+        Chessboard chessboard = Fen.parse("4r1k1/8/8/8/1b6/8/3BN3/4K3 w - - 0 1");
+        assertEquals(Bitboards.squareBit(11) | Bitboards.squareBit(12),
+                MoveGenerator.pinned(chessboard, ChessPiece.Color.WHITE));
+        MoveList moves = new MoveList();
+        // Bxb4 and Bc3
+        assertEquals(2, MoveGenerator.generateLegal(chessboard, 11, moves));
+        moves.clear();
+        assertEquals(0, MoveGenerator.generateLegal(chessboard, 12, moves));
+    }
+
+    @Test
+    public void testCheckEvasions() {
+        // Double check by the rook and the knight, only the king can move
+        Chessboard chessboard = Fen.parse("4r1k1/8/8/8/8/3n4/2N5/R3K3 w Q - 0 1");
+        assertEquals(2, Bitboards.count(MoveGenerator.checkers(chessboard, ChessPiece.Color.WHITE)));
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(chessboard, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            assertEquals(4, Moves.getFrom(moves.get(i)));
+        }
+        // Kd1, Kd2 and Kf1: e2 is attacked by the rook, f2 by the knight and there's no castling out of check.
+        // The knight on c2 can't capture the checking knight.
+        assertEquals(3, moves.size());
+
+        // Single check, the rook can block on e5 or the king moves
+        chessboard = Fen.parse("4r1k1/8/8/R7/8/8/8/4K3 w - - 0 1");
+        moves.clear();
+        MoveGenerator.generateLegal(chessboard, moves);
+        assertNotEquals(Moves.NONE, moves.find(32, 36));
+        assertEquals(Moves.NONE, moves.find(32, 33));
+    }
+
+    @Test
+    public void testEnPassantDiscoveredCheck() {
+        // Capturing en passant would remove both pawns from the 5th rank and expose the king to the rook
+        Chessboard chessboard = Fen.parse("8/8/8/KPp4r/8/8/8/7k w - c6 0 1");
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(chessboard, moves);
+        assertTrue(Moves.isEnPassant(moves.find(33, 42)));
+        moves.clear();
+        MoveGenerator.generateLegal(chessboard, moves);
+        assertEquals(Moves.NONE, moves.find(33, 42));
+    }
+
+    @Test
+    public void testCheckmateAndStalemate() {
+        Chessboard mate = Fen.parse("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1");
+        assertTrue(MoveGenerator.isCheckmate(mate));
+        assertFalse(MoveGenerator.isStalemate(mate));
+
+        Chessboard stalemate = Fen.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        assertTrue(MoveGenerator.isStalemate(stalemate));
+        assertFalse(MoveGenerator.isCheckmate(stalemate));
+
+        Chessboard start = Fen.parse(Fen.DEFAULT);
+        assertFalse(MoveGenerator.isCheckmate(start));
+        assertFalse(MoveGenerator.isStalemate(start));
+    }
+
+    @Test
+    public void testNoAllocation() {
+        Chessboard chessboard = new Chessboard();
+        chessboard.loadDefault();
+        MoveList moves = new MoveList();
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        // Warm up so class loading and table initialization are not measured
+        for (int i = 0; i < 10_000; i++) {
+            moves.clear();
+            MoveGenerator.generate(chessboard, moves);
+        }
+        long before = bean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            moves.clear();
+            MoveGenerator.generate(chessboard, moves);
+        }
+        long allocated = bean.getThreadAllocatedBytes(threadId) - before;
+        // Allow a little noise from the measurement itself, a single object per call would be megabytes
+        assertTrue(allocated < 10_000, "Allocated " + allocated + " bytes");
+    }
+}
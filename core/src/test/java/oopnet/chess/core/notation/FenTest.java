@@ -0,0 +1,108 @@
+package oopnet.chess.core.notation;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.Game;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.pieces.ChessPiece;
+import oopnet.chess.core.pieces.Pawn;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FenTest {
+
+    private static final String[] POSITIONS = {
+            Fen.DEFAULT,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 13 47",
+            "r3k3/8/8/8/8/8/8/4K2R w Kq - 0 1",
+    };
+
+    @Test
+    public void testRoundTrip() {
+        StringBuilder builder = new StringBuilder();
+        Chessboard chessboard = new Chessboard();
+        for (String fen : POSITIONS) {
+            assertEquals(fen, Fen.toString(Fen.parse(fen)));
+            // Reused board and builder
+            Fen.parse(fen, chessboard);
+            builder.setLength(0);
+            assertEquals(fen, Fen.append(chessboard, builder).toString());
+            assertEquals(chessboard.computeHashKey(), chessboard.getHashKey());
+        }
+    }
+
+    @Test
+    public void testFields() {
+        Chessboard chessboard = Fen.parse("  rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR   b Kq e3 3 12 ");
+        assertEquals(ChessPiece.Color.BLACK, chessboard.getSideToMove());
+        assertEquals(Chessboard.WHITE_KINGSIDE | Chessboard.BLACK_QUEENSIDE, chessboard.getCastlingRights());
+        assertEquals(20, chessboard.getEnPassantSquare());
+        assertEquals(3, chessboard.getHalfmoveClock());
+        assertEquals(12, chessboard.getFullmoveNumber());
+        assertEquals(ChessPiece.Type.KNIGHT, chessboard.getPiece(1).getType());
+        assertEquals('N', chessboard.getPiece(1).getFENLetter());
+        assertEquals('n', chessboard.getPiece(62).getFENLetter());
+        assertTrue(((Pawn) chessboard.getPiece(28)).hasMoved());
+        assertFalse(((Pawn) chessboard.getPiece(8)).hasMoved());
+
+        // Only the piece placement
+        chessboard = Fen.parse("4k3/8/8/8/8/8/8/4K3");
+        assertEquals("4k3/8/8/8/8/8/8/4K3 w - - 0 1", Fen.toString(chessboard));
+        Game game = Fen.parseGame("4k3/8/8/8/8/8/8/4K3 b - - 0 1");
+        assertEquals(ChessPiece.Color.BLACK, game.getCurrentPlayer());
+
+        // En passant squares of black and white double pushes
+        assertEquals(43, Fen.parse("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1").getEnPassantSquare());
+        assertEquals(16, Fen.parse("4k3/8/8/8/Pp6/8/8/4K3 b - a3 0 1").getEnPassantSquare());
+    }
+
+    @Test
+    public void testReplacesPosition() {
+        Chessboard chessboard = Fen.parse(Fen.DEFAULT);
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(chessboard, moves);
+        chessboard.makeMove(moves.get(0));
+        Fen.parse("4k3/8/8/8/8/8/8/4K3 w - - 0 1", chessboard);
+        assertEquals(0, chessboard.getPly());
+        assertEquals(2, Long.bitCount(chessboard.getOccupied()));
+        assertEquals(Fen.parse("4k3/8/8/8/8/8/8/4K3 w - - 0 1").getHashKey(), chessboard.getHashKey());
+    }
+
+    @Test
+    public void testInvalid() {
+        String[] invalid = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/ppppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQxq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - x 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 2",
+                // No pawn has moved two squares
+                "4k3/8/8/8/8/8/3P4/4K3 w - e3 0 1",
+                "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e3 0 2",
+                "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR b KQkq c6 0 2",
+                "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2",
+                "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPPPPPP/RNBQKBN1 b KQkq e3 0 2",
+                "rnbqkbnr/pp1ppppp/8/2p5/4N3/8/PPPP1PPP/RNBQKB1R b KQkq e3 0 2",
+                // Kings
+                "8/8/8/8/8/8/8/4K3 w - - 0 1",
+                "4k3/8/8/8/8/8/8/8 b - - 0 1",
+                "4k3/8/8/8/8/8/8/K3K3 w - - 0 1",
+                "4k2k/8/8/8/8/8/8/4K3 w - - 0 1",
+        };
+        for (String fen : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> Fen.parse(fen), fen);
+        }
+        // Not modified
+        Chessboard chessboard = Fen.parse(Fen.DEFAULT);
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse(invalid[1], chessboard));
+        assertEquals(Fen.DEFAULT, Fen.toString(chessboard));
+    }
+}
@@ -0,0 +1,109 @@
+package oopnet.chess.core.notation;
+
+import oopnet.chess.core.Game;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PgnImporterTest {
+
+    private static String pgn(int games) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < games; i++) {
+            builder.append("[Event \"Game ").append(i).append("\"]\n[Result \"1-0\"]\n\n");
+            switch (i % 4) {
+                case 0:
+                    builder.append("1. e4 e5 2. Qh5 Nc6 3. Bc4 Nf6?? 4. Qxf7# 1-0\n\n");
+                    break;
+                case 1:
+                    // No blank line and no result before the next game
+                    builder.append("1. d4 {A comment\n[with a bracket]} d5 2. c4 (2. Nf3) e6\n");
+                    break;
+                case 2:
+                    builder.append("[FEN \"4k3/8/8/8/8/8/8/R3K3 w Q - 0 1\"]\n\n1. O-O-O Kf7 2. Rd7+ *\n\n");
+                    break;
+                default:
+                    builder.append("1. e4 e4 0-1\n\n");
+            }
+        }
+        // A game larger than the chunks
+        builder.append("[Event \"Long\"]\n\n");
+        for (int i = 0; i < 100; i++) {
+            builder.append("Nf3 Nf6 Ng1 Ng8 ");
+        }
+        return builder.append("1/2-1/2\n").toString();
+    }
+
+    @Test
+    public void testImportFile(@TempDir Path directory) throws IOException {
+        String pgn = pgn(301);
+        Path file = directory.resolve("games.pgn");
+        Files.write(file, pgn.getBytes(StandardCharsets.UTF_8));
+        Map<String, String> positions = new ConcurrentHashMap<>();
+        AtomicInteger rejected = new AtomicInteger();
+        PgnImporter importer = new PgnImporter().setPool(new ForkJoinPool(4)).setChunkSize(200)
+                .setMaxPendingChunks(3);
+        long accepted = importer.importFile(file, new PgnSink() {
+            @Override
+            public void accept(PgnGame pgnGame, Game game) {
+                assertNull(positions.put(pgnGame.getTag("Event"), Fen.toString(game.getChessboard())));
+            }
+
+            @Override
+            public void reject(PgnGame pgnGame, IllegalArgumentException error) {
+                rejected.incrementAndGet();
+            }
+        });
+        assertEquals(302, importer.getGames());
+        assertEquals(75, importer.getSkippedGames());
+        assertEquals(75, rejected.get());
+        assertEquals(227, accepted);
+        assertEquals(227, positions.size());
+
+        // The same as reading the games one by one
+        Map<String, String> expected = new HashMap<>();
+        PgnReader reader = new PgnReader(new StringReader(pgn));
+        PgnGame pgnGame;
+        while ((pgnGame = reader.next()) != null) {
+            try {
+                expected.put(pgnGame.getTag("Event"), Fen.toString(PgnImporter.replay(pgnGame).getChessboard()));
+            } catch (IllegalArgumentException e) {
+                // Skipped
+            }
+        }
+        assertEquals(expected, positions);
+        assertEquals("8/3R1k2/8/8/8/8/8/2K5 b - - 3 2", positions.get("Game 2"));
+    }
+
+    @Test
+    public void testSinkFailure() {
+        byte[] pgn = pgn(50).getBytes(StandardCharsets.UTF_8);
+        PgnImporter importer = new PgnImporter().setChunkSize(100);
+        AtomicReference<ForkJoinPool> pool = new AtomicReference<>();
+        IOException e = assertThrows(IOException.class, () -> importer.importChannel(
+                Channels.newChannel(new ByteArrayInputStream(pgn)), (pgnGame, game) -> {
+                    pool.set(ForkJoinTask.getPool());
+                    throw new IllegalStateException("Full");
+                }));
+        assertEquals("Full", e.getCause().getMessage());
+        // The sink may block so the common pool is not used by default
+        assertNotSame(ForkJoinPool.commonPool(), pool.get());
+        assertTrue(pool.get().isShutdown());
+    }
+}
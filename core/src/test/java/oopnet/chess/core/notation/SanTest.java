@@ -0,0 +1,100 @@
+package oopnet.chess.core.notation;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.movegen.Moves;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SanTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private static String san(String fen, String uci) {
+        Chessboard chessboard = Fen.parse(fen);
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(chessboard, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (Moves.toString(moves.get(i)).equals(uci)) {
+                String san = San.toString(chessboard, moves.get(i));
+                assertEquals(moves.get(i), San.parse(chessboard, san));
+                return san;
+            }
+        }
+        throw new AssertionError("Not a legal move: " + uci);
+    }
+
+    @Test
+    public void testWrite() {
+        assertEquals("e4", san(Fen.DEFAULT, "e2e4"));
+        assertEquals("Nf3", san(Fen.DEFAULT, "g1f3"));
+        assertEquals("O-O", san(KIWIPETE, "e1g1"));
+        assertEquals("O-O-O", san(KIWIPETE, "e1c1"));
+        assertEquals("Bxa6", san(KIWIPETE, "e2a6"));
+        assertEquals("dxe6", san(KIWIPETE, "d5e6"));
+        assertEquals("Qxf6", san(KIWIPETE, "f3f6"));
+        assertEquals("Qxf7#", san("r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4", "h5f7"));
+        assertEquals("Bxf7+", san("r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4", "c4f7"));
+        assertEquals("exd6", san("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 3", "e5d6"));
+        assertEquals("e8=Q+", san("k7/4P3/8/8/8/8/8/4K3 w - - 0 1", "e7e8q"));
+        assertEquals("exf8=N", san("5r2/4P1k1/8/8/8/8/8/4K3 w - - 0 1", "e7f8n"));
+    }
+
+    @Test
+    public void testDisambiguation() {
+        // Knights on b1 and f3 can both go to d2
+        assertEquals("Nbd2", san("4k3/8/8/8/8/5N2/8/1N2K3 w - - 0 1", "b1d2"));
+        // Rooks on the same file
+        assertEquals("R1a3", san("R7/7k/8/8/8/8/8/R3K3 w - - 0 1", "a1a3"));
+        // Three queens, both the file and the rank are needed
+        assertEquals("Qh4e1", san("1k6/8/8/8/4Q2Q/8/8/K6Q w - - 0 1", "h4e1"));
+        assertEquals("Qee1", san("1k6/8/8/8/4Q2Q/8/8/K6Q w - - 0 1", "e4e1"));
+        // The knight on c3 is pinned so it does not make the move ambiguous
+        assertEquals("Ne2", san("4k3/8/8/b7/8/2N5/8/4K1N1 w - - 0 1", "g1e2"));
+        assertEquals("Nge2", san("4k3/8/8/8/b7/2N5/8/4K1N1 w - - 0 1", "g1e2"));
+    }
+
+    @Test
+    public void testParse() {
+        Chessboard chessboard = Fen.parse(KIWIPETE);
+        assertEquals("e1g1", Moves.toString(San.parse(chessboard, "0-0")));
+        assertEquals("e1c1", Moves.toString(San.parse(chessboard, "O-O-O+")));
+        assertEquals("e5f7", Moves.toString(San.parse(chessboard, "Nxf7!?")));
+        assertEquals("a2a4", Moves.toString(San.parse(chessboard, "a4")));
+        assertEquals("g2h3", Moves.toString(San.parse(chessboard, "gxh3")));
+        assertEquals("c3b5", Moves.toString(San.parse(chessboard, "Ncb5")));
+        assertEquals("e7e8q", Moves.toString(San.parse(Fen.parse("k7/4P3/8/8/8/8/8/4K3 w - - 0 1"), "e8Q")));
+
+        String[] invalid = {"", "e5", "Nh8", "Qf3", "Kd1d2", "O-O-O-O", "e2e4x", "Zf3", "a8=Q", "hxg3"};
+        for (String san : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> San.parse(chessboard, san), san);
+        }
+        // Both knights can go to b5
+        assertThrows(IllegalArgumentException.class, () -> San.parse(Fen.parse("4k3/8/8/8/8/N1N5/8/4K3 w - - 0 1"),
+                "Nb5"));
+    }
+
+    @Test
+    public void testRoundTripRandomGames() {
+        Random random = new Random(1);
+        MoveList moves = new MoveList();
+        for (int game = 0; game < 20; game++) {
+            Chessboard chessboard = Fen.parse(game % 2 == 0 ? Fen.DEFAULT : KIWIPETE);
+            for (int ply = 0; ply < 200; ply++) {
+                moves.clear();
+                if (MoveGenerator.generateLegal(chessboard, moves) == 0) {
+                    break;
+                }
+                for (int i = 0; i < moves.size(); i++) {
+                    String san = San.toString(chessboard, moves.get(i));
+                    assertEquals(moves.get(i), San.parse(chessboard, san), san);
+                }
+                chessboard.makeMove(moves.get(random.nextInt(moves.size())));
+            }
+        }
+    }
+}
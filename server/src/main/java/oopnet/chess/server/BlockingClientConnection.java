@@ -0,0 +1,161 @@
+package oopnet.chess.server;
+
+import oopnet.chess.core.event.EventFrames;
+import oopnet.chess.core.event.TokenTransmitEvent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link ClientConnection} that reads its socket on its own thread. The threads may be virtual threads, so the
+ * blocking calls must not be made while holding a monitor.
+ * <br>
+ * There is no writer thread per connection. When events are queued, a task that writes them is run on the writer
+ * executor, and the task ends when the queue is empty, so a thread is only used while the client is being written to.
+ * The task writes the queued events to a buffer and flushes the buffer once, so a client that receives many events at
+ * the same time gets them in as few packets as possible.
+ */
+public class BlockingClientConnection extends ClientConnection {
+
+    private static final Logger logger = Logger.getLogger(BlockingClientConnection.class.getName());
+    // The most events written with one flush
+    private static final int MAX_BATCH = 64;
+
+    private final Socket socket;
+    private final DataInputStream inputStream;
+    // Only used by the writer task
+    private final OutputStream outputStream;
+    private final List<ByteBuffer> batch = new ArrayList<>(MAX_BATCH);
+    // Null until started
+    private volatile Executor writer;
+    // Whether a writer task has been started and not finished
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private volatile boolean closed;
+
+    /**
+     * Create a new instance of {@link BlockingClientConnection}. Nothing is read or written before {@link
+     * #start(Executor, Executor)}.
+     *
+     * @param socket      the socket whose inputStream and outputStream are used
+     * @param token       the token that will be sent to the client
+     * @param connections an instance of {@link Connections} to use
+     * @param limits      the limits of the events queued to the client
+     *
+     * @throws IOException as described in {@link Socket#getInputStream()} and  {@link Socket#getOutputStream()}
+     */
+    public BlockingClientConnection(Socket socket, String token, Connections connections,
+                                    OutboundQueue.Limits limits) throws IOException {
+        super(token, connections, limits);
+        this.inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.outputStream = new BufferedOutputStream(socket.getOutputStream());
+        this.socket = socket;
+        // Send the new token to the client
+        sendEvent(new TokenTransmitEvent(token));
+    }
+
+    /**
+     * Start reading and writing
+     *
+     * @param reader runs the reader, which needs its own thread as long as the connection is open
+     * @param writer runs the writer tasks, a task only needs a thread until the queued events are written
+     */
+    public void start(Executor reader, Executor writer) {
+        this.writer = writer;
+        reader.execute(this::read);
+        // Write the events queued before starting
+        onQueued();
+    }
+
+    private void read() {
+        // Read if the socket has not been closed
+        while (!closed) {
+            try {
+                // Blocks the thread so it may throw an error if the connection was lost
+                handleEvent(EventFrames.read(inputStream));
+            } catch (IOException e) {
+                if (!closed) {
+                    // Something went wrong
+                    logger.log(Level.SEVERE, "Failed to read. Connection lost.", e);
+                    close();
+                }
+                // Stop reading
+                break;
+            }
+        }
+    }
+
+    private void write() {
+        try {
+            while (!closed) {
+                getOutbound().drain(batch, MAX_BATCH);
+                if (batch.isEmpty()) {
+                    writing.set(false);
+                    // Continue if an event was queued after draining and before the flag was cleared
+                    if (getOutbound().size() == 0 || !writing.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                for (ByteBuffer frame : batch) {
+                    outputStream.write(frame.array(), frame.arrayOffset(), frame.limit());
+                }
+                outputStream.flush();
+                batch.clear();
+            }
+        } catch (IOException e) {
+            batch.clear();
+            if (!closed) {
+                logger.log(Level.SEVERE, "Failed to write. Connection lost.", e);
+                close();
+            }
+        }
+        // Closed, no more tasks are needed
+    }
+
+    @Override
+    protected void onQueued() {
+        Executor writer = this.writer;
+        if (writer != null && writing.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::write);
+            } catch (RuntimeException e) {
+                // Rejected, e.g. the executor was shut down
+                writing.set(false);
+                logger.log(Level.SEVERE, "Failed to start writing", e);
+                close();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        getOutbound().clear();
+        try {
+            // Also stops a writer that is blocked because the client does not read
+            socket.close();
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Failed to close the socket", e);
+        }
+        handleClose();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+}
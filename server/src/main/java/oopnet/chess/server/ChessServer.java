@@ -1,11 +1,16 @@
 package oopnet.chess.server;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.security.SecureRandom;
 import java.util.Properties;
 import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -14,7 +19,7 @@ public class ChessServer {
     private static final Logger logger = Logger.getLogger(ChessServer.class.getName());
     static final Random RANDOM = new SecureRandom();
 
-    private final Connections connections = new Connections();
+    private Connections connections;
 
     public static void main(String[] args) {
         ChessServer server = new ChessServer();
@@ -37,6 +42,74 @@ public class ChessServer {
         // Parse the port to use
         String portString = properties.getProperty("port", "8080");
         int port = Integer.parseInt(portString);
+        OutboundQueue.Limits limits = OutboundQueue.Limits.fromProperties(properties);
+        long reconnectTimeout = Long.parseLong(properties.getProperty("game.reconnectTimeout", "60"));
+        connections = new Connections(new GameRegistry(TimeUnit.SECONDS.toMillis(reconnectTimeout)));
+        String mode = properties.getProperty("mode", "blocking");
+        if (mode.equalsIgnoreCase("nio")) {
+            int threads = Integer.parseInt(properties.getProperty("nio.threads", "0"));
+            if (threads <= 0) {
+                threads = Runtime.getRuntime().availableProcessors();
+            }
+            new NioServer(threads, connections, ChessServer::generateToken, limits).listen(port);
+        } else if (mode.equalsIgnoreCase("blocking")) {
+            String executor = properties.getProperty("blocking.executor", "platform");
+            Executor reader = createExecutor(executor);
+            listenBlocking(port, reader, createWriterExecutor(executor, reader), limits);
+        } else {
+            throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+    }
+
+    /**
+     * Create the executor that runs the readers of {@link BlockingClientConnection}s. Virtual threads need Java 21, they
+     * are created by reflection as the server is compiled for Java 8.
+     *
+     * @param name "platform" for a new thread per connection or "virtual" for a virtual thread per connection
+     *
+     * @return the executor
+     */
+    static Executor createExecutor(String name) {
+        if (name.equalsIgnoreCase("virtual")) {
+            try {
+                Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                logger.info("Using virtual threads");
+                return (Executor) method.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                logger.warning("Virtual threads are not supported by Java " + System.getProperty("java.version") +
+                        ", using platform threads");
+            }
+        } else if (!name.equalsIgnoreCase("platform")) {
+            throw new IllegalArgumentException("Unknown executor: " + name);
+        }
+        return task -> new Thread(task).start();
+    }
+
+    /**
+     * Create the executor that runs the writer tasks of {@link BlockingClientConnection}s. A task only runs while
+     * events are being written to a client, so platform threads are pooled and reused instead of giving each connection
+     * a writer thread.
+     *
+     * @param name   "platform" or "virtual", see {@link #createExecutor(String)}
+     * @param reader the executor of the readers, also used for writing if it creates virtual threads
+     *
+     * @return the executor
+     */
+    static Executor createWriterExecutor(String name, Executor reader) {
+        if (name.equalsIgnoreCase("virtual")) {
+            return reader;
+        }
+        // Not limited, a writer blocked by a client that does not read must not delay writing to the others
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "writer-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void listenBlocking(int port, Executor reader, Executor writer, OutboundQueue.Limits limits)
+            throws IOException {
         // Start the server
         ServerSocket server = new ServerSocket(port);
         logger.info("Listening on port " + port);
@@ -47,10 +120,11 @@ public class ChessServer {
 
                 // Always generate a new token (at least for now)
                 String token = generateToken();
-                ClientConnection connection = new ClientConnection(socket, token, connections);
+                BlockingClientConnection connection = new BlockingClientConnection(socket, token, connections,
+                        limits);
                 connections.setConnectionToken(token, connection);
-                // Start the ClientConnection in a new thread (as it implements Runnable)
-                new Thread(connection).start();
+                // Read in a new thread, write when there are events to send
+                connection.start(reader, writer);
                 logger.info("Accepted a new connection from " + socket.getInetAddress().getHostAddress());
             } catch (Exception e) {
                 logger.log(Level.WARNING, "Failed to accept a connection", e);
@@ -63,7 +137,7 @@ public class ChessServer {
      *
      * @return the random String, 16 characters
      */
-    private String generateToken() {
+    static String generateToken() {
         int len = 16;
         String characters = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
         StringBuilder sb = new StringBuilder(len);
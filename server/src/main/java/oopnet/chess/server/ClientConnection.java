@@ -5,89 +5,69 @@ import oopnet.chess.core.event.*;
 import oopnet.chess.core.pieces.ChessPiece;
 
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class ClientConnection implements Runnable {
+/**
+ * The connection of a client. Handles the events the client sends, the transport is implemented by the subclasses:
+ * {@link BlockingClientConnection} reads and writes on its own threads and {@link NioClientConnection} is driven by an
+ * {@link EventLoop}.
+ * <br>
+ * The events sent to the client are queued to an {@link OutboundQueue} that only the connection's writer drains, so
+ * sending never blocks and the events sent from different threads can't be mixed.
+ */
+public abstract class ClientConnection {
 
     private static final Logger logger = Logger.getLogger(ClientConnection.class.getName());
 
-    private Connections connections;
-    private Socket socket;
-    private ObjectInputStream inputStream;
-    private ObjectOutputStream outputStream;
-    private String token;
-    private GameContext gameContext;
+    private final Connections connections;
+    private final OutboundQueue outbound;
+    private volatile String token;
+    // Read by the other connections when reconnecting
+    private volatile GameContext gameContext;
 
 
     /**
-     * Create a new instance of {@link ClientConnection}
+     * Create a new instance of {@link ClientConnection}. The subclass should send the token to the client when it's
+     * ready to send events.
      *
-     * @param socket      the socket whose inputStream and outputStream are used
      * @param token       the token that will be sent to the client
      * @param connections an instance of {@link Connections} to use
-     *
-     * @throws IOException as described in {@link Socket#getInputStream()} and  {@link Socket#getOutputStream()}
+     * @param limits      the limits of the events queued to the client
      */
-    public ClientConnection(Socket socket, String token, Connections connections) throws IOException {
-        this.inputStream = new ObjectInputStream(socket.getInputStream());
-        this.outputStream = new ObjectOutputStream(socket.getOutputStream());
-        this.socket = socket;
+    protected ClientConnection(String token, Connections connections, OutboundQueue.Limits limits) {
         this.token = token;
         this.connections = connections;
-        // Send the new token to the client
-        sendEvent(new TokenTransmitEvent(token));
+        this.outbound = new OutboundQueue(limits);
     }
 
-    // The method from Runnable interface
-    @Override
-    public void run() {
-        // Read if the socket has not been closed
-        while (!socket.isClosed()) {
-            try {
-                // doRead() blocks the thread so it may throw an error if the connection was lost
-                doRead();
-            } catch (IOException | ClassNotFoundException e) {
-                // Something went wrong
-                logger.log(Level.SEVERE, "Failed to read. Connection lost.", e);
-                // Stop reading
-                break;
+    /**
+     * Handle an event the client sent. Called by the thread that reads the connection.
+     *
+     * @param event the event
+     */
+    protected void handleEvent(Event event) {
+        logger.info("Received a new event: " + event.getClass().getName());
+        if (event instanceof TokenTransmitEvent) {
+            // The client sent their token
+            TokenTransmitEvent tokenEvent = (TokenTransmitEvent) event;
+            handleTokenUpdate(tokenEvent.getToken());
+        } else if (event instanceof GameCreateEvent) {
+            Game game = ((GameCreateEvent) event).getGame();
+            GameContext previous = gameContext;
+            this.gameContext = connections.getGameRegistry().create(connections, game, token);
+            if (previous != null) {
+                previous.playerLeft(token);
             }
+            sendEvent(new ChatEvent("Server", "The game ID is " + gameContext.getGameIdentifier()));
+            logger.info("A new game has been created. Identifier: " + gameContext.getGameIdentifier());
+        } else if (event instanceof GameJoinEvent) {
+            handleGameJoin(((GameJoinEvent) event));
         }
-    }
-
-    private void doRead() throws IOException, ClassNotFoundException {
-        // Read if there's anything
-        Object obj = inputStream.readObject();
-        // Only accept Event objects
-        if (obj instanceof Event) {
-            Event event = ((Event) obj);
-            logger.info("Received a new event: " + event.getClass().getName());
-            if (event instanceof TokenTransmitEvent) {
-                // The client sent their token
-                TokenTransmitEvent tokenEvent = (TokenTransmitEvent) event;
-                handleTokenUpdate(tokenEvent.getToken());
-            } else if (event instanceof GameCreateEvent) {
-                Game game = ((GameCreateEvent) event).getGame();
-                this.gameContext = new GameContext(connections, game);
-                if (game.getCurrentPlayer() == ChessPiece.Color.BLACK) {
-                    gameContext.setBlackToken(token);
-                } else {
-                    // Default to white as (by default) white starts unless Game#getCurrentPlayer is black
-                    gameContext.setWhiteToken(token);
-                }
-                sendEvent(new ChatEvent("Server", "The game ID is " + gameContext.getGameIdentifier()));
-                logger.info("A new game has been created. Identifier: " + gameContext.getGameIdentifier());
-            } else if (event instanceof GameJoinEvent) {
-                handleGameJoin(((GameJoinEvent) event));
-            }
-            if (gameContext != null) {
-                // Move and chat events are handled in gameContext
-                gameContext.receiveEvent(event, token);
-            }
+        if (gameContext != null) {
+            // Move and chat events are handled in gameContext
+            gameContext.receiveEvent(event, token);
         }
     }
 
@@ -99,18 +79,17 @@ public class ClientConnection implements Runnable {
      */
     private void handleGameJoin(GameJoinEvent event) {
         String gameIdentifier = event.getGameIdentifier();
-        GameContext gameContext = connections.getGameByIdentifier(gameIdentifier);
+        GameContext gameContext = connections.getGameRegistry().get(gameIdentifier);
         if (gameContext != null) {
-            this.gameContext = gameContext;
-            if (gameContext.getWhiteToken() == null) {
-                gameContext.setWhiteToken(token);
-                sendEvent(new GameCreateEvent(gameContext.getGame()));
-                gameContext.sendEvent(ChessPiece.Color.BLACK, new ChatEvent("Game",
-                        event.getNickname() + " joined the game"));
-            } else if (gameContext.getBlackToken() == null) {
-                gameContext.setBlackToken(token);
+            ChessPiece.Color color = gameContext.join(token);
+            if (color != null) {
+                GameContext previous = this.gameContext;
+                this.gameContext = gameContext;
+                if (previous != null && previous != gameContext) {
+                    previous.playerLeft(token);
+                }
                 sendEvent(new GameCreateEvent(gameContext.getGame()));
-                gameContext.sendEvent(ChessPiece.Color.WHITE, new ChatEvent("Game",
+                gameContext.sendEvent(color.getOpposite(), new ChatEvent("Game",
                         event.getNickname() + " joined the game"));
             } else {
                 sendEvent(new ChatEvent("Server", "The game has already started!"));
@@ -134,27 +113,14 @@ public class ClientConnection implements Runnable {
             handleInvalidToken("Can not change token now");
         } else {
             // Check if the player was in a game
-            ClientConnection oldConnection = connections.getConnectionByToken(tokenCandidate);
-            if (oldConnection != null) {
-                // Put the player back in the old game
-                gameContext = oldConnection.gameContext;
-                // And update the old (new for this specific connection) GameContext's token
-                String oldWhiteToken = oldConnection.gameContext.getWhiteToken();
-                String oldBlackToken = oldConnection.gameContext.getBlackToken();
-                if (tokenCandidate.equals(oldWhiteToken)) {
-                    gameContext.setWhiteToken(tokenCandidate);
-                } else if (tokenCandidate.equals(oldBlackToken)) {
-                    gameContext.setBlackToken(tokenCandidate);
-                } else {
-                    // Shouldn't happen as the gameContext was found OwO
-                    logger.warning("Client sent a valid token but neither black's old token nor white's old " +
-                            "token matched it");
-                    handleInvalidToken("Invalid token.");
-                }
-                // And send the game
-                sendEvent(new GameCreateEvent(gameContext.getGame()));
+            GameContext previous = connections.getGameRegistry().getByPlayer(tokenCandidate);
+            if (previous != null) {
+                // Put the player back in the old game and send the game
+                gameContext = previous;
+                sendEvent(new GameCreateEvent(previous.getGame()));
             }
             // Finally replace the connection and current token with the new one
+            connections.remove(token, this);
             token = tokenCandidate;
             connections.setConnectionToken(token, this);
         }
@@ -171,16 +137,62 @@ public class ClientConnection implements Runnable {
     }
 
     /**
-     * Send the given event to the client's connection
+     * Send the given event to the client's connection. Thread-safe, the events may be sent from the threads of other
+     * connections. Does not block, the event is queued. If the client has too many events queued, the connection is
+     * closed or a chat message is dropped (see {@link OutboundQueue.Limits}). The other events are never dropped as the
+     * client would lose track of the game.
      *
      * @param event the event to send
      */
     public void sendEvent(Event event) {
+        if (isClosed()) {
+            return;
+        }
+        ByteBuffer frame;
         try {
-            outputStream.writeObject(event);
+            frame = ByteBuffer.wrap(EventFrames.encode(event));
         } catch (IOException e) {
-            e.printStackTrace();
+            logger.log(Level.WARNING, "Failed to send an event", e);
+            return;
         }
+        if (outbound.offer(frame)) {
+            onQueued();
+        } else if (!outbound.getLimits().isDisconnect() && event instanceof ChatEvent) {
+            logger.fine(String.format("Dropped a chat message to %s", token));
+        } else {
+            logger.warning(String.format("Closing the connection of %s, %d events (%d bytes) are not sent yet",
+                    token, outbound.size(), outbound.getBytes()));
+            close();
+        }
+    }
+
+    /**
+     * Called once by the subclasses when the connection is closed
+     */
+    protected void handleClose() {
+        // Not removed if the player has already reconnected
+        if (connections.remove(token, this)) {
+            GameContext gameContext = this.gameContext;
+            if (gameContext != null) {
+                gameContext.playerLeft(token);
+            }
+        }
+    }
+
+    /**
+     * Called after an event has been queued to {@link #getOutbound()}
+     */
+    protected abstract void onQueued();
+
+    /**
+     * Close the connection, can be called from any thread. The queued events are discarded.
+     */
+    public abstract void close();
+
+    public abstract boolean isClosed();
+
+    protected OutboundQueue getOutbound() {
+        return outbound;
     }
 
     public GameContext getGameContext() {
@@ -1,7 +1,6 @@
 package oopnet.chess.server;
 
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class Connections {
@@ -9,6 +8,15 @@ public class Connections {
     // Keep a map of connections
     // The key is the client's token
     private final Map<String, ClientConnection> connections = new ConcurrentHashMap<>();
+    private final GameRegistry games;
+
+    public Connections() {
+        this(new GameRegistry());
+    }
+
+    public Connections(GameRegistry games) {
+        this.games = games;
+    }
 
     public ClientConnection getConnectionByToken(String token) {
         return connections.get(token);
@@ -19,18 +27,18 @@ public class Connections {
     }
 
     /**
-     * Find a {@link GameContext} by the given gameIdentifier. Goes through all {@link ClientConnection} and {@link
-     * ClientConnection#getGameContext()} and matches {@link GameContext#getGameIdentifier()}
+     * Remove a connection unless the token already belongs to another connection, e.g. the player has reconnected
      *
-     * @param gameIdentifier the identifier (case insensitive), not null
+     * @param token            the token
+     * @param clientConnection the connection
      *
-     * @return the {@link GameContext} or null
+     * @return true if the connection was removed
      */
-    public GameContext getGameByIdentifier(String gameIdentifier) {
-        return connections.values().stream()
-                          .map(ClientConnection::getGameContext)
-                          .filter(Objects::nonNull)
-                          .filter(context -> gameIdentifier.equalsIgnoreCase(context.getGameIdentifier()))
-                          .findAny().orElse(null);
+    public boolean remove(String token, ClientConnection clientConnection) {
+        return connections.remove(token, clientConnection);
+    }
+
+    public GameRegistry getGameRegistry() {
+        return games;
     }
 }
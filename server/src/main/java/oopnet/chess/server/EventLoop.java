@@ -0,0 +1,100 @@
+package oopnet.chess.server;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A thread that handles the I/O of many {@link NioClientConnection}s with a {@link Selector}. The channels can only be
+ * registered and their interest ops changed on the loop's thread, other threads use {@link #execute(Runnable)}.
+ */
+public class EventLoop implements Runnable {
+
+    private static final Logger logger = Logger.getLogger(EventLoop.class.getName());
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+
+    /**
+     * Create and start a new event loop
+     *
+     * @param name the name of the thread
+     *
+     * @throws IOException if the selector can't be opened
+     */
+    public EventLoop(String name) throws IOException {
+        this.selector = Selector.open();
+        this.thread = new Thread(this, name);
+        thread.start();
+    }
+
+    Selector getSelector() {
+        return selector;
+    }
+
+    /**
+     * Run a task on the loop's thread
+     *
+     * @param task the task
+     */
+    public void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    // The method from Runnable interface
+    @Override
+    public void run() {
+        while (selector.isOpen()) {
+            try {
+                selector.select();
+                runTasks();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handleKey(key);
+                }
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "The event loop failed", e);
+                break;
+            }
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "A task of the event loop failed", e);
+            }
+        }
+    }
+
+    private void handleKey(SelectionKey key) {
+        NioClientConnection connection = (NioClientConnection) key.attachment();
+        try {
+            if (key.isWritable()) {
+                connection.handleWrite();
+            }
+            if (key.isValid() && key.isReadable()) {
+                connection.handleRead();
+            }
+        } catch (CancelledKeyException e) {
+            // Closed by another thread
+            connection.close();
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.SEVERE, "Connection lost.", e);
+            connection.close();
+        }
+    }
+}
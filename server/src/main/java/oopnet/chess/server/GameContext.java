@@ -4,10 +4,14 @@ import oopnet.chess.core.Chessboard;
 import oopnet.chess.core.Game;
 import oopnet.chess.core.Move;
 import oopnet.chess.core.event.*;
+import oopnet.chess.core.movegen.MoveGenerator;
+import oopnet.chess.core.movegen.MoveList;
+import oopnet.chess.core.movegen.Moves;
 import oopnet.chess.core.pieces.ChessPiece;
-import oopnet.chess.core.pieces.King;
 
 import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 public class GameContext {
@@ -19,24 +23,114 @@ public class GameContext {
     private final Connections connections;
     private final String gameIdentifier;
     private final Game game;
-    private String whiteToken;
-    private String blackToken;
+    private volatile String whiteToken;
+    private volatile String blackToken;
+    // Both players' connections may handle events at the same time. Not synchronized as a virtual thread waiting for
+    // a monitor would pin its carrier thread.
+    private final Lock lock = new ReentrantLock();
+    // Reused when validating moves, guarded by the lock
+    private final MoveList moveBuffer = new MoveList();
 
 
-    public GameContext(Connections connections, Game game) {
+    // Changed while holding the lock
+    private volatile State state = State.WAITING;
+
+
+    /**
+     * Create a new instance of {@link GameContext}. Use {@link GameRegistry#create(Connections, Game, String)} to
+     * create a game that can be found by its identifier.
+     *
+     * @param connections    an instance of {@link Connections} to use
+     * @param game           the game
+     * @param gameIdentifier the unique identifier of the game
+     */
+    GameContext(Connections connections, Game game, String gameIdentifier) {
         Objects.requireNonNull(connections);
         Objects.requireNonNull(game);
         this.connections = connections;
         this.game = game;
-        this.gameIdentifier = generateIdentifier();
+        this.gameIdentifier = gameIdentifier;
+    }
+
+    /**
+     * Add the opponent of the player who created the game
+     *
+     * @param token the token of the player
+     *
+     * @return the color of the player or null if the game has already started or ended
+     */
+    public ChessPiece.Color join(String token) {
+        Objects.requireNonNull(token);
+        lock.lock();
+        try {
+            if (state != State.WAITING) {
+                return null;
+            }
+            ChessPiece.Color color;
+            if (whiteToken == null) {
+                setWhiteToken(token);
+                color = ChessPiece.Color.WHITE;
+            } else if (blackToken == null) {
+                setBlackToken(token);
+                color = ChessPiece.Color.BLACK;
+            } else {
+                return null;
+            }
+            if (whiteToken != null && blackToken != null) {
+                state = State.ACTIVE;
+                connections.getGameRegistry().started(this);
+            }
+            return color;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Called when a player's connection is closed or the player moves to another game. A game that nobody has joined
+     * yet is abandoned. A game that has started is kept so the players can reconnect, and abandoned if neither player
+     * has come back before the reconnect timeout of the {@link GameRegistry}.
+     *
+     * @param token the token of the player
+     */
+    public void playerLeft(String token) {
+        lock.lock();
+        try {
+            if (getColor(token) == null) {
+                return;
+            }
+            if (state == State.WAITING) {
+                state = State.FINISHED;
+                connections.getGameRegistry().finished(this, false);
+            } else if (state == State.ACTIVE && !isPresent(whiteToken) && !isPresent(blackToken)) {
+                connections.getGameRegistry().bothLeft(this);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * End the game without a result if neither player has come back
+     */
+    void abandonIfLeft() {
+        lock.lock();
+        try {
+            if (state == State.ACTIVE && !isPresent(whiteToken) && !isPresent(blackToken)) {
+                state = State.FINISHED;
+                connections.getGameRegistry().finished(this, true);
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
-    private String generateIdentifier() {
-        String token;
-        do {
-            token = String.valueOf(ChessServer.RANDOM.nextInt(90000) + 9999);
-        } while (connections.getConnectionByToken(token) != null);
-        return token;
+    /**
+     * @return whether the player has an open connection that is in this game
+     */
+    private boolean isPresent(String token) {
+        ClientConnection connection = token == null ? null : connections.getConnectionByToken(token);
+        return connection != null && !connection.isClosed() && connection.getGameContext() == this;
     }
 
     /**
@@ -56,34 +150,58 @@ public class GameContext {
             if (connection != null) {
                 connection.sendEvent(new ChatEvent("Server", "Something went wrong."));
             }
-        } else if (event instanceof PieceMoveEvent) {
+        } else if (event instanceof PieceMoveEvent || event instanceof SurrenderEvent
+                || event instanceof DrawOfferEvent) {
+            // Both players' connections may call this at the same time
+            lock.lock();
+            try {
+                if (state != State.ACTIVE) {
+                    sendEvent(senderColor, new ChatEvent("Server", state == State.WAITING ?
+                            "Waiting for an opponent." : "The game has ended."));
+                } else {
+                    receiveGameEvent(event, senderColor);
+                }
+            } finally {
+                lock.unlock();
+            }
+        } else if (event instanceof ChatEvent) {
+            ChatEvent chatEvent = ((ChatEvent) event);
+            // Send the message to both players
+            sendEvent(opponentColor, new ChatEvent(chatEvent.getNickname(), chatEvent.getMessage()));
+            sendEvent(senderColor, new ChatEvent(chatEvent.getNickname(), chatEvent.getMessage()));
+        }
+    }
+
+    /**
+     * Handle a move, a surrender or a draw offer of an active game. Called while holding the lock.
+     */
+    private void receiveGameEvent(Event event, ChessPiece.Color senderColor) {
+        ChessPiece.Color opponentColor = senderColor.getOpposite();
+        if (event instanceof PieceMoveEvent) {
             PieceMoveEvent moveEvent = ((PieceMoveEvent) event);
             if (!validateMove(moveEvent, senderColor)) {
                 sendEvent(senderColor, new ChatEvent("Server", "Invalid move."));
             } else {
-                if (game.handleMove(moveEvent) instanceof King) {
-                    endGame(senderColor == ChessPiece.Color.WHITE ? Game.GameResult.WHITE_WINS : Game.GameResult.BLACK_WINS);
-                }
+                game.handleMove(moveEvent);
                 sendEvent(opponentColor, moveEvent);
-                Move move = moveEvent.getMove(game.getChessboard());
-                if (move.isCheckmate()) {
+                // Only legal moves are accepted so the king is never captured, the game ends when the opponent
+                // has no legal moves left
+                Chessboard chessboard = game.getChessboard();
+                if (MoveGenerator.isCheckmate(chessboard)) {
                     endGame(senderColor == ChessPiece.Color.WHITE ? Game.GameResult.WHITE_WINS : Game.GameResult.BLACK_WINS);
+                } else if (MoveGenerator.isStalemate(chessboard)) {
+                    endGame(Game.GameResult.DRAW);
                 }
             }
-        } else if (event instanceof ChatEvent) {
-            ChatEvent chatEvent = ((ChatEvent) event);
-            // Send the message to both players
-            sendEvent(opponentColor, new ChatEvent(chatEvent.getNickname(), chatEvent.getMessage()));
-            sendEvent(senderColor, new ChatEvent(chatEvent.getNickname(), chatEvent.getMessage()));
         } else if (event instanceof SurrenderEvent) {
             endGame(senderColor == ChessPiece.Color.WHITE ? Game.GameResult.WHITE_SURRENDERS :
                     Game.GameResult.BLACK_SURRENDERS);
         } else if (event instanceof DrawOfferEvent) {
-            if (game.getDrawOffer() == senderColor.getOpposite()) {
+            if (game.getDrawOffer() == opponentColor) {
                 endGame(Game.GameResult.DRAW);
             } else {
                 game.setDrawOffer(senderColor);
-                sendEvent(senderColor.getOpposite(), new ChatEvent("Server",
+                sendEvent(opponentColor, new ChatEvent("Server",
                         senderColor + " offered a draw." +
                                 "\nClick \"offer a draw\" to accept."));
             }
@@ -103,7 +221,9 @@ public class GameContext {
         if (piece != null) {
             if (piece.getColor() == senderColor) {
                 // And must be a legal move
-                if (piece.getLegalMovePositions(oldBoard).contains(move.getTo())) {
+                moveBuffer.clear();
+                piece.generateLegalMoves(oldBoard, moveBuffer);
+                if (moveBuffer.find(move.getFrom().getIndex(), move.getTo().getIndex()) != Moves.NONE) {
                     return true;
                 } else {
                     logger.warning(String.format("%s tried to move to an illegal position", senderColor));
@@ -117,7 +237,12 @@ public class GameContext {
         return false;
     }
 
+    /**
+     * End the active game, called while holding the lock
+     */
     private void endGame(Game.GameResult result) {
+        state = State.FINISHED;
+        connections.getGameRegistry().finished(this, true);
         GameEndEvent event = new GameEndEvent(result);
         sendEvent(ChessPiece.Color.BLACK, event);
         sendEvent(ChessPiece.Color.WHITE, event);
@@ -208,4 +333,16 @@ public class GameContext {
     public Game getGame() {
         return game;
     }
+
+    public State getState() {
+        return state;
+    }
+
+    public enum State {
+        // Waiting for an opponent
+        WAITING,
+        // Both players have joined
+        ACTIVE,
+        FINISHED
+    }
 }
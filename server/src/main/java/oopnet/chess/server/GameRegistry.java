@@ -0,0 +1,218 @@
+package oopnet.chess.server;
+
+import oopnet.chess.core.Game;
+import oopnet.chess.core.pieces.ChessPiece;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * The games of the server by their identifiers and by the tokens of their players. A game is registered when it's
+ * created and removed when it ends or is abandoned: when its creator leaves before an opponent has joined, or when
+ * neither player has come back {@link #getReconnectTimeout() some time} after both have left. Thread-safe.
+ * <br>
+ * The identifiers are random numbers of {@link #MIN_DIGITS} digits, more digits are used if there are so many games
+ * that a free identifier is hard to find.
+ */
+public class GameRegistry {
+
+    private static final Logger logger = Logger.getLogger(GameRegistry.class.getName());
+    static final int MIN_DIGITS = 5;
+    // The identifiers fit in a long
+    static final int MAX_DIGITS = 18;
+    // The random identifiers tried before adding a digit
+    private static final int ATTEMPTS_PER_DIGITS = 8;
+    // The default time the players of an active game have to reconnect
+    public static final long DEFAULT_RECONNECT_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+
+    private final Map<String, GameContext> games = new ConcurrentHashMap<>();
+    // The latest game of each player
+    private final Map<String, GameContext> players = new ConcurrentHashMap<>();
+    private final AtomicInteger waitingGames = new AtomicInteger();
+    private final AtomicInteger activeGames = new AtomicInteger();
+    private final AtomicLong finishedGames = new AtomicLong();
+    private final long reconnectTimeout;
+
+    public GameRegistry() {
+        this(DEFAULT_RECONNECT_TIMEOUT);
+    }
+
+    /**
+     * Create a new registry
+     *
+     * @param reconnectTimeout the milliseconds an active game is kept after both players have left, 0 to end it at once
+     */
+    public GameRegistry(long reconnectTimeout) {
+        this.reconnectTimeout = Math.max(0, reconnectTimeout);
+    }
+
+    /**
+     * Create and register a new game that waits for an opponent
+     *
+     * @param connections an instance of {@link Connections} to use
+     * @param game        the game
+     * @param token       the token of the player who created the game, plays the side to move
+     *
+     * @return the game's context with a unique identifier
+     */
+    public GameContext create(Connections connections, Game game, String token) {
+        for (int digits = MIN_DIGITS; ; digits = Math.min(digits + 1, MAX_DIGITS)) {
+            for (int i = 0; i < ATTEMPTS_PER_DIGITS; i++) {
+                String identifier = randomIdentifier(digits);
+                GameContext context = new GameContext(connections, game, identifier);
+                // Before the game can be found and joined
+                if (game.getCurrentPlayer() == ChessPiece.Color.BLACK) {
+                    context.setBlackToken(token);
+                } else {
+                    // Default to white as (by default) white starts unless Game#getCurrentPlayer is black
+                    context.setWhiteToken(token);
+                }
+                if (games.putIfAbsent(identifier, context) == null) {
+                    players.put(token, context);
+                    waitingGames.incrementAndGet();
+                    return context;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param digits the number of digits, at most {@link #MAX_DIGITS}
+     *
+     * @return a random number of the given number of digits
+     */
+    static String randomIdentifier(int digits) {
+        long min = pow10(digits - 1);
+        return String.valueOf(min + Math.floorMod(ChessServer.RANDOM.nextLong(), 9 * min));
+    }
+
+    private static long pow10(int exponent) {
+        long value = 1;
+        for (int i = 0; i < exponent; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+
+    /**
+     * Find a game by its identifier
+     *
+     * @param gameIdentifier the identifier, surrounding whitespace is ignored
+     *
+     * @return the game or null if there's no such game or it has ended
+     */
+    public GameContext get(String gameIdentifier) {
+        return gameIdentifier == null ? null : games.get(gameIdentifier.trim());
+    }
+
+    /**
+     * Find the game a player reconnecting with their token was in
+     *
+     * @param token the token of the player
+     *
+     * @return the player's latest game or null if it has ended
+     */
+    public GameContext getByPlayer(String token) {
+        return token == null ? null : players.get(token);
+    }
+
+    /**
+     * Called once when the second player has joined the game
+     *
+     * @param context the game
+     */
+    void started(GameContext context) {
+        players.put(context.getWhiteToken(), context);
+        players.put(context.getBlackToken(), context);
+        waitingGames.decrementAndGet();
+        activeGames.incrementAndGet();
+    }
+
+    /**
+     * Called once when the game ends
+     *
+     * @param context the game
+     * @param started whether both players had joined
+     */
+    void finished(GameContext context, boolean started) {
+        if (games.remove(context.getGameIdentifier(), context)) {
+            removePlayer(context.getWhiteToken(), context);
+            removePlayer(context.getBlackToken(), context);
+            (started ? activeGames : waitingGames).decrementAndGet();
+            finishedGames.incrementAndGet();
+            logger.info("Game " + context.getGameIdentifier() + " ended. " + this);
+        }
+    }
+
+    private void removePlayer(String token, GameContext context) {
+        if (token != null) {
+            players.remove(token, context);
+        }
+    }
+
+    /**
+     * Called when both players of an active game have left. The game is abandoned unless a player has come back
+     * before the reconnect timeout.
+     *
+     * @param context the game
+     */
+    void bothLeft(GameContext context) {
+        if (reconnectTimeout == 0) {
+            context.abandonIfLeft();
+        } else {
+            Scheduler.INSTANCE.schedule(context::abandonIfLeft, reconnectTimeout, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return the milliseconds an active game is kept after both players have left
+     */
+    public long getReconnectTimeout() {
+        return reconnectTimeout;
+    }
+
+    /**
+     * @return the number of games waiting for an opponent
+     */
+    public int getWaitingGames() {
+        return waitingGames.get();
+    }
+
+    /**
+     * @return the number of games being played
+     */
+    public int getActiveGames() {
+        return activeGames.get();
+    }
+
+    /**
+     * @return the number of games that have ended or been abandoned since the server started
+     */
+    public long getFinishedGames() {
+        return finishedGames.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Games: %d active, %d waiting, %d finished", getActiveGames(), getWaitingGames(),
+                getFinishedGames());
+    }
+
+    /**
+     * Runs the reconnect timeouts of all registries, created when first needed
+     */
+    private static final class Scheduler {
+
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "reconnect-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,152 @@
+package oopnet.chess.server;
+
+import oopnet.chess.core.event.Event;
+import oopnet.chess.core.event.EventFrames;
+import oopnet.chess.core.event.TokenTransmitEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link ClientConnection} whose non-blocking channel is read and written by an {@link EventLoop}. The loop writes
+ * the queued frames with as few calls as possible and waits for {@link SelectionKey#OP_WRITE} if the socket's buffer
+ * is full.
+ */
+public class NioClientConnection extends ClientConnection {
+
+    private static final Logger logger = Logger.getLogger(NioClientConnection.class.getName());
+    private static final int READ_BUFFER_BYTES = 8 * 1024;
+    // The most frames written with one call
+    private static final int MAX_GATHER = 16;
+
+    private final SocketChannel channel;
+    private final EventLoop loop;
+    // Only used on the loop's thread
+    private final EventFrames.Decoder decoder = new EventFrames.Decoder(READ_BUFFER_BYTES);
+    private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+    private SelectionKey key;
+    // Whether a flush has been queued to the loop
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private volatile boolean closed;
+
+    /**
+     * Create a new instance of {@link NioClientConnection} and register it to the loop
+     *
+     * @param channel     the channel, in non-blocking mode
+     * @param loop        the loop that handles the channel
+     * @param token       the token that will be sent to the client
+     * @param connections an instance of {@link Connections} to use
+     * @param limits      the limits of the events queued to the client
+     */
+    public NioClientConnection(SocketChannel channel, EventLoop loop, String token, Connections connections,
+                               OutboundQueue.Limits limits) {
+        super(token, connections, limits);
+        this.channel = channel;
+        this.loop = loop;
+        loop.execute(this::register);
+        // Send the new token to the client, the loop registers the channel first
+        sendEvent(new TokenTransmitEvent(token));
+    }
+
+    private void register() {
+        try {
+            key = channel.register(loop.getSelector(), SelectionKey.OP_READ, this);
+        } catch (ClosedChannelException e) {
+            close();
+        }
+    }
+
+    @Override
+    protected void onQueued() {
+        if (flushQueued.compareAndSet(false, true)) {
+            loop.execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        // The events queued after this are flushed again
+        flushQueued.set(false);
+        try {
+            handleWrite();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to write. Connection lost.", e);
+            close();
+        }
+    }
+
+    /**
+     * Read the available bytes and handle the complete events. Called on the loop's thread.
+     *
+     * @throws IOException if reading fails or the client sent an invalid frame
+     */
+    void handleRead() throws IOException {
+        if (channel.read(decoder.getBuffer()) < 0) {
+            logger.info("Connection closed by the client");
+            close();
+            return;
+        }
+        Event event;
+        while (!closed && (event = decoder.next()) != null) {
+            handleEvent(event);
+        }
+    }
+
+    /**
+     * Write the queued frames until the socket's buffer is full. Called on the loop's thread.
+     *
+     * @throws IOException if writing fails
+     */
+    void handleWrite() throws IOException {
+        if (key == null || !key.isValid()) {
+            return;
+        }
+        while (true) {
+            int count = getOutbound().peek(gather);
+            if (count == 0) {
+                break;
+            }
+            channel.write(gather, 0, count);
+            for (int i = 0; i < count; i++) {
+                if (gather[i].hasRemaining()) {
+                    break;
+                }
+                getOutbound().remove();
+            }
+            boolean full = gather[count - 1].hasRemaining();
+            Arrays.fill(gather, 0, count, null);
+            if (full) {
+                // Continue when the socket can be written again
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                return;
+            }
+        }
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        getOutbound().clear();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Failed to close the channel", e);
+        }
+        handleClose();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,77 @@
+package oopnet.chess.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Accepts connections and divides them between a few {@link EventLoop}s, so the server does not need a thread per
+ * connection
+ */
+public class NioServer {
+
+    private static final Logger logger = Logger.getLogger(NioServer.class.getName());
+
+    private final Connections connections;
+    private final Supplier<String> tokenGenerator;
+    private final OutboundQueue.Limits limits;
+    private final EventLoop[] loops;
+
+    /**
+     * Create a new instance of {@link NioServer} and start its event loops
+     *
+     * @param threads        the number of event loops
+     * @param connections    an instance of {@link Connections} to use
+     * @param tokenGenerator generates the tokens of the new connections
+     * @param limits         the limits of the events queued to a connection
+     *
+     * @throws IOException if a selector can't be opened
+     */
+    public NioServer(int threads, Connections connections, Supplier<String> tokenGenerator,
+                     OutboundQueue.Limits limits) throws IOException {
+        this.connections = connections;
+        this.tokenGenerator = tokenGenerator;
+        this.limits = limits;
+        this.loops = new EventLoop[Math.max(1, threads)];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new EventLoop("event-loop-" + i);
+        }
+    }
+
+    /**
+     * Accept connections on the calling thread, never returns normally
+     *
+     * @param port the port to listen on
+     *
+     * @throws IOException if the port can't be bound
+     */
+    public void listen(int port) throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        logger.info("Listening on port " + port + " with " + loops.length + " event loops");
+        int next = 0;
+        while (true) {
+            try {
+                // Accept a new connection
+                SocketChannel channel = server.accept();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+
+                // Always generate a new token (at least for now)
+                String token = tokenGenerator.get();
+                EventLoop loop = loops[next];
+                next = (next + 1) % loops.length;
+                NioClientConnection connection = new NioClientConnection(channel, loop, token, connections,
+                        limits);
+                connections.setConnectionToken(token, connection);
+                logger.info("Accepted a new connection from " + channel.socket().getInetAddress().getHostAddress());
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Failed to accept a connection", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package oopnet.chess.server;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The frames queued to a connection but not yet taken by its writer. Any thread can add frames, one writer removes
+ * them. The queue is bounded by the number of frames and their total size, so a client that does not read can't make
+ * the server run out of memory.
+ */
+public class OutboundQueue {
+
+    private final Limits limits;
+    private final BlockingQueue<ByteBuffer> frames = new LinkedBlockingQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+
+    public OutboundQueue(Limits limits) {
+        this.limits = limits;
+    }
+
+    public Limits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Add a frame if it fits under the limits
+     *
+     * @param frame the frame
+     *
+     * @return true if the frame was added, false if the queue is full
+     */
+    public boolean offer(ByteBuffer frame) {
+        int length = frame.limit();
+        if (size.incrementAndGet() > limits.maxEvents) {
+            size.decrementAndGet();
+            return false;
+        }
+        if (bytes.addAndGet(length) > limits.maxBytes) {
+            bytes.addAndGet(-length);
+            size.decrementAndGet();
+            return false;
+        }
+        frames.add(frame);
+        return true;
+    }
+
+    /**
+     * Get the oldest frames without removing them
+     *
+     * @param into the array the frames are put to
+     *
+     * @return the number of frames, at most the length of the array
+     */
+    public int peek(ByteBuffer[] into) {
+        int count = 0;
+        for (ByteBuffer frame : frames) {
+            if (count == into.length) {
+                break;
+            }
+            into[count++] = frame;
+        }
+        return count;
+    }
+
+    /**
+     * Remove the oldest frame after it has been written
+     */
+    public void remove() {
+        ByteBuffer frame = frames.poll();
+        // Null if cleared at the same time
+        if (frame != null) {
+            release(frame);
+        }
+    }
+
+    /**
+     * Remove the oldest frames without waiting
+     *
+     * @param batch the list the frames are added to
+     * @param max   the most frames to remove
+     */
+    public void drain(List<ByteBuffer> batch, int max) {
+        int start = batch.size();
+        frames.drainTo(batch, max);
+        for (int i = start; i < batch.size(); i++) {
+            release(batch.get(i));
+        }
+    }
+
+    public void clear() {
+        ByteBuffer frame;
+        while ((frame = frames.poll()) != null) {
+            release(frame);
+        }
+    }
+
+    private void release(ByteBuffer frame) {
+        size.decrementAndGet();
+        bytes.addAndGet(-frame.limit());
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * The high-water marks of the queues and what to do when a client reaches them
+     */
+    public static class Limits {
+
+        private final int maxEvents;
+        private final long maxBytes;
+        private final boolean disconnect;
+
+        /**
+         * Create new limits
+         *
+         * @param maxEvents  the most events queued to a connection
+         * @param maxBytes   the most bytes queued to a connection
+         * @param disconnect whether the connection is closed when it has too many events queued, otherwise new chat
+         *                   messages are dropped and the connection is only closed if another event does not fit
+         */
+        public Limits(int maxEvents, long maxBytes, boolean disconnect) {
+            this.maxEvents = maxEvents;
+            this.maxBytes = maxBytes;
+            this.disconnect = disconnect;
+        }
+
+        /**
+         * Read the limits from the server properties
+         *
+         * @param properties the properties
+         *
+         * @return the limits
+         */
+        public static Limits fromProperties(Properties properties) {
+            int maxEvents = Integer.parseInt(properties.getProperty("outbound.maxEvents", "1024"));
+            long maxBytes = Long.parseLong(properties.getProperty("outbound.maxBytes", "1048576"));
+            String overflow = properties.getProperty("outbound.overflow", "disconnect");
+            if (!overflow.equalsIgnoreCase("disconnect") && !overflow.equalsIgnoreCase("drop")) {
+                throw new IllegalArgumentException("Unknown overflow policy: " + overflow);
+            }
+            return new Limits(maxEvents, maxBytes, overflow.equalsIgnoreCase("disconnect"));
+        }
+
+        public int getMaxEvents() {
+            return maxEvents;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public boolean isDisconnect() {
+            return disconnect;
+        }
+    }
+}
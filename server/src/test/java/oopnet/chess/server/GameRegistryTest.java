@@ -0,0 +1,207 @@
+package oopnet.chess.server;
+
+import oopnet.chess.core.Chessboard;
+import oopnet.chess.core.Game;
+import oopnet.chess.core.Move;
+import oopnet.chess.core.Position;
+import oopnet.chess.core.event.*;
+import oopnet.chess.core.notation.Fen;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameRegistryTest {
+
+    private static final String ALICE = "aaaaaaaaaaaaaaaa";
+    private static final String BOB = "bbbbbbbbbbbbbbbb";
+
+    private final GameRegistry registry = new GameRegistry(0);
+    private final Connections connections = new Connections(registry);
+
+    private static GameCreateEvent newGame() {
+        return new GameCreateEvent(Fen.parseGame(Fen.DEFAULT));
+    }
+
+    private static PieceMoveEvent e2e4(GameContext context) {
+        Chessboard chessboard = context.getGame().getChessboard();
+        return new PieceMoveEvent(new Move(chessboard, chessboard.getPiece(12), Position.fromIndex(28)));
+    }
+
+    private void assertCounts(int waiting, int active, long finished) {
+        assertEquals(waiting, registry.getWaitingGames(), "waiting");
+        assertEquals(active, registry.getActiveGames(), "active");
+        assertEquals(finished, registry.getFinishedGames(), "finished");
+    }
+
+    @Test
+    public void testUniqueIdentifiers() throws InterruptedException {
+        int threads = 8;
+        int games = 2000;
+        // Only the identifiers matter, the games can share a board
+        Game game = Fen.parseGame(Fen.DEFAULT);
+        Map<String, GameContext> created = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String prefix = "player" + i + "-";
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < games; j++) {
+                    GameContext context = registry.create(connections, game, prefix + j);
+                    assertNull(created.put(context.getGameIdentifier(), context));
+                }
+            });
+            thread.start();
+            workers.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        assertEquals(threads * games, created.size());
+        assertCounts(threads * games, 0, 0);
+        created.forEach((identifier, context) -> {
+            assertSame(context, registry.get(" " + identifier + " "));
+            assertTrue(identifier.length() >= GameRegistry.MIN_DIGITS);
+        });
+    }
+
+    @Test
+    public void testRandomIdentifier() {
+        for (int digits = GameRegistry.MIN_DIGITS; digits <= GameRegistry.MAX_DIGITS; digits++) {
+            for (int i = 0; i < 100; i++) {
+                String identifier = GameRegistry.randomIdentifier(digits);
+                assertEquals(digits, identifier.length(), identifier);
+                assertTrue(Long.parseLong(identifier) > 0, identifier);
+            }
+        }
+    }
+
+    @Test
+    public void testJoinAndEnd() {
+        TestConnection alice = new TestConnection(ALICE, connections);
+        TestConnection bob = new TestConnection(BOB, connections);
+        alice.receive(newGame());
+        GameContext context = alice.getGameContext();
+        String identifier = context.getGameIdentifier();
+        assertSame(context, registry.getByPlayer(ALICE));
+        assertCounts(1, 0, 0);
+
+        // Can't move before the opponent has joined
+        alice.receive(e2e4(context));
+        assertEquals("Waiting for an opponent.", alice.last(ChatEvent.class).getMessage());
+        assertNull(context.getGame().getChessboard().getPiece(28));
+
+        bob.receive(new GameJoinEvent("bob", identifier));
+        assertSame(context, bob.getGameContext());
+        assertEquals(GameContext.State.ACTIVE, context.getState());
+        assertSame(context, registry.getByPlayer(BOB));
+        assertCounts(0, 1, 0);
+        assertNotNull(bob.last(GameCreateEvent.class));
+        assertEquals("bob joined the game", alice.last(ChatEvent.class).getMessage());
+
+        TestConnection carol = new TestConnection("cccccccccccccccc", connections);
+        carol.receive(new GameJoinEvent("carol", identifier));
+        assertNull(carol.getGameContext());
+        assertEquals("The game has already started!", carol.last(ChatEvent.class).getMessage());
+
+        alice.receive(e2e4(context));
+        assertNotNull(bob.last(PieceMoveEvent.class));
+        bob.receive(new SurrenderEvent());
+        assertEquals(Game.GameResult.BLACK_SURRENDERS, alice.last(GameEndEvent.class).getGameResult());
+        assertEquals(Game.GameResult.BLACK_SURRENDERS, bob.last(GameEndEvent.class).getGameResult());
+        assertEquals(GameContext.State.FINISHED, context.getState());
+        assertNull(registry.get(identifier));
+        assertNull(registry.getByPlayer(ALICE));
+        assertNull(registry.getByPlayer(BOB));
+        assertCounts(0, 0, 1);
+
+        // The game has ended
+        String fen = Fen.toString(context.getGame().getChessboard());
+        int events = bob.received.size();
+        bob.receive(new PieceMoveEvent(new Move(context.getGame().getChessboard(),
+                context.getGame().getChessboard().getPiece(52), Position.fromIndex(36))));
+        alice.receive(new DrawOfferEvent());
+        alice.receive(new SurrenderEvent());
+        assertEquals(fen, Fen.toString(context.getGame().getChessboard()));
+        assertEquals("The game has ended.", bob.last(ChatEvent.class).getMessage());
+        assertEquals(events + 1, bob.received.size());
+        assertCounts(0, 0, 1);
+    }
+
+    @Test
+    public void testLeaveWaitingGame() {
+        TestConnection alice = new TestConnection(ALICE, connections);
+        alice.receive(newGame());
+        String first = alice.getGameContext().getGameIdentifier();
+        // A new game abandons the previous one
+        alice.receive(newGame());
+        assertNull(registry.get(first));
+        assertCounts(1, 0, 1);
+
+        String second = alice.getGameContext().getGameIdentifier();
+        alice.close();
+        assertNull(registry.get(second));
+        assertNull(connections.getConnectionByToken(ALICE));
+        assertCounts(0, 0, 2);
+    }
+
+    @Test
+    public void testBothLeave() {
+        TestConnection alice = new TestConnection(ALICE, connections);
+        TestConnection bob = new TestConnection(BOB, connections);
+        alice.receive(newGame());
+        GameContext context = alice.getGameContext();
+        bob.receive(new GameJoinEvent("bob", context.getGameIdentifier()));
+
+        alice.close();
+        assertNull(connections.getConnectionByToken(ALICE));
+        // Bob is still playing
+        assertCounts(0, 1, 0);
+        bob.close();
+        assertNull(connections.getConnectionByToken(BOB));
+        assertEquals(GameContext.State.FINISHED, context.getState());
+        assertNull(registry.get(context.getGameIdentifier()));
+        assertCounts(0, 0, 1);
+    }
+
+    @Test
+    public void testReconnect() {
+        GameRegistry registry = new GameRegistry(60_000);
+        Connections connections = new Connections(registry);
+        TestConnection alice = new TestConnection(ALICE, connections);
+        TestConnection bob = new TestConnection(BOB, connections);
+        alice.receive(newGame());
+        GameContext context = alice.getGameContext();
+        bob.receive(new GameJoinEvent("bob", context.getGameIdentifier()));
+        alice.close();
+        bob.close();
+        // Kept until the timeout
+        assertSame(context, registry.get(context.getGameIdentifier()));
+
+        TestConnection reconnected = new TestConnection("temporarytoken00", connections);
+        reconnected.receive(new TokenTransmitEvent(ALICE));
+        assertSame(context, reconnected.getGameContext());
+        assertNotNull(reconnected.last(GameCreateEvent.class));
+        assertSame(reconnected, connections.getConnectionByToken(ALICE));
+        assertNull(connections.getConnectionByToken("temporarytoken00"));
+
+        // The timeout does not end the game as Alice is back
+        context.abandonIfLeft();
+        assertEquals(GameContext.State.ACTIVE, context.getState());
+        reconnected.close();
+        context.abandonIfLeft();
+        assertEquals(GameContext.State.FINISHED, context.getState());
+        assertEquals(1, registry.getFinishedGames());
+    }
+}
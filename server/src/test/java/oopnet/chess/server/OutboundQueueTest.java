@@ -0,0 +1,103 @@
+package oopnet.chess.server;
+
+import oopnet.chess.core.Game;
+import oopnet.chess.core.event.ChatEvent;
+import oopnet.chess.core.event.GameEndEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundQueueTest {
+
+    private static final String TOKEN = "aaaaaaaaaaaaaaaa";
+
+    @Test
+    public void testLimits() {
+        OutboundQueue queue = new OutboundQueue(new OutboundQueue.Limits(3, 100, true));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(queue.offer(ByteBuffer.allocate(10)));
+        }
+        // Too many events
+        assertFalse(queue.offer(ByteBuffer.allocate(1)));
+        assertEquals(3, queue.size());
+        assertEquals(30, queue.getBytes());
+
+        List<ByteBuffer> batch = new ArrayList<>();
+        queue.drain(batch, 2);
+        assertEquals(2, batch.size());
+        assertEquals(1, queue.size());
+        assertEquals(10, queue.getBytes());
+        // Too many bytes
+        assertFalse(queue.offer(ByteBuffer.allocate(91)));
+        assertTrue(queue.offer(ByteBuffer.allocate(90)));
+        assertEquals(100, queue.getBytes());
+
+        ByteBuffer[] peeked = new ByteBuffer[4];
+        assertEquals(2, queue.peek(peeked));
+        assertEquals(90, peeked[1].limit());
+        queue.remove();
+        assertEquals(1, queue.size());
+        queue.clear();
+        assertEquals(0, queue.size());
+        assertEquals(0, queue.getBytes());
+        // Removing from an empty queue does nothing
+        queue.remove();
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testDisconnect() {
+        Connections connections = new Connections();
+        TestConnection connection = new TestConnection(TOKEN, connections,
+                new OutboundQueue.Limits(2, 1 << 20, true), false);
+        connection.sendEvent(new ChatEvent("Server", "1"));
+        connection.sendEvent(new ChatEvent("Server", "2"));
+        assertFalse(connection.isClosed());
+        connection.sendEvent(new ChatEvent("Server", "3"));
+        assertTrue(connection.isClosed());
+        assertEquals(0, connection.getOutbound().size());
+        assertNull(connections.getConnectionByToken(TOKEN));
+    }
+
+    @Test
+    public void testDrop() {
+        Connections connections = new Connections();
+        TestConnection connection = new TestConnection(TOKEN, connections,
+                new OutboundQueue.Limits(2, 1 << 20, false), false);
+        connection.sendEvent(new ChatEvent("Server", "1"));
+        connection.sendEvent(new ChatEvent("Server", "2"));
+        // Chat messages are dropped
+        connection.sendEvent(new ChatEvent("Server", "3"));
+        assertFalse(connection.isClosed());
+        assertEquals(2, connection.getOutbound().size());
+        // Other events are not, the client would lose track of the game
+        connection.sendEvent(new GameEndEvent(Game.GameResult.DRAW));
+        assertTrue(connection.isClosed());
+        assertNull(connections.getConnectionByToken(TOKEN));
+    }
+
+    @Test
+    public void testFromProperties() {
+        Properties properties = new Properties();
+        OutboundQueue.Limits limits = OutboundQueue.Limits.fromProperties(properties);
+        assertEquals(1024, limits.getMaxEvents());
+        assertEquals(1 << 20, limits.getMaxBytes());
+        assertTrue(limits.isDisconnect());
+
+        properties.setProperty("outbound.maxEvents", "10");
+        properties.setProperty("outbound.maxBytes", "2000");
+        properties.setProperty("outbound.overflow", "Drop");
+        limits = OutboundQueue.Limits.fromProperties(properties);
+        assertEquals(10, limits.getMaxEvents());
+        assertEquals(2000, limits.getMaxBytes());
+        assertFalse(limits.isDisconnect());
+
+        properties.setProperty("outbound.overflow", "block");
+        assertThrows(IllegalArgumentException.class, () -> OutboundQueue.Limits.fromProperties(properties));
+    }
+}
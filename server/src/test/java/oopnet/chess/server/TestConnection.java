@@ -0,0 +1,85 @@
+package oopnet.chess.server;
+
+import oopnet.chess.core.event.Event;
+import oopnet.chess.core.event.EventFrames;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link ClientConnection} without a socket. The events sent to it are decoded to a list, or left in the queue if it
+ * does not read.
+ */
+class TestConnection extends ClientConnection {
+
+    static final OutboundQueue.Limits LIMITS = new OutboundQueue.Limits(1024, 1 << 20, true);
+
+    final List<Event> received = new ArrayList<>();
+    private final boolean reading;
+    private boolean closed;
+
+    TestConnection(String token, Connections connections) {
+        this(token, connections, LIMITS, true);
+    }
+
+    TestConnection(String token, Connections connections, OutboundQueue.Limits limits, boolean reading) {
+        super(token, connections, limits);
+        this.reading = reading;
+        connections.setConnectionToken(token, this);
+    }
+
+    /**
+     * Handle an event as if the client had sent it
+     */
+    void receive(Event event) {
+        handleEvent(event);
+    }
+
+    /**
+     * @return the latest event of the type or null
+     */
+    <T extends Event> T last(Class<T> type) {
+        for (int i = received.size() - 1; i >= 0; i--) {
+            if (type.isInstance(received.get(i))) {
+                return type.cast(received.get(i));
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected void onQueued() {
+        if (!reading) {
+            return;
+        }
+        List<ByteBuffer> frames = new ArrayList<>();
+        getOutbound().drain(frames, Integer.MAX_VALUE);
+        for (ByteBuffer frame : frames) {
+            try {
+                received.add(EventFrames.read(new DataInputStream(new ByteArrayInputStream(frame.array(), 0,
+                        frame.limit()))));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            getOutbound().clear();
+            handleClose();
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+}